@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 the original author or authors.
+ * Copyright 2016-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -39,6 +39,7 @@ import org.springframework.boot.loader.jar.JarFile;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.util.MultiValueMap;
 import org.springframework.util.StringUtils;
 
 /**
@@ -46,7 +47,8 @@ import org.springframework.util.StringUtils;
  * Spring Boot uber-jars.
  * <p>
  * Supports Boot 1.3 and 1.4+ layouts thanks to a pluggable BootClassLoaderCreation
- * strategy.
+ * strategy. Properties of an app {@link Resource} are listed from the metadata entries
+ * read by a {@link BootArchiveEntryReader}, without creating a class loader.
  *
  * @author Eric Bottard
  */
@@ -56,6 +58,16 @@ public class BootApplicationConfigurationMetadataResolver extends ApplicationCon
 
 	private static final String WHITELIST_PROPERTIES = "classpath*:/META-INF/spring-configuration-metadata-whitelist.properties";
 
+	/**
+	 * Location of the configuration metadata of an app, relative to its class path.
+	 */
+	public static final String CONFIGURATION_METADATA_ENTRY = "META-INF/spring-configuration-metadata.json";
+
+	/**
+	 * Location of the whitelisted properties of an app, relative to its class path.
+	 */
+	public static final String WHITELIST_PROPERTIES_ENTRY = "META-INF/spring-configuration-metadata-whitelist.properties";
+
 	private static final String CONFIGURATION_PROPERTIES_CLASSES = "configuration-properties.classes";
 
 	private static final String CONFIGURATION_PROPERTIES_NAMES = "configuration-properties.names";
@@ -64,8 +76,17 @@ public class BootApplicationConfigurationMetadataResolver extends ApplicationCon
 
 	private final Set<String> globalWhiteListedClasses = new HashSet<>();
 
+	/**
+	 * Whether the global white lists have been read, which is deferred to the first
+	 * listing as scanning the class path is slow and not needed to start the server.
+	 */
+	private volatile boolean globalWhiteListsLoaded;
+
 	private final ClassLoader parent;
 
+	private final BootArchiveEntryReader entryReader = new BootArchiveEntryReader(
+			Arrays.asList(CONFIGURATION_METADATA_ENTRY, WHITELIST_PROPERTIES_ENTRY));
+
 	public BootApplicationConfigurationMetadataResolver() {
 		this(null);
 	}
@@ -73,13 +94,26 @@ public class BootApplicationConfigurationMetadataResolver extends ApplicationCon
 	public BootApplicationConfigurationMetadataResolver(ClassLoader parent) {
 		this.parent = parent;
 		JarFile.registerUrlProtocolHandler();
-		try {
-			Resource[] globalResources = new PathMatchingResourcePatternResolver(
-					ApplicationConfigurationMetadataResolver.class.getClassLoader()).getResources(WHITELIST_PROPERTIES);
-			loadWhiteLists(globalResources, globalWhiteListedClasses, globalWhiteListedProperties);
+	}
+
+	private void loadGlobalWhiteLists() {
+		if (this.globalWhiteListsLoaded) {
+			return;
 		}
-		catch (IOException e) {
-			throw new RuntimeException("Error reading global white list of configuration properties", e);
+		synchronized (this.globalWhiteListedClasses) {
+			if (this.globalWhiteListsLoaded) {
+				return;
+			}
+			try {
+				Resource[] globalResources = new PathMatchingResourcePatternResolver(
+						ApplicationConfigurationMetadataResolver.class.getClassLoader())
+								.getResources(WHITELIST_PROPERTIES);
+				loadWhiteLists(globalResources, globalWhiteListedClasses, globalWhiteListedProperties);
+			}
+			catch (IOException e) {
+				throw new RuntimeException("Error reading global white list of configuration properties", e);
+			}
+			this.globalWhiteListsLoaded = true;
 		}
 	}
 
@@ -92,68 +126,86 @@ public class BootApplicationConfigurationMetadataResolver extends ApplicationCon
 	 * supported as well
 	 */
 	public List<ConfigurationMetadataProperty> listProperties(Resource app, boolean exhaustive) {
+		if (app == null) {
+			return Collections.emptyList();
+		}
+		MultiValueMap<String, Resource> entries;
 		try {
-			if (app != null) {
-				Archive archive = resolveAsArchive(app);
-				return listProperties(archive, exhaustive);
-			}
+			entries = this.entryReader.read(app.getFile());
 		}
 		catch (IOException e) {
-			throw new RuntimeException("Failed to resolve application resource: " + app.getDescription());
+			throw new RuntimeException("Failed to resolve application resource: " + app.getDescription(), e);
+		}
+		try {
+			return listProperties(descriptors(entries, WHITELIST_PROPERTIES_ENTRY),
+					descriptors(entries, CONFIGURATION_METADATA_ENTRY), exhaustive);
+		}
+		catch (Exception e) {
+			throw new RuntimeException(
+					"Exception trying to list configuration properties for application " + app.getDescription(), e);
 		}
-
-		return Collections.emptyList();
 	}
 
 	public List<ConfigurationMetadataProperty> listProperties(Archive archive, boolean exhaustive) {
 		try (URLClassLoader moduleClassLoader = new BootClassLoaderFactory(archive, parent).createClassLoader()) {
-			List<ConfigurationMetadataProperty> result = new ArrayList<>();
 			ResourcePatternResolver moduleResourceLoader = new PathMatchingResourcePatternResolver(moduleClassLoader);
-			Collection<String> whiteListedClasses = new HashSet<>(globalWhiteListedClasses);
-			Collection<String> whiteListedProperties = new HashSet<>(globalWhiteListedProperties);
-			Resource[] whitelistDescriptors = moduleResourceLoader.getResources(WHITELIST_PROPERTIES);
-			boolean include = (whitelistDescriptors.length == 0) || exhaustive;
-			// when no descriptors return everything
-			loadWhiteLists(whitelistDescriptors, whiteListedClasses, whiteListedProperties);
-			ConfigurationMetadataRepositoryJsonBuilder builder = ConfigurationMetadataRepositoryJsonBuilder.create();
-			for (Resource r : moduleResourceLoader.getResources(CONFIGURATION_METADATA_PATTERN)) {
-				builder.withJsonResource(r.getInputStream());
-			}
-			for (ConfigurationMetadataGroup group : builder.build().getAllGroups().values()) {
-				if (include || isWhiteListed(group, whiteListedClasses)) {
-					for (ConfigurationMetadataProperty property : group.getProperties().values()) {
-						if (!isDeprecatedError(property)) {
-							result.add(property);
-						}
+			return listProperties(moduleResourceLoader.getResources(WHITELIST_PROPERTIES),
+					moduleResourceLoader.getResources(CONFIGURATION_METADATA_PATTERN), exhaustive);
+		}
+		catch (Exception e) {
+			throw new RuntimeException("Exception trying to list configuration properties for application " + archive,
+					e);
+		}
+	}
+
+	private List<ConfigurationMetadataProperty> listProperties(Resource[] whitelistDescriptors,
+			Resource[] metadataDescriptors, boolean exhaustive) throws IOException {
+		List<ConfigurationMetadataProperty> result = new ArrayList<>();
+		loadGlobalWhiteLists();
+		Collection<String> whiteListedClasses = new HashSet<>(globalWhiteListedClasses);
+		Collection<String> whiteListedProperties = new HashSet<>(globalWhiteListedProperties);
+		boolean include = (whitelistDescriptors.length == 0) || exhaustive;
+		// when no descriptors return everything
+		loadWhiteLists(whitelistDescriptors, whiteListedClasses, whiteListedProperties);
+		ConfigurationMetadataRepositoryJsonBuilder builder = ConfigurationMetadataRepositoryJsonBuilder.create();
+		for (Resource r : metadataDescriptors) {
+			builder.withJsonResource(r.getInputStream());
+		}
+		for (ConfigurationMetadataGroup group : builder.build().getAllGroups().values()) {
+			if (include || isWhiteListed(group, whiteListedClasses)) {
+				for (ConfigurationMetadataProperty property : group.getProperties().values()) {
+					if (!isDeprecatedError(property)) {
+						result.add(property);
 					}
+				}
 
-				} // Props in the root group have an id that looks prefixed itself. Handle
-				// here
-				else if ("_ROOT_GROUP_".equals(group.getId())) {
-					for (ConfigurationMetadataProperty property : group.getProperties().values()) {
-						if (isWhiteListed(property, whiteListedProperties)) {
-							if (!isDeprecatedError(property)) {
-								result.add(property);
-							}
+			} // Props in the root group have an id that looks prefixed itself. Handle
+			// here
+			else if ("_ROOT_GROUP_".equals(group.getId())) {
+				for (ConfigurationMetadataProperty property : group.getProperties().values()) {
+					if (isWhiteListed(property, whiteListedProperties)) {
+						if (!isDeprecatedError(property)) {
+							result.add(property);
 						}
 					}
 				}
-				else { // Look for per property WL
-					for (ConfigurationMetadataProperty property : group.getProperties().values()) {
-						if (isWhiteListed(property, whiteListedProperties)) {
-							if (!isDeprecatedError(property)) {
-								result.add(property);
-							}
+			}
+			else { // Look for per property WL
+				for (ConfigurationMetadataProperty property : group.getProperties().values()) {
+					if (isWhiteListed(property, whiteListedProperties)) {
+						if (!isDeprecatedError(property)) {
+							result.add(property);
 						}
 					}
 				}
 			}
-			return result;
-		}
-		catch (Exception e) {
-			throw new RuntimeException("Exception trying to list configuration properties for application " + archive,
-					e);
 		}
+		return result;
+	}
+
+	private static Resource[] descriptors(MultiValueMap<String, Resource> entries, String name) {
+		List<Resource> descriptors = entries.get(name);
+		return descriptors == null ? new Resource[0] : descriptors.toArray(new Resource[descriptors.size()]);
 	}
 
 	@Override
@@ -0,0 +1,523 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.configuration.metadata;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.util.Assert;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+/**
+ * Reads a fixed set of entries from a Spring Boot uber-jar, and from the jars nested in
+ * it, in the order in which the class loader of the app would find them.
+ * <p>
+ * The jar is read through a file channel, and only its central directory is parsed. Nested
+ * jars are stored uncompressed in an uber-jar, so their central directory is read in
+ * place, and the content of an entry is only read when its name matches. No class loader is created
+ * and no temporary file is written, which makes this much cheaper than resolving the
+ * entries through a {@link BootClassLoaderFactory class loader}.
+ * <p>
+ * The same parsing is used to {@link #verify(File) check} that an archive is well formed,
+ * and to {@link #digest(File) identify} its content by its central directory.
+ * <p>
+ * Both the Boot 1.3 ({@code lib/}) and the Boot 1.4+ ({@code BOOT-INF/lib/},
+ * {@code BOOT-INF/classes/}) layouts are supported, as well as exploded directories. Zip64
+ * archives are not.
+ */
+public class BootArchiveEntryReader {
+
+	private static final String BOOT_13_LIBS_LOCATION = "lib/";
+
+	private static final String BOOT_14_LIBS_LOCATION = "BOOT-INF/lib/";
+
+	private static final String BOOT_14_CLASSES_LOCATION = "BOOT-INF/classes/";
+
+	private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+
+	private static final int CENTRAL_DIRECTORY_SIGNATURE = 0x02014b50;
+
+	private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+
+	private static final int END_OF_CENTRAL_DIRECTORY_SIZE = 22;
+
+	private static final int STORED = 0;
+
+	private static final int DEFLATED = 8;
+
+	private final List<String> names;
+
+	private final byte[][] nameBytes;
+
+	/**
+	 * @param names the names of the entries to read, as seen from the class path of the app
+	 */
+	public BootArchiveEntryReader(Collection<String> names) {
+		Assert.notEmpty(names, "names must not be empty");
+		this.names = new ArrayList<>(names);
+		this.nameBytes = new byte[this.names.size()][];
+		for (int i = 0; i < this.names.size(); i++) {
+			this.nameBytes[i] = this.names.get(i).getBytes(StandardCharsets.UTF_8);
+		}
+	}
+
+	/**
+	 * Read the entries from the given uber-jar or exploded directory.
+	 *
+	 * @param archive the archive
+	 * @return the content of the matching entries by name, in class path order
+	 * @throws IOException if the archive can not be read or is corrupt
+	 */
+	public MultiValueMap<String, Resource> read(File archive) throws IOException {
+		MultiValueMap<String, Resource> entries = new LinkedMultiValueMap<>();
+		try {
+			if (archive.isDirectory()) {
+				readDirectory(archive, entries);
+			}
+			else {
+				try (FileChannel channel = open(archive.toPath())) {
+					readUberJar(new Region(channel, archive.getName()), archive.getName(), entries);
+				}
+			}
+		}
+		catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+			throw new IOException("Corrupt archive " + archive.getName(), e);
+		}
+		return entries;
+	}
+
+	/**
+	 * Check that the given uber-jar and the jars nested in it are well formed, reading
+	 * their central directory and the local header of every entry, but no entry content.
+	 * Exploded directories are not checked.
+	 *
+	 * @param archive the archive
+	 * @throws IOException if the archive can not be read or is corrupt
+	 */
+	public void verify(File archive) throws IOException {
+		if (archive.isDirectory()) {
+			return;
+		}
+		String description = archive.getName();
+		try (FileChannel channel = open(archive.toPath())) {
+			Region jar = new Region(channel, description);
+			List<Entry> entries = centralDirectory(jar, description, true);
+			String libsLocation = BOOT_13_LIBS_LOCATION;
+			for (Entry entry : entries) {
+				if (entry.name != null && entry.name.startsWith(BOOT_14_LIBS_LOCATION)) {
+					libsLocation = BOOT_14_LIBS_LOCATION;
+				}
+			}
+			for (Entry entry : entries) {
+				long start = dataOffset(jar, entry, description);
+				if (entry.name != null && entry.name.startsWith(libsLocation) && entry.name.endsWith(".jar")) {
+					if (entry.method != STORED) {
+						throw new IOException("Nested jar " + entry.name + " in " + description
+								+ " is compressed, nested jars must be stored without compression");
+					}
+					String nestedDescription = description + "!/" + entry.name;
+					Region nested = jar.region(start, entry.compressedSize, nestedDescription);
+					for (Entry nestedEntry : centralDirectory(nested, nestedDescription, true)) {
+						dataOffset(nested, nestedEntry, nestedDescription);
+					}
+				}
+			}
+		}
+		catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+			throw new IOException("Corrupt archive " + description, e);
+		}
+	}
+
+	/**
+	 * Return a digest of the central directory of the given jar. As the central directory
+	 * holds the name, size and CRC-32 of every entry, the digest identifies the content of
+	 * the jar without reading it.
+	 *
+	 * @param archive the archive
+	 * @return the SHA-256 digest of the central directory, or {@code null} for an exploded
+	 * directory
+	 * @throws IOException if the archive can not be read
+	 */
+	public String digest(File archive) throws IOException {
+		if (archive.isDirectory()) {
+			return null;
+		}
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		try (FileChannel channel = open(archive.toPath())) {
+			Region jar = new Region(channel, archive.getName());
+			long endOfCentralDirectory = endOfCentralDirectory(jar, archive.getName());
+			long offset = unsignedInt(jar.read(endOfCentralDirectory, END_OF_CENTRAL_DIRECTORY_SIZE), 16);
+			digest.update(jar.read(offset, (int) (endOfCentralDirectory + END_OF_CENTRAL_DIRECTORY_SIZE - offset)));
+		}
+		StringBuilder hex = new StringBuilder();
+		for (byte b : digest.digest()) {
+			hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		}
+		return hex.toString();
+	}
+
+	private void readDirectory(File directory, MultiValueMap<String, Resource> entries) throws IOException {
+		for (String location : Arrays.asList("", BOOT_14_CLASSES_LOCATION)) {
+			for (String name : this.names) {
+				File file = new File(directory, location + name);
+				if (file.isFile()) {
+					entries.add(name, new ByteArrayResource(Files.readAllBytes(file.toPath()), file.getPath()));
+				}
+			}
+		}
+		File libs = new File(directory, BOOT_14_LIBS_LOCATION);
+		if (!libs.isDirectory()) {
+			libs = new File(directory, BOOT_13_LIBS_LOCATION);
+		}
+		File[] jars = libs.listFiles((dir, name) -> name.endsWith(".jar"));
+		if (jars != null) {
+			Arrays.sort(jars);
+			for (File jar : jars) {
+				try (FileChannel channel = open(jar.toPath())) {
+					readJar(new Region(channel, jar.getPath()), jar.getPath(), entries);
+				}
+			}
+		}
+	}
+
+	private void readUberJar(Region jar, String description, MultiValueMap<String, Resource> entries)
+			throws IOException {
+		List<Entry> nestedJars = new ArrayList<>();
+		List<Entry> own = new ArrayList<>();
+		List<Entry> classes = new ArrayList<>();
+		boolean boot14Layout = false;
+		for (Entry entry : centralDirectory(jar, description, false)) {
+			String name = entry.name;
+			if (name.startsWith(BOOT_14_LIBS_LOCATION) || name.startsWith(BOOT_13_LIBS_LOCATION)) {
+				boot14Layout |= name.startsWith(BOOT_14_LIBS_LOCATION);
+				if (name.endsWith(".jar")) {
+					nestedJars.add(entry);
+				}
+			}
+			else if (name.startsWith(BOOT_14_CLASSES_LOCATION)) {
+				if (this.names.contains(name.substring(BOOT_14_CLASSES_LOCATION.length()))) {
+					classes.add(entry);
+				}
+			}
+			else if (this.names.contains(name)) {
+				own.add(entry);
+			}
+		}
+		String libsLocation = boot14Layout ? BOOT_14_LIBS_LOCATION : BOOT_13_LIBS_LOCATION;
+		for (Entry entry : own) {
+			entries.add(entry.name, resource(jar, entry, description));
+		}
+		for (Entry entry : classes) {
+			entries.add(entry.name.substring(BOOT_14_CLASSES_LOCATION.length()), resource(jar, entry, description));
+		}
+		for (Entry entry : nestedJars) {
+			if (entry.name.startsWith(libsLocation)) {
+				readJar(content(jar, entry, description), description + "!/" + entry.name, entries);
+			}
+		}
+	}
+
+	private void readJar(Region jar, String description, MultiValueMap<String, Resource> entries)
+			throws IOException {
+		for (Entry entry : centralDirectory(jar, description, false)) {
+			if (this.names.contains(entry.name)) {
+				entries.add(entry.name, resource(jar, entry, description));
+			}
+		}
+	}
+
+	/**
+	 * Parse the central directory of a jar. Only nested jars and entries whose name ends
+	 * with one of the requested names are returned, unless {@code all} is set, in which
+	 * case the other entries are returned too, without a name.
+	 */
+	private List<Entry> centralDirectory(Region jar, String description, boolean all) throws IOException {
+		long endOfCentralDirectory = endOfCentralDirectory(jar, description);
+		ByteBuffer end = jar.read(endOfCentralDirectory, END_OF_CENTRAL_DIRECTORY_SIZE);
+		int count = unsignedShort(end, 10);
+		long offset = unsignedInt(end, 16);
+		ByteBuffer directory = jar.read(offset, (int) (endOfCentralDirectory - offset));
+		int position = 0;
+		List<Entry> entries = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			if (position + 46 > directory.limit() || directory.getInt(position) != CENTRAL_DIRECTORY_SIGNATURE) {
+				throw new IOException("Corrupt central directory in " + description);
+			}
+			int nameLength = unsignedShort(directory, position + 28);
+			int nameOffset = position + 46;
+			if (nameOffset + nameLength > directory.limit()) {
+				throw new IOException("Corrupt central directory in " + description);
+			}
+			boolean candidate = isCandidate(directory, nameOffset, nameLength);
+			if (candidate || all) {
+				String name = null;
+				if (candidate) {
+					byte[] bytes = new byte[nameLength];
+					for (int j = 0; j < nameLength; j++) {
+						bytes[j] = directory.get(nameOffset + j);
+					}
+					name = new String(bytes, StandardCharsets.UTF_8);
+				}
+				entries.add(new Entry(name, unsignedShort(directory, position + 10),
+						unsignedInt(directory, position + 20), unsignedInt(directory, position + 24),
+						unsignedInt(directory, position + 42)));
+			}
+			position = nameOffset + nameLength + unsignedShort(directory, position + 30)
+					+ unsignedShort(directory, position + 32);
+		}
+		return entries;
+	}
+
+	/**
+	 * Return the position of the end of central directory record, looking at the last bytes
+	 * of the jar first as the record ends jars without a comment.
+	 */
+	private static long endOfCentralDirectory(Region jar, String description) throws IOException {
+		for (int window : new int[] { END_OF_CENTRAL_DIRECTORY_SIZE, END_OF_CENTRAL_DIRECTORY_SIZE + 0xFFFF }) {
+			int length = (int) Math.min(jar.length, window);
+			long start = jar.length - length;
+			ByteBuffer tail = jar.read(start, length);
+			for (int i = length - END_OF_CENTRAL_DIRECTORY_SIZE; i >= 0; i--) {
+				if (tail.getInt(i) == END_OF_CENTRAL_DIRECTORY_SIGNATURE) {
+					if (unsignedShort(tail, i + 10) == 0xFFFF || unsignedInt(tail, i + 16) == 0xFFFFFFFFL) {
+						throw new IOException("Zip64 archives are not supported: " + description);
+					}
+					if (unsignedInt(tail, i + 16) + unsignedInt(tail, i + 12) > start + i) {
+						throw new IOException("Corrupt central directory in " + description);
+					}
+					return start + i;
+				}
+			}
+		}
+		throw new IOException("Not a zip archive: " + description);
+	}
+
+	/**
+	 * Return whether an entry name may be of interest, without decoding it: names of
+	 * entries in nested jars mostly are class files, of which there are thousands.
+	 */
+	private boolean isCandidate(ByteBuffer jar, int offset, int length) {
+		for (byte[] name : this.nameBytes) {
+			if (endsWith(jar, offset, length, name)) {
+				return true;
+			}
+		}
+		return length > 4 && jar.get(offset + length - 4) == '.' && jar.get(offset + length - 3) == 'j'
+				&& jar.get(offset + length - 2) == 'a' && jar.get(offset + length - 1) == 'r';
+	}
+
+	private static boolean endsWith(ByteBuffer jar, int offset, int length, byte[] suffix) {
+		if (length < suffix.length) {
+			return false;
+		}
+		int start = offset + length - suffix.length;
+		for (int i = 0; i < suffix.length; i++) {
+			if (jar.get(start + i) != suffix[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static Resource resource(Region jar, Entry entry, String description) throws IOException {
+		Region region = content(jar, entry, description);
+		ByteBuffer content = region.read(0, (int) region.length);
+		byte[] bytes = new byte[content.remaining()];
+		content.get(bytes);
+		return new ByteArrayResource(bytes, entry.name + " in " + description);
+	}
+
+	/**
+	 * Return the uncompressed content of an entry, as a region of the jar if it is stored.
+	 */
+	private static Region content(Region jar, Entry entry, String description) throws IOException {
+		long start = dataOffset(jar, entry, description);
+		if (entry.method == STORED) {
+			return jar.region(start, entry.compressedSize, description);
+		}
+		if (entry.method != DEFLATED) {
+			throw new IOException("Unsupported compression method for " + entry.name + " in " + description);
+		}
+		ByteBuffer data = jar.read(start, (int) entry.compressedSize);
+		byte[] compressed = new byte[data.remaining()];
+		data.get(compressed);
+		byte[] uncompressed = new byte[(int) entry.size];
+		Inflater inflater = new Inflater(true);
+		try {
+			inflater.setInput(compressed);
+			int read = 0;
+			while (read < uncompressed.length && !inflater.finished()) {
+				int inflated = inflater.inflate(uncompressed, read, uncompressed.length - read);
+				if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					break;
+				}
+				read += inflated;
+			}
+			if (read != uncompressed.length) {
+				throw new IOException("Truncated entry " + entry.name + " in " + description);
+			}
+		}
+		catch (DataFormatException e) {
+			throw new IOException("Corrupt entry " + entry.name + " in " + description, e);
+		}
+		finally {
+			inflater.end();
+		}
+		return new Region(ByteBuffer.wrap(uncompressed), description);
+	}
+
+	/**
+	 * Return the offset of the data of an entry, checking its local header.
+	 */
+	private static long dataOffset(Region jar, Entry entry, String description) throws IOException {
+		long header = entry.localHeaderOffset;
+		if (header + 30 > jar.length) {
+			throw new IOException("Corrupt local header for " + entry.describe() + " in " + description);
+		}
+		ByteBuffer localHeader = jar.read(header, 30);
+		if (localHeader.getInt(0) != LOCAL_HEADER_SIGNATURE) {
+			throw new IOException("Corrupt local header for " + entry.describe() + " in " + description);
+		}
+		long start = header + 30 + unsignedShort(localHeader, 26) + unsignedShort(localHeader, 28);
+		if (start + entry.compressedSize > jar.length) {
+			throw new IOException("Truncated entry " + entry.describe() + " in " + description);
+		}
+		return start;
+	}
+
+	private static FileChannel open(Path file) throws IOException {
+		return FileChannel.open(file, StandardOpenOption.READ);
+	}
+
+	private static int unsignedShort(ByteBuffer buffer, int index) {
+		return buffer.getShort(index) & 0xFFFF;
+	}
+
+	private static long unsignedInt(ByteBuffer buffer, int index) {
+		return buffer.getInt(index) & 0xFFFFFFFFL;
+	}
+
+	private static class Entry {
+
+		private final String name;
+
+		private final int method;
+
+		private final long compressedSize;
+
+		private final long size;
+
+		private final long localHeaderOffset;
+
+		Entry(String name, int method, long compressedSize, long size, long localHeaderOffset) {
+			this.name = name;
+			this.method = method;
+			this.compressedSize = compressedSize;
+			this.size = size;
+			this.localHeaderOffset = localHeaderOffset;
+		}
+
+		String describe() {
+			return this.name != null ? this.name : "entry at " + this.localHeaderOffset;
+		}
+	}
+
+	/**
+	 * A part of a jar, either on disk and read through its channel on demand, or in memory
+	 * once inflated.
+	 */
+	private static class Region {
+
+		private final FileChannel channel;
+
+		private final ByteBuffer buffer;
+
+		private final String description;
+
+		private final long offset;
+
+		private final long length;
+
+		Region(FileChannel channel, String description) throws IOException {
+			this(channel, null, description, 0, channel.size());
+		}
+
+		Region(ByteBuffer buffer, String description) {
+			this(null, buffer, description, 0, buffer.limit());
+		}
+
+		private Region(FileChannel channel, ByteBuffer buffer, String description, long offset, long length) {
+			this.channel = channel;
+			this.buffer = buffer;
+			this.description = description;
+			this.offset = offset;
+			this.length = length;
+		}
+
+		Region region(long position, long length, String description) throws IOException {
+			check(position, length);
+			return new Region(this.channel, this.buffer, description, this.offset + position, length);
+		}
+
+		ByteBuffer read(long position, int length) throws IOException {
+			check(position, length);
+			if (this.buffer != null) {
+				ByteBuffer duplicate = this.buffer.duplicate();
+				duplicate.limit((int) (this.offset + position + length)).position((int) (this.offset + position));
+				return duplicate.slice().order(ByteOrder.LITTLE_ENDIAN);
+			}
+			ByteBuffer read = ByteBuffer.allocate(length);
+			while (read.hasRemaining()) {
+				if (this.channel.read(read, this.offset + position + read.position()) < 0) {
+					throw new IOException("Unexpected end of " + this.description);
+				}
+			}
+			read.flip();
+			return read.order(ByteOrder.LITTLE_ENDIAN);
+		}
+
+		private void check(long position, long length) throws IOException {
+			if (position < 0 || length < 0 || position + length > this.length) {
+				throw new IOException("Truncated archive " + this.description);
+			}
+		}
+	}
+}
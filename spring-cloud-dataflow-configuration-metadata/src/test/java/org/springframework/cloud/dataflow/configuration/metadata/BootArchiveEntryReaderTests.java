@@ -0,0 +1,251 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.configuration.metadata;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.springframework.boot.configurationmetadata.ConfigurationMetadataProperty;
+import org.springframework.boot.loader.archive.JarFileArchive;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.StreamUtils;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit tests for {@link BootArchiveEntryReader}.
+ */
+public class BootArchiveEntryReaderTests {
+
+	private static final String METADATA = "META-INF/spring-configuration-metadata.json";
+
+	private static final String WHITELIST = "META-INF/spring-configuration-metadata-whitelist.properties";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final BootArchiveEntryReader reader = new BootArchiveEntryReader(Arrays.asList(METADATA, WHITELIST));
+
+	@Test
+	public void entriesOfBoot14LayoutAreReadInClassPathOrder() throws IOException {
+		Map<String, byte[]> entries = new LinkedHashMap<>();
+		entries.put("BOOT-INF/classes/", new byte[0]);
+		entries.put("BOOT-INF/classes/" + WHITELIST, whitelist("com.example.FooProperties"));
+		entries.put("BOOT-INF/classes/" + METADATA, metadata("foo", "com.example.FooProperties"));
+		entries.put("BOOT-INF/classes/com/example/FooProperties.class", new byte[100]);
+		entries.put("BOOT-INF/lib/bar.jar", jar(metadataJar("bar", "com.example.BarProperties", 10), false));
+		entries.put("BOOT-INF/lib/baz.jar", jar(classesJar(10), false));
+		File app = write("app.jar", jar(entries, true));
+
+		MultiValueMap<String, Resource> read = reader.read(app);
+		assertThat(read.get(WHITELIST).size(), is(1));
+		assertThat(read.get(METADATA).size(), is(2));
+		assertThat(content(read.get(METADATA).get(0)), containsString("com.example.FooProperties"));
+		assertThat(content(read.get(METADATA).get(1)), containsString("com.example.BarProperties"));
+		assertThat(read.get(METADATA).get(1).getDescription(), containsString("BOOT-INF/lib/bar.jar"));
+	}
+
+	@Test
+	public void entriesOfBoot13LayoutAreRead() throws IOException {
+		Map<String, byte[]> entries = new LinkedHashMap<>();
+		entries.put(METADATA, metadata("foo", "com.example.FooProperties"));
+		entries.put("lib/bar.jar", jar(metadataJar("bar", "com.example.BarProperties", 10), true));
+		File app = write("app.jar", jar(entries, false));
+
+		MultiValueMap<String, Resource> read = reader.read(app);
+		assertThat(read.get(WHITELIST), nullValue());
+		assertThat(read.get(METADATA).size(), is(2));
+		assertThat(content(read.get(METADATA).get(1)), containsString("com.example.BarProperties"));
+	}
+
+	@Test
+	public void propertiesMatchThoseFoundThroughClassLoader() throws Exception {
+		File app = write("app.jar", uberJar(20, 50));
+		BootApplicationConfigurationMetadataResolver resolver = new BootApplicationConfigurationMetadataResolver();
+
+		for (boolean exhaustive : Arrays.asList(false, true)) {
+			List<String> expected = ids(resolver.listProperties(new JarFileArchive(app), exhaustive));
+			List<String> actual = ids(resolver.listProperties(new FileSystemResource(app), exhaustive));
+			assertThat(actual, is(expected));
+		}
+		assertThat(ids(resolver.listProperties(new FileSystemResource(app))),
+				contains("foo.property"));
+	}
+
+	@Test
+	public void wellFormedArchiveIsVerified() throws IOException {
+		reader.verify(write("app.jar", uberJar(5, 10)));
+		reader.verify(folder.newFolder("exploded"));
+	}
+
+	@Test(expected = IOException.class)
+	public void truncatedArchiveIsRejected() throws IOException {
+		byte[] app = uberJar(5, 10);
+		reader.verify(write("app.jar", Arrays.copyOf(app, app.length / 2)));
+	}
+
+	@Test(expected = IOException.class)
+	public void truncatedArchiveIsNotRead() throws IOException {
+		byte[] app = uberJar(5, 10);
+		reader.read(write("app.jar", Arrays.copyOf(app, app.length - 10)));
+	}
+
+	@Test(expected = IOException.class)
+	public void corruptNestedJarIsRejected() throws IOException {
+		byte[] nested = jar(classesJar(10), true);
+		Map<String, byte[]> entries = new LinkedHashMap<>();
+		entries.put("BOOT-INF/classes/", new byte[0]);
+		entries.put("BOOT-INF/lib/lib.jar", nested);
+		File app = write("app.jar", jar(entries, false));
+		reader.verify(app);
+
+		// overwrite the local header signature of the first class of the nested jar
+		nested[0] = 0;
+		entries.put("BOOT-INF/lib/lib.jar", nested);
+		reader.verify(write("app.jar", jar(entries, false)));
+	}
+
+	@Test
+	public void digestIdentifiesContent() throws IOException {
+		byte[] app = uberJar(5, 10);
+		String digest = reader.digest(write("app.jar", app));
+		assertThat(reader.digest(write("copy.jar", app)), is(digest));
+		assertThat(reader.digest(write("other.jar", uberJar(5, 11))), not(digest));
+		assertThat(reader.digest(folder.newFolder("exploded")), nullValue());
+	}
+
+	/**
+	 * Lists the properties of an uber-jar shaped like an app starter, a hundred nested jars
+	 * of a few hundred classes each, through a class loader and through the entry reader.
+	 */
+	@Test
+	public void starterSizedArchiveMatchesClassLoader() throws Exception {
+		File app = write("app.jar", uberJar(100, 300));
+		BootApplicationConfigurationMetadataResolver resolver = new BootApplicationConfigurationMetadataResolver();
+
+		List<String> expected = ids(resolver.listProperties(new JarFileArchive(app), true));
+		List<String> actual = ids(resolver.listProperties(new FileSystemResource(app), true));
+		assertThat(actual.size(), is(11));
+		assertThat(actual, is(expected));
+		assertThat(reader.read(app).get(METADATA).size(), is(11));
+	}
+
+	private byte[] uberJar(int nestedJars, int classesPerJar) throws IOException {
+		Map<String, byte[]> entries = new LinkedHashMap<>();
+		entries.put("BOOT-INF/classes/", new byte[0]);
+		entries.put("BOOT-INF/classes/" + WHITELIST, whitelist("com.example.FooProperties"));
+		entries.put("BOOT-INF/classes/" + METADATA, metadata("foo", "com.example.FooProperties"));
+		for (int i = 0; i < nestedJars; i++) {
+			Map<String, byte[]> nested = i % 10 == 0
+					? metadataJar("lib" + i, "com.example.Lib" + i + "Properties", classesPerJar)
+					: classesJar(classesPerJar);
+			entries.put("BOOT-INF/lib/lib" + i + ".jar", jar(nested, true));
+		}
+		return jar(entries, false);
+	}
+
+	private Map<String, byte[]> metadataJar(String prefix, String type, int classes) {
+		Map<String, byte[]> entries = classesJar(classes);
+		entries.put(METADATA, metadata(prefix, type));
+		return entries;
+	}
+
+	private Map<String, byte[]> classesJar(int classes) {
+		Map<String, byte[]> entries = new LinkedHashMap<>();
+		for (int i = 0; i < classes; i++) {
+			entries.put("com/example/lib/Class" + i + ".class", new byte[200]);
+		}
+		return entries;
+	}
+
+	private static byte[] metadata(String prefix, String type) {
+		return ("{\"groups\": [{\"name\": \"" + prefix + "\", \"type\": \"" + type + "\", \"sourceType\": \"" + type
+				+ "\"}], \"properties\": [{\"name\": \"" + prefix + ".property\", \"type\": \"java.lang.String\", "
+				+ "\"sourceType\": \"" + type + "\"}]}").getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static byte[] whitelist(String type) {
+		return ("configuration-properties.classes=" + type).getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Build a jar, storing nested jars uncompressed as Spring Boot does.
+	 */
+	private static byte[] jar(Map<String, byte[]> entries, boolean storeAll) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ZipOutputStream out = new ZipOutputStream(bytes)) {
+			for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+				ZipEntry zipEntry = new ZipEntry(entry.getKey());
+				if (storeAll || entry.getKey().endsWith(".jar")) {
+					CRC32 crc = new CRC32();
+					crc.update(entry.getValue());
+					zipEntry.setMethod(ZipEntry.STORED);
+					zipEntry.setSize(entry.getValue().length);
+					zipEntry.setCompressedSize(entry.getValue().length);
+					zipEntry.setCrc(crc.getValue());
+				}
+				out.putNextEntry(zipEntry);
+				out.write(entry.getValue());
+				out.closeEntry();
+			}
+		}
+		return bytes.toByteArray();
+	}
+
+	private File write(String name, byte[] content) throws IOException {
+		File file = new File(folder.getRoot(), name);
+		try (OutputStream out = new FileOutputStream(file)) {
+			out.write(content);
+		}
+		return file;
+	}
+
+	private static String content(Resource resource) throws IOException {
+		return StreamUtils.copyToString(resource.getInputStream(), StandardCharsets.UTF_8);
+	}
+
+	private static List<String> ids(List<ConfigurationMetadataProperty> properties) {
+		List<String> ids = new ArrayList<>();
+		for (ConfigurationMetadataProperty property : properties) {
+			ids.add(property.getId());
+		}
+		return ids;
+	}
+}
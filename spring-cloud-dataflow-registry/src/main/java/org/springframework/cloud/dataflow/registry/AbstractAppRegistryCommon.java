@@ -16,13 +16,17 @@
 
 package org.springframework.cloud.dataflow.registry;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -35,6 +39,7 @@ import org.springframework.cloud.dataflow.registry.domain.AppRegistration;
 import org.springframework.cloud.dataflow.registry.support.AppResourceCommon;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 
@@ -53,10 +58,22 @@ public abstract class AbstractAppRegistryCommon implements AppRegistryCommon {
 
 	private AppResourceCommon appResourceCommon;
 
+	private AsyncTaskExecutor importExecutor;
+
 	public AbstractAppRegistryCommon(AppResourceCommon appResourceService) {
 		this.appResourceCommon = appResourceService;
 	}
 
+	/**
+	 * Set the executor on which the entries of an import are parsed and validated. Without
+	 * one, they are parsed one after the other on the importing thread.
+	 *
+	 * @param importExecutor the executor of imports
+	 */
+	public void setImportExecutor(AsyncTaskExecutor importExecutor) {
+		this.importExecutor = importExecutor;
+	}
+
 	@Override
 	public Resource getAppResource(AppRegistration appRegistration) {
 		return this.appResourceCommon.getResource(appRegistration.getUri().toString());
@@ -67,6 +84,11 @@ public abstract class AbstractAppRegistryCommon implements AppRegistryCommon {
 		return this.appResourceCommon.getMetadataResource(appRegistration.getUri(), appRegistration.getMetadataUri());
 	}
 
+	@Override
+	public File getResourceFile(Resource resource) throws IOException {
+		return this.appResourceCommon.getFile(resource);
+	}
+
 	@Override
 	public String getResourceVersion(Resource resource) {
 		return this.appResourceCommon.getResourceVersion(resource);
@@ -89,6 +111,21 @@ public abstract class AbstractAppRegistryCommon implements AppRegistryCommon {
 	}
 
 
+	/**
+	 * Drop what is cached of the artifacts of the given registrations, to be called when
+	 * they are saved or deleted so that an artifact published again at the same URI is
+	 * picked up.
+	 *
+	 * @param appRegistrations the registrations whose artifacts are evicted
+	 */
+	protected void evictArtifacts(AppRegistration... appRegistrations) {
+		for (AppRegistration appRegistration : appRegistrations) {
+			if (appRegistration != null) {
+				this.appResourceCommon.evict(appRegistration.getUri(), appRegistration.getMetadataUri());
+			}
+		}
+	}
+
 	private String getVersionOrBroken(String uri) {
 		try {
 			return this.getResourceVersion(uri);
@@ -117,15 +154,73 @@ public abstract class AbstractAppRegistryCommon implements AppRegistryCommon {
 		}
 	};
 
+	/**
+	 * Imports all registrations of the given properties resources. All entries are parsed
+	 * and validated, in parallel on the {@link #setImportExecutor(AsyncTaskExecutor) import
+	 * executor}, before any of them is saved with {@link #saveAll(List, boolean)}.
+	 */
 	@Override
 	public List<AppRegistration> importAll(boolean overwrite, Resource... resources) {
-		return Stream.of(resources)
+		long start = System.currentTimeMillis();
+		List<Map.Entry<Map.Entry<String, URI>, URI>> entries = Stream.of(resources)
 				.map(this::loadProperties)
 				.flatMap(prop -> prop.entrySet().stream()
 						.map(toStringAndUriFunc)
-						.flatMap(kv -> toValidAppRegistration(kv, metadataUriFromProperties(kv.getKey(), prop)))
-						.filter(a -> isOverwrite(a, overwrite))
-						.map(ar -> save(ar)))
+						.map(kv -> new AbstractMap.SimpleImmutableEntry<Map.Entry<String, URI>, URI>(kv,
+								metadataUriFromProperties(kv.getKey(), prop))))
+				.collect(Collectors.toList());
+		List<AppRegistration> apps = parseAll(entries);
+		logger.info("Parsed {} app registrations in {}ms", apps.size(), System.currentTimeMillis() - start);
+		return saveAll(apps, overwrite);
+	}
+
+	private List<AppRegistration> parseAll(List<Map.Entry<Map.Entry<String, URI>, URI>> entries) {
+		if (this.importExecutor == null) {
+			return entries.stream()
+					.flatMap(kvm -> toValidAppRegistration(kvm.getKey(), kvm.getValue()))
+					.collect(Collectors.toList());
+		}
+		List<Future<List<AppRegistration>>> futures = new ArrayList<>(entries.size());
+		try {
+			for (Map.Entry<Map.Entry<String, URI>, URI> kvm : entries) {
+				futures.add(this.importExecutor.submit(() -> toValidAppRegistration(kvm.getKey(), kvm.getValue())
+						.collect(Collectors.toList())));
+			}
+			List<AppRegistration> apps = new ArrayList<>(entries.size());
+			for (Future<List<AppRegistration>> future : futures) {
+				apps.addAll(future.get());
+			}
+			return apps;
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while importing app registrations", e);
+		}
+		catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException("Failed to import app registrations", e.getCause());
+		}
+		finally {
+			for (Future<List<AppRegistration>> future : futures) {
+				future.cancel(true);
+			}
+		}
+	}
+
+	/**
+	 * Saves the registrations of an import. Registrations that already exist are only
+	 * updated if {@code overwrite} is set.
+	 *
+	 * @param apps the parsed registrations, in the order of the import
+	 * @param overwrite whether existing registrations should be updated
+	 * @return the registrations that were saved
+	 */
+	protected List<AppRegistration> saveAll(List<AppRegistration> apps, boolean overwrite) {
+		return apps.stream()
+				.filter(a -> isOverwrite(a, overwrite))
+				.map(ar -> save(ar))
 				.collect(Collectors.toList());
 	}
 
@@ -19,8 +19,11 @@ package org.springframework.cloud.dataflow.registry;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -51,6 +54,11 @@ import org.springframework.util.Assert;
  * <li>{@literal <type>.<name>}: URI for the actual app</li>
  * <li>{@literal <type>.<name>.metadata}: Optional URI for the app metadata</li>
  * </ul>
+ * <p>
+ * {@link #findAll()} builds all registrations from a single scan of the {@link UriRegistry}
+ * and keeps the result until an app is saved or deleted through this registry, or until
+ * the snapshot is older than {@link #setSnapshotTimeToLive(long) its time to live}, so
+ * that changes made to a shared {@link UriRegistry} by other servers become visible.
  *
  * @author Mark Fisher
  * @author Gunnar Hillert
@@ -64,8 +72,19 @@ public class AppRegistry extends AbstractAppRegistryCommon implements AppRegistr
 
 	private static final Logger logger = LoggerFactory.getLogger(AppRegistry.class);
 
+	/**
+	 * Default time in milliseconds for which the {@link #findAll()} snapshot is used.
+	 */
+	public static final long DEFAULT_SNAPSHOT_TIME_TO_LIVE = 5000;
+
 	private final UriRegistry uriRegistry;
 
+	private final AtomicLong generation = new AtomicLong();
+
+	private volatile Snapshot snapshot;
+
+	private long snapshotTimeToLive = DEFAULT_SNAPSHOT_TIME_TO_LIVE;
+
 	private static final Function<Map.Entry<Object, Object>, AbstractMap.SimpleImmutableEntry<String, URI>> toStringAndUriFUNC = kv -> {
 		try {
 			return new AbstractMap.SimpleImmutableEntry<>((String) kv.getKey(), new URI((String) kv.getValue()));
@@ -93,12 +112,46 @@ public class AppRegistry extends AbstractAppRegistryCommon implements AppRegistr
 		}
 	}
 
+	/**
+	 * Set the time in milliseconds for which the result of {@link #findAll()} is reused. A
+	 * value of 0 or less scans the {@link UriRegistry} on every call.
+	 *
+	 * @param snapshotTimeToLive the time to live of the snapshot in milliseconds
+	 */
+	public void setSnapshotTimeToLive(long snapshotTimeToLive) {
+		this.snapshotTimeToLive = snapshotTimeToLive;
+	}
+
 	@Override
 	public List<AppRegistration> findAll() {
-		return this.uriRegistry.findAll().entrySet().stream()
-				.flatMap(kv -> toValidAppRegistration(kv, metadataUriFromRegistry(kv.getKey())))
+		Snapshot current = this.snapshot;
+		if (current == null || System.currentTimeMillis() - current.createdAt >= this.snapshotTimeToLive) {
+			long expectedGeneration = this.generation.get();
+			current = new Snapshot(loadAll());
+			// don't publish a snapshot that was read while an app was being saved or deleted
+			if (this.generation.get() == expectedGeneration) {
+				this.snapshot = current;
+			}
+		}
+		return new ArrayList<>(current.registrations);
+	}
+
+	/**
+	 * Build all registrations from one scan of the {@link UriRegistry}, pairing each app
+	 * URI with its metadata URI in memory.
+	 */
+	private List<AppRegistration> loadAll() {
+		Map<String, URI> uris = this.uriRegistry.findAll();
+		return Collections.unmodifiableList(uris.entrySet().stream()
+				.flatMap(kv -> toValidAppRegistration(kv, uris.get(metadataKey(kv.getKey()))))
 				.sorted((a, b) -> a.compareTo(b))
-				.collect(Collectors.toList());
+				.collect(Collectors.toList()));
+	}
+
+	@Override
+	public void invalidate() {
+		this.generation.incrementAndGet();
+		this.snapshot = null;
 	}
 
 	public Page<AppRegistration> findAll(Pageable pageable) {
@@ -131,7 +184,10 @@ public class AppRegistry extends AbstractAppRegistryCommon implements AppRegistr
 		if (metadataUri != null) {
 			this.uriRegistry.register(metadataKey(name, type), metadataUri);
 		}
-		return new AppRegistration(name, type, uri, metadataUri);
+		invalidate();
+		AppRegistration appRegistration = new AppRegistration(name, type, uri, metadataUri);
+		evictArtifacts(appRegistration);
+		return appRegistration;
 	}
 
 	@Override
@@ -174,9 +230,12 @@ public class AppRegistry extends AbstractAppRegistryCommon implements AppRegistr
 	 * @param type Type of the AppRegistration to delete
 	 */
 	public void delete(String name, ApplicationType type) {
-		if (this.find(name, type) != null) {
+		AppRegistration appRegistration = this.find(name, type);
+		if (appRegistration != null) {
 			this.uriRegistry.unregister(key(name, type));
 			this.uriRegistry.unregister(metadataKey(name, type));
+			invalidate();
+			evictArtifacts(appRegistration);
 		}
 		else {
 			throw new NoSuchAppRegistrationException(name, type);
@@ -209,4 +268,14 @@ public class AppRegistry extends AbstractAppRegistryCommon implements AppRegistr
 		return find(name, type) != null;
 	}
 
+	private static class Snapshot {
+
+		private final List<AppRegistration> registrations;
+
+		private final long createdAt = System.currentTimeMillis();
+
+		Snapshot(List<AppRegistration> registrations) {
+			this.registrations = registrations;
+		}
+	}
 }
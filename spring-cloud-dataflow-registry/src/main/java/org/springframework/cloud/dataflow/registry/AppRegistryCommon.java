@@ -15,6 +15,8 @@
  */
 package org.springframework.cloud.dataflow.registry;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.List;
 
 import org.springframework.cloud.dataflow.core.ApplicationType;
@@ -89,6 +91,18 @@ public interface AppRegistryCommon {
 	 */
 	Resource getAppMetadataResource(AppRegistration appRegistration);
 
+	/**
+	 * Resolve a resource returned by this registry to a local file, going through the
+	 * caches of the registry if any.
+	 *
+	 * @param resource the resource of an app or of its metadata
+	 * @return the local file of the resource
+	 * @throws IOException if the resource can not be resolved
+	 */
+	default File getResourceFile(Resource resource) throws IOException {
+		return resource.getFile();
+	}
+
 	/**
 	 * Save an {@link AppRegistration} instance.
 	 * @param app appRegistration to save
@@ -115,4 +129,11 @@ public interface AppRegistryCommon {
 	 * @return the resource version
 	 */
 	String getResourceVersion(String uriString);
+
+	/**
+	 * Discard what is cached of the registrations, so that the next lookup reads them
+	 * again. Called when another server changed the registrations.
+	 */
+	default void invalidate() {
+	}
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2016-2017 the original author or authors.
+ * Copyright 2016-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -58,6 +58,11 @@ public class RdbmsUriRegistry implements UriRegistry {
 		this.jdbcTemplate = new JdbcTemplate(dataSource);
 	}
 
+	public RdbmsUriRegistry(JdbcTemplate jdbcTemplate) {
+		Assert.notNull(jdbcTemplate, "jdbcTemplate must not be null");
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
 	@Override
 	public URI find(String name) {
 		String uriString = null;
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2017 the original author or authors.
+ * Copyright 2012-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -47,6 +47,17 @@ public class AbstractEntity implements Identifiable<Long> {
 		this.id = null;
 	}
 
+	/**
+	 * Create a copy of the given entity with the same id and version, not attached to any
+	 * persistence context.
+	 *
+	 * @param other the entity to copy
+	 */
+	protected AbstractEntity(AbstractEntity other) {
+		this.id = other.id;
+		this.objectVersion = other.objectVersion;
+	}
+
 	@Override
 	public Long getId() {
 		return this.id;
@@ -19,8 +19,10 @@ package org.springframework.cloud.dataflow.registry.domain;
 import java.net.URI;
 
 import javax.persistence.Entity;
+import javax.persistence.Index;
 import javax.persistence.Lob;
 import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
 
 import org.springframework.cloud.dataflow.core.ApplicationType;
 import org.springframework.util.Assert;
@@ -34,7 +36,9 @@ import org.springframework.util.Assert;
  * @author Vinicius Carvalho
  */
 @Entity
-@Table(name = "APP_REGISTRATION")
+@Table(name = "APP_REGISTRATION",
+		uniqueConstraints = @UniqueConstraint(name = "APP_REGISTRATION_UK", columnNames = { "name", "type", "version" }),
+		indexes = @Index(name = "APP_REGISTRATION_DEFAULT_IDX", columnList = "name, type, defaultVersion"))
 public class AppRegistration extends AbstractEntity implements Comparable<AppRegistration> {
 
 	/**
@@ -118,6 +122,22 @@ public class AppRegistration extends AbstractEntity implements Comparable<AppReg
 		this.metadataUri = metadataUri;
 	}
 
+	/**
+	 * Construct a copy of the given {@code AppRegistration}, not attached to any
+	 * persistence context.
+	 *
+	 * @param other the registration to copy
+	 */
+	public AppRegistration(AppRegistration other) {
+		super(other);
+		this.name = other.name;
+		this.type = other.type;
+		this.version = other.version;
+		this.uri = other.uri;
+		this.metadataUri = other.metadataUri;
+		this.defaultVersion = other.defaultVersion;
+	}
+
 	/**
 	 * @return the name of the app
 	 */
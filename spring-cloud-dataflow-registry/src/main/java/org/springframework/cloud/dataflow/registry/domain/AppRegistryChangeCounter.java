@@ -0,0 +1,64 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.registry.domain;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * Single row counting the changes made to the app registrations. Servers sharing a
+ * database compare it with the count their in-memory view was built from, to find out
+ * whether registrations were changed by another server.
+ */
+@Entity
+@Table(name = "APP_REGISTRY_CHANGE_COUNTER")
+public class AppRegistryChangeCounter {
+
+	/**
+	 * Id of the only row of the table.
+	 */
+	public static final Long ID = 1L;
+
+	@Id
+	private Long id;
+
+	/**
+	 * Number of changes made to the app registrations.
+	 */
+	private long changeCount;
+
+	public AppRegistryChangeCounter() {
+	}
+
+	public AppRegistryChangeCounter(long changeCount) {
+		this.id = ID;
+		this.changeCount = changeCount;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public long getChangeCount() {
+		return changeCount;
+	}
+
+	public void setChangeCount(long changeCount) {
+		this.changeCount = changeCount;
+	}
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.registry.repository;
+
+import org.springframework.cloud.dataflow.registry.domain.AppRegistryChangeCounter;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Repository interface for the {@link AppRegistryChangeCounter}.
+ */
+@Transactional
+public interface AppRegistryChangeCounterRepository extends CrudRepository<AppRegistryChangeCounter, Long> {
+
+	/**
+	 * Increment the change count in the database, without reading it first.
+	 *
+	 * @param id the id of the counter row
+	 * @return the number of updated rows, 0 if the counter row does not exist yet
+	 */
+	@Modifying
+	@Query("update AppRegistryChangeCounter c set c.changeCount = c.changeCount + 1 where c.id = :id")
+	int incrementChangeCount(@Param("id") Long id);
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2017 the original author or authors.
+ * Copyright 2017-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,7 +17,16 @@
 package org.springframework.cloud.dataflow.registry.service;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,14 +34,21 @@ import org.slf4j.LoggerFactory;
 import org.springframework.cloud.dataflow.core.ApplicationType;
 import org.springframework.cloud.dataflow.registry.AbstractAppRegistryCommon;
 import org.springframework.cloud.dataflow.registry.domain.AppRegistration;
+import org.springframework.cloud.dataflow.registry.domain.AppRegistryChangeCounter;
 import org.springframework.cloud.dataflow.registry.repository.AppRegistrationRepository;
+import org.springframework.cloud.dataflow.registry.repository.AppRegistryChangeCounterRepository;
 import org.springframework.cloud.dataflow.registry.support.AppResourceCommon;
 import org.springframework.cloud.dataflow.registry.support.NoSuchAppRegistrationException;
 import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.dao.DataAccessException;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
 import org.springframework.util.StringUtils;
 
 /**
@@ -47,6 +63,20 @@ import org.springframework.util.StringUtils;
  * <li>{@literal <type>.<name>}: URI for the actual app</li>
  * <li>{@literal <type>.<name>.metadata}: Optional URI for the app metadata</li>
  * </ul>
+ * <p>
+ * Lookups by name, type and version, default app lookups and {@link #findAll()} are served
+ * from an immutable snapshot of all registrations, which is replaced as a whole when it is
+ * found to be out of date. The snapshot holds detached copies of the registrations and
+ * hands out copies of its own, so that changes made to a returned registration do not
+ * leak into it. Within a transaction that changed registrations, lookups go to the
+ * database instead, loading only the rows asked for.
+ * <p>
+ * Changes made through this service discard the snapshot once their transaction completes,
+ * and increment a change counter stored in the database. The counter is incremented once
+ * per transaction, right before it commits, so that its row is only locked for the commit
+ * rather than for the whole change. At most once per
+ * {@link #setChangeCheckInterval(long) change check interval} the counter is read to find
+ * out whether another server sharing the database changed the registrations.
  *
  * @author Mark Fisher
  * @author Gunnar Hillert
@@ -61,28 +91,75 @@ public class DefaultAppRegistryService extends AbstractAppRegistryCommon impleme
 
 	private static final Logger logger = LoggerFactory.getLogger(DefaultAppRegistryService.class);
 
+	/**
+	 * Default time in milliseconds between two reads of the change counter.
+	 */
+	public static final long DEFAULT_CHANGE_CHECK_INTERVAL = 1000;
+
 	private final AppRegistrationRepository appRegistrationRepository;
 
+	private final AppRegistryChangeCounterRepository changeCounterRepository;
+
+	private final AtomicLong generation = new AtomicLong();
+
+	private volatile Snapshot snapshot;
+
+	private long changeCheckInterval = DEFAULT_CHANGE_CHECK_INTERVAL;
+
 	public DefaultAppRegistryService(AppRegistrationRepository appRegistrationRepository,
 			AppResourceCommon appResourceService) {
+		this(appRegistrationRepository, appResourceService, null);
+	}
+
+	/**
+	 * Create a registry service.
+	 *
+	 * @param appRegistrationRepository the repository of the registrations
+	 * @param appResourceService the service resolving app resources
+	 * @param changeCounterRepository the repository of the change counter shared with other
+	 * servers, or {@literal null} if the snapshot should instead be reloaded after each
+	 * change check interval
+	 */
+	public DefaultAppRegistryService(AppRegistrationRepository appRegistrationRepository,
+			AppResourceCommon appResourceService, AppRegistryChangeCounterRepository changeCounterRepository) {
 		super(appResourceService);
 		Assert.notNull(appRegistrationRepository, "'appRegistrationRepository' must not be null");
 		this.appRegistrationRepository = appRegistrationRepository;
+		this.changeCounterRepository = changeCounterRepository;
+	}
+
+	/**
+	 * Set the time in milliseconds during which the snapshot is used without checking the
+	 * change counter. A value of 0 or less checks the counter on every lookup.
+	 *
+	 * @param changeCheckInterval the change check interval in milliseconds
+	 */
+	public void setChangeCheckInterval(long changeCheckInterval) {
+		this.changeCheckInterval = changeCheckInterval;
 	}
 
 	@Override
+	@Transactional(propagation = Propagation.SUPPORTS)
 	public AppRegistration find(String name, ApplicationType type) {
 		return this.getDefaultApp(name, type);
 	}
 
 	@Override
+	@Transactional(propagation = Propagation.SUPPORTS)
 	public AppRegistration find(String name, ApplicationType type, String version) {
-		return this.appRegistrationRepository.findAppRegistrationByNameAndTypeAndVersion(name, type, version);
+		if (isChanging()) {
+			return this.appRegistrationRepository.findAppRegistrationByNameAndTypeAndVersion(name, type, version);
+		}
+		return copy(snapshot().byVersion.get(Snapshot.key(name, type, version)));
 	}
 
 	@Override
+	@Transactional(propagation = Propagation.SUPPORTS)
 	public AppRegistration getDefaultApp(String name, ApplicationType type) {
-		return this.appRegistrationRepository.findAppRegistrationByNameAndTypeAndDefaultVersionIsTrue(name, type);
+		if (isChanging()) {
+			return this.appRegistrationRepository.findAppRegistrationByNameAndTypeAndDefaultVersionIsTrue(name, type);
+		}
+		return copy(snapshot().defaults.get(Snapshot.key(name, type)));
 	}
 
 	@Override
@@ -104,11 +181,20 @@ public class DefaultAppRegistryService extends AbstractAppRegistryCommon impleme
 		newDefault.setDefaultVersion(true);
 
 		this.appRegistrationRepository.save(newDefault);
+		changed();
 	}
 
 	@Override
+	@Transactional(propagation = Propagation.SUPPORTS)
 	public List<AppRegistration> findAll() {
-		return this.appRegistrationRepository.findAll();
+		if (isChanging()) {
+			return this.appRegistrationRepository.findAll();
+		}
+		List<AppRegistration> registrations = new ArrayList<>();
+		for (AppRegistration registration : snapshot().registrations) {
+			registrations.add(copy(registration));
+		}
+		return registrations;
 	}
 
 	@Override
@@ -142,16 +228,21 @@ public class DefaultAppRegistryService extends AbstractAppRegistryCommon impleme
 		AppRegistration appRegistration = this.appRegistrationRepository.findAppRegistrationByNameAndTypeAndVersion(
 				app.getName(), app.getType(), app.getVersion());
 		if (appRegistration != null) {
+			evictArtifacts(appRegistration);
 			appRegistration.setUri(app.getUri());
 			appRegistration.setMetadataUri(app.getMetadataUri());
-			return this.appRegistrationRepository.save(appRegistration);
+			appRegistration = this.appRegistrationRepository.save(appRegistration);
 		}
 		else {
-			if (getDefaultApp(app.getName(), app.getType()) == null) {
+			if (this.appRegistrationRepository.findAppRegistrationByNameAndTypeAndDefaultVersionIsTrue(app.getName(),
+					app.getType()) == null) {
 				app.setDefaultVersion(true);
 			}
-			return this.appRegistrationRepository.save(app);
+			appRegistration = this.appRegistrationRepository.save(app);
 		}
+		evictArtifacts(appRegistration);
+		changed();
+		return appRegistration;
 	}
 
 	/**
@@ -163,7 +254,66 @@ public class DefaultAppRegistryService extends AbstractAppRegistryCommon impleme
 	 * @param version Version of the AppRegistration to delete
 	 */
 	public void delete(String name, ApplicationType type, String version) {
+		evictArtifacts(this.appRegistrationRepository.findAppRegistrationByNameAndTypeAndVersion(name, type,
+				version));
 		this.appRegistrationRepository.deleteAppRegistrationByNameAndTypeAndVersion(name, type, version);
+		changed();
+	}
+
+	/**
+	 * Loads all existing registrations with one query and compares them with the imported
+	 * ones, so that only new and changed registrations are written, as one batch in a
+	 * single repository call.
+	 */
+	@Override
+	protected List<AppRegistration> saveAll(List<AppRegistration> apps, boolean overwrite) {
+		long start = System.currentTimeMillis();
+		Map<List<Object>, AppRegistration> registrations = new HashMap<>();
+		Set<List<Object>> withDefault = new HashSet<>();
+		for (AppRegistration registration : this.appRegistrationRepository.findAll()) {
+			registrations.put(Snapshot.key(registration.getName(), registration.getType(), registration.getVersion()),
+					registration);
+			if (Boolean.TRUE.equals(registration.isDefaultVersion())) {
+				withDefault.add(Snapshot.key(registration.getName(), registration.getType()));
+			}
+		}
+		long loaded = System.currentTimeMillis();
+
+		Map<List<Object>, AppRegistration> saved = new LinkedHashMap<>();
+		Map<List<Object>, AppRegistration> changed = new LinkedHashMap<>();
+		for (AppRegistration app : apps) {
+			List<Object> key = Snapshot.key(app.getName(), app.getType(), app.getVersion());
+			AppRegistration registration = registrations.get(key);
+			if (registration == null) {
+				if (withDefault.add(Snapshot.key(app.getName(), app.getType()))) {
+					app.setDefaultVersion(true);
+				}
+				registrations.put(key, app);
+				saved.put(key, app);
+				changed.put(key, app);
+			}
+			else if (overwrite) {
+				saved.put(key, registration);
+				// evicted even if unchanged, so that overwriting picks up a republished artifact
+				evictArtifacts(registration);
+				if (!ObjectUtils.nullSafeEquals(registration.getUri(), app.getUri())
+						|| !ObjectUtils.nullSafeEquals(registration.getMetadataUri(), app.getMetadataUri())) {
+					registration.setUri(app.getUri());
+					registration.setMetadataUri(app.getMetadataUri());
+					changed.put(key, registration);
+				}
+			}
+		}
+		long compared = System.currentTimeMillis();
+
+		if (!changed.isEmpty()) {
+			this.appRegistrationRepository.save(changed.values());
+			changed();
+		}
+		logger.info("Saved {} of {} imported app registrations, {} of them changed: loading took {}ms, "
+				+ "comparing {}ms, writing {}ms", saved.size(), apps.size(), changed.size(), loaded - start,
+				compared - loaded, System.currentTimeMillis() - compared);
+		return new ArrayList<>(saved.values());
 	}
 
 	@Override
@@ -173,12 +323,145 @@ public class DefaultAppRegistryService extends AbstractAppRegistryCommon impleme
 	}
 
 	@Override
+	@Transactional(propagation = Propagation.SUPPORTS)
 	public boolean appExist(String name, ApplicationType type) {
 		return getDefaultApp(name, type) != null;
 	}
 
 	@Override
+	@Transactional(propagation = Propagation.SUPPORTS)
 	public boolean appExist(String name, ApplicationType type, String version) {
 		return find(name, type, version) != null;
 	}
+
+	/**
+	 * Return a snapshot that is at most one change check interval behind the database.
+	 */
+	private Snapshot snapshot() {
+		long now = System.currentTimeMillis();
+		Snapshot current = this.snapshot;
+		if (current != null && now - current.checkedAt < this.changeCheckInterval) {
+			return current;
+		}
+		long expectedGeneration = this.generation.get();
+		long changeCount = readChangeCount();
+		if (current != null && changeCount >= 0 && changeCount == current.changeCount) {
+			current.checkedAt = now;
+			return current;
+		}
+		Snapshot loaded = new Snapshot(this.appRegistrationRepository.findAll(), changeCount, now);
+		// don't publish a snapshot that was read while registrations were being changed
+		if (this.generation.get() == expectedGeneration) {
+			this.snapshot = loaded;
+		}
+		return loaded;
+	}
+
+	/**
+	 * @return the change count stored in the database, or {@literal -1} if it is unknown
+	 */
+	private long readChangeCount() {
+		if (this.changeCounterRepository == null) {
+			return -1;
+		}
+		try {
+			AppRegistryChangeCounter counter = this.changeCounterRepository.findOne(AppRegistryChangeCounter.ID);
+			return counter != null ? counter.getChangeCount() : 0;
+		}
+		catch (DataAccessException e) {
+			logger.warn("Unable to read the app registry change counter, reloading all registrations", e);
+			return -1;
+		}
+	}
+
+	/**
+	 * @return whether the current transaction changed registrations that others must not
+	 * see yet
+	 */
+	private boolean isChanging() {
+		return TransactionSynchronizationManager.hasResource(this);
+	}
+
+	/**
+	 * Record a change of the registrations: discard the snapshot, and again once the
+	 * current transaction completes, and increment the change counter right before the
+	 * transaction commits. Until then, lookups made within the transaction bypass the
+	 * snapshot.
+	 */
+	private void changed() {
+		invalidate();
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			incrementChangeCount();
+		}
+		else if (!isChanging()) {
+			TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+				@Override
+				public void beforeCommit(boolean readOnly) {
+					incrementChangeCount();
+				}
+
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(DefaultAppRegistryService.this);
+					invalidate();
+				}
+			});
+		}
+	}
+
+	private void incrementChangeCount() {
+		if (this.changeCounterRepository != null
+				&& this.changeCounterRepository.incrementChangeCount(AppRegistryChangeCounter.ID) == 0) {
+			this.changeCounterRepository.save(new AppRegistryChangeCounter(1));
+		}
+	}
+
+	@Override
+	public void invalidate() {
+		this.generation.incrementAndGet();
+		this.snapshot = null;
+	}
+
+	private static AppRegistration copy(AppRegistration registration) {
+		return registration != null ? new AppRegistration(registration) : null;
+	}
+
+	/**
+	 * Immutable view of detached copies of all registrations, indexed by (name, type,
+	 * version) and by (name, type) for the default versions.
+	 */
+	private static class Snapshot {
+
+		private final List<AppRegistration> registrations;
+
+		private final Map<List<Object>, AppRegistration> byVersion = new HashMap<>();
+
+		private final Map<List<Object>, AppRegistration> defaults = new HashMap<>();
+
+		private final long changeCount;
+
+		private volatile long checkedAt;
+
+		Snapshot(List<AppRegistration> loaded, long changeCount, long checkedAt) {
+			List<AppRegistration> registrations = new ArrayList<>();
+			for (AppRegistration registration : loaded) {
+				registration = new AppRegistration(registration);
+				registrations.add(registration);
+				this.byVersion.put(key(registration.getName(), registration.getType(), registration.getVersion()),
+						registration);
+				if (Boolean.TRUE.equals(registration.isDefaultVersion())) {
+					this.defaults.put(key(registration.getName(), registration.getType()), registration);
+				}
+			}
+			this.registrations = Collections.unmodifiableList(registrations);
+			this.changeCount = changeCount;
+			this.checkedAt = checkedAt;
+		}
+
+		static List<Object> key(Object... parts) {
+			return Arrays.asList(parts);
+		}
+	}
 }
@@ -18,6 +18,7 @@ package org.springframework.cloud.dataflow.registry.support;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.regex.Matcher;
@@ -39,6 +40,11 @@ import org.springframework.util.StringUtils;
  */
 public class AppResourceCommon {
 
+	/**
+	 * Looks for the last dash with a digit after it
+	 */
+	private static final Pattern VERSION_PATTERN = Pattern.compile("(.*)-(\\d)(.*?)");
+
 	/**
 	 * the maven properties to use in case of maven resource
 	 */
@@ -49,6 +55,15 @@ public class AppResourceCommon {
 	 */
 	private ResourceLoader metadataResourceLoader;
 
+	/**
+	 * Local store for artifacts downloaded over http, if any
+	 */
+	private ArtifactCache artifactCache;
+
+	/**
+	 * Memoized Maven resources and resolutions, if any
+	 */
+	private MavenResourceCache mavenResourceCache;
 
 	public AppResourceCommon(MavenProperties mavenProperties, ResourceLoader resourceLoader) {
 		Assert.notNull(mavenProperties, "Non null Maven Properties are required!");
@@ -56,6 +71,59 @@ public class AppResourceCommon {
 		this.metadataResourceLoader = resourceLoader;
 	}
 
+	/**
+	 * Set the cache in which artifacts referenced by an http(s) URI are kept. Without a
+	 * cache, such artifacts are downloaded to a temporary file on every use.
+	 *
+	 * @param artifactCache the artifact cache
+	 */
+	public void setArtifactCache(ArtifactCache artifactCache) {
+		this.artifactCache = artifactCache;
+	}
+
+	/**
+	 * Set the cache through which Maven artifacts are looked up and resolved. Without a
+	 * cache, a new resource is created on every lookup, and every resolution of a missing
+	 * artifact queries the remote repositories.
+	 *
+	 * @param mavenResourceCache the Maven resource cache
+	 */
+	public void setMavenResourceCache(MavenResourceCache mavenResourceCache) {
+		this.mavenResourceCache = mavenResourceCache;
+	}
+
+	/**
+	 * Drop what is cached of the artifacts at the given URIs, so that they are fetched
+	 * again on their next use.
+	 *
+	 * @param uris the URIs of the artifacts, {@code null} elements are ignored
+	 */
+	public void evict(URI... uris) {
+		if (this.artifactCache != null) {
+			for (URI uri : uris) {
+				if (uri != null) {
+					this.artifactCache.evict(uri);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Resolve a resource returned by this class to a local file, going through the Maven
+	 * resource cache for Maven artifacts.
+	 *
+	 * @param resource the resource
+	 * @return the local file of the resource
+	 * @throws IOException if the resource can not be resolved
+	 */
+	public File getFile(Resource resource) throws IOException {
+		Assert.notNull(resource, "resource must not be null");
+		if (this.mavenResourceCache != null && resource instanceof MavenResource) {
+			return this.mavenResourceCache.getFile((MavenResource) resource);
+		}
+		return resource.getFile();
+	}
+
 	/**
 	 * Extracts the version from the resource. Supported resource types are
 	 * MavenResource, {@link DockerResource}, and {@link UrlResource}. @param resource to be
@@ -111,9 +179,7 @@ public class AppResourceCommon {
 
 	private Matcher getMatcher(UrlResource urlResource) {
 		String fileNameNoExtension = getFileNameNoExtension(urlResource);
-		// Look for the last dash with a digit after it
-		Pattern pattern = Pattern.compile("(.*)-(\\d)(.*?)");
-		Matcher m = pattern.matcher(fileNameNoExtension);
+		Matcher m = VERSION_PATTERN.matcher(fileNameNoExtension);
 		Assert.isTrue(m.matches(), "Could not parse version from " + getUri(urlResource)
 				+ ", expected format is <artifactId>-<version>.jar");
 		return m;
@@ -155,18 +221,24 @@ public class AppResourceCommon {
 			switch (scheme) {
 			case "maven":
 				String coordinates = resourceUri.replaceFirst("maven:\\/*", "");
+				if (this.mavenResourceCache != null) {
+					return this.mavenResourceCache.getResource(coordinates);
+				}
 				return MavenResource.parse(coordinates, mavenProperties);
 			case "docker":
 				String dockerUri = resourceUri.replaceFirst("docker:\\/*", "");
 				return new DockerResource(dockerUri);
 			case "http":
 			case "https":
+				if (this.artifactCache != null) {
+					return new CachedUrlResource(new URI(resourceUri), this.artifactCache);
+				}
 				return new DownloadingUrlResourceLoader().getResource(resourceUri);
 			default:
 				return new DefaultResourceLoader().getResource(resourceUri);
 			}
 		}
-		catch (URISyntaxException e) {
+		catch (URISyntaxException | MalformedURLException e) {
 			throw new RuntimeException(e);
 		}
 	}
@@ -227,6 +299,13 @@ public class AppResourceCommon {
 
 	public Resource getMetadataResource(URI appUri, URI metadataUri) {
 		if (metadataUri != null) {
+			if (this.artifactCache != null && ("http".equalsIgnoreCase(metadataUri.getScheme())
+					|| "https".equalsIgnoreCase(metadataUri.getScheme()))) {
+				return this.getResource(metadataUri.toString());
+			}
+			if (this.mavenResourceCache != null && "maven".equalsIgnoreCase(metadataUri.getScheme())) {
+				return this.getResource(metadataUri.toString());
+			}
 			return this.metadataResourceLoader.getResource(metadataUri.toString());
 		}
 		else {
@@ -0,0 +1,538 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.registry.support;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.util.Assert;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Local store for downloaded app artifacts, addressed by the SHA-256 digest of their
+ * content.
+ * <p>
+ * Every artifact is stored once, however many URIs it is reached by, and an index maps
+ * each URI to the digest of the content last downloaded from it, and to the time of that
+ * download. The index is written to the cache directory so that artifacts survive a
+ * restart. Concurrent requests for the same URI share a single download. A URI is
+ * downloaded again once its entry is older than the {@link #setMaxAge(long) max age} or
+ * after it was {@link #evict(URI) evicted}, so that an artifact published again at the
+ * same URI is picked up.
+ * <p>
+ * Once the artifacts exceed the configured size, the least recently used ones are removed,
+ * skipping those reached by a URI that is reported as in use (for instance by a deployed
+ * app) and those returned to a caller within the {@link #setPinTime(long) pin time}, so
+ * that a file is not deleted while it is being read. Artifacts are checked against their
+ * size on every read and, if {@link #setVerifyOnRead(boolean) verifyOnRead} is set,
+ * against their digest; an artifact failing the check is removed and downloaded again.
+ */
+public class ArtifactCache {
+
+	private static final Logger logger = LoggerFactory.getLogger(ArtifactCache.class);
+
+	private static final String INDEX_FILE = "index.properties";
+
+	private static final char INDEX_SEPARATOR = ',';
+
+	private final File blobDirectory;
+
+	private final File downloadDirectory;
+
+	private final File indexFile;
+
+	private final long maxSize;
+
+	private final Map<String, String> digestsByUri = new ConcurrentHashMap<>();
+
+	private final Map<String, Long> downloadedAtByUri = new ConcurrentHashMap<>();
+
+	private final ConcurrentMap<String, CompletableFuture<File>> downloads = new ConcurrentHashMap<>();
+
+	/**
+	 * Sizes of the stored artifacts by digest, in least recently used order.
+	 */
+	private final LinkedHashMap<String, Long> sizesByDigest = new LinkedHashMap<>(16, 0.75f, true);
+
+	/**
+	 * Times at which artifacts were last returned, by digest.
+	 */
+	private final Map<String, Long> pinnedAt = new HashMap<>();
+
+	private final Object monitor = new Object();
+
+	private long size;
+
+	private boolean verifyOnRead;
+
+	private long pinTime = 60_000;
+
+	private long maxAge = 3_600_000;
+
+	private Supplier<? extends Collection<String>> inUseUris = Collections::emptySet;
+
+	/**
+	 * Create a cache storing its artifacts under the given directory.
+	 *
+	 * @param directory the cache directory, created if it does not exist
+	 * @param maxSize the size in bytes above which artifacts are evicted
+	 */
+	public ArtifactCache(File directory, long maxSize) {
+		Assert.notNull(directory, "directory must not be null");
+		Assert.isTrue(maxSize > 0, "maxSize must be greater than 0");
+		this.blobDirectory = new File(directory, "sha256");
+		this.downloadDirectory = new File(directory, "downloads");
+		this.indexFile = new File(directory, INDEX_FILE);
+		this.maxSize = maxSize;
+		Assert.isTrue((this.blobDirectory.isDirectory() || this.blobDirectory.mkdirs())
+				&& (this.downloadDirectory.isDirectory() || this.downloadDirectory.mkdirs()),
+				"Could not create cache directory " + directory);
+		load();
+	}
+
+	/**
+	 * Set whether the digest of an artifact is recomputed every time it is read.
+	 *
+	 * @param verifyOnRead {@code true} to verify the digest on every read
+	 */
+	public void setVerifyOnRead(boolean verifyOnRead) {
+		this.verifyOnRead = verifyOnRead;
+	}
+
+	/**
+	 * Set for how long an artifact returned by {@link #getFile(URI, InputStreamSource)}
+	 * is protected from eviction.
+	 *
+	 * @param pinTime the time in milliseconds, 0 to evict returned artifacts right away
+	 */
+	public void setPinTime(long pinTime) {
+		Assert.isTrue(pinTime >= 0, "pinTime must not be negative");
+		this.pinTime = pinTime;
+	}
+
+	/**
+	 * Set for how long the artifact downloaded from a URI is used before it is downloaded
+	 * again. The content is only stored again if it changed.
+	 *
+	 * @param maxAge the time in milliseconds, a negative value to keep using a downloaded
+	 * artifact until it is evicted
+	 */
+	public void setMaxAge(long maxAge) {
+		this.maxAge = maxAge;
+	}
+
+	/**
+	 * Set the source of the URIs whose artifacts must not be evicted. It is only queried
+	 * when a download makes the cache exceed its size, without holding any lock.
+	 *
+	 * @param inUseUris supplier of the URIs in use
+	 */
+	public void setInUseUris(Supplier<? extends Collection<String>> inUseUris) {
+		Assert.notNull(inUseUris, "inUseUris must not be null");
+		this.inUseUris = inUseUris;
+	}
+
+	/**
+	 * Return the local copy of the artifact at the given URI, downloading it if it is not
+	 * cached yet.
+	 *
+	 * @param uri the URI of the artifact
+	 * @param source the source of the artifact content, opened if it has to be downloaded
+	 * @return the cached artifact
+	 * @throws IOException if the artifact could not be downloaded
+	 */
+	public File getFile(URI uri, InputStreamSource source) throws IOException {
+		Assert.notNull(uri, "uri must not be null");
+		Assert.notNull(source, "source must not be null");
+		String key = uri.toString();
+		File file = lookup(key);
+		if (file != null) {
+			return file;
+		}
+		CompletableFuture<File> download = new CompletableFuture<>();
+		CompletableFuture<File> running = this.downloads.putIfAbsent(key, download);
+		if (running != null) {
+			return await(running, key);
+		}
+		try {
+			// the download that made lookup() miss may have completed in the meantime
+			file = lookup(key);
+			if (file == null) {
+				file = download(key, source);
+			}
+			download.complete(file);
+			return file;
+		}
+		catch (IOException | RuntimeException e) {
+			download.completeExceptionally(e);
+			throw e;
+		}
+		finally {
+			this.downloads.remove(key, download);
+		}
+	}
+
+	/**
+	 * Forget the artifact downloaded from the given URI, so that it is downloaded again on
+	 * the next use. The artifact itself is kept as long as other URIs reach it, and is
+	 * otherwise left to eviction.
+	 *
+	 * @param uri the URI of the artifact
+	 */
+	public void evict(URI uri) {
+		Assert.notNull(uri, "uri must not be null");
+		String key = uri.toString();
+		synchronized (this.monitor) {
+			this.downloadedAtByUri.remove(key);
+			if (this.digestsByUri.remove(key) != null) {
+				writeIndex();
+			}
+		}
+	}
+
+	/**
+	 * @return the total size in bytes of the cached artifacts
+	 */
+	public long getSize() {
+		synchronized (this.monitor) {
+			return this.size;
+		}
+	}
+
+	/**
+	 * @return the number of cached artifacts
+	 */
+	public int getCount() {
+		synchronized (this.monitor) {
+			return this.sizesByDigest.size();
+		}
+	}
+
+	private File lookup(String key) throws IOException {
+		String digest = this.digestsByUri.get(key);
+		if (digest == null) {
+			return null;
+		}
+		if (this.maxAge >= 0
+				&& System.currentTimeMillis() - this.downloadedAtByUri.getOrDefault(key, 0L) > this.maxAge) {
+			logger.debug("Cached artifact {} for {} is older than {}ms, downloading it again", digest, key,
+					this.maxAge);
+			return null;
+		}
+		File blob = new File(this.blobDirectory, digest);
+		Long expectedSize;
+		synchronized (this.monitor) {
+			expectedSize = this.sizesByDigest.get(digest);
+			if (expectedSize != null) {
+				// pinned before it is checked, so that it is not evicted once returned
+				pin(digest);
+			}
+		}
+		if (expectedSize != null && blob.length() == expectedSize
+				&& (!this.verifyOnRead || digest.equals(digest(blob)))) {
+			blob.setLastModified(System.currentTimeMillis());
+			return blob;
+		}
+		logger.warn("Cached artifact {} for {} is missing or corrupt, downloading it again", digest, key);
+		synchronized (this.monitor) {
+			remove(digest);
+			writeIndex();
+		}
+		return null;
+	}
+
+	private File download(String key, InputStreamSource source) throws IOException {
+		long start = System.currentTimeMillis();
+		File temp = File.createTempFile("artifact", ".tmp", this.downloadDirectory);
+		try {
+			MessageDigest messageDigest = newDigest();
+			try (InputStream in = new DigestInputStream(source.getInputStream(), messageDigest);
+					OutputStream out = new FileOutputStream(temp)) {
+				StreamUtils.copy(in, out);
+			}
+			String digest = toHex(messageDigest.digest());
+			File blob = new File(this.blobDirectory, digest);
+			Set<String> inUse = getInUseUrisIfFull(temp.length());
+			synchronized (this.monitor) {
+				if (this.sizesByDigest.containsKey(digest) && blob.length() == this.sizesByDigest.get(digest)) {
+					logger.debug("Content of {} is already cached as {}", key, digest);
+				}
+				else {
+					Files.move(temp.toPath(), blob.toPath(), StandardCopyOption.REPLACE_EXISTING,
+							StandardCopyOption.ATOMIC_MOVE);
+					this.size -= this.sizesByDigest.getOrDefault(digest, 0L);
+					this.sizesByDigest.put(digest, blob.length());
+					this.size += blob.length();
+				}
+				this.digestsByUri.put(key, digest);
+				this.downloadedAtByUri.put(key, System.currentTimeMillis());
+				pin(digest);
+				if (inUse != null) {
+					evict(digest, inUse);
+				}
+				writeIndex();
+			}
+			logger.info("Downloaded {} ({} bytes) in {}ms", key, blob.length(), System.currentTimeMillis() - start);
+			blob.setLastModified(System.currentTimeMillis());
+			return blob;
+		}
+		finally {
+			Files.deleteIfExists(temp.toPath());
+		}
+	}
+
+	/**
+	 * Query the URIs in use if adding an artifact of the given size makes the cache
+	 * exceed its size. Must not be called while holding the monitor, as the query may be
+	 * slow.
+	 *
+	 * @return the URIs in use, or {@code null} if there is no need to evict or they could
+	 * not be determined
+	 */
+	private Set<String> getInUseUrisIfFull(long added) {
+		if (getSize() + added <= this.maxSize) {
+			return null;
+		}
+		try {
+			return new HashSet<>(this.inUseUris.get());
+		}
+		catch (RuntimeException e) {
+			logger.warn("Could not determine the artifacts in use, skipping eviction", e);
+			return null;
+		}
+	}
+
+	/**
+	 * Mark an artifact as the most recently used one. Must be called while holding the
+	 * monitor.
+	 */
+	private void touch(String digest) {
+		// reading an entry moves it to the end of the access ordered map
+		this.sizesByDigest.get(digest);
+	}
+
+	/**
+	 * Mark an artifact as used and protect it from eviction for the pin time. Must be
+	 * called while holding the monitor.
+	 */
+	private void pin(String digest) {
+		touch(digest);
+		this.pinnedAt.put(digest, System.currentTimeMillis());
+	}
+
+	/**
+	 * Remove least recently used artifacts that are neither in use nor pinned until the
+	 * cache fits its size, keeping the given one. Must be called while holding the
+	 * monitor.
+	 */
+	private void evict(String keep, Set<String> inUse) {
+		if (this.size <= this.maxSize) {
+			return;
+		}
+		long expired = System.currentTimeMillis() - this.pinTime;
+		this.pinnedAt.values().removeIf(time -> time <= expired);
+		Set<String> protectedDigests = new HashSet<>(this.pinnedAt.keySet());
+		protectedDigests.add(keep);
+		for (String uri : inUse) {
+			String digest = this.digestsByUri.get(uri);
+			if (digest != null) {
+				protectedDigests.add(digest);
+			}
+		}
+		List<String> evicted = new ArrayList<>();
+		long remaining = this.size;
+		Iterator<Map.Entry<String, Long>> iterator = this.sizesByDigest.entrySet().iterator();
+		while (remaining > this.maxSize && iterator.hasNext()) {
+			Map.Entry<String, Long> entry = iterator.next();
+			if (!protectedDigests.contains(entry.getKey())) {
+				evicted.add(entry.getKey());
+				remaining -= entry.getValue();
+			}
+		}
+		for (String digest : evicted) {
+			remove(digest);
+		}
+		logger.info("Evicted {} artifacts from the cache, {} bytes remain", evicted.size(), this.size);
+		if (this.size > this.maxSize) {
+			logger.warn("Artifact cache exceeds its maximum size of {} bytes, remaining artifacts are in use or pinned",
+					this.maxSize);
+		}
+	}
+
+	/**
+	 * Drop an artifact and the URIs pointing at it. Must be called while holding the
+	 * monitor.
+	 */
+	private void remove(String digest) {
+		Long removed = this.sizesByDigest.remove(digest);
+		this.pinnedAt.remove(digest);
+		if (removed != null) {
+			this.size -= removed;
+		}
+		for (Iterator<Map.Entry<String, String>> uris = this.digestsByUri.entrySet().iterator(); uris.hasNext();) {
+			Map.Entry<String, String> uri = uris.next();
+			if (digest.equals(uri.getValue())) {
+				this.downloadedAtByUri.remove(uri.getKey());
+				uris.remove();
+			}
+		}
+		try {
+			Files.deleteIfExists(new File(this.blobDirectory, digest).toPath());
+		}
+		catch (IOException e) {
+			logger.warn("Could not delete cached artifact " + digest, e);
+		}
+	}
+
+	private void load() {
+		File[] leftovers = this.downloadDirectory.listFiles();
+		for (File leftover : leftovers == null ? new File[0] : leftovers) {
+			leftover.delete();
+		}
+		File[] blobs = this.blobDirectory.listFiles();
+		List<File> sorted = new ArrayList<>(Arrays.asList(blobs == null ? new File[0] : blobs));
+		sorted.sort(Comparator.comparingLong(File::lastModified));
+		for (File blob : sorted) {
+			this.sizesByDigest.put(blob.getName(), blob.length());
+			this.size += blob.length();
+		}
+		if (this.indexFile.isFile()) {
+			Properties index = new Properties();
+			try (InputStream in = new FileInputStream(this.indexFile)) {
+				index.load(in);
+			}
+			catch (IOException e) {
+				logger.warn("Could not read artifact cache index " + this.indexFile, e);
+			}
+			for (String key : index.stringPropertyNames()) {
+				// entries written without a download time are downloaded again on first use
+				String[] entry = StringUtils.split(index.getProperty(key), String.valueOf(INDEX_SEPARATOR));
+				String digest = entry != null ? entry[0] : index.getProperty(key);
+				if (this.sizesByDigest.containsKey(digest)) {
+					this.digestsByUri.put(key, digest);
+					if (entry != null) {
+						try {
+							this.downloadedAtByUri.put(key, Long.parseLong(entry[1]));
+						}
+						catch (NumberFormatException e) {
+							// downloaded again on first use
+						}
+					}
+				}
+			}
+		}
+		logger.info("Artifact cache {} holds {} artifacts ({} bytes)", this.blobDirectory.getParent(),
+				this.sizesByDigest.size(), this.size);
+	}
+
+	/**
+	 * Must be called while holding the monitor.
+	 */
+	private void writeIndex() {
+		Properties index = new Properties();
+		for (Map.Entry<String, String> entry : this.digestsByUri.entrySet()) {
+			index.setProperty(entry.getKey(),
+					entry.getValue() + INDEX_SEPARATOR + this.downloadedAtByUri.getOrDefault(entry.getKey(), 0L));
+		}
+		try {
+			File temp = File.createTempFile("index", ".tmp", this.downloadDirectory);
+			try (OutputStream out = new FileOutputStream(temp)) {
+				index.store(out, null);
+			}
+			Files.move(temp.toPath(), this.indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (IOException e) {
+			logger.warn("Could not write artifact cache index " + this.indexFile, e);
+		}
+	}
+
+	private static File await(CompletableFuture<File> download, String key) throws IOException {
+		try {
+			return download.get();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for the download of " + key);
+		}
+		catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException("Could not download " + key, e.getCause());
+		}
+	}
+
+	private static String digest(File file) throws IOException {
+		MessageDigest messageDigest = newDigest();
+		try (InputStream in = new DigestInputStream(new FileInputStream(file), messageDigest)) {
+			StreamUtils.drain(in);
+		}
+		return toHex(messageDigest.digest());
+	}
+
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String toHex(byte[] bytes) {
+		StringBuilder hex = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes) {
+			hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		}
+		return hex.toString();
+	}
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.registry.support;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URI;
+
+import org.springframework.core.io.UrlResource;
+import org.springframework.util.Assert;
+
+/**
+ * {@link UrlResource} whose content is read from an {@link ArtifactCache}, downloading it
+ * on first access.
+ */
+public class CachedUrlResource extends UrlResource {
+
+	private final ArtifactCache artifactCache;
+
+	public CachedUrlResource(URI uri, ArtifactCache artifactCache) throws MalformedURLException {
+		super(uri);
+		Assert.notNull(artifactCache, "artifactCache must not be null");
+		this.artifactCache = artifactCache;
+	}
+
+	@Override
+	public File getFile() throws IOException {
+		return this.artifactCache.getFile(getURI(), super::getInputStream);
+	}
+
+	@Override
+	public InputStream getInputStream() throws IOException {
+		return new FileInputStream(getFile());
+	}
+
+	@Override
+	public boolean isFile() {
+		return true;
+	}
+
+	@Override
+	public long contentLength() throws IOException {
+		return getFile().length();
+	}
+}
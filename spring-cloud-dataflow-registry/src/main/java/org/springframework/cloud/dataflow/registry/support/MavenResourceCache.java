@@ -0,0 +1,308 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.registry.support;
+
+import java.beans.PropertyDescriptor;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+import org.eclipse.aether.transfer.ArtifactNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.cloud.deployer.resource.maven.MavenProperties;
+import org.springframework.cloud.deployer.resource.maven.MavenResource;
+import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Memoizes the {@link MavenResource}s of apps and their resolution to local files.
+ * <p>
+ * {@link #getResource(String)} returns the same {@link MavenResource} for the same
+ * coordinates, rather than a new one with its own resolver. When the artifact is already
+ * in the local repository, the resource is configured offline, so that resolving it does
+ * not query the remote repositories; a SNAPSHOT artifact is only taken from the local
+ * repository for the configured refresh interval after it was downloaded. The resource is
+ * configured offline as well while the artifact is known to be missing, so that it fails
+ * right away instead of querying every remote repository again.
+ * <p>
+ * {@link #getFile(MavenResource)} records the outcome of resolutions: a resolved file is
+ * kept, and an artifact found in none of the repositories is remembered as missing for the
+ * configured time, during which resolving the same coordinates fails with the same error.
+ * Other failures, such as a repository that could not be reached, are not remembered.
+ * Concurrent resolutions of the same coordinates share a single attempt.
+ */
+public class MavenResourceCache {
+
+	private static final Logger logger = LoggerFactory.getLogger(MavenResourceCache.class);
+
+	private static final String SNAPSHOT_SUFFIX = "-SNAPSHOT";
+
+	private final MavenProperties properties;
+
+	private final MavenProperties offlineProperties;
+
+	private final long missTtl;
+
+	private final long snapshotRefreshInterval;
+
+	private final Map<String, MavenResource> resources;
+
+	private final Map<String, File> files;
+
+	private final Map<String, Miss> misses = new ConcurrentHashMap<>();
+
+	private final ConcurrentMap<String, CompletableFuture<File>> resolutions = new ConcurrentHashMap<>();
+
+	/**
+	 * @param properties the Maven properties used to resolve artifacts
+	 * @param missTtl how long, in milliseconds, an artifact that could not be resolved is
+	 * not looked up again
+	 * @param snapshotRefreshInterval how long, in milliseconds, a SNAPSHOT artifact found in
+	 * the local repository is used before the remote repositories are checked again
+	 * @param maxEntries maximum number of coordinates kept
+	 */
+	public MavenResourceCache(MavenProperties properties, long missTtl, long snapshotRefreshInterval,
+			int maxEntries) {
+		Assert.notNull(properties, "properties must not be null");
+		Assert.isTrue(maxEntries > 0, "maxEntries must be greater than 0");
+		this.properties = properties;
+		this.offlineProperties = copy(properties);
+		this.offlineProperties.setOffline(true);
+		this.missTtl = missTtl;
+		this.snapshotRefreshInterval = snapshotRefreshInterval;
+		this.resources = lruMap(maxEntries * 2);
+		this.files = lruMap(maxEntries);
+	}
+
+	/**
+	 * Return the resource of the given coordinates.
+	 *
+	 * @param coordinates the coordinates, in the form accepted by
+	 * {@link MavenResource#parse(String)}
+	 * @return the resource, configured offline if the artifact is in the local repository
+	 * or is known to be missing
+	 */
+	public MavenResource getResource(String coordinates) {
+		Assert.hasText(coordinates, "coordinates must not be empty");
+		MavenResource online = this.resources.computeIfAbsent(coordinates,
+				key -> MavenResource.parse(key, this.properties));
+		if (this.properties.isOffline()) {
+			return online;
+		}
+		boolean offline = isMissing(coordinates(online)) || localFile(online) != null;
+		if (!offline) {
+			return online;
+		}
+		return this.resources.computeIfAbsent("offline:" + coordinates,
+				key -> MavenResource.parse(coordinates, this.offlineProperties));
+	}
+
+	/**
+	 * Resolve a resource to a local file.
+	 *
+	 * @param resource the resource
+	 * @return the artifact file
+	 * @throws IOException if the artifact can not be resolved, or could not be resolved
+	 * less than the configured time ago
+	 */
+	public File getFile(MavenResource resource) throws IOException {
+		Assert.notNull(resource, "resource must not be null");
+		String coordinates = coordinates(resource);
+		File file = this.files.get(coordinates);
+		if (file != null && file.isFile() && !isStale(resource, file)) {
+			return file;
+		}
+		Miss miss = this.misses.get(coordinates);
+		if (miss != null) {
+			if (System.currentTimeMillis() < miss.until) {
+				throw new IOException(miss.message);
+			}
+			this.misses.remove(coordinates, miss);
+		}
+		file = localFile(resource);
+		if (file != null) {
+			this.files.put(coordinates, file);
+			return file;
+		}
+		CompletableFuture<File> resolution = new CompletableFuture<>();
+		CompletableFuture<File> pending = this.resolutions.putIfAbsent(coordinates, resolution);
+		if (pending != null) {
+			return await(pending);
+		}
+		try {
+			file = resolve(resource);
+			this.files.put(coordinates, file);
+			resolution.complete(file);
+			return file;
+		}
+		catch (IOException | RuntimeException e) {
+			boolean missing = isNotFound(e);
+			String message = missing
+					? String.format("Could not resolve %s, not retrying for %dms: %s", coordinates, this.missTtl,
+							e.getMessage())
+					: String.format("Could not resolve %s: %s", coordinates, e.getMessage());
+			logger.warn(message);
+			if (missing && this.missTtl > 0) {
+				this.misses.put(coordinates, new Miss(message, System.currentTimeMillis() + this.missTtl));
+			}
+			IOException failure = new IOException(message, e);
+			resolution.completeExceptionally(failure);
+			throw failure;
+		}
+		finally {
+			this.resolutions.remove(coordinates, resolution);
+		}
+	}
+
+	/**
+	 * Resolve a resource through its own resolver.
+	 */
+	protected File resolve(MavenResource resource) throws IOException {
+		return resource.getFile();
+	}
+
+	/**
+	 * Return whether a resolution failed because the artifact is in none of the
+	 * repositories, rather than because of a transient error.
+	 */
+	private static boolean isNotFound(Throwable failure) {
+		for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+			if (cause instanceof ArtifactNotFoundException) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean isMissing(String coordinates) {
+		Miss miss = this.misses.get(coordinates);
+		return miss != null && System.currentTimeMillis() < miss.until;
+	}
+
+	/**
+	 * Return the artifact file in the local repository, if it is there and can be used
+	 * without checking the remote repositories.
+	 */
+	private File localFile(MavenResource resource) {
+		String localRepository = this.properties.getLocalRepository();
+		if (!StringUtils.hasText(localRepository)) {
+			return null;
+		}
+		StringBuilder path = new StringBuilder()
+				.append(resource.getGroupId().replace('.', File.separatorChar)).append(File.separatorChar)
+				.append(resource.getArtifactId()).append(File.separatorChar)
+				.append(resource.getVersion()).append(File.separatorChar)
+				.append(resource.getArtifactId()).append('-').append(resource.getVersion());
+		if (StringUtils.hasText(resource.getClassifier())) {
+			path.append('-').append(resource.getClassifier());
+		}
+		path.append('.').append(resource.getExtension());
+		File file = new File(localRepository, path.toString());
+		return file.isFile() && !isStale(resource, file) ? file : null;
+	}
+
+	private boolean isStale(MavenResource resource, File file) {
+		return resource.getVersion().endsWith(SNAPSHOT_SUFFIX)
+				&& System.currentTimeMillis() - file.lastModified() > this.snapshotRefreshInterval;
+	}
+
+	private static String coordinates(MavenResource resource) {
+		StringBuilder coordinates = new StringBuilder().append(resource.getGroupId()).append(':')
+				.append(resource.getArtifactId()).append(':').append(resource.getExtension());
+		if (StringUtils.hasText(resource.getClassifier())) {
+			coordinates.append(':').append(resource.getClassifier());
+		}
+		return coordinates.append(':').append(resource.getVersion()).toString();
+	}
+
+	private static File await(CompletableFuture<File> resolution) throws IOException {
+		try {
+			return resolution.get();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for artifact resolution", e);
+		}
+		catch (ExecutionException e) {
+			throw (IOException) e.getCause();
+		}
+	}
+
+	/**
+	 * Copy a Maven properties bean along with its proxy, repository and authentication
+	 * settings, so that the copy shares no mutable state with the original.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> T copy(T source) {
+		T target = (T) BeanUtils.instantiateClass(source.getClass());
+		for (PropertyDescriptor descriptor : BeanUtils.getPropertyDescriptors(source.getClass())) {
+			Method read = descriptor.getReadMethod();
+			Method write = descriptor.getWriteMethod();
+			if (read != null && write != null) {
+				ReflectionUtils.invokeMethod(write, target, copyValue(ReflectionUtils.invokeMethod(read, source)));
+			}
+		}
+		return target;
+	}
+
+	private static Object copyValue(Object value) {
+		if (value instanceof Map) {
+			Map<Object, Object> copy = new LinkedHashMap<>();
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				copy.put(entry.getKey(), copyValue(entry.getValue()));
+			}
+			return copy;
+		}
+		if (value != null && value.getClass().getDeclaringClass() == MavenProperties.class) {
+			return copy(value);
+		}
+		return value;
+	}
+
+	private static <V> Map<String, V> lruMap(int maxEntries) {
+		return Collections.synchronizedMap(new LinkedHashMap<String, V>(16, 0.75f, true) {
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+				return size() > maxEntries;
+			}
+		});
+	}
+
+	private static class Miss {
+
+		private final String message;
+
+		private final long until;
+
+		Miss(String message, long until) {
+			this.message = message;
+			this.until = until;
+		}
+	}
+}
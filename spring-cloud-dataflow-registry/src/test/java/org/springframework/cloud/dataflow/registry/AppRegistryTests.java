@@ -37,6 +37,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 
 import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasProperty;
 import static org.hamcrest.Matchers.is;
@@ -45,6 +46,11 @@ import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 /**
  * Unit tests for {@link AppRegistry}.
@@ -119,6 +125,38 @@ public class AppRegistryTests {
 						hasProperty("metadataUri", nullValue()), hasProperty("type", is(ApplicationType.sink)))));
 	}
 
+	@Test
+	public void testFindAllScansRegistryOnce() {
+		UriRegistry spiedUriRegistry = spy(new InMemoryUriRegistry());
+		AppRegistry registry = new AppRegistry(spiedUriRegistry,
+				new AppResourceCommon(new MavenProperties(), resourceLoader));
+		registry.save("foo", ApplicationType.source, URI.create("classpath:/foo-source"),
+				URI.create("classpath:/foo-source-metadata"));
+		registry.save("bar", ApplicationType.sink, URI.create("classpath:/bar-sink"), null);
+
+		assertThat(registry.findAll().size(), is(2));
+		assertThat(registry.findAll().size(), is(2));
+		verify(spiedUriRegistry, times(1)).findAll();
+		verify(spiedUriRegistry, never()).find(anyString());
+
+		registry.delete("bar", ApplicationType.sink);
+		assertThat(registry.findAll(), contains(allOf(hasProperty("name", is("foo")),
+				hasProperty("metadataUri", is(URI.create("classpath:/foo-source-metadata"))))));
+		verify(spiedUriRegistry, times(2)).findAll();
+	}
+
+	@Test
+	public void testFindAllSnapshotExpires() {
+		appRegistry.save("foo", ApplicationType.source, URI.create("classpath:/foo-source"), null);
+		assertThat(appRegistry.findAll().size(), is(1));
+
+		// changes that bypass this registry are only seen once the snapshot has expired
+		uriRegistry.register("sink.bar", URI.create("classpath:/bar-sink"));
+		assertThat(appRegistry.findAll().size(), is(1));
+		appRegistry.setSnapshotTimeToLive(0);
+		assertThat(appRegistry.findAll().size(), is(2));
+	}
+
 	@Test
 	public void testFindAllPageable() {
 		uriRegistry.register("source.foo", URI.create("classpath:/foo-source"));
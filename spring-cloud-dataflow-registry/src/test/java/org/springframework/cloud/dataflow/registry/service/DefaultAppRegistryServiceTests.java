@@ -0,0 +1,241 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.registry.service;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import org.springframework.cloud.dataflow.core.ApplicationType;
+import org.springframework.cloud.dataflow.registry.domain.AppRegistration;
+import org.springframework.cloud.dataflow.registry.domain.AppRegistryChangeCounter;
+import org.springframework.cloud.dataflow.registry.repository.AppRegistrationRepository;
+import org.springframework.cloud.dataflow.registry.repository.AppRegistryChangeCounterRepository;
+import org.springframework.cloud.dataflow.registry.support.AppResourceCommon;
+import org.springframework.cloud.dataflow.registry.support.ArtifactCache;
+import org.springframework.cloud.deployer.resource.maven.MavenProperties;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the snapshot kept by {@link DefaultAppRegistryService}.
+ */
+public class DefaultAppRegistryServiceTests {
+
+	private AppRegistrationRepository appRegistrationRepository = mock(AppRegistrationRepository.class);
+
+	private AppRegistryChangeCounterRepository changeCounterRepository = mock(
+			AppRegistryChangeCounterRepository.class);
+
+	private DefaultAppRegistryService appRegistryService = new DefaultAppRegistryService(appRegistrationRepository,
+			new AppResourceCommon(new MavenProperties(), new DefaultResourceLoader()), changeCounterRepository);
+
+	private AppRegistration foo1 = appRegistration("foo", "1.0.0", true);
+
+	private AppRegistration foo2 = appRegistration("foo", "2.0.0", false);
+
+	@Before
+	public void setup() {
+		when(appRegistrationRepository.findAll()).thenReturn(Arrays.asList(foo1, foo2));
+		when(changeCounterRepository.findOne(AppRegistryChangeCounter.ID)).thenReturn(new AppRegistryChangeCounter(3));
+	}
+
+	@Test
+	public void testLookupsServedFromSnapshot() {
+		assertThat(appRegistryService.find("foo", ApplicationType.source)).isEqualToComparingFieldByField(foo1);
+		assertThat(appRegistryService.find("foo", ApplicationType.source, "2.0.0"))
+				.isEqualToComparingFieldByField(foo2);
+		assertThat(appRegistryService.find("foo", ApplicationType.sink, "2.0.0")).isNull();
+		assertThat(appRegistryService.appExist("foo", ApplicationType.source)).isTrue();
+		assertThat(appRegistryService.appExist("bar", ApplicationType.source)).isFalse();
+		assertThat(appRegistryService.findAll()).usingFieldByFieldElementComparator().containsExactly(foo1, foo2);
+
+		verify(appRegistrationRepository, times(1)).findAll();
+	}
+
+	@Test
+	public void testSnapshotIsNotSharedWithCallers() {
+		AppRegistration found = appRegistryService.find("foo", ApplicationType.source);
+		assertThat(found).isNotSameAs(foo1);
+		found.setUri(URI.create("maven://org.example:changed:1.0.0"));
+		foo2.setUri(URI.create("maven://org.example:changed:2.0.0"));
+
+		assertThat(appRegistryService.find("foo", ApplicationType.source).getUri())
+				.isEqualTo(URI.create("maven://org.example:foo:1.0.0"));
+		assertThat(appRegistryService.find("foo", ApplicationType.source, "2.0.0").getUri())
+				.isEqualTo(URI.create("maven://org.example:foo:2.0.0"));
+	}
+
+	@Test
+	public void testChangingTransactionLoadsOnlyRowsAskedFor() {
+		AppRegistration bar = appRegistration("bar", "1.0.0", false);
+		when(appRegistrationRepository.save(bar)).thenReturn(bar);
+		when(appRegistrationRepository.findAppRegistrationByNameAndTypeAndVersion("bar", ApplicationType.source,
+				"1.0.0")).thenReturn(bar);
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			appRegistryService.save(bar);
+			assertThat(appRegistryService.find("bar", ApplicationType.source, "1.0.0")).isSameAs(bar);
+			verify(appRegistrationRepository, times(0)).findAll();
+			verify(changeCounterRepository, times(0)).incrementChangeCount(AppRegistryChangeCounter.ID);
+
+			TransactionSynchronizationUtils.triggerBeforeCommit(false);
+			verify(changeCounterRepository, times(1)).incrementChangeCount(AppRegistryChangeCounter.ID);
+			TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+		}
+		finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		appRegistryService.findAll();
+		verify(appRegistrationRepository, times(1)).findAll();
+	}
+
+	@Test
+	public void testUnchangedCounterKeepsSnapshot() {
+		appRegistryService.setChangeCheckInterval(0);
+		appRegistryService.findAll();
+		appRegistryService.findAll();
+		verify(appRegistrationRepository, times(1)).findAll();
+
+		when(changeCounterRepository.findOne(AppRegistryChangeCounter.ID)).thenReturn(new AppRegistryChangeCounter(4));
+		when(appRegistrationRepository.findAll()).thenReturn(Arrays.asList(foo1));
+		assertThat(appRegistryService.findAll()).usingFieldByFieldElementComparator().containsExactly(foo1);
+		verify(appRegistrationRepository, times(2)).findAll();
+	}
+
+	@Test
+	public void testSaveIncrementsCounterAndDiscardsSnapshot() {
+		appRegistryService.findAll();
+		AppRegistration bar = appRegistration("bar", "1.0.0", false);
+		when(appRegistrationRepository.save(bar)).thenReturn(bar);
+		when(changeCounterRepository.incrementChangeCount(AppRegistryChangeCounter.ID)).thenReturn(0);
+
+		appRegistryService.save(bar);
+		assertThat(bar.isDefaultVersion()).isTrue();
+		verify(changeCounterRepository).save(any(AppRegistryChangeCounter.class));
+
+		when(appRegistrationRepository.findAll()).thenReturn(Arrays.asList(foo1, foo2, bar));
+		assertThat(appRegistryService.getDefaultApp("bar", ApplicationType.source)).isEqualToComparingFieldByField(bar);
+		verify(appRegistrationRepository, times(2)).findAll();
+	}
+
+	@Test
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public void testImportAllWritesOnlyChangedRegistrations() {
+		ByteArrayResource resource = new ByteArrayResource(("source.foo=maven://org.example:foo:1.0.0\n"
+				+ "source.foo.metadata=maven://org.example:foo:jar:metadata:1.0.0\n"
+				+ "source.bar=maven://org.example:bar:1.0.0\n"
+				+ "source.foo2=maven://org.example:foo:2.0.0\n").getBytes());
+		foo1.setUri(URI.create("maven://org.example:foo:1.0.0"));
+
+		List<AppRegistration> saved = appRegistryService.importAll(true, resource);
+
+		assertThat(saved).extracting("name").containsOnly("foo", "bar", "foo2");
+		ArgumentCaptor<Iterable> written = ArgumentCaptor.forClass(Iterable.class);
+		verify(appRegistrationRepository).save(written.capture());
+		assertThat((Iterable<AppRegistration>) written.getValue()).extracting("name").containsOnly("foo", "bar",
+				"foo2");
+		assertThat(foo1.getMetadataUri()).isEqualTo(URI.create("maven://org.example:foo:jar:metadata:1.0.0"));
+		for (AppRegistration registration : saved) {
+			assertThat(registration.isDefaultVersion()).isTrue();
+		}
+		verify(changeCounterRepository).incrementChangeCount(AppRegistryChangeCounter.ID);
+		verify(appRegistrationRepository, times(1)).findAll();
+	}
+
+	@Test
+	public void testImportAllWithoutOverwriteKeepsExistingRegistrations() {
+		ByteArrayResource resource = new ByteArrayResource(("source.foo=maven://org.example:foo:1.0.0\n"
+				+ "source.foo.metadata=maven://org.example:foo:jar:metadata:1.0.0\n").getBytes());
+
+		assertThat(appRegistryService.importAll(false, resource)).isEmpty();
+		assertThat(foo1.getMetadataUri()).isNull();
+		verify(changeCounterRepository, times(0)).incrementChangeCount(AppRegistryChangeCounter.ID);
+	}
+
+	@Test
+	public void testImportAllOnExecutor() {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(2);
+		executor.initialize();
+		appRegistryService.setImportExecutor(executor);
+		try {
+			ByteArrayResource resource = new ByteArrayResource(("source.bar=maven://org.example:bar:1.0.0\n"
+					+ "source.baz=maven://org.example:baz:1.0.0\n").getBytes());
+			assertThat(appRegistryService.importAll(false, resource)).extracting("name").containsOnly("bar", "baz");
+
+			try {
+				appRegistryService.importAll(false,
+						new ByteArrayResource("source.foo.bar.baz=maven://org.example:foo:1.0.0".getBytes()));
+				fail("Expected an IllegalArgumentException to be thrown.");
+			}
+			catch (IllegalArgumentException e) {
+				assertThat(e.getMessage()).contains("source.foo.bar.baz");
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testSaveAndDeleteEvictCachedArtifacts() {
+		ArtifactCache artifactCache = mock(ArtifactCache.class);
+		AppResourceCommon appResourceCommon = new AppResourceCommon(new MavenProperties(),
+				new DefaultResourceLoader());
+		appResourceCommon.setArtifactCache(artifactCache);
+		DefaultAppRegistryService service = new DefaultAppRegistryService(appRegistrationRepository,
+				appResourceCommon, changeCounterRepository);
+		URI uri = URI.create("http://example.com/bar-1.0.0.jar");
+		URI metadataUri = URI.create("http://example.com/bar-metadata-1.0.0.jar");
+		AppRegistration bar = new AppRegistration("bar", ApplicationType.source, "1.0.0", uri, metadataUri);
+		when(appRegistrationRepository.save(bar)).thenReturn(bar);
+
+		service.save(bar);
+		verify(artifactCache, times(1)).evict(uri);
+		verify(artifactCache, times(1)).evict(metadataUri);
+
+		when(appRegistrationRepository.findAppRegistrationByNameAndTypeAndVersion("bar", ApplicationType.source,
+				"1.0.0")).thenReturn(bar);
+		service.delete("bar", ApplicationType.source, "1.0.0");
+		verify(artifactCache, times(2)).evict(uri);
+		verify(artifactCache, times(2)).evict(metadataUri);
+	}
+
+	private static AppRegistration appRegistration(String name, String version, boolean defaultVersion) {
+		AppRegistration appRegistration = new AppRegistration(name, ApplicationType.source, version,
+				URI.create("maven://org.example:" + name + ":" + version), null);
+		appRegistration.setDefaultVersion(defaultVersion);
+		return appRegistration;
+	}
+}
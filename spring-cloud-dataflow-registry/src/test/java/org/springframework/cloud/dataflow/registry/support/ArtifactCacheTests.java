@@ -0,0 +1,242 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.registry.support;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.springframework.core.io.InputStreamSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ArtifactCacheTests {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final AtomicInteger downloads = new AtomicInteger();
+
+	@Test
+	public void testSameContentIsStoredOnce() throws Exception {
+		ArtifactCache cache = new ArtifactCache(folder.getRoot(), 1024);
+		File first = cache.getFile(URI.create("http://a/app-1.0.0.jar"), source("app"));
+		File second = cache.getFile(URI.create("http://b/app-1.0.0.jar"), source("app"));
+
+		assertThat(second).isEqualTo(first);
+		assertThat(content(first)).isEqualTo("app");
+		assertThat(cache.getCount()).isEqualTo(1);
+		assertThat(cache.getSize()).isEqualTo(3);
+
+		cache.getFile(URI.create("http://a/app-1.0.0.jar"), source("app"));
+		assertThat(downloads.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void testConcurrentRequestsShareDownload() throws Exception {
+		ArtifactCache cache = new ArtifactCache(folder.getRoot(), 1024);
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		InputStreamSource slow = () -> {
+			downloads.incrementAndGet();
+			started.countDown();
+			try {
+				release.await(10, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return new ByteArrayInputStream("app".getBytes(StandardCharsets.UTF_8));
+		};
+		URI uri = URI.create("http://a/app-1.0.0.jar");
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			Callable<File> get = () -> cache.getFile(uri, slow);
+			List<Future<File>> results = new ArrayList<>();
+			results.add(executor.submit(get));
+			assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+			for (int i = 0; i < 3; i++) {
+				results.add(executor.submit(get));
+			}
+			Thread.sleep(100);
+			release.countDown();
+			for (Future<File> result : results) {
+				assertThat(content(result.get(10, TimeUnit.SECONDS))).isEqualTo("app");
+			}
+			assertThat(downloads.get()).isEqualTo(1);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testLeastRecentlyUsedArtifactsAreEvicted() throws Exception {
+		ArtifactCache cache = new ArtifactCache(folder.getRoot(), 8);
+		cache.setPinTime(0);
+		cache.setInUseUris(() -> Collections.singleton("http://a/deployed-1.0.0.jar"));
+		URI deployed = URI.create("http://a/deployed-1.0.0.jar");
+		URI old = URI.create("http://a/old-1.0.0.jar");
+		URI recent = URI.create("http://a/recent-1.0.0.jar");
+
+		cache.getFile(deployed, source("aaa"));
+		cache.getFile(old, source("bbb"));
+		cache.getFile(recent, source("ccc"));
+		assertThat(cache.getCount()).isEqualTo(2);
+		assertThat(cache.getSize()).isEqualTo(6);
+
+		// the deployed artifact is the least recently used one, but is kept
+		cache.getFile(deployed, source("aaa"));
+		cache.getFile(recent, source("ccc"));
+		assertThat(downloads.get()).isEqualTo(3);
+		cache.getFile(old, source("bbb"));
+		assertThat(downloads.get()).isEqualTo(4);
+		assertThat(cache.getCount()).isEqualTo(2);
+
+		// the recent artifact was the least recently used one not in use
+		cache.getFile(deployed, source("aaa"));
+		assertThat(downloads.get()).isEqualTo(4);
+		cache.getFile(recent, source("ccc"));
+		assertThat(downloads.get()).isEqualTo(5);
+	}
+
+	@Test
+	public void testReturnedArtifactsArePinned() throws Exception {
+		ArtifactCache cache = new ArtifactCache(folder.getRoot(), 4);
+		File first = cache.getFile(URI.create("http://a/first-1.0.0.jar"), source("aaa"));
+		File second = cache.getFile(URI.create("http://a/second-1.0.0.jar"), source("bbb"));
+
+		// both were just handed out, so the cache stays above its size
+		assertThat(first).exists();
+		assertThat(second).exists();
+		assertThat(cache.getCount()).isEqualTo(2);
+
+		cache.setPinTime(0);
+		cache.getFile(URI.create("http://a/third-1.0.0.jar"), source("ccc"));
+		assertThat(first).doesNotExist();
+		assertThat(second).doesNotExist();
+		assertThat(cache.getCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void testInUseUrisAreOnlyQueriedWhenFull() throws Exception {
+		AtomicInteger queries = new AtomicInteger();
+		ArtifactCache cache = new ArtifactCache(folder.getRoot(), 4);
+		cache.setPinTime(0);
+		cache.setInUseUris(() -> {
+			queries.incrementAndGet();
+			return Collections.emptySet();
+		});
+		cache.getFile(URI.create("http://a/first-1.0.0.jar"), source("aaa"));
+		assertThat(queries.get()).isEqualTo(0);
+
+		cache.getFile(URI.create("http://a/second-1.0.0.jar"), source("bbb"));
+		assertThat(queries.get()).isEqualTo(1);
+		assertThat(cache.getCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void testCorruptArtifactIsDownloadedAgain() throws Exception {
+		ArtifactCache cache = new ArtifactCache(folder.getRoot(), 1024);
+		cache.setVerifyOnRead(true);
+		URI uri = URI.create("http://a/app-1.0.0.jar");
+		File file = cache.getFile(uri, source("app"));
+		try (OutputStream out = new FileOutputStream(file)) {
+			out.write("bad".getBytes(StandardCharsets.UTF_8));
+		}
+
+		file = cache.getFile(uri, source("app"));
+		assertThat(content(file)).isEqualTo("app");
+		assertThat(downloads.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void testArtifactsSurviveRestart() throws Exception {
+		URI uri = URI.create("http://a/app-1.0.0.jar");
+		File file = new ArtifactCache(folder.getRoot(), 1024).getFile(uri, source("app"));
+
+		ArtifactCache restarted = new ArtifactCache(folder.getRoot(), 1024);
+		assertThat(restarted.getCount()).isEqualTo(1);
+		assertThat(restarted.getFile(uri, source("app"))).isEqualTo(file);
+		assertThat(downloads.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void testEvictedArtifactIsDownloadedAgain() throws Exception {
+		ArtifactCache cache = new ArtifactCache(folder.getRoot(), 1024);
+		URI uri = URI.create("http://a/app-1.0.0.jar");
+		cache.getFile(uri, source("app"));
+		cache.evict(uri);
+
+		// republished at the same URI
+		assertThat(content(cache.getFile(uri, source("new")))).isEqualTo("new");
+		assertThat(downloads.get()).isEqualTo(2);
+
+		ArtifactCache restarted = new ArtifactCache(folder.getRoot(), 1024);
+		assertThat(content(restarted.getFile(uri, source("new")))).isEqualTo("new");
+		assertThat(downloads.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void testExpiredArtifactIsDownloadedAgain() throws Exception {
+		ArtifactCache cache = new ArtifactCache(folder.getRoot(), 1024);
+		URI uri = URI.create("http://a/app-1.0.0.jar");
+		cache.getFile(uri, source("app"));
+		cache.getFile(uri, source("app"));
+		assertThat(downloads.get()).isEqualTo(1);
+
+		cache.setMaxAge(0);
+		Thread.sleep(10);
+		assertThat(content(cache.getFile(uri, source("new")))).isEqualTo("new");
+		assertThat(downloads.get()).isEqualTo(2);
+
+		cache.setMaxAge(-1);
+		Thread.sleep(10);
+		assertThat(content(cache.getFile(uri, source("newer")))).isEqualTo("new");
+		assertThat(downloads.get()).isEqualTo(2);
+	}
+
+	private InputStreamSource source(String content) {
+		return () -> {
+			downloads.incrementAndGet();
+			return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+		};
+	}
+
+	private static String content(File file) throws IOException {
+		return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.registry.support;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.transfer.ArtifactNotFoundException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.springframework.cloud.deployer.resource.maven.MavenProperties;
+import org.springframework.cloud.deployer.resource.maven.MavenResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class MavenResourceCacheTests {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final AtomicInteger resolutions = new AtomicInteger();
+
+	private MavenProperties properties;
+
+	private volatile File resolved;
+
+	private volatile CountDownLatch release;
+
+	private volatile boolean unreachable;
+
+	@Before
+	public void setup() {
+		this.properties = new MavenProperties();
+		this.properties.setLocalRepository(folder.getRoot().getPath());
+	}
+
+	@Test
+	public void testResourcesAreMemoized() {
+		MavenResourceCache cache = cache(60000, 60000);
+		MavenResource resource = cache.getResource("org.example:app:jar:1.0.0");
+		assertThat(cache.getResource("org.example:app:jar:1.0.0")).isSameAs(resource);
+		assertThat(resource.getArtifactId()).isEqualTo("app");
+		assertThat(resource.getVersion()).isEqualTo("1.0.0");
+	}
+
+	@Test
+	public void testLocalArtifactIsUsedWithoutResolution() throws Exception {
+		File local = localArtifact("app", "1.0.0", 0);
+		MavenResourceCache cache = cache(60000, 60000);
+		assertThat(cache.getFile(cache.getResource("org.example:app:jar:1.0.0"))).isEqualTo(local);
+		assertThat(resolutions.get()).isEqualTo(0);
+	}
+
+	@Test
+	public void testResolvedFileIsKept() throws Exception {
+		resolved = folder.newFile("app-1.0.0.jar");
+		MavenResourceCache cache = cache(60000, 60000);
+		MavenResource resource = cache.getResource("org.example:app:jar:1.0.0");
+		assertThat(cache.getFile(resource)).isEqualTo(resolved);
+		assertThat(cache.getFile(resource)).isEqualTo(resolved);
+		assertThat(resolutions.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void testMissIsRemembered() throws Exception {
+		MavenResourceCache cache = cache(60000, 60000);
+		MavenResource resource = cache.getResource("org.example:misspelled:jar:1.0.0");
+		for (int i = 0; i < 3; i++) {
+			try {
+				cache.getFile(resource);
+				fail("Expected IOException");
+			}
+			catch (IOException e) {
+				assertThat(e.getMessage()).contains("org.example:misspelled:jar:1.0.0");
+			}
+		}
+		assertThat(resolutions.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void testMissExpires() throws Exception {
+		MavenResourceCache cache = cache(0, 60000);
+		MavenResource resource = cache.getResource("org.example:misspelled:jar:1.0.0");
+		for (int i = 0; i < 2; i++) {
+			try {
+				cache.getFile(resource);
+				fail("Expected IOException");
+			}
+			catch (IOException e) {
+				// expected
+			}
+		}
+		assertThat(resolutions.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void testTransientFailureIsNotRemembered() throws Exception {
+		unreachable = true;
+		MavenResourceCache cache = cache(60000, 60000);
+		MavenResource resource = cache.getResource("org.example:app:jar:1.0.0");
+		try {
+			cache.getFile(resource);
+			fail("Expected IOException");
+		}
+		catch (IOException e) {
+			assertThat(e.getMessage()).contains("org.example:app:jar:1.0.0");
+		}
+
+		unreachable = false;
+		resolved = folder.newFile("app-1.0.0.jar");
+		assertThat(cache.getFile(resource)).isEqualTo(resolved);
+		assertThat(resolutions.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void testOfflinePropertiesAreCopiedDeeply() {
+		MavenProperties.RemoteRepository repository = new MavenProperties.RemoteRepository("https://repo.example.com");
+		properties.setRemoteRepositories(Collections.singletonMap("example", repository));
+		MavenResourceCache cache = cache(60000, 60000);
+		MavenProperties offline = (MavenProperties) ReflectionTestUtils.getField(cache, "offlineProperties");
+		Map<String, MavenProperties.RemoteRepository> repositories = offline.getRemoteRepositories();
+		assertThat(offline.isOffline()).isTrue();
+		assertThat(properties.isOffline()).isFalse();
+		assertThat(repositories).containsOnlyKeys("example");
+		assertThat(repositories.get("example")).isNotSameAs(repository);
+		assertThat(repositories.get("example").getUrl()).isEqualTo("https://repo.example.com");
+	}
+
+	@Test
+	public void testStaleSnapshotIsResolvedAgain() throws Exception {
+		localArtifact("app", "1.0.0-SNAPSHOT", TimeUnit.HOURS.toMillis(1));
+		resolved = folder.newFile("app-1.0.0-SNAPSHOT.jar");
+		MavenResourceCache cache = cache(60000, TimeUnit.MINUTES.toMillis(5));
+		assertThat(cache.getFile(cache.getResource("org.example:app:jar:1.0.0-SNAPSHOT"))).isEqualTo(resolved);
+		assertThat(resolutions.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void testRecentSnapshotIsUsedWithoutResolution() throws Exception {
+		File local = localArtifact("app", "1.0.0-SNAPSHOT", 0);
+		MavenResourceCache cache = cache(60000, TimeUnit.MINUTES.toMillis(5));
+		assertThat(cache.getFile(cache.getResource("org.example:app:jar:1.0.0-SNAPSHOT"))).isEqualTo(local);
+		assertThat(resolutions.get()).isEqualTo(0);
+	}
+
+	@Test
+	public void testConcurrentResolutionsShareOneAttempt() throws Exception {
+		resolved = folder.newFile("app-1.0.0.jar");
+		release = new CountDownLatch(1);
+		MavenResourceCache cache = cache(60000, 60000);
+		MavenResource resource = cache.getResource("org.example:app:jar:1.0.0");
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<File>> files = new ArrayList<>();
+			for (int i = 0; i < 4; i++) {
+				files.add(executor.submit(() -> cache.getFile(resource)));
+			}
+			Thread.sleep(100);
+			release.countDown();
+			for (Future<File> file : files) {
+				assertThat(file.get(10, TimeUnit.SECONDS)).isEqualTo(resolved);
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		assertThat(resolutions.get()).isEqualTo(1);
+	}
+
+	private MavenResourceCache cache(long missTtl, long snapshotRefreshInterval) {
+		return new MavenResourceCache(properties, missTtl, snapshotRefreshInterval, 100) {
+
+			@Override
+			protected File resolve(MavenResource resource) throws IOException {
+				resolutions.incrementAndGet();
+				if (release != null) {
+					try {
+						release.await(10, TimeUnit.SECONDS);
+					}
+					catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+				if (unreachable) {
+					throw new IOException("Connection refused");
+				}
+				if (resolved == null) {
+					throw new IllegalStateException("Failed to resolve " + resource.getArtifactId(),
+							new ArtifactNotFoundException(new DefaultArtifact(resource.getGroupId(),
+									resource.getArtifactId(), resource.getExtension(), resource.getVersion()), null));
+				}
+				return resolved;
+			}
+		};
+	}
+
+	private File localArtifact(String artifactId, String version, long age) throws IOException {
+		File directory = new File(folder.getRoot(), "org/example/" + artifactId + "/" + version);
+		assertThat(directory.mkdirs()).isTrue();
+		File file = new File(directory, artifactId + "-" + version + ".jar");
+		assertThat(file.createNewFile()).isTrue();
+		assertThat(file.setLastModified(System.currentTimeMillis() - age)).isTrue();
+		return file;
+	}
+}
@@ -18,6 +18,8 @@ package org.springframework.cloud.dataflow.rest.client;
 
 import java.net.URI;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import org.springframework.batch.core.ExitStatus;
@@ -28,6 +30,8 @@ import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.item.ExecutionContext;
 import org.springframework.cloud.dataflow.rest.Version;
+import org.springframework.cloud.dataflow.rest.client.support.CompactRepresentationInterceptor;
+import org.springframework.cloud.dataflow.rest.client.support.ConditionalRequestInterceptor;
 import org.springframework.cloud.dataflow.rest.client.support.ExecutionContextJacksonMixIn;
 import org.springframework.cloud.dataflow.rest.client.support.ExitStatusJacksonMixIn;
 import org.springframework.cloud.dataflow.rest.client.support.JobExecutionJacksonMixIn;
@@ -43,6 +47,7 @@ import org.springframework.hateoas.Link;
 import org.springframework.hateoas.ResourceSupport;
 import org.springframework.hateoas.UriTemplate;
 import org.springframework.hateoas.hal.Jackson2HalModule;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.util.Assert;
@@ -266,7 +271,9 @@ public class DataFlowTemplate implements DataFlowOperations {
 	 * <li>{@link StepExecutionHistoryJacksonMixIn}
 	 * </ul>
 	 * <p>
-	 * Furthermore, this method will also register the {@link Jackson2HalModule}
+	 * Furthermore, this method will also register the {@link Jackson2HalModule}, and add a
+	 * {@link ConditionalRequestInterceptor} so that unchanged resources are not transferred
+	 * again when polled.
 	 *
 	 * @param restTemplate Can be null. Instantiates a new {@link RestTemplate} if null
 	 * @return RestTemplate with the required Jackson Mixins
@@ -300,6 +307,16 @@ public class DataFlowTemplate implements DataFlowOperations {
 			throw new IllegalArgumentException(
 					"The RestTemplate does not contain a required " + "MappingJackson2HttpMessageConverter.");
 		}
+
+		boolean containsConditionalRequestInterceptor = false;
+		for (ClientHttpRequestInterceptor interceptor : restTemplate.getInterceptors()) {
+			if (interceptor instanceof ConditionalRequestInterceptor) {
+				containsConditionalRequestInterceptor = true;
+			}
+		}
+		if (!containsConditionalRequestInterceptor) {
+			restTemplate.getInterceptors().add(new ConditionalRequestInterceptor());
+		}
 		return restTemplate;
 	}
 
@@ -376,6 +393,35 @@ public class DataFlowTemplate implements DataFlowOperations {
 		return schedulerOperations;
 	}
 
+	/**
+	 * Whether collections are requested in the compact representation, in which their
+	 * items carry no links. Off by default; only enable it when the links of collection
+	 * items are not followed. Servers not supporting the compact representation keep
+	 * returning the full one.
+	 *
+	 * @param compactRepresentations {@code true} to add a
+	 * {@link CompactRepresentationInterceptor} to the underlying {@link RestTemplate},
+	 * {@code false} to remove it
+	 */
+	public void setCompactRepresentations(boolean compactRepresentations) {
+		List<ClientHttpRequestInterceptor> interceptors = this.restTemplate.getInterceptors();
+		boolean containsCompactRepresentationInterceptor = false;
+		for (Iterator<ClientHttpRequestInterceptor> iterator = interceptors.iterator(); iterator.hasNext();) {
+			if (iterator.next() instanceof CompactRepresentationInterceptor) {
+				if (compactRepresentations) {
+					containsCompactRepresentationInterceptor = true;
+				}
+				else {
+					iterator.remove();
+				}
+			}
+		}
+		if (compactRepresentations && !containsCompactRepresentationInterceptor) {
+			// first, so that responses are kept per negotiated representation
+			interceptors.add(0, new CompactRepresentationInterceptor());
+		}
+	}
+
 	/**
 	 * @return The underlying RestTemplate, will never return null
 	 */
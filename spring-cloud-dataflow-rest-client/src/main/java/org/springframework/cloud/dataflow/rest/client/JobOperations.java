@@ -16,7 +16,10 @@
 
 package org.springframework.cloud.dataflow.rest.client;
 
+import java.util.Iterator;
+
 import org.springframework.cloud.dataflow.rest.resource.JobExecutionResource;
+import org.springframework.cloud.dataflow.rest.resource.JobExecutionThinResource;
 import org.springframework.cloud.dataflow.rest.resource.JobInstanceResource;
 import org.springframework.cloud.dataflow.rest.resource.StepExecutionProgressInfoResource;
 import org.springframework.cloud.dataflow.rest.resource.StepExecutionResource;
@@ -48,6 +51,18 @@ public interface JobOperations {
 	 */
 	PagedResources<JobExecutionResource> executionListByJobName(String jobName);
 
+	/**
+	 * Iterate over all job executions with an id greater than {@code afterExecutionId}, in
+	 * ascending id order. Executions are streamed from the server's export endpoint in
+	 * chunks, so the iterator can be used to read an arbitrary number of executions with
+	 * constant memory.
+	 *
+	 * @param afterExecutionId the job execution id to continue after, {@code -1} to start
+	 * from the first execution
+	 * @return an iterator over the job executions
+	 */
+	Iterator<JobExecutionThinResource> executionExport(long afterExecutionId);
+
 	/**
 	 * Return the {@link JobExecutionResource} for the id specified.
 	 *
@@ -16,7 +16,11 @@
 
 package org.springframework.cloud.dataflow.rest.client;
 
+import java.util.Iterator;
+
+import org.springframework.cloud.dataflow.rest.client.support.ExecutionExportIterator;
 import org.springframework.cloud.dataflow.rest.resource.JobExecutionResource;
+import org.springframework.cloud.dataflow.rest.resource.JobExecutionThinResource;
 import org.springframework.cloud.dataflow.rest.resource.JobInstanceResource;
 import org.springframework.cloud.dataflow.rest.resource.StepExecutionProgressInfoResource;
 import org.springframework.cloud.dataflow.rest.resource.StepExecutionResource;
@@ -47,6 +51,8 @@ public class JobTemplate implements JobOperations {
 
 	private static final String STEP_EXECUTION_PROGRESS_RELATION_BY_ID = "jobs/executions/execution/steps/step/progress";
 
+	private static final int EXPORT_CHUNK_SIZE = 1000;
+
 	private final RestTemplate restTemplate;
 
 	private final Link executionsLink;
@@ -110,6 +116,13 @@ public class JobTemplate implements JobOperations {
 				JobExecutionResource.Page.class);
 	}
 
+	@Override
+	public Iterator<JobExecutionThinResource> executionExport(long afterExecutionId) {
+		return new ExecutionExportIterator<>(restTemplate, executionsLink.getHref() + "/export",
+				JobExecutionThinResource.class, JobExecutionThinResource::getExecutionId, afterExecutionId,
+				EXPORT_CHUNK_SIZE);
+	}
+
 	@Override
 	public JobExecutionResource jobExecution(long id) {
 		return restTemplate.getForObject(executionLink.expand(id).getHref(), JobExecutionResource.class);
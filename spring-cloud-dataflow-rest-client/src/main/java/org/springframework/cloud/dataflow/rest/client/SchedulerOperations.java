@@ -19,6 +19,8 @@ package org.springframework.cloud.dataflow.rest.client;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.cloud.dataflow.rest.CreateScheduleRequest;
+import org.springframework.cloud.dataflow.rest.ScheduleResult;
 import org.springframework.cloud.dataflow.rest.resource.ScheduleInfoResource;
 import org.springframework.cloud.scheduler.spi.core.ScheduleInfo;
 import org.springframework.hateoas.PagedResources;
@@ -57,6 +59,23 @@ public interface SchedulerOperations {
 	 */
 	void unschedule(String scheduleName);
 
+	/**
+	 * Creates all of the given schedules in one request. A failure to create one schedule
+	 * does not prevent the others from being created.
+	 *
+	 * @param createScheduleRequests the schedules to create.
+	 * @return the outcome for each schedule.
+	 */
+	List<ScheduleResult> schedule(List<CreateScheduleRequest> createScheduleRequests);
+
+	/**
+	 * Unschedules all of the given schedules in one request.
+	 *
+	 * @param scheduleNames the names of the schedules to be removed.
+	 * @return the outcome for each schedule.
+	 */
+	List<ScheduleResult> unschedule(List<String> scheduleNames);
+
 	/**
 	 * List all of the Schedules associated with the provided TaskDefinition.
 	 *
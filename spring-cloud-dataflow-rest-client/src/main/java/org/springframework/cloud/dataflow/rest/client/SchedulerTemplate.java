@@ -16,18 +16,24 @@
 
 package org.springframework.cloud.dataflow.rest.client;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.cloud.dataflow.rest.CreateScheduleRequest;
+import org.springframework.cloud.dataflow.rest.ScheduleResult;
 import org.springframework.cloud.dataflow.rest.resource.ScheduleInfoResource;
 import org.springframework.cloud.dataflow.rest.util.DeploymentPropertiesUtils;
 import org.springframework.hateoas.Link;
 import org.springframework.hateoas.PagedResources;
 import org.springframework.hateoas.ResourceSupport;
+import org.springframework.http.HttpMethod;
 import org.springframework.util.Assert;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.util.StringUtils;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
 
 /**
  * Implementation for
@@ -75,6 +81,22 @@ public class SchedulerTemplate implements SchedulerOperations {
 		restTemplate.delete(schedulesLink.getHref() + "/" + scheduleName);
 	}
 
+	@Override
+	public List<ScheduleResult> schedule(List<CreateScheduleRequest> createScheduleRequests) {
+		ScheduleResult[] results = restTemplate.postForObject(schedulesLink.getHref() + "/bulk",
+				createScheduleRequests, ScheduleResult[].class);
+		return Arrays.asList(results);
+	}
+
+	@Override
+	public List<ScheduleResult> unschedule(List<String> scheduleNames) {
+		String uri = UriComponentsBuilder.fromUriString(schedulesLink.getHref())
+				.queryParam("names", StringUtils.collectionToCommaDelimitedString(scheduleNames)).toUriString();
+		ScheduleResult[] results = restTemplate.exchange(uri, HttpMethod.DELETE, null, ScheduleResult[].class)
+				.getBody();
+		return Arrays.asList(results);
+	}
+
 	@Override
 	public PagedResources<ScheduleInfoResource> list(String taskDefinitionName) {
 		return restTemplate.getForObject(schedulesInstanceLink.expand(taskDefinitionName).getHref(),
@@ -16,6 +16,7 @@
 
 package org.springframework.cloud.dataflow.rest.client;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -81,6 +82,18 @@ public interface TaskOperations {
 	 */
 	PagedResources<TaskExecutionResource> executionListByTaskName(String taskName);
 
+	/**
+	 * Iterate over all task executions with an id greater than {@code afterExecutionId},
+	 * in ascending id order. Executions are streamed from the server's export endpoint in
+	 * chunks, so the iterator can be used to read an arbitrary number of executions with
+	 * constant memory.
+	 *
+	 * @param afterExecutionId the execution id to continue after, {@code -1} to start from
+	 * the first execution
+	 * @return an iterator over the task executions
+	 */
+	Iterator<TaskExecutionResource> executionExport(long afterExecutionId);
+
 	/**
 	 * Return the {@link TaskExecutionResource} for the id specified.
 	 *
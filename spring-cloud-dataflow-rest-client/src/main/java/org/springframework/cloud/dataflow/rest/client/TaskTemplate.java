@@ -17,11 +17,13 @@
 package org.springframework.cloud.dataflow.rest.client;
 
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 import javax.naming.OperationNotSupportedException;
 
+import org.springframework.cloud.dataflow.rest.client.support.ExecutionExportIterator;
 import org.springframework.cloud.dataflow.rest.client.support.VersionUtils;
 import org.springframework.cloud.dataflow.rest.resource.CurrentTaskExecutionsResource;
 import org.springframework.cloud.dataflow.rest.resource.TaskAppStatusResource;
@@ -65,6 +67,8 @@ public class TaskTemplate implements TaskOperations {
 
 	private static final String VALIDATION_REL = "tasks/validation";
 
+	private static final int EXPORT_CHUNK_SIZE = 1000;
+
 	private final RestTemplate restTemplate;
 
 	private final Link definitionsLink;
@@ -159,6 +163,13 @@ public class TaskTemplate implements TaskOperations {
 				TaskExecutionResource.Page.class);
 	}
 
+	@Override
+	public Iterator<TaskExecutionResource> executionExport(long afterExecutionId) {
+		return new ExecutionExportIterator<>(restTemplate, executionsLink.getHref() + "/export",
+				TaskExecutionResource.class, TaskExecutionResource::getExecutionId, afterExecutionId,
+				EXPORT_CHUNK_SIZE);
+	}
+
 	@Override
 	public TaskExecutionResource taskExecutionStatus(long id) {
 		return restTemplate.getForObject(executionLink.expand(id).getHref(), TaskExecutionResource.class);
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.rest.client.support;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.cloud.dataflow.rest.DataFlowMediaTypes;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * {@link ClientHttpRequestInterceptor} that asks for the
+ * {@link DataFlowMediaTypes#COMPACT_JSON compact} representation of resources, in which
+ * the items of a collection carry no links. The compact type is put first in the
+ * {@code Accept} header of {@code GET} requests that already accept it through a
+ * wildcard such as {@code application/*+json}, that is, whose response can be read by
+ * the message converter either way. The other types are kept, so that servers not
+ * supporting it return the full representation.
+ * <p>
+ * Setting the header per request, instead of adding the type to the supported media
+ * types of the message converter, keeps request bodies written as plain JSON.
+ */
+public class CompactRepresentationInterceptor implements ClientHttpRequestInterceptor {
+
+	@Override
+	public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+			throws IOException {
+		if (request.getMethod() == HttpMethod.GET) {
+			List<MediaType> accept = request.getHeaders().getAccept();
+			if (readsCompact(accept) && !accept.contains(DataFlowMediaTypes.COMPACT_JSON)) {
+				List<MediaType> mediaTypes = new ArrayList<>(accept.size() + 1);
+				mediaTypes.add(DataFlowMediaTypes.COMPACT_JSON);
+				mediaTypes.addAll(accept);
+				request.getHeaders().setAccept(mediaTypes);
+			}
+		}
+		return execution.execute(request, body);
+	}
+
+	private static boolean readsCompact(List<MediaType> accept) {
+		for (MediaType mediaType : accept) {
+			if (!mediaType.isWildcardType() && mediaType.includes(DataFlowMediaTypes.COMPACT_JSON)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.rest.client.support;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.Assert;
+import org.springframework.util.StreamUtils;
+
+/**
+ * {@link ClientHttpRequestInterceptor} that keeps the body of {@code GET} responses
+ * carrying an {@code ETag}, sends that tag as {@code If-None-Match} when the same
+ * resource is requested again, and answers a {@code 304 Not Modified} from the server
+ * with the kept body. Polling an unchanged resource then costs the server neither
+ * building nor serializing it.
+ * <p>
+ * Responses are kept per URI and {@code Accept} header, for at most a fixed number of
+ * resources, the least recently used being dropped first. Responses without an
+ * {@code ETag} are passed through without being buffered, as are requests that already
+ * carry an {@code If-None-Match} header.
+ */
+public class ConditionalRequestInterceptor implements ClientHttpRequestInterceptor {
+
+	/**
+	 * Default maximum number of resources whose last response is kept.
+	 */
+	public static final int DEFAULT_MAX_ENTRIES = 100;
+
+	private final Map<String, CachedResponse> responses;
+
+	public ConditionalRequestInterceptor() {
+		this(DEFAULT_MAX_ENTRIES);
+	}
+
+	/**
+	 * Create an interceptor.
+	 *
+	 * @param maxEntries the maximum number of resources whose last response is kept
+	 */
+	public ConditionalRequestInterceptor(int maxEntries) {
+		Assert.isTrue(maxEntries > 0, "maxEntries must be greater than 0");
+		this.responses = Collections.synchronizedMap(new LinkedHashMap<String, CachedResponse>(16, 0.75f, true) {
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+				return size() > maxEntries;
+			}
+		});
+	}
+
+	@Override
+	public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+			throws IOException {
+		if (request.getMethod() != HttpMethod.GET || request.getHeaders().containsKey(HttpHeaders.IF_NONE_MATCH)) {
+			return execution.execute(request, body);
+		}
+		String key = request.getURI() + " " + request.getHeaders().getAccept();
+		CachedResponse cached = this.responses.get(key);
+		if (cached != null) {
+			request.getHeaders().setIfNoneMatch(cached.headers.getETag());
+		}
+		ClientHttpResponse response = execution.execute(request, body);
+		HttpStatus status = response.getStatusCode();
+		if (cached != null && status == HttpStatus.NOT_MODIFIED) {
+			response.close();
+			return cached;
+		}
+		if (status != HttpStatus.OK || response.getHeaders().getETag() == null) {
+			if (cached != null) {
+				this.responses.remove(key);
+			}
+			return response;
+		}
+		try {
+			CachedResponse fresh = new CachedResponse(response.getStatusText(), response.getHeaders(),
+					StreamUtils.copyToByteArray(response.getBody()));
+			this.responses.put(key, fresh);
+			return fresh;
+		}
+		finally {
+			response.close();
+		}
+	}
+
+	/**
+	 * A {@code 200 OK} response held in memory, which can be read any number of times.
+	 */
+	private static class CachedResponse implements ClientHttpResponse {
+
+		private final String statusText;
+
+		private final HttpHeaders headers;
+
+		private final byte[] body;
+
+		CachedResponse(String statusText, HttpHeaders headers, byte[] body) {
+			this.statusText = statusText;
+			this.headers = new HttpHeaders();
+			this.headers.putAll(headers);
+			this.body = body;
+		}
+
+		@Override
+		public HttpStatus getStatusCode() {
+			return HttpStatus.OK;
+		}
+
+		@Override
+		public int getRawStatusCode() {
+			return HttpStatus.OK.value();
+		}
+
+		@Override
+		public String getStatusText() {
+			return this.statusText;
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return HttpHeaders.readOnlyHttpHeaders(this.headers);
+		}
+
+		@Override
+		public InputStream getBody() {
+			return new ByteArrayInputStream(this.body);
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
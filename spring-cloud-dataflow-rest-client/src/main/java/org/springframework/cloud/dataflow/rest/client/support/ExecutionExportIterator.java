@@ -0,0 +1,145 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.rest.client.support;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.ToLongFunction;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.util.Assert;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * {@link Iterator} over the newline-delimited JSON export endpoints of the Data Flow
+ * server. Records are requested in chunks of a fixed size; the key of the last record
+ * of a chunk is sent as the {@code after} continuation token for the next one, so at
+ * most one chunk is held in memory regardless of the total number of records.
+ *
+ * @param <T> the type each record is read into
+ */
+public class ExecutionExportIterator<T> implements Iterator<T> {
+
+	private static final MediaType NDJSON = MediaType.valueOf("application/x-ndjson");
+
+	private final RestTemplate restTemplate;
+
+	private final String exportUri;
+
+	private final ObjectReader reader;
+
+	private final ToLongFunction<T> keyExtractor;
+
+	private final int chunkSize;
+
+	private Iterator<T> current = Collections.emptyIterator();
+
+	private long after;
+
+	private boolean exhausted;
+
+	/**
+	 * Create an iterator over an export endpoint.
+	 *
+	 * @param restTemplate the template used to issue the requests
+	 * @param exportUri the URI of the export endpoint, without query parameters
+	 * @param type the type each record is read into
+	 * @param keyExtractor extracts the continuation key from a record
+	 * @param after the key to start after, {@code -1} to start from the beginning
+	 * @param chunkSize the number of records requested at a time
+	 */
+	public ExecutionExportIterator(RestTemplate restTemplate, String exportUri, Class<T> type,
+			ToLongFunction<T> keyExtractor, long after, int chunkSize) {
+		Assert.notNull(restTemplate, "restTemplate must not be null");
+		Assert.hasText(exportUri, "exportUri must not be empty");
+		Assert.notNull(type, "type must not be null");
+		Assert.notNull(keyExtractor, "keyExtractor must not be null");
+		Assert.isTrue(chunkSize > 0, "chunkSize must be greater than 0");
+		this.restTemplate = restTemplate;
+		this.exportUri = exportUri;
+		this.reader = objectMapper(restTemplate).readerFor(type)
+				.without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+		this.keyExtractor = keyExtractor;
+		this.after = after;
+		this.chunkSize = chunkSize;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (!this.current.hasNext() && !this.exhausted) {
+			List<T> chunk = fetchChunk();
+			this.exhausted = chunk.size() < this.chunkSize;
+			if (!chunk.isEmpty()) {
+				this.after = this.keyExtractor.applyAsLong(chunk.get(chunk.size() - 1));
+			}
+			this.current = chunk.iterator();
+		}
+		return this.current.hasNext();
+	}
+
+	@Override
+	public T next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		return this.current.next();
+	}
+
+	private List<T> fetchChunk() {
+		String uri = UriComponentsBuilder.fromUriString(this.exportUri)
+				.queryParam("after", this.after)
+				.queryParam("size", this.chunkSize)
+				.build().toUriString();
+		return this.restTemplate.execute(uri, HttpMethod.GET,
+				request -> request.getHeaders().setAccept(Collections.singletonList(NDJSON)),
+				response -> {
+					List<T> records = new ArrayList<>(this.chunkSize);
+					BufferedReader lines = new BufferedReader(
+							new InputStreamReader(response.getBody(), StandardCharsets.UTF_8));
+					String line;
+					while ((line = lines.readLine()) != null) {
+						if (!line.trim().isEmpty()) {
+							records.add(this.reader.readValue(line));
+						}
+					}
+					return records;
+				});
+	}
+
+	private static ObjectMapper objectMapper(RestTemplate restTemplate) {
+		for (HttpMessageConverter<?> converter : restTemplate.getMessageConverters()) {
+			if (converter instanceof MappingJackson2HttpMessageConverter) {
+				return ((MappingJackson2HttpMessageConverter) converter).getObjectMapper();
+			}
+		}
+		return new ObjectMapper();
+	}
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.rest.client;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.cloud.dataflow.rest.client.support.ConditionalRequestInterceptor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+public class ConditionalRequestInterceptorTests {
+
+	private RestTemplate restTemplate;
+
+	private MockRestServiceServer server;
+
+	@Before
+	public void setup() {
+		this.restTemplate = new RestTemplate();
+		this.restTemplate.getInterceptors().add(new ConditionalRequestInterceptor(1));
+		this.server = MockRestServiceServer.bindTo(this.restTemplate).build();
+	}
+
+	@Test
+	public void testNotModifiedResponseIsAnsweredWithKeptBody() {
+		this.server.expect(requestTo("/streams/definitions"))
+				.andExpect(request -> assertThat(request.getHeaders().getIfNoneMatch()).isEmpty())
+				.andRespond(withSuccess("first", MediaType.TEXT_PLAIN).headers(etag("\"a-1\"")));
+		this.server.expect(requestTo("/streams/definitions")).andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"a-1\""))
+				.andRespond(withStatus(HttpStatus.NOT_MODIFIED));
+		this.server.expect(requestTo("/streams/definitions")).andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"a-1\""))
+				.andRespond(withSuccess("second", MediaType.TEXT_PLAIN).headers(etag("\"a-2\"")));
+
+		assertThat(this.restTemplate.getForObject("/streams/definitions", String.class)).isEqualTo("first");
+		assertThat(this.restTemplate.getForObject("/streams/definitions", String.class)).isEqualTo("first");
+		assertThat(this.restTemplate.getForObject("/streams/definitions", String.class)).isEqualTo("second");
+		this.server.verify();
+	}
+
+	@Test
+	public void testOnlyTaggedGetResponsesAreKept() {
+		this.server.expect(requestTo("/apps")).andRespond(withSuccess("untagged", MediaType.TEXT_PLAIN));
+		this.server.expect(requestTo("/apps"))
+				.andExpect(request -> assertThat(request.getHeaders().getIfNoneMatch()).isEmpty())
+				.andRespond(withSuccess("untagged", MediaType.TEXT_PLAIN));
+		this.server.expect(requestTo("/tasks/definitions")).andExpect(method(HttpMethod.POST))
+				.andRespond(withSuccess("created", MediaType.TEXT_PLAIN).headers(etag("\"b-1\"")));
+		this.server.expect(requestTo("/tasks/definitions")).andExpect(method(HttpMethod.GET))
+				.andExpect(request -> assertThat(request.getHeaders().getIfNoneMatch()).isEmpty())
+				.andRespond(withSuccess("listed", MediaType.TEXT_PLAIN));
+
+		this.restTemplate.getForObject("/apps", String.class);
+		this.restTemplate.getForObject("/apps", String.class);
+		this.restTemplate.postForObject("/tasks/definitions", "", String.class);
+		this.restTemplate.getForObject("/tasks/definitions", String.class);
+		this.server.verify();
+	}
+
+	@Test
+	public void testLeastRecentlyUsedResponseIsDropped() {
+		this.server.expect(requestTo("/apps")).andRespond(withSuccess("apps", MediaType.TEXT_PLAIN)
+				.headers(etag("\"c-1\"")));
+		this.server.expect(requestTo("/runtime/apps")).andRespond(withSuccess("statuses", MediaType.TEXT_PLAIN)
+				.headers(etag("\"d-1\"")));
+		this.server.expect(requestTo("/apps"))
+				.andExpect(request -> assertThat(request.getHeaders().getIfNoneMatch()).isEmpty())
+				.andRespond(withSuccess("apps", MediaType.TEXT_PLAIN));
+
+		this.restTemplate.getForObject("/apps", String.class);
+		this.restTemplate.getForObject("/runtime/apps", String.class);
+		this.restTemplate.getForObject("/apps", String.class);
+		this.server.verify();
+	}
+
+	private static HttpHeaders etag(String etag) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setETag(etag);
+		return headers;
+	}
+}
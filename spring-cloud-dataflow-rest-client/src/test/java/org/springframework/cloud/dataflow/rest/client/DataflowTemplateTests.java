@@ -34,15 +34,18 @@ import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.item.ExecutionContext;
 import org.springframework.cloud.dataflow.rest.Version;
+import org.springframework.cloud.dataflow.rest.client.support.CompactRepresentationInterceptor;
 import org.springframework.cloud.dataflow.rest.job.StepExecutionHistory;
 import org.springframework.cloud.dataflow.rest.resource.RootResource;
 import org.springframework.hateoas.Link;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -218,6 +221,27 @@ public class DataflowTemplateTests {
 		testAlwaysActiveOperations(template);
 	}
 
+	@Test
+	public void testCompactRepresentationsAreOptIn() throws Exception {
+		for (ClientHttpRequestInterceptor interceptor : DataFlowTemplate.prepareRestTemplate(null).getInterceptors()) {
+			assertFalse(interceptor instanceof CompactRepresentationInterceptor);
+		}
+
+		DataFlowTemplate template = getMockedDataFlowTemplate(true);
+		List<ClientHttpRequestInterceptor> interceptors = new ArrayList<>();
+		interceptors.add(mock(ClientHttpRequestInterceptor.class));
+		when(template.getRestTemplate().getInterceptors()).thenReturn(interceptors);
+
+		template.setCompactRepresentations(true);
+		template.setCompactRepresentations(true);
+		assertEquals(2, interceptors.size());
+		assertTrue(interceptors.get(0) instanceof CompactRepresentationInterceptor);
+
+		template.setCompactRepresentations(false);
+		assertEquals(1, interceptors.size());
+		assertFalse(interceptors.get(0) instanceof CompactRepresentationInterceptor);
+	}
+
 	private void testAlwaysActiveOperations(DataFlowTemplate template) {
 		//these operations are always active
 		assertNotNull(template.aboutOperation());
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.rest.client.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+public class ExecutionExportIteratorTests {
+
+	private static final String EXPORT_URI = "http://localhost/tasks/executions/export";
+
+	private static final MediaType NDJSON = MediaType.valueOf("application/x-ndjson");
+
+	private RestTemplate restTemplate;
+
+	private MockRestServiceServer server;
+
+	@Before
+	public void setup() {
+		this.restTemplate = new RestTemplate();
+		this.server = MockRestServiceServer.bindTo(this.restTemplate).build();
+	}
+
+	@Test
+	public void testChunksAreRequestedAfterLastKey() {
+		this.server.expect(requestTo(EXPORT_URI + "?after=-1&size=2"))
+				.andExpect(header(HttpHeaders.ACCEPT, NDJSON.toString()))
+				.andRespond(withSuccess(record(3, "foo") + record(5, "bar"), NDJSON));
+		this.server.expect(requestTo(EXPORT_URI + "?after=5&size=2"))
+				.andRespond(withSuccess(record(8, "baz"), NDJSON));
+
+		List<Long> ids = new ArrayList<>();
+		List<String> names = new ArrayList<>();
+		ExecutionExportIterator<Record> iterator = iterator(-1, 2);
+		while (iterator.hasNext()) {
+			Record record = iterator.next();
+			ids.add(record.executionId);
+			names.add(record.taskName);
+		}
+		assertThat(ids).containsExactly(3L, 5L, 8L);
+		assertThat(names).containsExactly("foo", "bar", "baz");
+		assertThat(iterator.hasNext()).isFalse();
+		this.server.verify();
+	}
+
+	@Test
+	public void testFullLastChunkIsFollowedByEmptyChunk() {
+		this.server.expect(requestTo(EXPORT_URI + "?after=10&size=2"))
+				.andRespond(withSuccess(record(11, "foo") + "\n" + record(12, "foo"), NDJSON));
+		this.server.expect(requestTo(EXPORT_URI + "?after=12&size=2"))
+				.andRespond(withSuccess("", NDJSON));
+
+		ExecutionExportIterator<Record> iterator = iterator(10, 2);
+		assertThat(iterator.next().executionId).isEqualTo(11L);
+		assertThat(iterator.next().executionId).isEqualTo(12L);
+		assertThat(iterator.hasNext()).isFalse();
+		try {
+			iterator.next();
+			fail("Expected a NoSuchElementException to be thrown.");
+		}
+		catch (NoSuchElementException e) {
+		}
+		this.server.verify();
+	}
+
+	@Test
+	public void testUnknownFieldsAreIgnored() {
+		this.server.expect(requestTo(EXPORT_URI + "?after=-1&size=5"))
+				.andRespond(withSuccess("{\"executionId\":1,\"taskName\":\"foo\",\"exitCode\":0}\n", NDJSON));
+
+		ExecutionExportIterator<Record> iterator = iterator(-1, 5);
+		Record record = iterator.next();
+		assertThat(record.executionId).isEqualTo(1L);
+		assertThat(record.taskName).isEqualTo("foo");
+		assertThat(iterator.hasNext()).isFalse();
+		this.server.verify();
+	}
+
+	private ExecutionExportIterator<Record> iterator(long after, int chunkSize) {
+		return new ExecutionExportIterator<>(this.restTemplate, EXPORT_URI, Record.class,
+				record -> record.executionId, after, chunkSize);
+	}
+
+	private static String record(long executionId, String taskName) {
+		return "{\"executionId\":" + executionId + ",\"taskName\":\"" + taskName + "\"}\n";
+	}
+
+	static class Record {
+
+		public long executionId;
+
+		public String taskName;
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.rest;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Captures the data required to create one schedule as part of a bulk schedule request.
+ */
+public class CreateScheduleRequest {
+
+	private String scheduleName;
+
+	private String taskDefinitionName;
+
+	private Map<String, String> properties;
+
+	private List<String> arguments;
+
+	public CreateScheduleRequest() {
+	}
+
+	public CreateScheduleRequest(String scheduleName, String taskDefinitionName, Map<String, String> properties,
+			List<String> arguments) {
+		this.scheduleName = scheduleName;
+		this.taskDefinitionName = taskDefinitionName;
+		this.properties = properties;
+		this.arguments = arguments;
+	}
+
+	public String getScheduleName() {
+		return scheduleName;
+	}
+
+	public void setScheduleName(String scheduleName) {
+		this.scheduleName = scheduleName;
+	}
+
+	public String getTaskDefinitionName() {
+		return taskDefinitionName;
+	}
+
+	public void setTaskDefinitionName(String taskDefinitionName) {
+		this.taskDefinitionName = taskDefinitionName;
+	}
+
+	public Map<String, String> getProperties() {
+		return properties;
+	}
+
+	public void setProperties(Map<String, String> properties) {
+		this.properties = properties;
+	}
+
+	public List<String> getArguments() {
+		return arguments;
+	}
+
+	public void setArguments(List<String> arguments) {
+		this.arguments = arguments;
+	}
+
+	@Override
+	public String toString() {
+		return "CreateScheduleRequest{" +
+				"scheduleName='" + scheduleName + '\'' +
+				", taskDefinitionName='" + taskDefinitionName + '\'' +
+				", properties=" + properties +
+				", arguments=" + arguments +
+				'}';
+	}
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.rest;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Media types of the Data Flow REST API, shared by clients and servers.
+ */
+public final class DataFlowMediaTypes {
+
+	/**
+	 * Compact JSON representation of collections. It has the same structure as the HAL
+	 * representation, but the items of a collection carry no links of their own, which
+	 * the server then does not need to build. Links of the collection itself, such as
+	 * paging links, are kept. Other resources are returned unchanged.
+	 */
+	public static final String COMPACT_JSON_VALUE = "application/vnd.dataflow.compact+json";
+
+	/**
+	 * @see #COMPACT_JSON_VALUE
+	 */
+	public static final MediaType COMPACT_JSON = MediaType.valueOf(COMPACT_JSON_VALUE);
+
+	private DataFlowMediaTypes() {
+
+	}
+
+}
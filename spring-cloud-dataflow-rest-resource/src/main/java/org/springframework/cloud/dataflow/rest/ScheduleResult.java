@@ -0,0 +1,91 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.rest;
+
+/**
+ * Outcome of creating or removing one schedule as part of a bulk schedule request.
+ */
+public class ScheduleResult {
+
+	private String scheduleName;
+
+	private String taskDefinitionName;
+
+	private boolean success;
+
+	private String errorMessage;
+
+	public ScheduleResult() {
+	}
+
+	public ScheduleResult(String scheduleName, String taskDefinitionName, boolean success, String errorMessage) {
+		this.scheduleName = scheduleName;
+		this.taskDefinitionName = taskDefinitionName;
+		this.success = success;
+		this.errorMessage = errorMessage;
+	}
+
+	public static ScheduleResult succeeded(String scheduleName, String taskDefinitionName) {
+		return new ScheduleResult(scheduleName, taskDefinitionName, true, null);
+	}
+
+	public static ScheduleResult failed(String scheduleName, String taskDefinitionName, String errorMessage) {
+		return new ScheduleResult(scheduleName, taskDefinitionName, false, errorMessage);
+	}
+
+	public String getScheduleName() {
+		return scheduleName;
+	}
+
+	public void setScheduleName(String scheduleName) {
+		this.scheduleName = scheduleName;
+	}
+
+	public String getTaskDefinitionName() {
+		return taskDefinitionName;
+	}
+
+	public void setTaskDefinitionName(String taskDefinitionName) {
+		this.taskDefinitionName = taskDefinitionName;
+	}
+
+	public boolean isSuccess() {
+		return success;
+	}
+
+	public void setSuccess(boolean success) {
+		this.success = success;
+	}
+
+	public String getErrorMessage() {
+		return errorMessage;
+	}
+
+	public void setErrorMessage(String errorMessage) {
+		this.errorMessage = errorMessage;
+	}
+
+	@Override
+	public String toString() {
+		return "ScheduleResult{" +
+				"scheduleName='" + scheduleName + '\'' +
+				", taskDefinitionName='" + taskDefinitionName + '\'' +
+				", success=" + success +
+				", errorMessage='" + errorMessage + '\'' +
+				'}';
+	}
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.rest.resource;
+
+import java.util.Date;
+
+/**
+ * A flat representation of a job execution as written by the job execution export
+ * endpoint. Unlike {@link JobExecutionResource} it does not carry step executions, job
+ * parameters or links, so that every record can be produced from a single row.
+ */
+public class JobExecutionThinResource {
+
+	/**
+	 * The unique id associated with the job execution.
+	 */
+	private long executionId;
+
+	/**
+	 * The id of the job instance this execution belongs to.
+	 */
+	private long jobInstanceId;
+
+	/**
+	 * The name of the job.
+	 */
+	private String name;
+
+	/**
+	 * The id of the task execution that launched this job, if any.
+	 */
+	private Long taskExecutionId;
+
+	/**
+	 * The batch status of the job execution.
+	 */
+	private String status;
+
+	/**
+	 * The exit code of the job execution.
+	 */
+	private String exitCode;
+
+	/**
+	 * The exit description of the job execution.
+	 */
+	private String exitMessage;
+
+	/**
+	 * Time of when the job execution was created.
+	 */
+	private Date createTime;
+
+	/**
+	 * Time of when the job execution was started.
+	 */
+	private Date startTime;
+
+	/**
+	 * Time of when the job execution was completed.
+	 */
+	private Date endTime;
+
+	/**
+	 * Time of when the job execution was last updated.
+	 */
+	private Date lastUpdated;
+
+	public long getExecutionId() {
+		return executionId;
+	}
+
+	public void setExecutionId(long executionId) {
+		this.executionId = executionId;
+	}
+
+	public long getJobInstanceId() {
+		return jobInstanceId;
+	}
+
+	public void setJobInstanceId(long jobInstanceId) {
+		this.jobInstanceId = jobInstanceId;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public Long getTaskExecutionId() {
+		return taskExecutionId;
+	}
+
+	public void setTaskExecutionId(Long taskExecutionId) {
+		this.taskExecutionId = taskExecutionId;
+	}
+
+	public String getStatus() {
+		return status;
+	}
+
+	public void setStatus(String status) {
+		this.status = status;
+	}
+
+	public String getExitCode() {
+		return exitCode;
+	}
+
+	public void setExitCode(String exitCode) {
+		this.exitCode = exitCode;
+	}
+
+	public String getExitMessage() {
+		return exitMessage;
+	}
+
+	public void setExitMessage(String exitMessage) {
+		this.exitMessage = exitMessage;
+	}
+
+	public Date getCreateTime() {
+		return createTime;
+	}
+
+	public void setCreateTime(Date createTime) {
+		this.createTime = createTime;
+	}
+
+	public Date getStartTime() {
+		return startTime;
+	}
+
+	public void setStartTime(Date startTime) {
+		this.startTime = startTime;
+	}
+
+	public Date getEndTime() {
+		return endTime;
+	}
+
+	public void setEndTime(Date endTime) {
+		this.endTime = endTime;
+	}
+
+	public Date getLastUpdated() {
+		return lastUpdated;
+	}
+
+	public void setLastUpdated(Date lastUpdated) {
+		this.lastUpdated = lastUpdated;
+	}
+}
@@ -39,6 +39,21 @@ public class DockerValidatorProperties {
 	private int connectTimeoutInMillis = 10000;
 	private int readTimeoutInMillis = 10000;
 
+	/**
+	 * Maximum number of connections kept open to the registry.
+	 */
+	private int maxConnections = 20;
+
+	/**
+	 * How long the tags of a repository are cached.
+	 */
+	private long tagCacheTtlInMillis = 60000;
+
+	/**
+	 * How long an auth token is used if it does not state its own expiry.
+	 */
+	private long authTokenTtlInMillis = 300000;
+
 	public String getUserName() {
 		return userName;
 	}
@@ -86,5 +101,28 @@ public class DockerValidatorProperties {
 	public void setReadTimeoutInMillis(int readTimeoutInMillis) {
 		this.readTimeoutInMillis = readTimeoutInMillis;
 	}
-}
 
+	public int getMaxConnections() {
+		return maxConnections;
+	}
+
+	public void setMaxConnections(int maxConnections) {
+		this.maxConnections = maxConnections;
+	}
+
+	public long getTagCacheTtlInMillis() {
+		return tagCacheTtlInMillis;
+	}
+
+	public void setTagCacheTtlInMillis(long tagCacheTtlInMillis) {
+		this.tagCacheTtlInMillis = tagCacheTtlInMillis;
+	}
+
+	public long getAuthTokenTtlInMillis() {
+		return authTokenTtlInMillis;
+	}
+
+	public void setAuthTokenTtlInMillis(long authTokenTtlInMillis) {
+		this.authTokenTtlInMillis = authTokenTtlInMillis;
+	}
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.cluster;
+
+import org.springframework.context.ApplicationEvent;
+import org.springframework.util.Assert;
+
+/**
+ * Published when another server has changed the state of a topic.
+ *
+ * @see ClusterCoordinator
+ */
+public class ClusterChangeEvent extends ApplicationEvent {
+
+	private final String topic;
+
+	public ClusterChangeEvent(Object source, String topic) {
+		super(source);
+		Assert.hasText(topic, "topic must not be empty");
+		this.topic = topic;
+	}
+
+	/**
+	 * @return the changed state
+	 */
+	public String getTopic() {
+		return this.topic;
+	}
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.cluster;
+
+/**
+ * Tells the other Data Flow servers sharing the database which state this server
+ * changed, so that they invalidate what they cache of it.
+ * <p>
+ * Changes published by the other servers are delivered to this server as
+ * {@link ClusterChangeEvent application events}. Delivery is asynchronous and
+ * implementations may coalesce the changes of a topic, so listeners must treat an event
+ * as "the state may have changed since you last read it" rather than as a record of a
+ * single change. No lock is held across the servers.
+ */
+public interface ClusterCoordinator {
+
+	/**
+	 * Publish a change of the given topic to the other servers.
+	 *
+	 * @param topic the changed state, such as the name of a
+	 * {@link org.springframework.cloud.dataflow.server.support.ChangeVersions.Domain}
+	 */
+	void publish(String topic);
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.cluster;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ClusterCoordinator} whose members live in the same JVM, for tests. A change
+ * published by one member is delivered synchronously to all other members of its
+ * cluster.
+ */
+public class InMemoryClusterCoordinator implements ClusterCoordinator, ApplicationEventPublisherAware {
+
+	private final List<InMemoryClusterCoordinator> members;
+
+	private ApplicationEventPublisher applicationEventPublisher;
+
+	/**
+	 * Create the first member of a new cluster.
+	 */
+	public InMemoryClusterCoordinator() {
+		this(new CopyOnWriteArrayList<>());
+	}
+
+	private InMemoryClusterCoordinator(List<InMemoryClusterCoordinator> members) {
+		this.members = members;
+		this.members.add(this);
+	}
+
+	/**
+	 * @return a new member of the cluster of this coordinator
+	 */
+	public InMemoryClusterCoordinator join() {
+		return new InMemoryClusterCoordinator(this.members);
+	}
+
+	@Override
+	public void setApplicationEventPublisher(ApplicationEventPublisher applicationEventPublisher) {
+		this.applicationEventPublisher = applicationEventPublisher;
+	}
+
+	@Override
+	public void publish(String topic) {
+		Assert.hasText(topic, "topic must not be empty");
+		for (InMemoryClusterCoordinator member : this.members) {
+			if (member != this && member.applicationEventPublisher != null) {
+				member.applicationEventPublisher.publishEvent(new ClusterChangeEvent(member, topic));
+			}
+		}
+	}
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.cluster;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ClusterCoordinator} that exchanges changes through the
+ * {@code DATAFLOW_CHANGE_LOG} table, which holds one version per topic.
+ * <p>
+ * Published topics are only marked as pending. A single thread then, once per poll
+ * interval, increments the version of every pending topic and reads the versions of all
+ * topics, which is a scan of a table with a handful of rows. A topic whose version grew by
+ * more than the increments of this server was changed by another server, and a
+ * {@link ClusterChangeEvent} is published for it. Several changes of a topic within one
+ * interval are written, and notified, as one.
+ */
+public class JdbcClusterCoordinator
+		implements ClusterCoordinator, ApplicationEventPublisherAware, InitializingBean, DisposableBean {
+
+	private static final Logger logger = LoggerFactory.getLogger(JdbcClusterCoordinator.class);
+
+	private static final String INCREMENT = "UPDATE DATAFLOW_CHANGE_LOG SET CHANGE_VERSION = CHANGE_VERSION + 1, "
+			+ "INSTANCE_ID = ? WHERE TOPIC = ?";
+
+	private static final String INSERT = "INSERT INTO DATAFLOW_CHANGE_LOG (TOPIC, CHANGE_VERSION, INSTANCE_ID) "
+			+ "VALUES (?, 1, ?)";
+
+	private static final String VERSIONS = "SELECT TOPIC, CHANGE_VERSION FROM DATAFLOW_CHANGE_LOG";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final String instanceId;
+
+	private final long pollInterval;
+
+	private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Versions last read, or written, by this server. Only accessed by the poller.
+	 */
+	private final Map<String, Long> versions = new HashMap<>();
+
+	private ScheduledExecutorService executor;
+
+	private ApplicationEventPublisher applicationEventPublisher;
+
+	private boolean initialized;
+
+	/**
+	 * Create a coordinator.
+	 *
+	 * @param dataSource the data source shared by the servers
+	 * @param instanceId identifies this server in the change log
+	 * @param pollInterval time in milliseconds between two exchanges with the change log
+	 */
+	public JdbcClusterCoordinator(DataSource dataSource, String instanceId, long pollInterval) {
+		Assert.notNull(dataSource, "dataSource must not be null");
+		Assert.hasText(instanceId, "instanceId must not be empty");
+		Assert.isTrue(pollInterval > 0, "pollInterval must be positive");
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.instanceId = instanceId;
+		this.pollInterval = pollInterval;
+	}
+
+	@Override
+	public void setApplicationEventPublisher(ApplicationEventPublisher applicationEventPublisher) {
+		this.applicationEventPublisher = applicationEventPublisher;
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		this.executor = new ScheduledThreadPoolExecutor(1, new CustomizableThreadFactory("dataflow-cluster-"));
+		this.executor.scheduleWithFixedDelay(this::poll, 0, this.pollInterval, TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	public void destroy() {
+		if (this.executor != null) {
+			this.executor.shutdownNow();
+		}
+	}
+
+	@Override
+	public void publish(String topic) {
+		Assert.hasText(topic, "topic must not be empty");
+		this.pending.add(topic);
+	}
+
+	/**
+	 * Write the pending changes and notify the changes of the other servers.
+	 */
+	void poll() {
+		try {
+			Map<String, Long> written = new HashMap<>();
+			for (String topic : this.pending) {
+				this.pending.remove(topic);
+				try {
+					increment(topic);
+				}
+				catch (DataAccessException e) {
+					this.pending.add(topic);
+					throw e;
+				}
+				written.merge(topic, 1L, Long::sum);
+			}
+			Map<String, Long> current = new HashMap<>();
+			this.jdbcTemplate.query(VERSIONS,
+					resultSet -> {
+						current.put(resultSet.getString("TOPIC"), resultSet.getLong("CHANGE_VERSION"));
+					});
+			for (Map.Entry<String, Long> entry : current.entrySet()) {
+				String topic = entry.getKey();
+				Long previous = this.versions.put(topic, entry.getValue());
+				long ownChanges = written.getOrDefault(topic, 0L);
+				long changes = entry.getValue() - (previous != null ? previous : 0L);
+				if (this.initialized && changes > ownChanges) {
+					notify(topic);
+				}
+			}
+			this.initialized = true;
+		}
+		catch (DataAccessException e) {
+			logger.warn("Could not exchange changes with the change log, retrying with the next poll", e);
+		}
+		catch (RuntimeException e) {
+			logger.warn("Could not notify cluster changes, retrying with the next poll", e);
+		}
+	}
+
+	private void increment(String topic) {
+		if (this.jdbcTemplate.update(INCREMENT, this.instanceId, topic) > 0) {
+			return;
+		}
+		try {
+			this.jdbcTemplate.update(INSERT, topic, this.instanceId);
+		}
+		catch (DuplicateKeyException e) {
+			// another server created the topic in the meantime
+			this.jdbcTemplate.update(INCREMENT, this.instanceId, topic);
+		}
+	}
+
+	private void notify(String topic) {
+		logger.debug("Topic {} was changed by another server", topic);
+		if (this.applicationEventPublisher != null) {
+			this.applicationEventPublisher.publishEvent(new ClusterChangeEvent(this, topic));
+		}
+	}
+}
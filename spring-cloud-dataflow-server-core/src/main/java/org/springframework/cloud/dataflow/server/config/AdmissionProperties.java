@@ -0,0 +1,167 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.cloud.dataflow.core.DataFlowPropertyKeys;
+
+/**
+ * Configuration properties for namespace 'spring.cloud.dataflow.admission', controlling
+ * the concurrency limits of the expensive endpoints.
+ */
+@ConfigurationProperties(prefix = AdmissionProperties.PREFIX)
+public class AdmissionProperties {
+
+	public static final String PREFIX = DataFlowPropertyKeys.PREFIX + "admission";
+
+	/**
+	 * Whether the requests of the classes below are admitted under their concurrency
+	 * limit.
+	 */
+	private boolean enabled = true;
+
+	/**
+	 * Classes of requests, keyed by name. A request belongs to the first class it matches.
+	 */
+	private Map<String, RequestClass> classes = new LinkedHashMap<>();
+
+	public AdmissionProperties() {
+		this.classes.put("validation", new RequestClass(4, 16, Collections.emptyList(),
+				"/streams/validation/**", "/tasks/validation/**"));
+		this.classes.put("app-details", new RequestClass(4, 16, Collections.singletonList("GET"),
+				"/apps/*/*", "/apps/*/*/*"));
+		this.classes.put("completions", new RequestClass(4, 8, Collections.emptyList(), "/completions/**"));
+		this.classes.put("runtime", new RequestClass(8, 32, Collections.singletonList("GET"), "/runtime/apps",
+				"/runtime/apps/**"));
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public Map<String, RequestClass> getClasses() {
+		return classes;
+	}
+
+	public void setClasses(Map<String, RequestClass> classes) {
+		this.classes = classes;
+	}
+
+	public static class RequestClass {
+
+		/**
+		 * Ant style path patterns of the requests of the class.
+		 */
+		private List<String> patterns = new ArrayList<>();
+
+		/**
+		 * HTTP methods of the requests of the class, all methods if empty.
+		 */
+		private List<String> methods = new ArrayList<>();
+
+		/**
+		 * Maximum number of requests of the class served concurrently.
+		 */
+		private int maxConcurrent = 4;
+
+		/**
+		 * Maximum number of requests of the class waiting to be served. Requests beyond
+		 * are rejected with '429 Too Many Requests' at once.
+		 */
+		private int maxQueued = 16;
+
+		/**
+		 * Maximum time in milliseconds a request waits to be served before it is
+		 * rejected.
+		 */
+		private long maxWait = 2000;
+
+		/**
+		 * Time in seconds sent in the 'Retry-After' header of rejected requests.
+		 */
+		private long retryAfter = 1;
+
+		public RequestClass() {
+		}
+
+		RequestClass(int maxConcurrent, int maxQueued, List<String> methods, String... patterns) {
+			this.maxConcurrent = maxConcurrent;
+			this.maxQueued = maxQueued;
+			this.methods = new ArrayList<>(methods);
+			this.patterns = new ArrayList<>(Arrays.asList(patterns));
+		}
+
+		public List<String> getPatterns() {
+			return patterns;
+		}
+
+		public void setPatterns(List<String> patterns) {
+			this.patterns = patterns;
+		}
+
+		public List<String> getMethods() {
+			return methods;
+		}
+
+		public void setMethods(List<String> methods) {
+			this.methods = methods;
+		}
+
+		public int getMaxConcurrent() {
+			return maxConcurrent;
+		}
+
+		public void setMaxConcurrent(int maxConcurrent) {
+			this.maxConcurrent = maxConcurrent;
+		}
+
+		public int getMaxQueued() {
+			return maxQueued;
+		}
+
+		public void setMaxQueued(int maxQueued) {
+			this.maxQueued = maxQueued;
+		}
+
+		public long getMaxWait() {
+			return maxWait;
+		}
+
+		public void setMaxWait(long maxWait) {
+			this.maxWait = maxWait;
+		}
+
+		public long getRetryAfter() {
+			return retryAfter;
+		}
+
+		public void setRetryAfter(long retryAfter) {
+			this.retryAfter = retryAfter;
+		}
+	}
+}
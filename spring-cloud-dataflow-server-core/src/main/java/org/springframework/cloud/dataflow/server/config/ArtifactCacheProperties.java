@@ -0,0 +1,117 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.config;
+
+import java.io.File;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.cloud.dataflow.core.DataFlowPropertyKeys;
+
+/**
+ * Configuration properties for namespace 'spring.cloud.dataflow.app-registry.cache',
+ * controlling the local store of app artifacts downloaded over http(s).
+ */
+@ConfigurationProperties(prefix = ArtifactCacheProperties.PREFIX)
+public class ArtifactCacheProperties {
+
+	public static final String PREFIX = DataFlowPropertyKeys.PREFIX + "app-registry.cache";
+
+	/**
+	 * Whether downloaded artifacts are kept in the cache. If disabled, artifacts are
+	 * downloaded to a temporary file on every use.
+	 */
+	private boolean enabled = true;
+
+	/**
+	 * Directory in which artifacts are stored.
+	 */
+	private String directory = new File(System.getProperty("java.io.tmpdir"), "spring-cloud-dataflow-artifacts")
+			.getPath();
+
+	/**
+	 * Size in megabytes above which the least recently used artifacts are evicted.
+	 * Artifacts of deployed apps are never evicted.
+	 */
+	private long maxSizeMb = 2048;
+
+	/**
+	 * Whether the digest of an artifact is verified every time it is read, rather than
+	 * only its size.
+	 */
+	private boolean verifyOnRead;
+
+	/**
+	 * Time in milliseconds for which an artifact that was handed out is not evicted, so
+	 * that it is not deleted while it is being read.
+	 */
+	private long pinTime = 60_000;
+
+	/**
+	 * Time in milliseconds after which an artifact is downloaded again from its URI, so
+	 * that an artifact published again at the same URI is picked up. A negative value
+	 * keeps using a downloaded artifact until it is evicted.
+	 */
+	private long maxAge = 3_600_000;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public String getDirectory() {
+		return directory;
+	}
+
+	public void setDirectory(String directory) {
+		this.directory = directory;
+	}
+
+	public long getMaxSizeMb() {
+		return maxSizeMb;
+	}
+
+	public void setMaxSizeMb(long maxSizeMb) {
+		this.maxSizeMb = maxSizeMb;
+	}
+
+	public boolean isVerifyOnRead() {
+		return verifyOnRead;
+	}
+
+	public void setVerifyOnRead(boolean verifyOnRead) {
+		this.verifyOnRead = verifyOnRead;
+	}
+
+	public long getPinTime() {
+		return pinTime;
+	}
+
+	public void setPinTime(long pinTime) {
+		this.pinTime = pinTime;
+	}
+
+	public long getMaxAge() {
+		return maxAge;
+	}
+
+	public void setMaxAge(long maxAge) {
+		this.maxAge = maxAge;
+	}
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.config;
+
+import java.util.UUID;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.cloud.dataflow.core.DataFlowPropertyKeys;
+
+/**
+ * Configuration properties for namespace 'spring.cloud.dataflow.cluster', controlling how
+ * several servers sharing a database keep the state they cache consistent.
+ */
+@ConfigurationProperties(prefix = ClusterProperties.PREFIX)
+public class ClusterProperties {
+
+	public static final String PREFIX = DataFlowPropertyKeys.PREFIX + "cluster";
+
+	/**
+	 * Whether changes made through this server are exchanged with the other servers
+	 * through the DATAFLOW_CHANGE_LOG table.
+	 */
+	private boolean enabled = false;
+
+	/**
+	 * Time in milliseconds between two exchanges with the change log, which bounds how
+	 * long a change made through another server goes unnoticed.
+	 */
+	private long pollInterval = 1000;
+
+	/**
+	 * Identifies this server in the change log. Defaults to a random value.
+	 */
+	private String instanceId = UUID.randomUUID().toString();
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public long getPollInterval() {
+		return pollInterval;
+	}
+
+	public void setPollInterval(long pollInterval) {
+		this.pollInterval = pollInterval;
+	}
+
+	public String getInstanceId() {
+		return instanceId;
+	}
+
+	public void setInstanceId(String instanceId) {
+		this.instanceId = instanceId;
+	}
+}
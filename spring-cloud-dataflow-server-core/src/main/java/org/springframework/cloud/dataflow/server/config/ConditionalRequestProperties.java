@@ -0,0 +1,75 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.cloud.dataflow.core.DataFlowPropertyKeys;
+
+/**
+ * Configuration properties for namespace 'spring.cloud.dataflow.conditional-requests',
+ * controlling how conditional requests for the definition, registration and runtime
+ * lists are answered.
+ */
+@ConfigurationProperties(prefix = ConditionalRequestProperties.PREFIX)
+public class ConditionalRequestProperties {
+
+	public static final String PREFIX = DataFlowPropertyKeys.PREFIX + "conditional-requests";
+
+	/**
+	 * Whether the lists carry an ETag and Last-Modified header and conditional requests
+	 * for them can be answered with 304 Not Modified.
+	 */
+	private boolean enabled = true;
+
+	/**
+	 * Time in seconds after which the versions of the stream and task definitions and of
+	 * the app registrations change even if they were not changed through this server.
+	 * Bounds how long changes made by other servers sharing the database go unnoticed.
+	 */
+	private long storedStateTtl = 30;
+
+	/**
+	 * Time in seconds after which the versions of the app statuses and task executions
+	 * change even if they were not changed through this server. Bounds how long state
+	 * changes on the platform go unnoticed.
+	 */
+	private long runtimeStateTtl = 5;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public long getStoredStateTtl() {
+		return storedStateTtl;
+	}
+
+	public void setStoredStateTtl(long storedStateTtl) {
+		this.storedStateTtl = storedStateTtl;
+	}
+
+	public long getRuntimeStateTtl() {
+		return runtimeStateTtl;
+	}
+
+	public void setRuntimeStateTtl(long runtimeStateTtl) {
+		this.runtimeStateTtl = runtimeStateTtl;
+	}
+}
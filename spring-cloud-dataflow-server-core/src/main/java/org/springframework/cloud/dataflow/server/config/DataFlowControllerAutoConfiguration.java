@@ -16,10 +16,13 @@
 
 package org.springframework.cloud.dataflow.server.config;
 
+import java.io.File;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
 import javax.sql.DataSource;
 
@@ -35,6 +38,8 @@ import org.springframework.analytics.rest.controller.CounterController;
 import org.springframework.analytics.rest.controller.FieldValueCounterController;
 import org.springframework.batch.admin.service.JobService;
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.boot.actuate.metrics.GaugeService;
 import org.springframework.boot.actuate.metrics.repository.MetricRepository;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -43,7 +48,6 @@ import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.cloud.client.circuitbreaker.EnableCircuitBreaker;
 import org.springframework.cloud.common.security.AuthorizationProperties;
 import org.springframework.cloud.common.security.support.FileSecurityProperties;
 import org.springframework.cloud.common.security.support.LdapSecurityProperties;
@@ -57,9 +61,12 @@ import org.springframework.cloud.dataflow.registry.AppRegistry;
 import org.springframework.cloud.dataflow.registry.AppRegistryCommon;
 import org.springframework.cloud.dataflow.registry.RdbmsUriRegistry;
 import org.springframework.cloud.dataflow.registry.repository.AppRegistrationRepository;
+import org.springframework.cloud.dataflow.registry.repository.AppRegistryChangeCounterRepository;
 import org.springframework.cloud.dataflow.registry.service.AppRegistryService;
 import org.springframework.cloud.dataflow.registry.service.DefaultAppRegistryService;
 import org.springframework.cloud.dataflow.registry.support.AppResourceCommon;
+import org.springframework.cloud.dataflow.registry.support.ArtifactCache;
+import org.springframework.cloud.dataflow.registry.support.MavenResourceCache;
 import org.springframework.cloud.dataflow.server.ConditionalOnSkipperDisabled;
 import org.springframework.cloud.dataflow.server.ConditionalOnSkipperEnabled;
 import org.springframework.cloud.dataflow.server.DockerValidatorProperties;
@@ -67,12 +74,15 @@ import org.springframework.cloud.dataflow.server.TaskValidationController;
 import org.springframework.cloud.dataflow.server.audit.repository.AuditRecordRepository;
 import org.springframework.cloud.dataflow.server.audit.service.AuditRecordService;
 import org.springframework.cloud.dataflow.server.audit.service.DefaultAuditRecordService;
+import org.springframework.cloud.dataflow.server.cluster.ClusterCoordinator;
 import org.springframework.cloud.dataflow.server.config.apps.CommonApplicationProperties;
 import org.springframework.cloud.dataflow.server.config.features.FeaturesProperties;
 import org.springframework.cloud.dataflow.server.controller.AboutController;
+import org.springframework.cloud.dataflow.server.controller.AppMetadataPrefetchController;
 import org.springframework.cloud.dataflow.server.controller.AppRegistryController;
 import org.springframework.cloud.dataflow.server.controller.AuditRecordController;
 import org.springframework.cloud.dataflow.server.controller.CompletionController;
+import org.springframework.cloud.dataflow.server.controller.DeploymentEventsController;
 import org.springframework.cloud.dataflow.server.controller.JobExecutionController;
 import org.springframework.cloud.dataflow.server.controller.JobInstanceController;
 import org.springframework.cloud.dataflow.server.controller.JobStepExecutionController;
@@ -94,27 +104,44 @@ import org.springframework.cloud.dataflow.server.controller.ToolsController;
 import org.springframework.cloud.dataflow.server.controller.UiController;
 import org.springframework.cloud.dataflow.server.controller.security.LoginController;
 import org.springframework.cloud.dataflow.server.controller.security.SecurityController;
+import org.springframework.cloud.dataflow.server.controller.support.AdmissionHandlerInterceptor;
+import org.springframework.cloud.dataflow.server.controller.support.LatencyHandlerInterceptor;
 import org.springframework.cloud.dataflow.server.controller.support.MetricStore;
+import org.springframework.cloud.dataflow.server.controller.support.RequestAdmission;
 import org.springframework.cloud.dataflow.server.repository.DeploymentIdRepository;
+import org.springframework.cloud.dataflow.server.repository.LatestTaskExecutionRepository;
 import org.springframework.cloud.dataflow.server.repository.StreamDefinitionRepository;
 import org.springframework.cloud.dataflow.server.repository.StreamDeploymentRepository;
 import org.springframework.cloud.dataflow.server.repository.TaskDefinitionRepository;
+import org.springframework.cloud.dataflow.server.repository.support.RepositoryDataSources;
+import org.springframework.cloud.dataflow.server.service.AppMetadataPrefetchProperties;
+import org.springframework.cloud.dataflow.server.service.ExecutionExportService;
 import org.springframework.cloud.dataflow.server.service.SchedulerService;
 import org.springframework.cloud.dataflow.server.service.SkipperStreamService;
 import org.springframework.cloud.dataflow.server.service.StreamService;
 import org.springframework.cloud.dataflow.server.service.StreamValidationService;
 import org.springframework.cloud.dataflow.server.service.TaskJobService;
+import org.springframework.cloud.dataflow.server.service.TaskRetentionService;
 import org.springframework.cloud.dataflow.server.service.TaskService;
 import org.springframework.cloud.dataflow.server.service.TaskValidationService;
+import org.springframework.cloud.dataflow.server.service.impl.AppMetadataPrefetcher;
 import org.springframework.cloud.dataflow.server.service.impl.AppDeployerStreamService;
 import org.springframework.cloud.dataflow.server.service.impl.AppDeploymentRequestCreator;
 import org.springframework.cloud.dataflow.server.service.impl.DefaultSkipperStreamService;
+import org.springframework.cloud.dataflow.server.service.impl.DeployedAppArtifacts;
 import org.springframework.cloud.dataflow.server.service.impl.TaskConfigurationProperties;
 import org.springframework.cloud.dataflow.server.service.impl.validation.DefaultStreamValidationService;
 import org.springframework.cloud.dataflow.server.service.impl.validation.DefaultTaskValidationService;
+import org.springframework.cloud.dataflow.server.service.impl.validation.DockerRegistryClient;
 import org.springframework.cloud.dataflow.server.stream.AppDeployerStreamDeployer;
+import org.springframework.cloud.dataflow.server.stream.DeploymentStateMonitor;
 import org.springframework.cloud.dataflow.server.stream.SkipperStreamDeployer;
 import org.springframework.cloud.dataflow.server.stream.StreamDeployer;
+import org.springframework.cloud.dataflow.server.support.AppRegistryInvalidator;
+import org.springframework.cloud.dataflow.server.support.ChangeVersions;
+import org.springframework.cloud.dataflow.server.support.ConcurrencyLimiter;
+import org.springframework.cloud.dataflow.server.support.LatencyInstrumentingPostProcessor;
+import org.springframework.cloud.dataflow.server.support.LatencyRecorder;
 import org.springframework.cloud.deployer.resource.maven.MavenProperties;
 import org.springframework.cloud.deployer.resource.maven.MavenResourceLoader;
 import org.springframework.cloud.deployer.resource.registry.UriRegistry;
@@ -138,8 +165,12 @@ import org.springframework.hateoas.hal.Jackson2HalModule;
 import org.springframework.http.converter.StringHttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.scheduling.concurrent.ForkJoinPoolFactoryBean;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
 
 /**
  * Configuration for the Data Flow Server Controllers.
@@ -156,9 +187,10 @@ import org.springframework.web.client.RestTemplate;
 @Import(CompletionConfiguration.class)
 @ConditionalOnBean({ EnableDataFlowServerConfiguration.Marker.class, TaskLauncher.class })
 @EnableConfigurationProperties({ FeaturesProperties.class, VersionInfoProperties.class, MetricsProperties.class,
-		DockerValidatorProperties.class })
+		DockerValidatorProperties.class, AppMetadataPrefetchProperties.class, ArtifactCacheProperties.class,
+		MavenResourceCacheProperties.class, ConditionalRequestProperties.class, DeploymentEventsProperties.class,
+		LatencyProperties.class, AdmissionProperties.class })
 @ConditionalOnProperty(prefix = "dataflow.server", name = "enabled", havingValue = "true", matchIfMissing = true)
-@EnableCircuitBreaker
 @EntityScan({
 		"org.springframework.cloud.dataflow.registry.domain",
 		"org.springframework.cloud.dataflow.server.audit.domain"
@@ -195,10 +227,14 @@ public class DataFlowControllerAutoConfiguration {
 	@ConditionalOnBean({ StreamDefinitionRepository.class, StreamDeploymentRepository.class })
 	public StreamValidationService streamValidationService(AppRegistryCommon appRegistryCommon,
 			DockerValidatorProperties dockerValidatorProperties,
-			StreamDefinitionRepository streamDefinitionRepository) {
-		return new DefaultStreamValidationService(appRegistryCommon,
+			StreamDefinitionRepository streamDefinitionRepository, ThreadPoolTaskExecutor appValidationExecutor,
+			DockerRegistryClient dockerRegistryClient) {
+		DefaultStreamValidationService streamValidationService = new DefaultStreamValidationService(appRegistryCommon,
 				dockerValidatorProperties,
 				streamDefinitionRepository);
+		streamValidationService.setExecutor(appValidationExecutor);
+		streamValidationService.setDockerRegistryClient(dockerRegistryClient);
+		return streamValidationService;
 	}
 
 	@Bean
@@ -215,8 +251,10 @@ public class DataFlowControllerAutoConfiguration {
 	@Bean
 	@ConditionalOnBean(StreamDefinitionRepository.class)
 	public StreamDefinitionController streamDefinitionController(StreamDefinitionRepository repository,
-			StreamService streamService) {
-		return new StreamDefinitionController(streamService);
+			StreamService streamService, ObjectProvider<ChangeVersions> changeVersions) {
+		StreamDefinitionController streamDefinitionController = new StreamDefinitionController(streamService);
+		streamDefinitionController.setChangeVersions(changeVersions.getIfAvailable());
+		return streamDefinitionController;
 	}
 
 	@Bean
@@ -230,11 +268,15 @@ public class DataFlowControllerAutoConfiguration {
 	public TaskValidationService taskValidationService(AppRegistryCommon appRegistryCommon,
 			DockerValidatorProperties dockerValidatorProperties,
 			TaskDefinitionRepository taskDefinitionRepository,
-			TaskConfigurationProperties taskConfigurationProperties) {
-		return new DefaultTaskValidationService(appRegistryCommon,
+			TaskConfigurationProperties taskConfigurationProperties, ThreadPoolTaskExecutor appValidationExecutor,
+			DockerRegistryClient dockerRegistryClient) {
+		DefaultTaskValidationService taskValidationService = new DefaultTaskValidationService(appRegistryCommon,
 				dockerValidatorProperties,
 				taskDefinitionRepository,
 				taskConfigurationProperties.getComposedTaskRunnerName());
+		taskValidationService.setExecutor(appValidationExecutor);
+		taskValidationService.setDockerRegistryClient(dockerRegistryClient);
+		return taskValidationService;
 	}
 
 	@Bean
@@ -251,6 +293,48 @@ public class DataFlowControllerAutoConfiguration {
 		return forkJoinPoolFactoryBean;
 	}
 
+	@Bean
+	@ConditionalOnMissingBean(name = "appImportExecutor")
+	public ThreadPoolTaskExecutor appImportExecutor() {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(4);
+		executor.setMaxPoolSize(4);
+		executor.setAllowCoreThreadTimeOut(true);
+		executor.setThreadNamePrefix("app-import-");
+		return executor;
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	public DockerRegistryClient dockerRegistryClient(DockerValidatorProperties dockerValidatorProperties) {
+		return new DockerRegistryClient(dockerValidatorProperties);
+	}
+
+	@Bean
+	@ConditionalOnMissingBean(name = "appValidationExecutor")
+	public ThreadPoolTaskExecutor appValidationExecutor() {
+		// validating an app mostly waits on the network or the disk, so more threads than cores
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(16);
+		executor.setMaxPoolSize(16);
+		executor.setAllowCoreThreadTimeOut(true);
+		executor.setThreadNamePrefix("app-validation-");
+		return executor;
+	}
+
+	@Bean
+	public AppMetadataPrefetcher appMetadataPrefetcher(AppRegistryCommon appRegistry,
+			AppMetadataPrefetchProperties appMetadataPrefetchProperties, ObjectProvider<CounterService> counterService,
+			ObjectProvider<GaugeService> gaugeService) {
+		return new AppMetadataPrefetcher(appRegistry, appMetadataPrefetchProperties, counterService.getIfAvailable(),
+				gaugeService.getIfAvailable());
+	}
+
+	@Bean
+	public AppMetadataPrefetchController appMetadataPrefetchController(AppMetadataPrefetcher appMetadataPrefetcher) {
+		return new AppMetadataPrefetchController(appMetadataPrefetcher);
+	}
+
 	@Bean
 	public AppDeploymentRequestCreator streamDeploymentPropertiesUtils(AppRegistryCommon appRegistry,
 			CommonApplicationProperties commonApplicationProperties,
@@ -262,8 +346,32 @@ public class DataFlowControllerAutoConfiguration {
 
 	@Bean
 	@ConditionalOnBean({ StreamDefinitionRepository.class, StreamDeploymentRepository.class })
-	public RuntimeAppsController runtimeAppsController(StreamDeployer streamDeployer) {
-		return new RuntimeAppsController(streamDeployer);
+	public RuntimeAppsController runtimeAppsController(StreamDeployer streamDeployer,
+			ObjectProvider<ChangeVersions> changeVersions) {
+		RuntimeAppsController runtimeAppsController = new RuntimeAppsController(streamDeployer);
+		runtimeAppsController.setChangeVersions(changeVersions.getIfAvailable());
+		return runtimeAppsController;
+	}
+
+	@Bean
+	@ConditionalOnBean({ StreamDefinitionRepository.class, StreamDeploymentRepository.class })
+	@ConditionalOnProperty(prefix = DeploymentEventsProperties.PREFIX, name = "enabled", matchIfMissing = true)
+	public DeploymentStateMonitor deploymentStateMonitor(StreamDefinitionRepository streamDefinitionRepository,
+			StreamDeployer streamDeployer, DeploymentEventsProperties properties,
+			ObjectProvider<ChangeVersions> changeVersions) {
+		DeploymentStateMonitor deploymentStateMonitor = new DeploymentStateMonitor(streamDefinitionRepository,
+				streamDeployer, TimeUnit.SECONDS.toMillis(properties.getPollInterval()));
+		deploymentStateMonitor.setChangeVersions(changeVersions.getIfAvailable());
+		deploymentStateMonitor.setMaxPendingUpdates(properties.getMaxPendingUpdates());
+		return deploymentStateMonitor;
+	}
+
+	@Bean
+	@ConditionalOnBean(DeploymentStateMonitor.class)
+	public DeploymentEventsController deploymentEventsController(DeploymentStateMonitor deploymentStateMonitor,
+			DeploymentEventsProperties properties) {
+		return new DeploymentEventsController(deploymentStateMonitor,
+				TimeUnit.SECONDS.toMillis(properties.getTimeout()));
 	}
 
 	@Bean
@@ -294,23 +402,136 @@ public class DataFlowControllerAutoConfiguration {
 	}
 
 	@Bean
-	public AppResourceCommon appResourceCommon(MavenProperties mavenProperties, DelegatingResourceLoader delegatingResourceLoader) {
-		return new AppResourceCommon(mavenProperties, delegatingResourceLoader);
+	@ConditionalOnProperty(prefix = ArtifactCacheProperties.PREFIX, name = "enabled", matchIfMissing = true)
+	public ArtifactCache artifactCache(ArtifactCacheProperties properties,
+			ObjectProvider<DeployedAppArtifacts> deployedAppArtifacts) {
+		ArtifactCache artifactCache = new ArtifactCache(new File(properties.getDirectory()),
+				properties.getMaxSizeMb() * 1024 * 1024);
+		artifactCache.setVerifyOnRead(properties.isVerifyOnRead());
+		artifactCache.setPinTime(properties.getPinTime());
+		artifactCache.setMaxAge(properties.getMaxAge());
+		// looked up on eviction only, as the deployed apps are resolved through the registry
+		artifactCache.setInUseUris(() -> {
+			DeployedAppArtifacts deployed = deployedAppArtifacts.getIfAvailable();
+			return deployed != null ? deployed.getUris() : Collections.emptySet();
+		});
+		return artifactCache;
+	}
+
+	@Bean
+	public DeployedAppArtifacts deployedAppArtifacts(AppRegistryCommon appRegistry,
+			ObjectProvider<StreamDefinitionRepository> streamDefinitionRepository,
+			ObjectProvider<StreamDeploymentRepository> streamDeploymentRepository,
+			ObjectProvider<TaskDefinitionRepository> taskDefinitionRepository,
+			ObjectProvider<TaskExplorer> taskExplorer) {
+		return new DeployedAppArtifacts(appRegistry, streamDefinitionRepository.getIfAvailable(),
+				streamDeploymentRepository.getIfAvailable(), taskDefinitionRepository.getIfAvailable(),
+				taskExplorer.getIfAvailable());
+	}
+
+	@Bean
+	public AppResourceCommon appResourceCommon(MavenProperties mavenProperties,
+			DelegatingResourceLoader delegatingResourceLoader, ObjectProvider<ArtifactCache> artifactCache,
+			ObjectProvider<MavenResourceCache> mavenResourceCache) {
+		AppResourceCommon appResourceCommon = new AppResourceCommon(mavenProperties, delegatingResourceLoader);
+		appResourceCommon.setArtifactCache(artifactCache.getIfAvailable());
+		appResourceCommon.setMavenResourceCache(mavenResourceCache.getIfAvailable());
+		return appResourceCommon;
+	}
+
+	@Bean
+	@ConditionalOnProperty(prefix = MavenResourceCacheProperties.PREFIX, name = "enabled", matchIfMissing = true)
+	public MavenResourceCache mavenResourceCache(MavenProperties mavenProperties,
+			MavenResourceCacheProperties properties) {
+		return new MavenResourceCache(mavenProperties, TimeUnit.SECONDS.toMillis(properties.getMissTtl()),
+				TimeUnit.SECONDS.toMillis(properties.getSnapshotRefreshInterval()), properties.getMaxEntries());
+	}
+
+	@Bean
+	@ConditionalOnProperty(prefix = ConditionalRequestProperties.PREFIX, name = "enabled", matchIfMissing = true)
+	public ChangeVersions changeVersions(ConditionalRequestProperties properties,
+			ObjectProvider<ClusterCoordinator> clusterCoordinator) {
+		ChangeVersions changeVersions = new ChangeVersions(TimeUnit.SECONDS.toMillis(properties.getStoredStateTtl()),
+				TimeUnit.SECONDS.toMillis(properties.getRuntimeStateTtl()));
+		changeVersions.setClusterCoordinator(clusterCoordinator.getIfAvailable());
+		return changeVersions;
+	}
+
+	@Bean
+	public AppRegistryInvalidator appRegistryInvalidator(AppRegistryCommon appRegistry) {
+		return new AppRegistryInvalidator(appRegistry);
+	}
+
+	@Bean
+	@ConditionalOnProperty(prefix = LatencyProperties.PREFIX, name = "enabled")
+	public LatencyRecorder latencyRecorder(LatencyProperties properties) {
+		return new LatencyRecorder(properties.getReservoirSize(), properties.getSlowCallThreshold(),
+				properties.getSlowCallThresholds());
+	}
+
+	@Bean
+	@ConditionalOnProperty(prefix = LatencyProperties.PREFIX, name = "enabled")
+	public static LatencyInstrumentingPostProcessor latencyInstrumentingPostProcessor() {
+		return new LatencyInstrumentingPostProcessor();
+	}
+
+	@Bean
+	@ConditionalOnBean(LatencyRecorder.class)
+	public WebMvcConfigurer latencyWebMvcConfigurer(LatencyRecorder latencyRecorder) {
+		return new WebMvcConfigurerAdapter() {
+
+			@Override
+			public void addInterceptors(InterceptorRegistry registry) {
+				registry.addInterceptor(new LatencyHandlerInterceptor(latencyRecorder));
+			}
+		};
+	}
+
+	@Bean
+	@ConditionalOnProperty(prefix = AdmissionProperties.PREFIX, name = "enabled", matchIfMissing = true)
+	public RequestAdmission requestAdmission(AdmissionProperties properties) {
+		RequestAdmission requestAdmission = new RequestAdmission();
+		for (Map.Entry<String, AdmissionProperties.RequestClass> entry : properties.getClasses().entrySet()) {
+			AdmissionProperties.RequestClass requestClass = entry.getValue();
+			requestAdmission.addRequestClass(entry.getKey(), requestClass.getMethods(), requestClass.getPatterns(),
+					new ConcurrencyLimiter(requestClass.getMaxConcurrent(), requestClass.getMaxQueued(),
+							requestClass.getMaxWait()),
+					requestClass.getRetryAfter());
+		}
+		return requestAdmission;
+	}
+
+	@Bean
+	@ConditionalOnBean(RequestAdmission.class)
+	public WebMvcConfigurer admissionWebMvcConfigurer(RequestAdmission requestAdmission) {
+		return new WebMvcConfigurerAdapter() {
+
+			@Override
+			public void addInterceptors(InterceptorRegistry registry) {
+				registry.addInterceptor(new AdmissionHandlerInterceptor(requestAdmission));
+			}
+		};
 	}
 
 	@Bean
 	@ConditionalOnBean(TaskDefinitionRepository.class)
 	public TaskDefinitionController taskDefinitionController(TaskExplorer taskExplorer,
-			TaskDefinitionRepository repository,
-			TaskService taskService) {
-		return new TaskDefinitionController(taskExplorer, repository, taskService);
+			TaskDefinitionRepository repository, TaskService taskService,
+			LatestTaskExecutionRepository latestTaskExecutionRepository,
+			ObjectProvider<ChangeVersions> changeVersions) {
+		TaskDefinitionController taskDefinitionController = new TaskDefinitionController(taskExplorer, repository,
+				taskService, latestTaskExecutionRepository);
+		taskDefinitionController.setChangeVersions(changeVersions.getIfAvailable());
+		return taskDefinitionController;
 	}
 
 	@Bean
 	@ConditionalOnBean(TaskDefinitionRepository.class)
 	public TaskExecutionController taskExecutionController(TaskExplorer explorer, TaskService taskService,
-			TaskDefinitionRepository taskDefinitionRepository) {
-		return new TaskExecutionController(explorer, taskService, taskDefinitionRepository);
+			TaskDefinitionRepository taskDefinitionRepository, ExecutionExportService executionExportService,
+			TaskRetentionService taskRetentionService) {
+		return new TaskExecutionController(explorer, taskService, taskDefinitionRepository, executionExportService,
+				taskRetentionService);
 	}
 
 	@Bean
@@ -321,8 +542,9 @@ public class DataFlowControllerAutoConfiguration {
 
 	@Bean
 	@ConditionalOnBean(TaskDefinitionRepository.class)
-	public JobExecutionController jobExecutionController(TaskJobService repository) {
-		return new JobExecutionController(repository);
+	public JobExecutionController jobExecutionController(TaskJobService repository,
+			ExecutionExportService executionExportService) {
+		return new JobExecutionController(repository, executionExportService);
 	}
 
 	@Bean
@@ -465,10 +687,12 @@ public class DataFlowControllerAutoConfiguration {
 				StreamDefinitionRepository streamDefinitionRepository,
 				SkipperClientProperties skipperClientProperties,
 				AppRegistryService appRegistryService,
-				ForkJoinPool runtimeAppsStatusFJPFB) {
+				ForkJoinPool runtimeAppsStatusFJPFB, ObjectProvider<ChangeVersions> changeVersions) {
 			logger.info("Skipper URI [" + skipperClientProperties.getServerUri() + "]");
-			return new SkipperStreamDeployer(skipperClient, streamDefinitionRepository, appRegistryService,
-					runtimeAppsStatusFJPFB);
+			SkipperStreamDeployer skipperStreamDeployer = new SkipperStreamDeployer(skipperClient,
+					streamDefinitionRepository, appRegistryService, runtimeAppsStatusFJPFB);
+			skipperStreamDeployer.setChangeVersions(changeVersions.getIfAvailable());
+			return skipperStreamDeployer;
 		}
 
 
@@ -485,8 +709,13 @@ public class DataFlowControllerAutoConfiguration {
 
 		@Bean
 		public AppRegistryService appRegistryService(AppRegistrationRepository appRegistrationRepository,
-				AppResourceCommon appResourceCommon) {
-			return new DefaultAppRegistryService(appRegistrationRepository, appResourceCommon);
+				AppResourceCommon appResourceCommon,
+				AppRegistryChangeCounterRepository appRegistryChangeCounterRepository,
+				ThreadPoolTaskExecutor appImportExecutor) {
+			DefaultAppRegistryService appRegistryService = new DefaultAppRegistryService(appRegistrationRepository,
+					appResourceCommon, appRegistryChangeCounterRepository);
+			appRegistryService.setImportExecutor(appImportExecutor);
+			return appRegistryService;
 		}
 
 		@Bean
@@ -494,11 +723,15 @@ public class DataFlowControllerAutoConfiguration {
 				StreamDefinitionRepository streamDefinitionRepository,
 				StreamService streamService,
 				AppRegistryService appRegistry, ApplicationConfigurationMetadataResolver metadataResolver,
-				ForkJoinPool appRegistryFJPFB, MavenProperties mavenProperties) {
-			return new SkipperAppRegistryController(streamDefinitionRepository,
+				AppMetadataPrefetcher appMetadataPrefetcher, MavenProperties mavenProperties,
+				ObjectProvider<ChangeVersions> changeVersions) {
+			SkipperAppRegistryController skipperAppRegistryController = new SkipperAppRegistryController(
+					streamDefinitionRepository,
 					streamService,
 					appRegistry,
-					metadataResolver, appRegistryFJPFB, mavenProperties);
+					metadataResolver, appMetadataPrefetcher, mavenProperties);
+			skipperAppRegistryController.setChangeVersions(changeVersions.getIfAvailable());
+			return skipperAppRegistryController;
 		}
 	}
 
@@ -532,25 +765,40 @@ public class DataFlowControllerAutoConfiguration {
 				DeploymentIdRepository deploymentIdRepository,
 				StreamDefinitionRepository streamDefinitionRepository,
 				StreamDeploymentRepository streamDeploymentRepository, ForkJoinPool appRegistryFJPFB,
-				AppRegistry appRegistry) {
-			return new AppDeployerStreamDeployer(appDeployer, deploymentIdRepository, streamDefinitionRepository,
-					streamDeploymentRepository, appRegistryFJPFB, appRegistry);
+				AppRegistry appRegistry, ObjectProvider<ChangeVersions> changeVersions) {
+			AppDeployerStreamDeployer appDeployerStreamDeployer = new AppDeployerStreamDeployer(appDeployer,
+					deploymentIdRepository, streamDefinitionRepository, streamDeploymentRepository, appRegistryFJPFB,
+					appRegistry);
+			appDeployerStreamDeployer.setChangeVersions(changeVersions.getIfAvailable());
+			return appDeployerStreamDeployer;
 		}
 
 		@Bean
 		public AppRegistryController appRegistryController(AppRegistry appRegistry,
-				ApplicationConfigurationMetadataResolver metadataResolver, ForkJoinPool appRegistryFJPFB) {
-			return new AppRegistryController(appRegistry, metadataResolver, appRegistryFJPFB);
+				ApplicationConfigurationMetadataResolver metadataResolver,
+				AppMetadataPrefetcher appMetadataPrefetcher, ObjectProvider<ChangeVersions> changeVersions) {
+			AppRegistryController appRegistryController = new AppRegistryController(appRegistry, metadataResolver,
+					appMetadataPrefetcher);
+			appRegistryController.setChangeVersions(changeVersions.getIfAvailable());
+			return appRegistryController;
 		}
 
 		@Bean
-		public UriRegistry uriRegistry(DataSource dataSource) {
+		public UriRegistry uriRegistry(DataSource dataSource,
+				ObjectProvider<RepositoryDataSources> repositoryDataSources) {
+			RepositoryDataSources dataSources = repositoryDataSources.getIfAvailable();
+			if (dataSources != null) {
+				return new RdbmsUriRegistry(dataSources.getJdbcTemplates("uri-registry").getJdbcTemplate());
+			}
 			return new RdbmsUriRegistry(dataSource);
 		}
 
 		@Bean
-		public AppRegistry appRegistry(UriRegistry uriRegistry, AppResourceCommon appResourceCommon) {
-			return new AppRegistry(uriRegistry, appResourceCommon);
+		public AppRegistry appRegistry(UriRegistry uriRegistry, AppResourceCommon appResourceCommon,
+				ThreadPoolTaskExecutor appImportExecutor) {
+			AppRegistry appRegistry = new AppRegistry(uriRegistry, appResourceCommon);
+			appRegistry.setImportExecutor(appImportExecutor);
+			return appRegistry;
 		}
 	}
 
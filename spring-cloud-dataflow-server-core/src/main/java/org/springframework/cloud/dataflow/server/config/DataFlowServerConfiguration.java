@@ -16,24 +16,39 @@
 
 package org.springframework.cloud.dataflow.server.config;
 
+import java.util.List;
+
 import javax.persistence.EntityManagerFactory;
 import javax.sql.DataSource;
 
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.batch.BatchProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceBuilder;
+import org.springframework.boot.autoconfigure.jdbc.metadata.DataSourcePoolMetadataProvider;
+import org.springframework.boot.autoconfigure.jdbc.metadata.DataSourcePoolMetadataProviders;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.dataflow.completion.CompletionConfiguration;
+import org.springframework.cloud.dataflow.server.cluster.ClusterCoordinator;
+import org.springframework.cloud.dataflow.server.cluster.JdbcClusterCoordinator;
 import org.springframework.cloud.dataflow.server.config.apps.CommonApplicationProperties;
 import org.springframework.cloud.dataflow.server.config.features.FeaturesConfiguration;
 import org.springframework.cloud.dataflow.server.config.features.FeaturesProperties;
 import org.springframework.cloud.dataflow.server.config.web.WebConfiguration;
 import org.springframework.cloud.dataflow.server.repository.support.DataflowRdbmsInitializer;
+import org.springframework.cloud.dataflow.server.repository.support.RepositoryDataSources;
+import org.springframework.cloud.dataflow.server.support.StartupTimer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.core.env.Environment;
 import org.springframework.data.web.config.EnableSpringDataWebSupport;
 import org.springframework.hateoas.config.EnableHypermediaSupport;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.StringUtils;
 
 /**
  * Configuration for the Data Flow Server application context. This includes support for
@@ -54,7 +69,8 @@ import org.springframework.transaction.PlatformTransactionManager;
 @Configuration
 @Import({ CompletionConfiguration.class, FeaturesConfiguration.class, WebConfiguration.class,
 		SecurityConfiguration.class })
-@EnableConfigurationProperties({ BatchProperties.class, CommonApplicationProperties.class })
+@EnableConfigurationProperties({ BatchProperties.class, CommonApplicationProperties.class,
+		StartupProperties.class, RdbmsProperties.class, ClusterProperties.class })
 public class DataFlowServerConfiguration {
 
 	@Bean
@@ -64,9 +80,56 @@ public class DataFlowServerConfiguration {
 
 	@Bean
 	public DataflowRdbmsInitializer dataflowRdbmsInitializer(DataSource dataSource,
-			FeaturesProperties featuresProperties) {
+			FeaturesProperties featuresProperties, StartupProperties startupProperties) {
 		DataflowRdbmsInitializer dataflowRdbmsInitializer = new DataflowRdbmsInitializer(featuresProperties);
 		dataflowRdbmsInitializer.setDataSource(dataSource);
+		dataflowRdbmsInitializer.setSkipUnchangedSchema(startupProperties.isSkipUnchangedSchema());
+		dataflowRdbmsInitializer.setParallel(startupProperties.isParallelSchemaInitialization());
 		return dataflowRdbmsInitializer;
 	}
+
+	@Bean
+	public RepositoryDataSources repositoryDataSources(DataSource dataSource, RdbmsProperties rdbmsProperties,
+			ObjectProvider<List<DataSourcePoolMetadataProvider>> poolMetadataProviders) {
+		RepositoryDataSources repositoryDataSources = new RepositoryDataSources(dataSource,
+				replicaDataSource(rdbmsProperties.getReplica()), rdbmsProperties);
+		List<DataSourcePoolMetadataProvider> providers = poolMetadataProviders.getIfAvailable();
+		if (providers != null) {
+			repositoryDataSources.setPoolMetadataProvider(new DataSourcePoolMetadataProviders(providers));
+		}
+		return repositoryDataSources;
+	}
+
+	@Bean
+	@ConditionalOnProperty(prefix = ClusterProperties.PREFIX, name = "enabled")
+	public ClusterCoordinator clusterCoordinator(DataSource dataSource, ClusterProperties clusterProperties,
+			DataflowRdbmsInitializer dataflowRdbmsInitializer) {
+		// depends on the initializer, which creates the change log table
+		return new JdbcClusterCoordinator(dataSource, clusterProperties.getInstanceId(),
+				clusterProperties.getPollInterval());
+	}
+
+	private static DataSource replicaDataSource(RdbmsProperties.Replica replica) {
+		if (!StringUtils.hasText(replica.getUrl())) {
+			return null;
+		}
+		HikariDataSource dataSource = (HikariDataSource) DataSourceBuilder.create().type(HikariDataSource.class)
+				.url(replica.getUrl()).username(replica.getUsername()).password(replica.getPassword())
+				.driverClassName(replica.getDriverClassName()).build();
+		dataSource.setPoolName("dataflow-replica");
+		dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+		dataSource.setReadOnly(true);
+		return dataSource;
+	}
+
+	@Bean
+	public static LazyInitializationPostProcessor lazyInitializationPostProcessor() {
+		return new LazyInitializationPostProcessor();
+	}
+
+	@Bean
+	@ConditionalOnProperty(prefix = StartupProperties.PREFIX, name = "report", matchIfMissing = true)
+	public static StartupTimer startupTimer(Environment environment) {
+		return new StartupTimer(StartupProperties.bind(environment).getReportSize());
+	}
 }
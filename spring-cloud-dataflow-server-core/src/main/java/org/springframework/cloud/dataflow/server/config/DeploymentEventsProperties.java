@@ -0,0 +1,86 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.cloud.dataflow.core.DataFlowPropertyKeys;
+
+/**
+ * Configuration properties for namespace 'spring.cloud.dataflow.deployment-events',
+ * controlling the Server-Sent Events pushed for stream and app deployment state changes.
+ */
+@ConfigurationProperties(prefix = DeploymentEventsProperties.PREFIX)
+public class DeploymentEventsProperties {
+
+	public static final String PREFIX = DataFlowPropertyKeys.PREFIX + "deployment-events";
+
+	/**
+	 * Whether the {@code /streams/events} and {@code /runtime/apps/events} endpoints are
+	 * available.
+	 */
+	private boolean enabled = true;
+
+	/**
+	 * Time in seconds between two polls of the deployment states, while there are
+	 * subscribers.
+	 */
+	private long pollInterval = 5;
+
+	/**
+	 * Time in seconds after which a subscription is completed, and the client has to
+	 * reconnect.
+	 */
+	private long timeout = 600;
+
+	/**
+	 * Number of updates that may wait to be sent to a subscriber before it is
+	 * disconnected as too slow.
+	 */
+	private int maxPendingUpdates = 16;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public long getPollInterval() {
+		return pollInterval;
+	}
+
+	public void setPollInterval(long pollInterval) {
+		this.pollInterval = pollInterval;
+	}
+
+	public long getTimeout() {
+		return timeout;
+	}
+
+	public void setTimeout(long timeout) {
+		this.timeout = timeout;
+	}
+
+	public int getMaxPendingUpdates() {
+		return maxPendingUpdates;
+	}
+
+	public void setMaxPendingUpdates(int maxPendingUpdates) {
+		this.maxPendingUpdates = maxPendingUpdates;
+	}
+}
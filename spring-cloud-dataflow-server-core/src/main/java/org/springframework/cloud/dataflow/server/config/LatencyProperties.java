@@ -0,0 +1,87 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.cloud.dataflow.core.DataFlowPropertyKeys;
+
+/**
+ * Configuration properties for namespace 'spring.cloud.dataflow.latency', controlling
+ * the recording of request and call latencies.
+ */
+@ConfigurationProperties(prefix = LatencyProperties.PREFIX)
+public class LatencyProperties {
+
+	public static final String PREFIX = DataFlowPropertyKeys.PREFIX + "latency";
+
+	/**
+	 * Whether the latency of requests and of calls to the platform, Skipper, the database
+	 * and the app artifacts is recorded.
+	 */
+	private boolean enabled;
+
+	/**
+	 * Number of most recent calls per call name the percentiles are computed over.
+	 */
+	private int reservoirSize = 1024;
+
+	/**
+	 * Duration in milliseconds above which a request or call is logged as slow.
+	 */
+	private long slowCallThreshold = 1000;
+
+	/**
+	 * Durations in milliseconds above which requests or calls are logged as slow, keyed
+	 * by call name prefix, such as 'http', 'skipper' or 'repository.stream-definitions'.
+	 */
+	private Map<String, Long> slowCallThresholds = new LinkedHashMap<>();
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public int getReservoirSize() {
+		return reservoirSize;
+	}
+
+	public void setReservoirSize(int reservoirSize) {
+		this.reservoirSize = reservoirSize;
+	}
+
+	public long getSlowCallThreshold() {
+		return slowCallThreshold;
+	}
+
+	public void setSlowCallThreshold(long slowCallThreshold) {
+		this.slowCallThreshold = slowCallThreshold;
+	}
+
+	public Map<String, Long> getSlowCallThresholds() {
+		return slowCallThresholds;
+	}
+
+	public void setSlowCallThresholds(Map<String, Long> slowCallThresholds) {
+		this.slowCallThresholds = slowCallThresholds;
+	}
+}
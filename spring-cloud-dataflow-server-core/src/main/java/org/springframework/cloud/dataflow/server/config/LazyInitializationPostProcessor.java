@@ -0,0 +1,74 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+
+/**
+ * {@link BeanFactoryPostProcessor} marking the beans listed in
+ * {@link StartupProperties#getLazyBeans()} as lazy when
+ * {@link StartupProperties#isLazyInitialization() lazy initialization} is enabled, so
+ * that they are created on first use rather than at startup.
+ * <p>
+ * Bean factory post-processors run before configuration properties are bound, so the
+ * properties are {@link StartupProperties#bind(Environment) bound} from the
+ * {@link Environment}. Controllers can be lazy as request
+ * mappings are detected from their type, the controller itself being looked up on the
+ * first request it handles.
+ */
+public class LazyInitializationPostProcessor implements BeanFactoryPostProcessor, EnvironmentAware {
+
+	private static final Log logger = LogFactory.getLog(LazyInitializationPostProcessor.class);
+
+	private Environment environment;
+
+	@Override
+	public void setEnvironment(Environment environment) {
+		this.environment = environment;
+	}
+
+	@Override
+	public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+		StartupProperties properties = StartupProperties.bind(this.environment);
+		if (!properties.isLazyInitialization()) {
+			return;
+		}
+		List<String> lazy = new ArrayList<>();
+		for (String beanName : properties.getLazyBeans()) {
+			String name = beanName.trim();
+			if (beanFactory.containsBeanDefinition(name)) {
+				BeanDefinition beanDefinition = beanFactory.getBeanDefinition(name);
+				if (beanDefinition.isSingleton()) {
+					beanDefinition.setLazyInit(true);
+					lazy.add(name);
+				}
+			}
+		}
+		logger.info("Beans created on first use: " + lazy);
+	}
+}
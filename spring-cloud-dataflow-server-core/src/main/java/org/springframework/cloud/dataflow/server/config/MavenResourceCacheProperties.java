@@ -0,0 +1,85 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.cloud.dataflow.core.DataFlowPropertyKeys;
+
+/**
+ * Configuration properties for namespace 'spring.cloud.dataflow.app-registry.maven-cache',
+ * controlling how Maven app artifacts are looked up and resolved.
+ */
+@ConfigurationProperties(prefix = MavenResourceCacheProperties.PREFIX)
+public class MavenResourceCacheProperties {
+
+	public static final String PREFIX = DataFlowPropertyKeys.PREFIX + "app-registry.maven-cache";
+
+	/**
+	 * Whether Maven resources and their resolution are cached. If disabled, every lookup
+	 * creates a new resource and every resolution may query the remote repositories.
+	 */
+	private boolean enabled = true;
+
+	/**
+	 * Time in seconds during which an artifact that could not be resolved is not looked up
+	 * again.
+	 */
+	private long missTtl = 60;
+
+	/**
+	 * Time in seconds during which a SNAPSHOT artifact found in the local repository is
+	 * used without checking the remote repositories for a newer one.
+	 */
+	private long snapshotRefreshInterval = 300;
+
+	/**
+	 * Maximum number of artifact coordinates kept.
+	 */
+	private int maxEntries = 1000;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public long getMissTtl() {
+		return missTtl;
+	}
+
+	public void setMissTtl(long missTtl) {
+		this.missTtl = missTtl;
+	}
+
+	public long getSnapshotRefreshInterval() {
+		return snapshotRefreshInterval;
+	}
+
+	public void setSnapshotRefreshInterval(long snapshotRefreshInterval) {
+		this.snapshotRefreshInterval = snapshotRefreshInterval;
+	}
+
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	public void setMaxEntries(int maxEntries) {
+		this.maxEntries = maxEntries;
+	}
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2017 the original author or authors.
+ * Copyright 2017-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -47,6 +47,24 @@ public class MetricsProperties {
 
 		private boolean skipSslValidation;
 
+		/**
+		 * Time in milliseconds between two polls of the collector, while stream metrics are
+		 * being requested.
+		 */
+		private long pollInterval = 2000;
+
+		/**
+		 * Time in seconds since stream metrics were last requested after which the
+		 * collector is no longer polled.
+		 */
+		private long idleTimeout = 60;
+
+		/**
+		 * Time in milliseconds after which connecting to, or reading from, the collector
+		 * fails.
+		 */
+		private int timeout = 5000;
+
 		public String getUri() {
 			return uri;
 		}
@@ -78,5 +96,29 @@ public class MetricsProperties {
 		public void setSkipSslValidation(boolean skipSslValidation) {
 			this.skipSslValidation = skipSslValidation;
 		}
+
+		public long getPollInterval() {
+			return pollInterval;
+		}
+
+		public void setPollInterval(long pollInterval) {
+			this.pollInterval = pollInterval;
+		}
+
+		public long getIdleTimeout() {
+			return idleTimeout;
+		}
+
+		public void setIdleTimeout(long idleTimeout) {
+			this.idleTimeout = idleTimeout;
+		}
+
+		public int getTimeout() {
+			return timeout;
+		}
+
+		public void setTimeout(int timeout) {
+			this.timeout = timeout;
+		}
 	}
 }
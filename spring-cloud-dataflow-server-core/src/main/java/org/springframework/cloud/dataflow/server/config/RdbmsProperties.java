@@ -0,0 +1,220 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.cloud.dataflow.core.DataFlowPropertyKeys;
+
+/**
+ * Configuration properties for namespace 'spring.cloud.dataflow.rdbms', controlling how
+ * the repositories of the server run their statements.
+ */
+@ConfigurationProperties(prefix = RdbmsProperties.PREFIX)
+public class RdbmsProperties {
+
+	public static final String PREFIX = DataFlowPropertyKeys.PREFIX + "rdbms";
+
+	/**
+	 * Number of rows fetched per round trip by repository queries, 0 for the driver
+	 * default.
+	 */
+	private int fetchSize = 0;
+
+	/**
+	 * Timeout in seconds of repository statements, 0 for none.
+	 */
+	private int queryTimeout = 0;
+
+	/**
+	 * Fetch size and query timeout keyed by repository name, such as
+	 * 'stream-definitions', 'stream-deployments', 'task-definitions', 'deployment-ids',
+	 * 'uri-registry', 'latest-task-executions' or 'execution-export', overriding the
+	 * defaults above.
+	 */
+	private Map<String, Statements> repositories = new LinkedHashMap<>();
+
+	/**
+	 * Read replica serving the paged listings and searches of the repositories.
+	 */
+	private Replica replica = new Replica();
+
+	public int getFetchSize() {
+		return fetchSize;
+	}
+
+	public void setFetchSize(int fetchSize) {
+		this.fetchSize = fetchSize;
+	}
+
+	public int getQueryTimeout() {
+		return queryTimeout;
+	}
+
+	public void setQueryTimeout(int queryTimeout) {
+		this.queryTimeout = queryTimeout;
+	}
+
+	public Map<String, Statements> getRepositories() {
+		return repositories;
+	}
+
+	public void setRepositories(Map<String, Statements> repositories) {
+		this.repositories = repositories;
+	}
+
+	public Replica getReplica() {
+		return replica;
+	}
+
+	public void setReplica(Replica replica) {
+		this.replica = replica;
+	}
+
+	/**
+	 * @param repository the name of the repository
+	 * @return the fetch size of the statements of the repository
+	 */
+	public int getFetchSize(String repository) {
+		Statements statements = this.repositories.get(repository);
+		return statements != null && statements.getFetchSize() != null ? statements.getFetchSize() : this.fetchSize;
+	}
+
+	/**
+	 * @param repository the name of the repository
+	 * @return the timeout in seconds of the statements of the repository
+	 */
+	public int getQueryTimeout(String repository) {
+		Statements statements = this.repositories.get(repository);
+		return statements != null && statements.getQueryTimeout() != null ? statements.getQueryTimeout()
+				: this.queryTimeout;
+	}
+
+	public static class Statements {
+
+		/**
+		 * Number of rows fetched per round trip, 0 for the driver default.
+		 */
+		private Integer fetchSize;
+
+		/**
+		 * Timeout in seconds, 0 for none.
+		 */
+		private Integer queryTimeout;
+
+		public Integer getFetchSize() {
+			return fetchSize;
+		}
+
+		public void setFetchSize(Integer fetchSize) {
+			this.fetchSize = fetchSize;
+		}
+
+		public Integer getQueryTimeout() {
+			return queryTimeout;
+		}
+
+		public void setQueryTimeout(Integer queryTimeout) {
+			this.queryTimeout = queryTimeout;
+		}
+	}
+
+	public static class Replica {
+
+		/**
+		 * JDBC URL of the read replica. Listings are read from the primary database when
+		 * not set.
+		 */
+		private String url;
+
+		/**
+		 * Login user of the read replica.
+		 */
+		private String username;
+
+		/**
+		 * Login password of the read replica.
+		 */
+		private String password;
+
+		/**
+		 * JDBC driver class of the read replica, detected from the URL when not set.
+		 */
+		private String driverClassName;
+
+		/**
+		 * Maximum number of connections to the read replica.
+		 */
+		private int maximumPoolSize = 10;
+
+		/**
+		 * Time in milliseconds after a write by this server during which listings are
+		 * still read from the primary database, covering the replication lag.
+		 */
+		private long maxLag = 5000;
+
+		public String getUrl() {
+			return url;
+		}
+
+		public void setUrl(String url) {
+			this.url = url;
+		}
+
+		public String getUsername() {
+			return username;
+		}
+
+		public void setUsername(String username) {
+			this.username = username;
+		}
+
+		public String getPassword() {
+			return password;
+		}
+
+		public void setPassword(String password) {
+			this.password = password;
+		}
+
+		public String getDriverClassName() {
+			return driverClassName;
+		}
+
+		public void setDriverClassName(String driverClassName) {
+			this.driverClassName = driverClassName;
+		}
+
+		public int getMaximumPoolSize() {
+			return maximumPoolSize;
+		}
+
+		public void setMaximumPoolSize(int maximumPoolSize) {
+			this.maximumPoolSize = maximumPoolSize;
+		}
+
+		public long getMaxLag() {
+			return maxLag;
+		}
+
+		public void setMaxLag(long maxLag) {
+			this.maxLag = maxLag;
+		}
+	}
+}
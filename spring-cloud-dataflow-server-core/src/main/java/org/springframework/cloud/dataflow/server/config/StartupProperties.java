@@ -0,0 +1,160 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.config;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.springframework.boot.bind.PropertiesConfigurationFactory;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.cloud.dataflow.core.DataFlowPropertyKeys;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.Environment;
+import org.springframework.validation.BindException;
+
+/**
+ * Configuration properties for namespace 'spring.cloud.dataflow.startup', controlling
+ * how much work the server does while starting.
+ */
+@ConfigurationProperties(prefix = StartupProperties.PREFIX)
+public class StartupProperties {
+
+	public static final String PREFIX = DataFlowPropertyKeys.PREFIX + "startup";
+
+	/**
+	 * Names of the beans created on first use when lazy initialization is enabled: the
+	 * controllers of the analytics, job details, validation and tooling endpoints, and
+	 * the clients they use.
+	 */
+	public static final Set<String> DEFAULT_LAZY_BEANS = Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(
+			"metricStore", "metricsController", "counterController", "fieldValueCounterController",
+			"aggregateCounterController", "jobStepExecutionController", "jobStepExecutionProgressController",
+			"jobInstanceController", "streamValidationController", "taskValidationController",
+			"appMetadataPrefetchController", "completionController", "toolsController", "dockerRegistryClient")));
+
+	/**
+	 * Whether the beans listed in 'lazy-beans' are created on first use instead of at
+	 * startup.
+	 */
+	private boolean lazyInitialization = false;
+
+	/**
+	 * Names of the beans created on first use when lazy initialization is enabled, as a
+	 * comma separated list. Beans that other beans depend on are created at startup
+	 * regardless.
+	 */
+	private Set<String> lazyBeans = new LinkedHashSet<>(DEFAULT_LAZY_BEANS);
+
+	/**
+	 * Whether the schema scripts are skipped when they have not changed since they last
+	 * ran against the database, as recorded in the DATAFLOW_SCHEMA_CHECKSUM table.
+	 */
+	private boolean skipUnchangedSchema = false;
+
+	/**
+	 * Whether the schema scripts of the different parts of the server run in parallel,
+	 * each on its own connection.
+	 */
+	private boolean parallelSchemaInitialization = false;
+
+	/**
+	 * Whether the time taken to start and the beans slowest to create are logged once
+	 * the server is ready.
+	 */
+	private boolean report = true;
+
+	/**
+	 * Number of slowest beans listed in the startup report.
+	 */
+	private int reportSize = 10;
+
+	/**
+	 * Bind the properties from the given environment, for the post-processors that run
+	 * before configuration properties are bound.
+	 *
+	 * @param environment the environment to bind from
+	 * @return the bound properties
+	 */
+	public static StartupProperties bind(Environment environment) {
+		StartupProperties properties = new StartupProperties();
+		if (environment instanceof ConfigurableEnvironment) {
+			PropertiesConfigurationFactory<StartupProperties> factory = new PropertiesConfigurationFactory<>(
+					properties);
+			factory.setPropertySources(((ConfigurableEnvironment) environment).getPropertySources());
+			factory.setConversionService(new DefaultConversionService());
+			factory.setTargetName(PREFIX);
+			try {
+				factory.bindPropertiesToTarget();
+			}
+			catch (BindException e) {
+				throw new IllegalStateException("Unable to bind the " + PREFIX + " properties", e);
+			}
+		}
+		return properties;
+	}
+
+	public boolean isLazyInitialization() {
+		return lazyInitialization;
+	}
+
+	public void setLazyInitialization(boolean lazyInitialization) {
+		this.lazyInitialization = lazyInitialization;
+	}
+
+	public Set<String> getLazyBeans() {
+		return lazyBeans;
+	}
+
+	public void setLazyBeans(Set<String> lazyBeans) {
+		this.lazyBeans = lazyBeans;
+	}
+
+	public boolean isSkipUnchangedSchema() {
+		return skipUnchangedSchema;
+	}
+
+	public void setSkipUnchangedSchema(boolean skipUnchangedSchema) {
+		this.skipUnchangedSchema = skipUnchangedSchema;
+	}
+
+	public boolean isParallelSchemaInitialization() {
+		return parallelSchemaInitialization;
+	}
+
+	public void setParallelSchemaInitialization(boolean parallelSchemaInitialization) {
+		this.parallelSchemaInitialization = parallelSchemaInitialization;
+	}
+
+	public boolean isReport() {
+		return report;
+	}
+
+	public void setReport(boolean report) {
+		this.report = report;
+	}
+
+	public int getReportSize() {
+		return reportSize;
+	}
+
+	public void setReportSize(int reportSize) {
+		this.reportSize = reportSize;
+	}
+}
@@ -17,6 +17,7 @@ package org.springframework.cloud.dataflow.server.config.features;
 
 import javax.sql.DataSource;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.actuate.health.RedisHealthIndicator;
@@ -24,6 +25,7 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.cloud.dataflow.server.repository.DeploymentIdRepository;
 import org.springframework.cloud.dataflow.server.repository.RdbmsDeploymentIdRepository;
+import org.springframework.cloud.dataflow.server.repository.support.RepositoryDataSources;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
@@ -48,8 +50,14 @@ public class FeaturesConfiguration {
 	@ConditionalOnExpression("#{'${" + FeaturesProperties.FEATURES_PREFIX + "." + FeaturesProperties.STREAMS_ENABLED
 			+ ":true}'.equalsIgnoreCase('true') || " + "'${" + FeaturesProperties.FEATURES_PREFIX + "."
 			+ FeaturesProperties.TASKS_ENABLED + ":true}'.equalsIgnoreCase('true') }")
-	public DeploymentIdRepository deploymentIdRepository(DataSource dataSource) {
-		return new RdbmsDeploymentIdRepository(dataSource);
+	public DeploymentIdRepository deploymentIdRepository(DataSource dataSource,
+			ObjectProvider<RepositoryDataSources> repositoryDataSources) {
+		RdbmsDeploymentIdRepository deploymentIdRepository = new RdbmsDeploymentIdRepository(dataSource);
+		RepositoryDataSources dataSources = repositoryDataSources.getIfAvailable();
+		if (dataSources != null) {
+			deploymentIdRepository.setJdbcTemplates(dataSources.getJdbcTemplates("deployment-ids"));
+		}
+		return deploymentIdRepository;
 	}
 
 	@Bean
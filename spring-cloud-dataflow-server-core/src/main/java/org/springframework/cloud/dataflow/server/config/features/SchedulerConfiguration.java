@@ -16,6 +16,7 @@
 
 package org.springframework.cloud.dataflow.server.config.features;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.AllNestedConditions;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -24,6 +25,7 @@ import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.dataflow.configuration.metadata.ApplicationConfigurationMetadataResolver;
 import org.springframework.cloud.dataflow.registry.AppRegistryCommon;
+import org.springframework.cloud.dataflow.server.cluster.ClusterCoordinator;
 import org.springframework.cloud.dataflow.server.config.apps.CommonApplicationProperties;
 import org.springframework.cloud.dataflow.server.repository.TaskDefinitionRepository;
 import org.springframework.cloud.dataflow.server.service.SchedulerService;
@@ -35,6 +37,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Conditional;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 /**
  * Establishes the {@link SchedulerService} instance to be used by SCDF.
@@ -58,11 +61,27 @@ public class SchedulerConfiguration {
 			TaskConfigurationProperties taskConfigurationProperties,
 			DataSourceProperties dataSourceProperties,
 			ApplicationConfigurationMetadataResolver metaDataResolver,
-			SchedulerServiceProperties schedulerServiceProperties) {
-		return new DefaultSchedulerService(commonApplicationProperties,
+			SchedulerServiceProperties schedulerServiceProperties,
+			ObjectProvider<ClusterCoordinator> clusterCoordinator,
+			ThreadPoolTaskExecutor schedulerBulkExecutor) {
+		DefaultSchedulerService schedulerService = new DefaultSchedulerService(commonApplicationProperties,
 				scheduler, taskDefinitionRepository, registry, resourceLoader,
 				taskConfigurationProperties, dataSourceProperties,
 				this.dataflowServerUri, metaDataResolver, schedulerServiceProperties);
+		schedulerService.setClusterCoordinator(clusterCoordinator.getIfAvailable());
+		schedulerService.setBulkExecutor(schedulerBulkExecutor);
+		return schedulerService;
+	}
+
+	@Bean
+	public ThreadPoolTaskExecutor schedulerBulkExecutor(SchedulerServiceProperties schedulerServiceProperties) {
+		int concurrency = Math.max(1, schedulerServiceProperties.getBulkConcurrency());
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(concurrency);
+		executor.setMaxPoolSize(concurrency);
+		executor.setAllowCoreThreadTimeOut(true);
+		executor.setThreadNamePrefix("scheduler-bulk-");
+		return executor;
 	}
 
 	public static class SchedulerConfigurationPropertyChecker extends AllNestedConditions {
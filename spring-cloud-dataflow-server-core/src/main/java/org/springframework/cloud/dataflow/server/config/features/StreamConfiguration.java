@@ -17,6 +17,7 @@ package org.springframework.cloud.dataflow.server.config.features;
 
 import javax.sql.DataSource;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cloud.dataflow.completion.RecoveryStrategy;
@@ -27,6 +28,8 @@ import org.springframework.cloud.dataflow.server.repository.RdbmsStreamDefinitio
 import org.springframework.cloud.dataflow.server.repository.RdbmsStreamDeploymentRepository;
 import org.springframework.cloud.dataflow.server.repository.StreamDefinitionRepository;
 import org.springframework.cloud.dataflow.server.repository.StreamDeploymentRepository;
+import org.springframework.cloud.dataflow.server.repository.support.RepositoryDataSources;
+import org.springframework.cloud.dataflow.server.support.ChangeVersions;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -39,14 +42,28 @@ public class StreamConfiguration {
 
 	@Bean
 	@ConditionalOnMissingBean
-	public StreamDefinitionRepository streamDefinitionRepository(DataSource dataSource) {
-		return new RdbmsStreamDefinitionRepository(dataSource);
+	public StreamDefinitionRepository streamDefinitionRepository(DataSource dataSource,
+			ObjectProvider<ChangeVersions> changeVersions,
+			ObjectProvider<RepositoryDataSources> repositoryDataSources) {
+		RdbmsStreamDefinitionRepository streamDefinitionRepository = new RdbmsStreamDefinitionRepository(dataSource);
+		streamDefinitionRepository.setChangeVersions(changeVersions.getIfAvailable());
+		RepositoryDataSources dataSources = repositoryDataSources.getIfAvailable();
+		if (dataSources != null) {
+			streamDefinitionRepository.setJdbcTemplates(dataSources.getJdbcTemplates("stream-definitions"));
+		}
+		return streamDefinitionRepository;
 	}
 
 	@Bean
 	@ConditionalOnMissingBean
 	@ConditionalOnSkipperDisabled
-	public StreamDeploymentRepository streamDeploymentRepository(DataSource dataSource) {
+	public StreamDeploymentRepository streamDeploymentRepository(DataSource dataSource,
+			ObjectProvider<RepositoryDataSources> repositoryDataSources) {
+		RepositoryDataSources dataSources = repositoryDataSources.getIfAvailable();
+		if (dataSources != null) {
+			return new RdbmsStreamDeploymentRepository(
+					dataSources.getJdbcTemplates("stream-deployments").getJdbcTemplate());
+		}
 		return new RdbmsStreamDeploymentRepository(dataSource);
 	}
 
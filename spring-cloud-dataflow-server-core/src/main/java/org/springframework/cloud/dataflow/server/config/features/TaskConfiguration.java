@@ -23,8 +23,11 @@ import org.springframework.batch.core.configuration.support.MapJobRegistry;
 import org.springframework.batch.core.explore.support.JobExplorerFactoryBean;
 import org.springframework.batch.core.launch.support.SimpleJobLauncher;
 import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.boot.actuate.metrics.GaugeService;
 import org.springframework.boot.autoconfigure.AbstractDatabaseInitializer;
 import org.springframework.boot.autoconfigure.batch.BatchDatabaseInitializer;
 import org.springframework.boot.autoconfigure.batch.BatchProperties;
@@ -38,17 +41,27 @@ import org.springframework.cloud.dataflow.configuration.metadata.ApplicationConf
 import org.springframework.cloud.dataflow.registry.AppRegistryCommon;
 import org.springframework.cloud.dataflow.server.DockerValidatorProperties;
 import org.springframework.cloud.dataflow.server.audit.service.AuditRecordService;
+import org.springframework.cloud.dataflow.server.cluster.ClusterCoordinator;
 import org.springframework.cloud.dataflow.server.config.apps.CommonApplicationProperties;
 import org.springframework.cloud.dataflow.server.job.TaskExplorerFactoryBean;
 import org.springframework.cloud.dataflow.server.repository.DeploymentIdRepository;
+import org.springframework.cloud.dataflow.server.repository.LatestTaskExecutionRepository;
+import org.springframework.cloud.dataflow.server.repository.RdbmsLatestTaskExecutionRepository;
 import org.springframework.cloud.dataflow.server.repository.RdbmsTaskDefinitionRepository;
 import org.springframework.cloud.dataflow.server.repository.TaskDefinitionRepository;
+import org.springframework.cloud.dataflow.server.repository.support.RepositoryDataSources;
+import org.springframework.cloud.dataflow.server.service.ExecutionExportService;
 import org.springframework.cloud.dataflow.server.service.TaskJobService;
+import org.springframework.cloud.dataflow.server.service.TaskRetentionService;
 import org.springframework.cloud.dataflow.server.service.TaskService;
 import org.springframework.cloud.dataflow.server.service.TaskValidationService;
 import org.springframework.cloud.dataflow.server.service.impl.DefaultTaskJobService;
 import org.springframework.cloud.dataflow.server.service.impl.DefaultTaskService;
+import org.springframework.cloud.dataflow.server.service.impl.JdbcExecutionExportService;
+import org.springframework.cloud.dataflow.server.service.impl.JdbcTaskRetentionService;
+import org.springframework.cloud.dataflow.server.service.impl.ScheduledTaskRetention;
 import org.springframework.cloud.dataflow.server.service.impl.TaskConfigurationProperties;
+import org.springframework.cloud.dataflow.server.support.ChangeVersions;
 import org.springframework.cloud.deployer.spi.task.TaskLauncher;
 import org.springframework.cloud.task.repository.TaskExplorer;
 import org.springframework.cloud.task.repository.TaskRepository;
@@ -100,10 +113,13 @@ public class TaskConfiguration {
 			ApplicationConfigurationMetadataResolver metadataResolver,
 			TaskConfigurationProperties taskConfigurationProperties, DeploymentIdRepository deploymentIdRepository,
 			AuditRecordService auditRecordService, CommonApplicationProperties commonApplicationProperties,
-			TaskValidationService taskValidationService) {
-		return new DefaultTaskService(dataSourceProperties, repository, taskExplorer, taskExecutionRepository, registry,
-				taskLauncher, metadataResolver, taskConfigurationProperties, deploymentIdRepository, auditRecordService,
-				dataflowServerUri, commonApplicationProperties, taskValidationService);
+			TaskValidationService taskValidationService, ObjectProvider<ChangeVersions> changeVersions) {
+		DefaultTaskService taskService = new DefaultTaskService(dataSourceProperties, repository, taskExplorer,
+				taskExecutionRepository, registry, taskLauncher, metadataResolver, taskConfigurationProperties,
+				deploymentIdRepository, auditRecordService, dataflowServerUri, commonApplicationProperties,
+				taskValidationService);
+		taskService.setChangeVersions(changeVersions.getIfAvailable());
+		return taskService;
 	}
 
 	@Bean
@@ -113,6 +129,37 @@ public class TaskConfiguration {
 		return new DefaultTaskJobService(service, taskExplorer, taskDefinitionRepository, taskService);
 	}
 
+	@Bean
+	public ExecutionExportService executionExportService(DataSource dataSource,
+			TaskConfigurationProperties taskConfigurationProperties,
+			ObjectProvider<RepositoryDataSources> repositoryDataSources) {
+		RepositoryDataSources dataSources = repositoryDataSources.getIfAvailable();
+		return new JdbcExecutionExportService(dataSources != null ? dataSources.getReadOnlyDataSource() : dataSource,
+				taskConfigurationProperties.getExportChunkSize());
+	}
+
+	@Bean
+	public LatestTaskExecutionRepository latestTaskExecutionRepository(DataSource dataSource,
+			ObjectProvider<RepositoryDataSources> repositoryDataSources,
+			ObjectProvider<ClusterCoordinator> clusterCoordinator) {
+		RepositoryDataSources dataSources = repositoryDataSources.getIfAvailable();
+		RdbmsLatestTaskExecutionRepository repository = dataSources != null
+				? new RdbmsLatestTaskExecutionRepository(
+						dataSources.getJdbcTemplates("latest-task-executions").getJdbcTemplate())
+				: new RdbmsLatestTaskExecutionRepository(dataSource);
+		repository.setClusterCoordinator(clusterCoordinator.getIfAvailable());
+		return repository;
+	}
+
+	@Bean
+	public TaskRetentionService taskRetentionService(DataSource dataSource,
+			PlatformTransactionManager transactionManager, TaskConfigurationProperties taskConfigurationProperties,
+			ObjectProvider<CounterService> counterService, ObjectProvider<GaugeService> gaugeService) {
+		return new JdbcTaskRetentionService(dataSource, transactionManager,
+				taskConfigurationProperties.getRetention().getChunkSize(), counterService.getIfAvailable(),
+				gaugeService.getIfAvailable());
+	}
+
 	@Bean
 	public SimpleJobServiceFactoryBean simpleJobServiceFactoryBean(DataSource dataSource,
 			JobRepositoryFactoryBean repositoryFactoryBean) throws Exception {
@@ -132,6 +179,17 @@ public class TaskConfiguration {
 		return jobExplorerFactoryBean;
 	}
 
+	@Configuration
+	@ConditionalOnProperty(prefix = TaskConfigurationProperties.TASK_PREFIX, name = "retention.enabled", havingValue = "true")
+	public static class TaskRetentionScheduleConfiguration {
+
+		@Bean
+		public ScheduledTaskRetention scheduledTaskRetention(TaskRetentionService taskRetentionService,
+				TaskConfigurationProperties taskConfigurationProperties) {
+			return new ScheduledTaskRetention(taskRetentionService, taskConfigurationProperties);
+		}
+	}
+
 	@Configuration
 	@ConditionalOnProperty(name = "spring.dataflow.embedded.database.enabled", havingValue = "true", matchIfMissing = true)
 	@ConditionalOnExpression("#{'${spring.datasource.url:}'.startsWith('jdbc:h2:tcp://localhost:')}")
@@ -161,8 +219,16 @@ public class TaskConfiguration {
 
 		@Bean
 		@ConditionalOnMissingBean
-		public TaskDefinitionRepository taskDefinitionRepository(DataSource dataSource) {
-			return new RdbmsTaskDefinitionRepository(dataSource);
+		public TaskDefinitionRepository taskDefinitionRepository(DataSource dataSource,
+				ObjectProvider<ChangeVersions> changeVersions,
+				ObjectProvider<RepositoryDataSources> repositoryDataSources) {
+			RdbmsTaskDefinitionRepository taskDefinitionRepository = new RdbmsTaskDefinitionRepository(dataSource);
+			taskDefinitionRepository.setChangeVersions(changeVersions.getIfAvailable());
+			RepositoryDataSources dataSources = repositoryDataSources.getIfAvailable();
+			if (dataSources != null) {
+				taskDefinitionRepository.setJdbcTemplates(dataSources.getJdbcTemplates("task-definitions"));
+			}
+			return taskDefinitionRepository;
 		}
 	}
 
@@ -203,8 +269,16 @@ public class TaskConfiguration {
 
 		@Bean
 		@ConditionalOnMissingBean
-		public TaskDefinitionRepository taskDefinitionRepository(DataSource dataSource) throws Exception {
-			return new RdbmsTaskDefinitionRepository(dataSource);
+		public TaskDefinitionRepository taskDefinitionRepository(DataSource dataSource,
+				ObjectProvider<ChangeVersions> changeVersions,
+				ObjectProvider<RepositoryDataSources> repositoryDataSources) throws Exception {
+			RdbmsTaskDefinitionRepository taskDefinitionRepository = new RdbmsTaskDefinitionRepository(dataSource);
+			taskDefinitionRepository.setChangeVersions(changeVersions.getIfAvailable());
+			RepositoryDataSources dataSources = repositoryDataSources.getIfAvailable();
+			if (dataSources != null) {
+				taskDefinitionRepository.setJdbcTemplates(dataSources.getJdbcTemplates("task-definitions"));
+			}
+			return taskDefinitionRepository;
 		}
 	}
 
@@ -37,6 +37,7 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplicat
 import org.springframework.boot.autoconfigure.web.HttpMessageConverters;
 import org.springframework.boot.web.servlet.ServletContextInitializer;
 import org.springframework.cloud.dataflow.rest.job.support.ISO8601DateFormatWithMilliSeconds;
+import org.springframework.cloud.dataflow.server.controller.support.LazyPagedResources;
 import org.springframework.cloud.dataflow.server.job.support.ExecutionContextJacksonMixIn;
 import org.springframework.cloud.dataflow.server.job.support.StepExecutionJacksonMixIn;
 import org.springframework.context.ApplicationListener;
@@ -150,6 +151,7 @@ public class WebConfiguration implements ServletContextInitializer, ApplicationL
 		objectMapper.setDateFormat(new ISO8601DateFormatWithMilliSeconds());
 		objectMapper.addMixIn(StepExecution.class, StepExecutionJacksonMixIn.class);
 		objectMapper.addMixIn(ExecutionContext.class, ExecutionContextJacksonMixIn.class);
+		objectMapper.addMixIn(LazyPagedResources.class, LazyPagedResources.HalMixIn.class);
 		objectMapper.registerModule(new JavaTimeModule());
 	}
 
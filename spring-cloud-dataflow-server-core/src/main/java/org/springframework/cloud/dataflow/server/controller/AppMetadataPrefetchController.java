@@ -0,0 +1,52 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.controller;
+
+import org.springframework.cloud.dataflow.server.service.AppMetadataPrefetchStatus;
+import org.springframework.cloud.dataflow.server.service.impl.AppMetadataPrefetcher;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.Assert;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Exposes the state of the background fetching of app metadata artifacts.
+ */
+@RestController
+@RequestMapping("/apps/prefetch")
+public class AppMetadataPrefetchController {
+
+	private final AppMetadataPrefetcher metadataPrefetcher;
+
+	public AppMetadataPrefetchController(AppMetadataPrefetcher metadataPrefetcher) {
+		Assert.notNull(metadataPrefetcher, "metadataPrefetcher must not be null");
+		this.metadataPrefetcher = metadataPrefetcher;
+	}
+
+	/**
+	 * Return the queue depth, the fetches in flight and the totals since startup.
+	 *
+	 * @return the prefetch status
+	 */
+	@RequestMapping(method = RequestMethod.GET)
+	@ResponseStatus(HttpStatus.OK)
+	public AppMetadataPrefetchStatus status() {
+		return this.metadataPrefetcher.getStatus();
+	}
+}
@@ -25,7 +25,6 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
-import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -39,6 +38,10 @@ import org.springframework.cloud.dataflow.registry.domain.AppRegistration;
 import org.springframework.cloud.dataflow.registry.support.NoSuchAppRegistrationException;
 import org.springframework.cloud.dataflow.rest.resource.AppRegistrationResource;
 import org.springframework.cloud.dataflow.rest.resource.DetailedAppRegistrationResource;
+import org.springframework.cloud.dataflow.server.controller.support.ControllerUtils;
+import org.springframework.cloud.dataflow.server.controller.support.LazyPagedResources;
+import org.springframework.cloud.dataflow.server.service.impl.AppMetadataPrefetcher;
+import org.springframework.cloud.dataflow.server.support.ChangeVersions;
 import org.springframework.context.ResourceLoaderAware;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.DefaultResourceLoader;
@@ -60,6 +63,7 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
 
 /**
  * Handles all {@link AppRegistry} related interactions.
@@ -79,7 +83,9 @@ public class AppRegistryController implements ResourceLoaderAware {
 
 	private static final Logger logger = LoggerFactory.getLogger(AppRegistryController.class);
 
-	private final Assembler assembler = new Assembler();
+	private final Assembler assembler = new Assembler(false);
+
+	private final Assembler compactAssembler = new Assembler(true);
 
 	private final AppRegistry appRegistry;
 
@@ -87,13 +93,26 @@ public class AppRegistryController implements ResourceLoaderAware {
 
 	private ResourceLoader resourceLoader = new DefaultResourceLoader();
 
-	private ForkJoinPool forkJoinPool;
+	private final AppMetadataPrefetcher metadataPrefetcher;
+
+	private ChangeVersions changeVersions;
 
 	public AppRegistryController(AppRegistry appRegistry, ApplicationConfigurationMetadataResolver metadataResolver,
-			ForkJoinPool forkJoinPool) {
+			AppMetadataPrefetcher metadataPrefetcher) {
 		this.appRegistry = appRegistry;
 		this.metadataResolver = metadataResolver;
-		this.forkJoinPool = forkJoinPool;
+		this.metadataPrefetcher = metadataPrefetcher;
+	}
+
+	/**
+	 * Set the change counters used to answer conditional requests for the registration
+	 * list. Registrations changed through this controller are recorded in them. Without
+	 * them, the list is built on every request.
+	 *
+	 * @param changeVersions the change counters
+	 */
+	public void setChangeVersions(ChangeVersions changeVersions) {
+		this.changeVersions = changeVersions;
 	}
 
 	/**
@@ -104,15 +123,21 @@ public class AppRegistryController implements ResourceLoaderAware {
 	 * @param pagedResourcesAssembler the resource assembler for app registrations
 	 * @param type the application type: source, sink, processor, task
 	 * @param search optional findByNameLike parameter
-	 * @return the list of registered applications
+	 * @param request the current request, checked for {@code If-None-Match} and
+	 * {@code If-Modified-Since} headers
+	 * @return the list of registered applications, or {@code null} if the list has not
+	 * been modified
 	 */
 	@RequestMapping(method = RequestMethod.GET)
-	@ResponseStatus(HttpStatus.OK)
 	public PagedResources<? extends AppRegistrationResource> list(
 			Pageable pageable,
 			PagedResourcesAssembler<AppRegistration> pagedResourcesAssembler,
 			@RequestParam(value = "type", required = false) ApplicationType type,
-			@RequestParam(required = false) String search) {
+			@RequestParam(required = false) String search, NativeWebRequest request) {
+		if (ControllerUtils.checkNotModified(this.changeVersions, request,
+				ChangeVersions.Domain.APP_REGISTRATIONS)) {
+			return null;
+		}
 		Page<AppRegistration> pagedRegistrations;
 		if (type == null && search == null) {
 			pagedRegistrations = appRegistry.findAll(pageable);
@@ -145,7 +170,8 @@ public class AppRegistryController implements ResourceLoaderAware {
 					new PageRequest(page, pageable.getPageSize()), appRegistrations.size());
 		}
 
-		return pagedResourcesAssembler.toResource(pagedRegistrations, this.assembler);
+		return LazyPagedResources.of(pagedRegistrations,
+				ControllerUtils.isCompact(request) ? this.compactAssembler : this.assembler, pagedResourcesAssembler);
 
 	}
 
@@ -196,11 +222,14 @@ public class AppRegistryController implements ResourceLoaderAware {
 		try {
 			AppRegistration registration = appRegistry.save(name, type, new URI(uri),
 					metadataUri != null ? new URI(metadataUri) : null);
-			prefetchMetadata(Arrays.asList(registration));
+			this.metadataPrefetcher.prefetch(Arrays.asList(registration));
 		}
 		catch (URISyntaxException e) {
 			throw new IllegalArgumentException(e);
 		}
+		finally {
+			registrationsChanged();
+		}
 	}
 
 	/**
@@ -213,7 +242,12 @@ public class AppRegistryController implements ResourceLoaderAware {
 	@RequestMapping(value = "/{type}/{name}", method = RequestMethod.DELETE)
 	@ResponseStatus(HttpStatus.OK)
 	public void unregister(@PathVariable("type") ApplicationType type, @PathVariable("name") String name) {
-		appRegistry.delete(name, type);
+		try {
+			appRegistry.delete(name, type);
+		}
+		finally {
+			registrationsChanged();
+		}
 	}
 
 	/**
@@ -236,54 +270,55 @@ public class AppRegistryController implements ResourceLoaderAware {
 			@RequestParam(value = "apps", required = false) Properties apps,
 			@RequestParam(value = "force", defaultValue = "false") boolean force) throws IOException {
 		List<AppRegistration> registrations = new ArrayList<>();
-		if (StringUtils.hasText(uri)) {
-			registrations.addAll(appRegistry.importAll(force, resourceLoader.getResource(uri)));
+		try {
+			if (StringUtils.hasText(uri)) {
+				registrations.addAll(appRegistry.importAll(force, resourceLoader.getResource(uri)));
+			}
+			else if (!CollectionUtils.isEmpty(apps)) {
+				ByteArrayOutputStream baos = new ByteArrayOutputStream();
+				apps.store(baos, "");
+				ByteArrayResource bar = new ByteArrayResource(baos.toByteArray(), "Inline properties");
+				registrations.addAll(appRegistry.importAll(force, bar));
+			}
 		}
-		else if (!CollectionUtils.isEmpty(apps)) {
-			ByteArrayOutputStream baos = new ByteArrayOutputStream();
-			apps.store(baos, "");
-			ByteArrayResource bar = new ByteArrayResource(baos.toByteArray(), "Inline properties");
-			registrations.addAll(appRegistry.importAll(force, bar));
+		finally {
+			registrationsChanged();
 		}
 		Collections.sort(registrations);
-		prefetchMetadata(registrations);
+		this.metadataPrefetcher.prefetch(registrations);
 		return pagedResourcesAssembler.toResource(
 				new PageImpl<>(registrations, pageable, appRegistry.findAll().size()),
 				assembler);
 	}
 
-	/**
-	 * Trigger early resolution of the metadata resource of registrations that have an
-	 * explicit metadata artifact. This assumes usage of
-	 * {@link org.springframework.cloud.deployer.resource.support.DelegatingResourceLoader}.
-	 */
-	private void prefetchMetadata(List<AppRegistration> appRegistrations) {
-		forkJoinPool.execute(() -> {
-			appRegistrations.stream().filter(r -> r.getMetadataUri() != null).parallel().forEach(r -> {
-				logger.info("Eagerly fetching {}", r.getMetadataUri());
-				try {
-					this.appRegistry.getAppMetadataResource(r);
-				}
-				catch (Exception e) {
-					logger.warn("Could not fetch " + r.getMetadataUri(), e);
-				}
-			});
-		});
-	}
-
 	@Override
 	public void setResourceLoader(ResourceLoader resourceLoader) {
 		this.resourceLoader = resourceLoader;
 	}
 
+	private void registrationsChanged() {
+		if (this.changeVersions != null) {
+			this.changeVersions.changed(ChangeVersions.Domain.APP_REGISTRATIONS);
+		}
+	}
+
 	class Assembler extends ResourceAssemblerSupport<AppRegistration, AppRegistrationResource> {
 
-		public Assembler() {
+		private final boolean compact;
+
+		/**
+		 * @param compact whether to leave out the links of the resources
+		 */
+		public Assembler(boolean compact) {
 			super(AppRegistryController.class, AppRegistrationResource.class);
+			this.compact = compact;
 		}
 
 		@Override
 		public AppRegistrationResource toResource(AppRegistration registration) {
+			if (this.compact) {
+				return instantiateResource(registration);
+			}
 			return createResourceWithId(String.format("%s/%s", registration.getType(), registration.getName()),
 					registration);
 		}
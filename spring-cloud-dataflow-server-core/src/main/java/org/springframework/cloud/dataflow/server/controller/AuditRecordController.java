@@ -26,6 +26,7 @@ import org.springframework.cloud.dataflow.server.audit.domain.AuditActionType;
 import org.springframework.cloud.dataflow.server.audit.domain.AuditOperationType;
 import org.springframework.cloud.dataflow.server.audit.domain.AuditRecord;
 import org.springframework.cloud.dataflow.server.audit.service.AuditRecordService;
+import org.springframework.cloud.dataflow.server.controller.support.LazyPagedResources;
 import org.springframework.cloud.dataflow.server.repository.NoSuchAuditRecordException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -87,7 +88,7 @@ public class AuditRecordController {
 			PagedResourcesAssembler<AuditRecord> assembler) {
 		Page<AuditRecord> auditRecords = this.auditRecordService
 			.findAuditRecordByAuditOperationTypeAndAuditActionType(pageable, actions, operations);
-		return assembler.toResource(auditRecords, new Assembler(auditRecords));
+		return LazyPagedResources.of(auditRecords, new Assembler(auditRecords), assembler);
 	}
 
 	/**
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.controller;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.cloud.dataflow.rest.resource.AppInstanceStatusResource;
+import org.springframework.cloud.dataflow.rest.resource.AppStatusResource;
+import org.springframework.cloud.dataflow.server.controller.support.ControllerUtils;
+import org.springframework.cloud.dataflow.server.stream.DeploymentStateMonitor;
+import org.springframework.cloud.deployer.spi.app.AppInstanceStatus;
+import org.springframework.cloud.deployer.spi.app.AppStatus;
+import org.springframework.cloud.deployer.spi.app.DeploymentState;
+import org.springframework.hateoas.Resources;
+import org.springframework.http.MediaType;
+import org.springframework.util.Assert;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Pushes deployment state changes of streams and apps to clients as Server-Sent Events,
+ * fed by a {@link DeploymentStateMonitor}.
+ * <p>
+ * A subscriber first receives a {@code changed} event for every stream or app, then
+ * {@code changed} events for those whose state changed and {@code removed} events, with
+ * the name or deployment id as data, for those that are gone. Clients reconnect when the
+ * subscription times out or when they are disconnected for not keeping up with the
+ * events, receiving the full state again.
+ */
+@RestController
+public class DeploymentEventsController {
+
+	static final String CHANGED = "changed";
+
+	static final String REMOVED = "removed";
+
+	private final DeploymentStateMonitor deploymentStateMonitor;
+
+	private final long timeout;
+
+	/**
+	 * Create a {@code DeploymentEventsController}.
+	 *
+	 * @param deploymentStateMonitor the monitor notifying of state changes
+	 * @param timeout the time in milliseconds after which a subscription is completed
+	 */
+	public DeploymentEventsController(DeploymentStateMonitor deploymentStateMonitor, long timeout) {
+		Assert.notNull(deploymentStateMonitor, "deploymentStateMonitor must not be null");
+		this.deploymentStateMonitor = deploymentStateMonitor;
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Subscribe to the deployment states of streams. The data of {@code changed} events
+	 * holds the stream {@code name} and its {@code status}, as listed with the stream
+	 * definitions.
+	 *
+	 * @return the emitter of the events
+	 */
+	@RequestMapping(value = "/streams/events", method = RequestMethod.GET,
+			produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter streamEvents() {
+		SseEmitter emitter = new SseEmitter(this.timeout);
+		DeploymentStateMonitor.Listener<DeploymentState> listener = new EmitterListener<DeploymentState>(emitter) {
+
+			@Override
+			void send(Map<String, DeploymentState> changed, Set<String> removed) throws IOException {
+				for (Map.Entry<String, DeploymentState> entry : changed.entrySet()) {
+					emitter.send(SseEmitter.event().name(CHANGED).data(
+							new StreamStatus(entry.getKey(), ControllerUtils.mapState(entry.getValue()).getKey()),
+							MediaType.APPLICATION_JSON));
+				}
+				for (String name : removed) {
+					emitter.send(SseEmitter.event().name(REMOVED).data(name));
+				}
+			}
+		};
+		emitter.onCompletion(() -> this.deploymentStateMonitor.removeStreamStateListener(listener));
+		emitter.onTimeout(() -> this.deploymentStateMonitor.removeStreamStateListener(listener));
+		this.deploymentStateMonitor.addStreamStateListener(listener);
+		return emitter;
+	}
+
+	/**
+	 * Subscribe to the statuses of deployed apps. The data of {@code changed} events is
+	 * the app status as listed under {@code /runtime/apps}, without links.
+	 *
+	 * @return the emitter of the events
+	 */
+	@RequestMapping(value = "/runtime/apps/events", method = RequestMethod.GET,
+			produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter appEvents() {
+		SseEmitter emitter = new SseEmitter(this.timeout);
+		DeploymentStateMonitor.Listener<AppStatus> listener = new EmitterListener<AppStatus>(emitter) {
+
+			@Override
+			void send(Map<String, AppStatus> changed, Set<String> removed) throws IOException {
+				for (AppStatus appStatus : changed.values()) {
+					emitter.send(SseEmitter.event().name(CHANGED).data(toResource(appStatus),
+							MediaType.APPLICATION_JSON));
+				}
+				for (String deploymentId : removed) {
+					emitter.send(SseEmitter.event().name(REMOVED).data(deploymentId));
+				}
+			}
+		};
+		emitter.onCompletion(() -> this.deploymentStateMonitor.removeAppStatusListener(listener));
+		emitter.onTimeout(() -> this.deploymentStateMonitor.removeAppStatusListener(listener));
+		this.deploymentStateMonitor.addAppStatusListener(listener);
+		return emitter;
+	}
+
+	/**
+	 * Events are sent outside of a request, where links can not be built.
+	 */
+	private static AppStatusResource toResource(AppStatus appStatus) {
+		AppStatusResource resource = new AppStatusResource(appStatus.getDeploymentId(),
+				ControllerUtils.mapState(appStatus.getState()).getKey());
+		List<AppInstanceStatusResource> instances = new ArrayList<>();
+		for (AppInstanceStatus instance : appStatus.getInstances().values()) {
+			instances.add(new AppInstanceStatusResource(instance.getId(),
+					ControllerUtils.mapState(instance.getState()).getKey(), instance.getAttributes()));
+		}
+		instances.sort((i1, i2) -> i1.getInstanceId().compareTo(i2.getInstanceId()));
+		resource.setInstances(new Resources<>(instances));
+		return resource;
+	}
+
+	/**
+	 * Sends the updates of a {@link DeploymentStateMonitor} to an emitter. A subscriber
+	 * that fell behind is disconnected, so that it reconnects and receives the full state
+	 * again.
+	 */
+	private abstract static class EmitterListener<T> implements DeploymentStateMonitor.Listener<T> {
+
+		private final SseEmitter emitter;
+
+		EmitterListener(SseEmitter emitter) {
+			this.emitter = emitter;
+		}
+
+		@Override
+		public void changed(Map<String, T> changed, Set<String> removed) throws Exception {
+			try {
+				send(changed, removed);
+			}
+			catch (IOException | RuntimeException e) {
+				this.emitter.completeWithError(e);
+				throw e;
+			}
+		}
+
+		@Override
+		public void dropped() {
+			this.emitter.complete();
+		}
+
+		abstract void send(Map<String, T> changed, Set<String> removed) throws IOException;
+	}
+
+	/**
+	 * Data of a {@code changed} event for a stream.
+	 */
+	public static class StreamStatus {
+
+		private final String name;
+
+		private final String status;
+
+		StreamStatus(String name, String status) {
+			this.name = name;
+			this.status = status;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public String getStatus() {
+			return status;
+		}
+	}
+}
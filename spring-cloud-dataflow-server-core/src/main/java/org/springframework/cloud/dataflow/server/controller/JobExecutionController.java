@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 the original author or authors.
+ * Copyright 2016-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,9 +16,12 @@
 
 package org.springframework.cloud.dataflow.server.controller;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.TimeZone;
 
+import javax.servlet.http.HttpServletResponse;
+
 import org.springframework.batch.admin.service.JobService;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.launch.JobExecutionNotRunningException;
@@ -29,6 +32,8 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.cloud.dataflow.rest.job.TaskJobExecution;
 import org.springframework.cloud.dataflow.rest.job.support.TimeUtils;
 import org.springframework.cloud.dataflow.rest.resource.JobExecutionResource;
+import org.springframework.cloud.dataflow.server.controller.support.LazyPagedResources;
+import org.springframework.cloud.dataflow.server.service.ExecutionExportService;
 import org.springframework.cloud.dataflow.server.service.TaskJobService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -62,17 +67,22 @@ public class JobExecutionController {
 
 	private final TaskJobService taskJobService;
 
+	private final ExecutionExportService executionExportService;
+
 	/**
 	 * Creates a {@code JobExecutionController} that retrieves Job Execution information
 	 * from a the {@link JobService}
 	 *
 	 * @param taskJobService the service this controller will use for retrieving job
 	 * execution information. Must not be null.
+	 * @param executionExportService used to stream job executions. Must not be null.
 	 */
 	@Autowired
-	public JobExecutionController(TaskJobService taskJobService) {
+	public JobExecutionController(TaskJobService taskJobService, ExecutionExportService executionExportService) {
 		Assert.notNull(taskJobService, "taskJobService must not be null");
+		Assert.notNull(executionExportService, "executionExportService must not be null");
 		this.taskJobService = taskJobService;
+		this.executionExportService = executionExportService;
 	}
 
 	/**
@@ -90,7 +100,7 @@ public class JobExecutionController {
 			PagedResourcesAssembler<TaskJobExecution> assembler) throws NoSuchJobExecutionException {
 		List<TaskJobExecution> jobExecutions = taskJobService.listJobExecutions(pageable);
 		Page<TaskJobExecution> page = new PageImpl<>(jobExecutions, pageable, taskJobService.countJobExecutions());
-		return assembler.toResource(page, jobAssembler);
+		return LazyPagedResources.of(page, jobAssembler, assembler);
 	}
 
 	/**
@@ -109,7 +119,27 @@ public class JobExecutionController {
 		List<TaskJobExecution> jobExecutions = taskJobService.listJobExecutionsForJob(pageable, jobName);
 		Page<TaskJobExecution> page = new PageImpl<>(jobExecutions, pageable,
 				taskJobService.countJobExecutionsForJob(jobName));
-		return assembler.toResource(page, jobAssembler);
+		return LazyPagedResources.of(page, jobAssembler, assembler);
+	}
+
+	/**
+	 * Stream job executions as newline-delimited JSON, ordered by job execution id. To
+	 * continue an export pass the execution id of the last record received as
+	 * {@code after}.
+	 *
+	 * @param after only executions with a greater job execution id are exported
+	 * @param size the maximum number of executions to export, {@code -1} for all
+	 * @param response the response the executions are written to
+	 * @throws IOException if writing to the response fails
+	 */
+	@RequestMapping(value = "/export", method = RequestMethod.GET)
+	@ResponseStatus(HttpStatus.OK)
+	public void export(@RequestParam(value = "after", defaultValue = "-1") long after,
+			@RequestParam(value = "size", defaultValue = "-1") long size, HttpServletResponse response)
+			throws IOException {
+		response.setContentType(ExecutionExportService.NDJSON_MEDIA_TYPE);
+		response.setCharacterEncoding("UTF-8");
+		this.executionExportService.exportJobExecutions(after, size, response.getOutputStream());
 	}
 
 	/**
@@ -1,5 +1,5 @@
 /*
- * Copyright 2017 the original author or authors.
+ * Copyright 2017-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,9 +18,12 @@ package org.springframework.cloud.dataflow.server.controller;
 
 import java.util.List;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.cloud.dataflow.server.controller.support.ApplicationsMetrics;
 import org.springframework.cloud.dataflow.server.controller.support.MetricStore;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
@@ -34,6 +37,8 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/metrics/streams")
 public class MetricsController {
 
+	private static final String STALE_WARNING = "110 - \"Response is Stale\"";
+
 	private final MetricStore metricStore;
 
 	/**
@@ -45,8 +50,24 @@ public class MetricsController {
 		this.metricStore = metricStore;
 	}
 
+	/**
+	 * Return the metrics last fetched from the collector. Their age is sent in the
+	 * {@code Age} header, and a {@code Warning} header marks metrics that could not be
+	 * refreshed lately.
+	 *
+	 * @return the metrics of the deployed stream applications
+	 */
 	@RequestMapping(method = RequestMethod.GET)
-	public List<ApplicationsMetrics> list() throws ExecutionException, InterruptedException {
-		return metricStore.getMetrics();
+	public ResponseEntity<List<ApplicationsMetrics>> list() throws ExecutionException, InterruptedException {
+		List<ApplicationsMetrics> metrics = metricStore.getMetrics();
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+		long age = metricStore.getAge();
+		if (age >= 0 && age != Long.MAX_VALUE) {
+			response.header(HttpHeaders.AGE, Long.toString(TimeUnit.MILLISECONDS.toSeconds(age)));
+		}
+		if (metricStore.isStale()) {
+			response.header(HttpHeaders.WARNING, STALE_WARNING);
+		}
+		return response.body(metrics);
 	}
 }
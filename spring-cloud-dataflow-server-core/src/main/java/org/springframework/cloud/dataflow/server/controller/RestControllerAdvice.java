@@ -41,7 +41,9 @@ import org.springframework.cloud.dataflow.server.repository.NoSuchTaskDefinition
 import org.springframework.cloud.dataflow.server.repository.NoSuchTaskExecutionException;
 import org.springframework.cloud.dataflow.server.support.ApplicationDoesNotExistException;
 import org.springframework.hateoas.VndErrors;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.MissingServletRequestParameterException;
@@ -219,6 +221,23 @@ public class RestControllerAdvice {
 		return new VndErrors(logref, errorMessage.toString());
 	}
 
+	/**
+	 * Log the exception message at debug level, as a burst of rejections would otherwise
+	 * flood the log. Return response status HttpStatus.TOO_MANY_REQUESTS with a
+	 * {@code Retry-After} header.
+	 *
+	 * @param e the exception, {@link TooManyRequestsException}
+	 * @return the error response in JSON format with media type
+	 * application/vnd.error+json
+	 */
+	@ExceptionHandler(TooManyRequestsException.class)
+	public ResponseEntity<VndErrors> onTooManyRequestsException(TooManyRequestsException e) {
+		logger.debug("Rejected a request: " + e.getMessage());
+		return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+				.header(HttpHeaders.RETRY_AFTER, Long.toString(e.getRetryAfter()))
+				.body(new VndErrors(e.getClass().getSimpleName(), getExceptionMessage(e)));
+	}
+
 	private String logWarnLevelExceptionMessage(Exception e) {
 		logger.warn("Caught exception while handling a request: " + getExceptionMessage(e));
 		return e.getClass().getSimpleName();
@@ -25,7 +25,9 @@ import java.util.concurrent.ExecutionException;
 import org.springframework.cloud.dataflow.rest.resource.AppInstanceStatusResource;
 import org.springframework.cloud.dataflow.rest.resource.AppStatusResource;
 import org.springframework.cloud.dataflow.server.controller.support.ControllerUtils;
+import org.springframework.cloud.dataflow.server.controller.support.LazyPagedResources;
 import org.springframework.cloud.dataflow.server.stream.StreamDeployer;
+import org.springframework.cloud.dataflow.server.support.ChangeVersions;
 import org.springframework.cloud.deployer.spi.app.AppInstanceStatus;
 import org.springframework.cloud.deployer.spi.app.AppStatus;
 import org.springframework.cloud.deployer.spi.app.DeploymentState;
@@ -42,6 +44,7 @@ import org.springframework.util.Assert;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
 
 /**
  * Exposes runtime status of deployed apps.
@@ -67,7 +70,11 @@ public class RuntimeAppsController {
 
 	private final StreamDeployer streamDeployer;
 
-	private final ResourceAssembler<AppStatus, AppStatusResource> statusAssembler = new Assembler();
+	private final ResourceAssembler<AppStatus, AppStatusResource> statusAssembler = new Assembler(false);
+
+	private final ResourceAssembler<AppStatus, AppStatusResource> compactStatusAssembler = new Assembler(true);
+
+	private ChangeVersions changeVersions;
 
 	/**
 	 * Construct a new runtime apps controller.
@@ -79,15 +86,28 @@ public class RuntimeAppsController {
 		this.streamDeployer = streamDeployer;
 	}
 
+	/**
+	 * Set the change counters used to answer conditional requests for the app statuses.
+	 * Without them, the platform is asked for the statuses on every request.
+	 *
+	 * @param changeVersions the change counters
+	 */
+	public void setChangeVersions(ChangeVersions changeVersions) {
+		this.changeVersions = changeVersions;
+	}
+
 	@RequestMapping
-	public PagedResources<AppStatusResource> list(Pageable pageable, PagedResourcesAssembler<AppStatus> assembler)
-			throws ExecutionException, InterruptedException {
+	public PagedResources<AppStatusResource> list(Pageable pageable, PagedResourcesAssembler<AppStatus> assembler,
+			NativeWebRequest request) throws ExecutionException, InterruptedException {
+		if (ControllerUtils.checkNotModified(this.changeVersions, request, ChangeVersions.Domain.APP_STATUSES)) {
+			return null;
+		}
 
 		Page<AppStatus> statuses = streamDeployer.getAppStatuses(pageable);
 
 		// finally, pass in pageable and tell how many items we have in all pages
-		return assembler.toResource(new PageImpl<>(statuses.getContent(), pageable, statuses.getTotalElements()),
-				statusAssembler);
+		return LazyPagedResources.of(new PageImpl<>(statuses.getContent(), pageable, statuses.getTotalElements()),
+				ControllerUtils.isCompact(request) ? compactStatusAssembler : statusAssembler, assembler);
 
 	}
 
@@ -102,12 +122,22 @@ public class RuntimeAppsController {
 
 	private static class Assembler extends ResourceAssemblerSupport<AppStatus, AppStatusResource> {
 
-		public Assembler() {
+		private final boolean compact;
+
+		/**
+		 * @param compact whether to leave out the links of the statuses and of their
+		 * instances
+		 */
+		public Assembler(boolean compact) {
 			super(RuntimeAppsController.class, AppStatusResource.class);
+			this.compact = compact;
 		}
 
 		@Override
 		public AppStatusResource toResource(AppStatus entity) {
+			if (this.compact) {
+				return instantiateResource(entity);
+			}
 			return createResourceWithId(entity.getDeploymentId(), entity);
 		}
 
@@ -121,7 +151,8 @@ public class RuntimeAppsController {
 			List<AppInstanceStatus> instanceStatuses = new ArrayList<>(entity.getInstances().values());
 			Collections.sort(instanceStatuses, INSTANCE_SORTER);
 			for (AppInstanceStatus appInstanceStatus : instanceStatuses) {
-				instanceStatusResources.add(instanceAssembler.toResource(appInstanceStatus));
+				instanceStatusResources.add(this.compact ? instanceAssembler.instantiateResource(appInstanceStatus)
+						: instanceAssembler.toResource(appInstanceStatus));
 			}
 			resource.setInstances(new Resources<>(instanceStatusResources));
 			return resource;
@@ -26,7 +26,6 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
-import java.util.concurrent.ForkJoinPool;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -46,8 +45,12 @@ import org.springframework.cloud.dataflow.registry.support.NoSuchAppRegistration
 import org.springframework.cloud.dataflow.rest.SkipperStream;
 import org.springframework.cloud.dataflow.rest.resource.AppRegistrationResource;
 import org.springframework.cloud.dataflow.rest.resource.DetailedAppRegistrationResource;
+import org.springframework.cloud.dataflow.server.controller.support.ControllerUtils;
+import org.springframework.cloud.dataflow.server.controller.support.LazyPagedResources;
 import org.springframework.cloud.dataflow.server.repository.StreamDefinitionRepository;
 import org.springframework.cloud.dataflow.server.service.StreamService;
+import org.springframework.cloud.dataflow.server.service.impl.AppMetadataPrefetcher;
+import org.springframework.cloud.dataflow.server.support.ChangeVersions;
 import org.springframework.cloud.deployer.resource.maven.MavenProperties;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.DefaultResourceLoader;
@@ -68,6 +71,7 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
 
 /**
  * Handles all {@link DefaultAppRegistryService} related interactions.
@@ -87,7 +91,9 @@ public class SkipperAppRegistryController {
 
 	private static final Logger logger = LoggerFactory.getLogger(SkipperAppRegistryController.class);
 
-	private final Assembler assembler = new Assembler();
+	private final Assembler assembler = new Assembler(false);
+
+	private final Assembler compactAssembler = new Assembler(true);
 
 	private final StreamDefinitionRepository streamDefinitionRepository;
 
@@ -99,7 +105,9 @@ public class SkipperAppRegistryController {
 
 	private ApplicationConfigurationMetadataResolver metadataResolver;
 
-	private ForkJoinPool forkJoinPool;
+	private final AppMetadataPrefetcher metadataPrefetcher;
+
+	private ChangeVersions changeVersions;
 
 	private ResourceLoader resourceLoader = new DefaultResourceLoader();
 
@@ -107,15 +115,26 @@ public class SkipperAppRegistryController {
 			StreamService streamService,
 			AppRegistryService appRegistryService,
 			ApplicationConfigurationMetadataResolver metadataResolver,
-			ForkJoinPool forkJoinPool, MavenProperties mavenProperties) {
+			AppMetadataPrefetcher metadataPrefetcher, MavenProperties mavenProperties) {
 		this.streamDefinitionRepository = streamDefinitionRepository;
 		this.streamService = streamService;
 		this.appRegistryService = appRegistryService;
 		this.metadataResolver = metadataResolver;
-		this.forkJoinPool = forkJoinPool;
+		this.metadataPrefetcher = metadataPrefetcher;
 		this.mavenProperties = mavenProperties;
 	}
 
+	/**
+	 * Set the change counters used to answer conditional requests for the registration
+	 * list. Registrations changed through this controller are recorded in them. Without
+	 * them, the list is built on every request.
+	 *
+	 * @param changeVersions the change counters
+	 */
+	public void setChangeVersions(ChangeVersions changeVersions) {
+		this.changeVersions = changeVersions;
+	}
+
 	/**
 	 * List app registrations. Optional type and findByNameLike parameters can be passed to do
 	 * filtering. Search parameter only filters by {@code AppRegistration} name field.
@@ -123,20 +142,27 @@ public class SkipperAppRegistryController {
 	 * @param pagedResourcesAssembler the resource assembler for app registrations
 	 * @param type the application type: source, sink, processor, task
 	 * @param search optional findByNameLike parameter
-	 * @return the list of registered applications
+	 * @param request the current request, checked for {@code If-None-Match} and
+	 * {@code If-Modified-Since} headers
+	 * @return the list of registered applications, or {@code null} if the list has not
+	 * been modified
 	 */
 	@RequestMapping(method = RequestMethod.GET)
-	@ResponseStatus(HttpStatus.OK)
 	public PagedResources<? extends AppRegistrationResource> list(
 			Pageable pageable,
 			PagedResourcesAssembler<AppRegistration> pagedResourcesAssembler,
 			@RequestParam(value = "type", required = false) ApplicationType type,
-			@RequestParam(required = false) String search) {
+			@RequestParam(required = false) String search, NativeWebRequest request) {
+		if (ControllerUtils.checkNotModified(this.changeVersions, request,
+				ChangeVersions.Domain.APP_REGISTRATIONS)) {
+			return null;
+		}
 
 		Page<AppRegistration> pagedRegistrations = this.appRegistryService.findAllByTypeAndNameIsLike(type, search,
 				pageable);
 
-		return pagedResourcesAssembler.toResource(pagedRegistrations, this.assembler);
+		return LazyPagedResources.of(pagedRegistrations,
+				ControllerUtils.isCompact(request) ? this.compactAssembler : this.assembler, pagedResourcesAssembler);
 	}
 
 	/**
@@ -203,11 +229,14 @@ public class SkipperAppRegistryController {
 		try {
 			AppRegistration registration = this.appRegistryService.save(name, type, version, new URI(uri),
 					metadataUri != null ? new URI(metadataUri) : null);
-			prefetchMetadata(Arrays.asList(registration));
+			this.metadataPrefetcher.prefetch(Arrays.asList(registration));
 		}
 		catch (URISyntaxException e) {
 			throw new IllegalArgumentException(e);
 		}
+		finally {
+			registrationsChanged();
+		}
 	}
 
 	@Deprecated
@@ -231,7 +260,12 @@ public class SkipperAppRegistryController {
 	@ResponseStatus(HttpStatus.ACCEPTED)
 	public void makeDefault(@PathVariable("type") ApplicationType type, @PathVariable("name") String name,
 			@PathVariable("version") String version) {
-		this.appRegistryService.setDefaultApp(name, type, version);
+		try {
+			this.appRegistryService.setDefaultApp(name, type, version);
+		}
+		finally {
+			registrationsChanged();
+		}
 	}
 
 	/**
@@ -255,7 +289,12 @@ public class SkipperAppRegistryController {
 			}
 		}
 
-		appRegistryService.delete(name, type, version);
+		try {
+			appRegistryService.delete(name, type, version);
+		}
+		finally {
+			registrationsChanged();
+		}
 	}
 
 	/**
@@ -340,50 +379,51 @@ public class SkipperAppRegistryController {
 			@RequestParam(value = "force", defaultValue = "false") boolean force) throws IOException {
 		List<AppRegistration> registrations = new ArrayList<>();
 
-		if (StringUtils.hasText(uri)) {
-			registrations.addAll(appRegistryService.importAll(force, this.resourceLoader.getResource(uri)));
+		try {
+			if (StringUtils.hasText(uri)) {
+				registrations.addAll(appRegistryService.importAll(force, this.resourceLoader.getResource(uri)));
+			}
+			else if (!CollectionUtils.isEmpty(apps)) {
+				ByteArrayOutputStream baos = new ByteArrayOutputStream();
+				apps.store(baos, "");
+				ByteArrayResource bar = new ByteArrayResource(baos.toByteArray(), "Inline properties");
+				registrations.addAll(appRegistryService.importAll(force, bar));
+			}
 		}
-		else if (!CollectionUtils.isEmpty(apps)) {
-			ByteArrayOutputStream baos = new ByteArrayOutputStream();
-			apps.store(baos, "");
-			ByteArrayResource bar = new ByteArrayResource(baos.toByteArray(), "Inline properties");
-			registrations.addAll(appRegistryService.importAll(force, bar));
+		finally {
+			registrationsChanged();
 		}
 
 		Collections.sort(registrations);
-		prefetchMetadata(registrations);
+		this.metadataPrefetcher.prefetch(registrations);
 		return pagedResourcesAssembler.toResource(
 				new PageImpl<>(registrations, pageable, appRegistryService.findAll().size()),
 				assembler);
 	}
 
-	/**
-	 * Trigger early resolution of the metadata resource of registrations that have an
-	 * explicit metadata artifact. This assumes usage of
-	 * {@link org.springframework.cloud.deployer.resource.support.DelegatingResourceLoader}.
-	 */
-	private void prefetchMetadata(List<AppRegistration> appRegistrations) {
-		forkJoinPool.execute(() -> {
-			appRegistrations.stream().filter(r -> r.getMetadataUri() != null).parallel().forEach(r -> {
-				logger.info("Eagerly fetching {}", r.getMetadataUri());
-				try {
-					appRegistryService.getAppMetadataResource(r);
-				}
-				catch (Exception e) {
-					logger.warn("Could not fetch " + r.getMetadataUri(), e);
-				}
-			});
-		});
+	private void registrationsChanged() {
+		if (this.changeVersions != null) {
+			this.changeVersions.changed(ChangeVersions.Domain.APP_REGISTRATIONS);
+		}
 	}
 
 	class Assembler extends ResourceAssemblerSupport<AppRegistration, AppRegistrationResource> {
 
-		public Assembler() {
+		private final boolean compact;
+
+		/**
+		 * @param compact whether to leave out the links of the resources
+		 */
+		public Assembler(boolean compact) {
 			super(SkipperAppRegistryController.class, AppRegistrationResource.class);
+			this.compact = compact;
 		}
 
 		@Override
 		public AppRegistrationResource toResource(AppRegistration registration) {
+			if (this.compact) {
+				return instantiateResource(registration);
+			}
 			return createResourceWithId(String.format("%s/%s/%s", registration.getType(), registration.getName(),
 					registration.getVersion()), registration);
 		}
@@ -31,6 +31,7 @@ import org.springframework.cloud.dataflow.server.controller.support.ControllerUt
 import org.springframework.cloud.dataflow.server.controller.support.InvalidStreamDefinitionException;
 import org.springframework.cloud.dataflow.server.repository.DuplicateStreamDefinitionException;
 import org.springframework.cloud.dataflow.server.service.StreamService;
+import org.springframework.cloud.dataflow.server.support.ChangeVersions;
 import org.springframework.cloud.deployer.spi.app.DeploymentState;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -47,6 +48,7 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
 
 /**
  * Controller for operations on {@link StreamDefinition}. This includes CRUD and optional
@@ -74,6 +76,11 @@ public class StreamDefinitionController {
 	 */
 	private final StreamService streamService;
 
+	/**
+	 * Change counters from which the validators of the definition list are derived, if any.
+	 */
+	private ChangeVersions changeVersions;
+
 	/**
 	 * Create a {@code StreamDefinitionController} that delegates to {@link StreamService}.
 	 *
@@ -84,20 +91,38 @@ public class StreamDefinitionController {
 		this.streamService = streamService;
 	}
 
+	/**
+	 * Set the change counters used to answer conditional requests for the definition
+	 * list. Without them, the list is built on every request.
+	 *
+	 * @param changeVersions the change counters
+	 */
+	public void setChangeVersions(ChangeVersions changeVersions) {
+		this.changeVersions = changeVersions;
+	}
+
 	/**
 	 * Return a page-able list of {@link StreamDefinitionResource} defined streams.
 	 *
 	 * @param pageable Pagination information
 	 * @param assembler assembler for {@link StreamDefinition}
 	 * @param search optional findByNameLike parameter
-	 * @return list of stream definitions
+	 * @param request the current request, checked for {@code If-None-Match} and
+	 * {@code If-Modified-Since} headers
+	 * @return list of stream definitions, or {@code null} if the list has not been
+	 * modified
 	 */
 	@RequestMapping(value = "", method = RequestMethod.GET)
-	@ResponseStatus(HttpStatus.OK)
 	public PagedResources<StreamDefinitionResource> list(Pageable pageable,
-			@RequestParam(required = false) String search, PagedResourcesAssembler<StreamDefinition> assembler) {
+			@RequestParam(required = false) String search, PagedResourcesAssembler<StreamDefinition> assembler,
+			NativeWebRequest request) {
+		if (ControllerUtils.checkNotModified(this.changeVersions, request, ChangeVersions.Domain.STREAM_DEFINITIONS,
+				ChangeVersions.Domain.APP_STATUSES)) {
+			return null;
+		}
 		Page<StreamDefinition> streamDefinitions = this.streamService.findDefinitionByNameLike(pageable, search);
-		return assembler.toResource(streamDefinitions, new Assembler(streamDefinitions));
+		return assembler.toResource(streamDefinitions,
+				new Assembler(streamDefinitions, ControllerUtils.isCompact(request)));
 	}
 
 	/**
@@ -184,16 +209,29 @@ public class StreamDefinitionController {
 
 		private final Map<StreamDefinition, DeploymentState> streamDeploymentStates;
 
+		private final boolean compact;
+
 		public Assembler(Page<StreamDefinition> streamDefinitions) {
+			this(streamDefinitions, false);
+		}
+
+		/**
+		 * @param streamDefinitions the stream definitions to convert
+		 * @param compact whether to leave out the links of the resources
+		 */
+		public Assembler(Page<StreamDefinition> streamDefinitions, boolean compact) {
 			super(StreamDefinitionController.class, StreamDefinitionResource.class);
 			streamDeploymentStates = StreamDefinitionController.this.streamService
 					.state(streamDefinitions.getContent());
-
+			this.compact = compact;
 		}
 
 		@Override
 		public StreamDefinitionResource toResource(StreamDefinition stream) {
 			try {
+				if (this.compact) {
+					return instantiateResource(stream);
+				}
 				return createResourceWithId(stream.getName(), stream);
 			}
 			catch (IllegalStateException e) {
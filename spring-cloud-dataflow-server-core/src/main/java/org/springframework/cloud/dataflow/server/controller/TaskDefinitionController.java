@@ -23,11 +23,14 @@ import java.util.Map;
 import org.springframework.cloud.dataflow.core.TaskDefinition;
 import org.springframework.cloud.dataflow.rest.resource.TaskDefinitionResource;
 import org.springframework.cloud.dataflow.rest.resource.TaskExecutionResource;
+import org.springframework.cloud.dataflow.server.controller.support.ControllerUtils;
 import org.springframework.cloud.dataflow.server.controller.support.TaskExecutionAwareTaskDefinition;
+import org.springframework.cloud.dataflow.server.repository.LatestTaskExecutionRepository;
 import org.springframework.cloud.dataflow.server.repository.NoSuchTaskDefinitionException;
 import org.springframework.cloud.dataflow.server.repository.TaskDefinitionRepository;
 import org.springframework.cloud.dataflow.server.repository.support.SearchPageable;
 import org.springframework.cloud.dataflow.server.service.TaskService;
+import org.springframework.cloud.dataflow.server.support.ChangeVersions;
 import org.springframework.cloud.deployer.spi.task.TaskLauncher;
 import org.springframework.cloud.task.repository.TaskExecution;
 import org.springframework.cloud.task.repository.TaskExplorer;
@@ -46,6 +49,7 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
 
 /**
  * Controller for operations on {@link TaskDefinition}. This includes CRUD operations.
@@ -61,7 +65,9 @@ import org.springframework.web.bind.annotation.RestController;
 @ExposesResourceFor(TaskDefinitionResource.class)
 public class TaskDefinitionController {
 
-	private final Assembler taskAssembler = new Assembler();
+	private final Assembler taskAssembler = new Assembler(false);
+
+	private final Assembler compactTaskAssembler = new Assembler(true);
 
 	private TaskDefinitionRepository repository;
 
@@ -69,6 +75,10 @@ public class TaskDefinitionController {
 
 	private final TaskExplorer explorer;
 
+	private final LatestTaskExecutionRepository latestTaskExecutionRepository;
+
+	private ChangeVersions changeVersions;
+
 	/**
 	 * Creates a {@code TaskDefinitionController} that delegates
 	 * <ul>
@@ -79,14 +89,29 @@ public class TaskDefinitionController {
 	 * @param taskExplorer used to look up TaskExecutions
 	 * @param repository the repository this controller will use for task CRUD operations.
 	 * @param taskService handles specialized behavior needed for tasks.
+	 * @param latestTaskExecutionRepository used to look up the latest execution of each
+	 * listed task
 	 */
-	public TaskDefinitionController(TaskExplorer taskExplorer, TaskDefinitionRepository repository, TaskService taskService) {
+	public TaskDefinitionController(TaskExplorer taskExplorer, TaskDefinitionRepository repository, TaskService taskService,
+			LatestTaskExecutionRepository latestTaskExecutionRepository) {
 		Assert.notNull(taskExplorer, "taskExplorer must not be null");
 		Assert.notNull(repository, "repository must not be null");
 		Assert.notNull(taskService, "taskService must not be null");
+		Assert.notNull(latestTaskExecutionRepository, "latestTaskExecutionRepository must not be null");
 		this.explorer = taskExplorer;
 		this.repository = repository;
 		this.taskService = taskService;
+		this.latestTaskExecutionRepository = latestTaskExecutionRepository;
+	}
+
+	/**
+	 * Set the change counters used to answer conditional requests for the definition
+	 * list. Without them, the list is built on every request.
+	 *
+	 * @param changeVersions the change counters
+	 */
+	public void setChangeVersions(ChangeVersions changeVersions) {
+		this.changeVersions = changeVersions;
 	}
 
 	/**
@@ -120,12 +145,18 @@ public class TaskDefinitionController {
 	 * @param pageable page-able collection of {@code TaskDefinitionResource}.
 	 * @param assembler assembler for the {@link TaskDefinition}
 	 * @param search optional findByNameLike parameter
-	 * @return a list of task definitions
+	 * @param request the current request, checked for {@code If-None-Match} and
+	 * {@code If-Modified-Since} headers
+	 * @return a list of task definitions, or {@code null} if the list has not been
+	 * modified
 	 */
 	@RequestMapping(value = "", method = RequestMethod.GET)
-	@ResponseStatus(HttpStatus.OK)
 	public PagedResources<TaskDefinitionResource> list(Pageable pageable, @RequestParam(required = false) String search,
-			PagedResourcesAssembler<TaskExecutionAwareTaskDefinition> assembler) {
+			PagedResourcesAssembler<TaskExecutionAwareTaskDefinition> assembler, NativeWebRequest request) {
+		if (ControllerUtils.checkNotModified(this.changeVersions, request, ChangeVersions.Domain.TASK_DEFINITIONS,
+				ChangeVersions.Domain.TASK_EXECUTIONS)) {
+			return null;
+		}
 
 		final Page<TaskDefinition> taskDefinitions;
 		if (search != null) {
@@ -146,8 +177,7 @@ public class TaskDefinitionController {
 		final List<TaskExecution> taskExecutions;
 
 		if (!taskDefinitionMap.isEmpty()) {
-			taskExecutions =
-					this.explorer.getLatestTaskExecutionsByTaskNames(taskDefinitionMap.keySet().toArray(new String[taskDefinitionMap.size()]));
+			taskExecutions = this.latestTaskExecutionRepository.findLatestByTaskNames(taskDefinitionMap.keySet());
 		}
 		else {
 			taskExecutions = null;
@@ -155,7 +185,8 @@ public class TaskDefinitionController {
 
 		final Page<TaskExecutionAwareTaskDefinition> taskExecutionAwareTaskDefinitions = taskDefinitions.map(new TaskDefinitionConverter(taskExecutions));
 
-		return assembler.toResource(taskExecutionAwareTaskDefinitions, taskAssembler);
+		return assembler.toResource(taskExecutionAwareTaskDefinitions,
+				ControllerUtils.isCompact(request) ? compactTaskAssembler : taskAssembler);
 	}
 
 	/**
@@ -187,12 +218,21 @@ public class TaskDefinitionController {
 	 */
 	class Assembler extends ResourceAssemblerSupport<TaskExecutionAwareTaskDefinition, TaskDefinitionResource> {
 
-		public Assembler() {
+		private final boolean compact;
+
+		/**
+		 * @param compact whether to leave out the links of the resources
+		 */
+		public Assembler(boolean compact) {
 			super(TaskDefinitionController.class, TaskDefinitionResource.class);
+			this.compact = compact;
 		}
 
 		@Override
 		public TaskDefinitionResource toResource(TaskExecutionAwareTaskDefinition taskExecutionAwareTaskDefinition) {
+			if (this.compact) {
+				return instantiateResource(taskExecutionAwareTaskDefinition);
+			}
 			return createResourceWithId(taskExecutionAwareTaskDefinition.getTaskDefinition().getName(), taskExecutionAwareTaskDefinition);
 		}
 
@@ -16,19 +16,28 @@
 
 package org.springframework.cloud.dataflow.server.controller;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+import javax.servlet.http.HttpServletResponse;
+
 import org.springframework.cloud.dataflow.rest.job.TaskJobExecutionRel;
 import org.springframework.cloud.dataflow.rest.resource.CurrentTaskExecutionsResource;
 import org.springframework.cloud.dataflow.rest.resource.TaskExecutionResource;
+import org.springframework.cloud.dataflow.rest.resource.TaskExecutionStatus;
 import org.springframework.cloud.dataflow.rest.util.DeploymentPropertiesUtils;
 import org.springframework.cloud.dataflow.server.controller.support.ArgumentSanitizer;
 import org.springframework.cloud.dataflow.server.repository.NoSuchTaskDefinitionException;
 import org.springframework.cloud.dataflow.server.repository.NoSuchTaskExecutionException;
 import org.springframework.cloud.dataflow.server.repository.TaskDefinitionRepository;
+import org.springframework.cloud.dataflow.server.service.ExecutionExportService;
+import org.springframework.cloud.dataflow.server.service.TaskRetentionPolicy;
+import org.springframework.cloud.dataflow.server.service.TaskRetentionResult;
+import org.springframework.cloud.dataflow.server.service.TaskRetentionService;
 import org.springframework.cloud.dataflow.server.service.TaskService;
 import org.springframework.cloud.task.repository.TaskExecution;
 import org.springframework.cloud.task.repository.TaskExplorer;
@@ -72,6 +81,10 @@ public class TaskExecutionController {
 
 	private final TaskDefinitionRepository taskDefinitionRepository;
 
+	private final ExecutionExportService executionExportService;
+
+	private final TaskRetentionService taskRetentionService;
+
 	private final ArgumentSanitizer argumentSanitizer = new ArgumentSanitizer();
 
 	/**
@@ -82,15 +95,22 @@ public class TaskExecutionController {
 	 * information.
 	 * @param taskService used to launch tasks
 	 * @param taskDefinitionRepository the task definition repository
+	 * @param executionExportService used to stream task executions
+	 * @param taskRetentionService used to remove task executions in bulk
 	 */
 	public TaskExecutionController(TaskExplorer explorer, TaskService taskService,
-			TaskDefinitionRepository taskDefinitionRepository) {
+			TaskDefinitionRepository taskDefinitionRepository, ExecutionExportService executionExportService,
+			TaskRetentionService taskRetentionService) {
 		Assert.notNull(explorer, "explorer must not be null");
 		Assert.notNull(taskService, "taskService must not be null");
 		Assert.notNull(taskDefinitionRepository, "taskDefinitionRepository must not be null");
+		Assert.notNull(executionExportService, "executionExportService must not be null");
+		Assert.notNull(taskRetentionService, "taskRetentionService must not be null");
 		this.taskService = taskService;
 		this.explorer = explorer;
 		this.taskDefinitionRepository = taskDefinitionRepository;
+		this.executionExportService = executionExportService;
+		this.taskRetentionService = taskRetentionService;
 	}
 
 	/**
@@ -129,6 +149,27 @@ public class TaskExecutionController {
 		return assembler.toResource(result, this.taskAssembler);
 	}
 
+	/**
+	 * Stream task executions as newline-delimited JSON, ordered by execution id. Unlike
+	 * {@link #list(Pageable, PagedResourcesAssembler)} the cost of a request does not grow
+	 * with the position in the result set. To continue an export pass the execution id of
+	 * the last record received as {@code after}.
+	 *
+	 * @param after only executions with a greater execution id are exported
+	 * @param size the maximum number of executions to export, {@code -1} for all
+	 * @param response the response the executions are written to
+	 * @throws IOException if writing to the response fails
+	 */
+	@RequestMapping(value = "/export", method = RequestMethod.GET)
+	@ResponseStatus(HttpStatus.OK)
+	public void export(@RequestParam(value = "after", defaultValue = "-1") long after,
+			@RequestParam(value = "size", defaultValue = "-1") long size, HttpServletResponse response)
+			throws IOException {
+		response.setContentType(ExecutionExportService.NDJSON_MEDIA_TYPE);
+		response.setCharacterEncoding("UTF-8");
+		this.executionExportService.exportTaskExecutions(after, size, response.getOutputStream());
+	}
+
 	/**
 	 * Request the launching of an existing task definition. The name must be included in
 	 * the path.
@@ -179,18 +220,54 @@ public class TaskExecutionController {
 	}
 
 	/**
-	 * Cleanup resources associated with a single task execution, specified by id.
+	 * Cleanup resources associated with one or more task executions, specified by id.
+	 * All executions are checked for existence before any of them is cleaned up.
 	 *
-	 * @param id the id of the {@link TaskExecution} to clean up
+	 * @param ids the comma separated ids of the {@link TaskExecution}s to clean up
 	 */
 	@RequestMapping(value = "/{id}", method = RequestMethod.DELETE)
 	@ResponseStatus(HttpStatus.OK)
-	public void cleanup(@PathVariable("id") long id) {
-		TaskExecution taskExecution = this.explorer.getTaskExecution(id);
-		if (taskExecution == null) {
-			throw new NoSuchTaskExecutionException(id);
+	public void cleanup(@PathVariable("id") Set<Long> ids) {
+		for (Long id : ids) {
+			if (this.explorer.getTaskExecution(id) == null) {
+				throw new NoSuchTaskExecutionException(id);
+			}
+		}
+		for (Long id : ids) {
+			this.taskService.cleanupExecution(id);
+		}
+	}
+
+	/**
+	 * Remove finished task executions, along with their parameters and the job executions
+	 * they launched, from the repository. An execution is removed when its status matches
+	 * and it is either older than {@code maxAgeDays} or not among the
+	 * {@code maxExecutionsPerTask} most recent executions of its task.
+	 *
+	 * @param maxAgeDays remove executions that ended more than this many days ago, -1 to
+	 * ignore the age
+	 * @param maxExecutionsPerTask the number of most recent executions kept per task, -1
+	 * to ignore the count
+	 * @param statuses the statuses of the executions that may be removed, by default
+	 * {@code COMPLETE} and {@code ERROR}
+	 * @param taskName restricts the removal to the executions of a single task, whose
+	 * definition may have been destroyed already
+	 * @return the outcome of the removal
+	 */
+	@RequestMapping(value = "", method = RequestMethod.DELETE)
+	@ResponseStatus(HttpStatus.OK)
+	public TaskRetentionResult purge(@RequestParam(value = "maxAgeDays", defaultValue = "-1") int maxAgeDays,
+			@RequestParam(value = "maxExecutionsPerTask", defaultValue = "-1") int maxExecutionsPerTask,
+			@RequestParam(value = "status", required = false) Set<TaskExecutionStatus> statuses,
+			@RequestParam(value = "name", required = false) String taskName) {
+		TaskRetentionPolicy policy = new TaskRetentionPolicy();
+		policy.setMaxAgeDays(maxAgeDays);
+		policy.setMaxExecutionsPerTask(maxExecutionsPerTask);
+		if (statuses != null) {
+			policy.setStatuses(statuses);
 		}
-		this.taskService.cleanupExecution(id);
+		policy.setTaskName(taskName);
+		return this.taskRetentionService.purge(policy);
 	}
 
 	private Page<TaskJobExecutionRel> getPageableRelationships(Page<TaskExecution> taskExecutions, Pageable pageable) {
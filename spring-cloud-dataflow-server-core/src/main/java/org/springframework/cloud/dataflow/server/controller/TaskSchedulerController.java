@@ -19,6 +19,8 @@ package org.springframework.cloud.dataflow.server.controller;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.cloud.dataflow.rest.CreateScheduleRequest;
+import org.springframework.cloud.dataflow.rest.ScheduleResult;
 import org.springframework.cloud.dataflow.rest.resource.ScheduleInfoResource;
 import org.springframework.cloud.dataflow.rest.util.DeploymentPropertiesUtils;
 import org.springframework.cloud.dataflow.server.repository.NoSuchScheduleException;
@@ -35,6 +37,7 @@ import org.springframework.hateoas.mvc.ResourceAssemblerSupport;
 import org.springframework.http.HttpStatus;
 import org.springframework.util.Assert;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -145,6 +148,31 @@ public class TaskSchedulerController {
 		schedulerService.schedule(scheduleName, taskDefinitionName, propertiesToUse, arguments);
 	}
 
+	/**
+	 * Create schedules in bulk. Each task definition is resolved once and the schedules are
+	 * created in parallel.
+	 *
+	 * @param createScheduleRequests the schedules to create
+	 * @return the outcome for each schedule
+	 */
+	@RequestMapping(value = "/bulk", method = RequestMethod.POST)
+	@ResponseStatus(HttpStatus.OK)
+	public List<ScheduleResult> saveAll(@RequestBody List<CreateScheduleRequest> createScheduleRequests) {
+		return schedulerService.schedule(createScheduleRequests);
+	}
+
+	/**
+	 * Unschedule the schedules with the given names from the Scheduler.
+	 *
+	 * @param scheduleNames comma-delimited list of the names of the schedules to be deleted
+	 * @return the outcome for each schedule
+	 */
+	@RequestMapping(value = "", method = RequestMethod.DELETE)
+	@ResponseStatus(HttpStatus.OK)
+	public List<ScheduleResult> unscheduleAll(@RequestParam("names") List<String> scheduleNames) {
+		return schedulerService.unschedule(scheduleNames);
+	}
+
 	/**
 	 * Unschedule the schedule from the Scheduler.
 	 *
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.controller.support;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.cloud.dataflow.server.support.ConcurrencyLimiter;
+import org.springframework.util.Assert;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+/**
+ * Admits requests through a {@link RequestAdmission}, and releases their permit once they
+ * are served. Streaming responses release their permit as soon as the streaming starts.
+ */
+public class AdmissionHandlerInterceptor extends HandlerInterceptorAdapter {
+
+	private static final String LIMITER_ATTRIBUTE = AdmissionHandlerInterceptor.class.getName() + ".LIMITER";
+
+	private final RequestAdmission requestAdmission;
+
+	public AdmissionHandlerInterceptor(RequestAdmission requestAdmission) {
+		Assert.notNull(requestAdmission, "requestAdmission must not be null");
+		this.requestAdmission = requestAdmission;
+	}
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		if (request.getDispatcherType() == DispatcherType.ASYNC) {
+			// the request was admitted when it was first dispatched
+			return true;
+		}
+		ConcurrencyLimiter limiter = this.requestAdmission.admit(request);
+		if (limiter != null) {
+			request.setAttribute(LIMITER_ATTRIBUTE, limiter);
+		}
+		return true;
+	}
+
+	@Override
+	public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+			Object handler) {
+		release(request);
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+			Exception ex) {
+		release(request);
+	}
+
+	private static void release(HttpServletRequest request) {
+		Object limiter = request.getAttribute(LIMITER_ATTRIBUTE);
+		if (limiter != null) {
+			request.removeAttribute(LIMITER_ATTRIBUTE);
+			((ConcurrencyLimiter) limiter).release();
+		}
+	}
+}
@@ -15,9 +15,20 @@
  */
 package org.springframework.cloud.dataflow.server.controller.support;
 
+import java.util.List;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.cloud.dataflow.rest.DataFlowMediaTypes;
 import org.springframework.cloud.dataflow.rest.resource.DeploymentStateResource;
+import org.springframework.cloud.dataflow.server.support.ChangeVersions;
 import org.springframework.cloud.deployer.spi.app.DeploymentState;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.NativeWebRequest;
 
 /**
  * @author Gunnar Hillert
@@ -36,4 +47,74 @@ public class ControllerUtils {
 		Assert.notNull(result, "Trying to display a DeploymentState that should not appear here: " + state);
 		return result;
 	}
+
+	/**
+	 * Whether the client prefers the {@link DataFlowMediaTypes#COMPACT_JSON compact}
+	 * representation of a collection, that is, whether it comes first among the JSON
+	 * types listed in the {@code Accept} header once sorted by specificity and quality,
+	 * in which case it is also the content type chosen for the response. Items of a
+	 * compact collection are assembled without links.
+	 *
+	 * @param request the current request, may be null
+	 * @return {@code true} if the collection should be returned without item links
+	 */
+	public static boolean isCompact(NativeWebRequest request) {
+		if (request == null) {
+			return false;
+		}
+		String accept = StringUtils.arrayToCommaDelimitedString(request.getHeaderValues(HttpHeaders.ACCEPT));
+		if (!StringUtils.hasText(accept) || !accept.contains(DataFlowMediaTypes.COMPACT_JSON.getSubtype())) {
+			return false;
+		}
+		try {
+			List<MediaType> mediaTypes = MediaType.parseMediaTypes(accept);
+			MediaType.sortBySpecificityAndQuality(mediaTypes);
+			for (MediaType mediaType : mediaTypes) {
+				if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON) || mediaType.getSubtype().endsWith("+json")) {
+					return DataFlowMediaTypes.COMPACT_JSON.equalsTypeAndSubtype(mediaType)
+							&& mediaType.getQualityValue() > 0;
+				}
+			}
+			return false;
+		}
+		catch (InvalidMediaTypeException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Check a conditional {@code GET} against the current versions of the domains a
+	 * resource is built from, setting the {@code ETag} and {@code Last-Modified} headers
+	 * of the response. Must be called before the state of the resource is read.
+	 * <p>
+	 * Responses are marked {@code Cache-Control: no-cache}, so that clients revalidate
+	 * them on every use instead of applying a heuristic freshness lifetime. As the full
+	 * and the {@link #isCompact(NativeWebRequest) compact} representations of a resource
+	 * differ, they get different entity tags and responses vary by {@code Accept}.
+	 *
+	 * @param changeVersions the change counters, may be null in which case requests are
+	 * never answered as not modified
+	 * @param request the current request
+	 * @param domains the domains the requested resource is built from
+	 * @return {@code true} if the response was set to {@code 304 Not Modified}, in which
+	 * case the handler must return {@code null}
+	 */
+	public static boolean checkNotModified(ChangeVersions changeVersions, NativeWebRequest request,
+			ChangeVersions.Domain... domains) {
+		if (changeVersions == null || request == null) {
+			return false;
+		}
+		HttpServletResponse response = request.getNativeResponse(HttpServletResponse.class);
+		if (response != null) {
+			if (!response.containsHeader(HttpHeaders.CACHE_CONTROL)) {
+				response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+			}
+			response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+		}
+		String etag = changeVersions.getETag(domains);
+		if (isCompact(request)) {
+			etag = etag.substring(0, etag.length() - 1) + "-compact\"";
+		}
+		return request.checkNotModified(etag, changeVersions.getLastModified(domains));
+	}
 }
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.controller.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.cloud.dataflow.server.support.LatencyRecorder;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+/**
+ * Records the latency of every request by handler mapping pattern, such as
+ * {@code http.get.streams.definitions}, and logs slow requests together with the calls
+ * that the request made to the platform, Skipper, the database and the app artifacts.
+ */
+public class LatencyHandlerInterceptor extends HandlerInterceptorAdapter {
+
+	private static final String START_ATTRIBUTE = LatencyHandlerInterceptor.class.getName() + ".START";
+
+	private final LatencyRecorder latencyRecorder;
+
+	public LatencyHandlerInterceptor(LatencyRecorder latencyRecorder) {
+		Assert.notNull(latencyRecorder, "latencyRecorder must not be null");
+		this.latencyRecorder = latencyRecorder;
+	}
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+		this.latencyRecorder.startBreakdown();
+		return true;
+	}
+
+	@Override
+	public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+			Object handler) {
+		// streaming responses are not timed
+		request.removeAttribute(START_ATTRIBUTE);
+		this.latencyRecorder.finishBreakdown();
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+			Exception ex) {
+		Object start = request.getAttribute(START_ATTRIBUTE);
+		Map<String, long[]> calls = this.latencyRecorder.finishBreakdown();
+		if (start == null) {
+			return;
+		}
+		this.latencyRecorder.record(getName(request), () -> describe(calls), System.nanoTime() - (Long) start,
+				ex != null || response.getStatus() >= 500);
+	}
+
+	private static String getName(HttpServletRequest request) {
+		Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+		String path = StringUtils.trimTrailingCharacter(
+				StringUtils.trimLeadingCharacter(pattern != null ? pattern.toString() : "unmapped", '/'), '/');
+		return "http." + request.getMethod().toLowerCase() + "." + (path.isEmpty() ? "root" : path.replace('/', '.'));
+	}
+
+	/**
+	 * Lists the calls a request made, those that took the longest first.
+	 */
+	private static String describe(Map<String, long[]> calls) {
+		if (calls.isEmpty()) {
+			return null;
+		}
+		List<Map.Entry<String, long[]>> entries = new ArrayList<>(calls.entrySet());
+		entries.sort((e1, e2) -> Long.compare(e2.getValue()[1], e1.getValue()[1]));
+		StringBuilder description = new StringBuilder();
+		for (Map.Entry<String, long[]> entry : entries) {
+			if (description.length() > 0) {
+				description.append(", ");
+			}
+			description.append(entry.getKey()).append(' ')
+					.append(TimeUnit.NANOSECONDS.toMillis(entry.getValue()[1])).append(" ms in ")
+					.append(entry.getValue()[0]).append(entry.getValue()[0] == 1 ? " call" : " calls");
+		}
+		return description.toString();
+	}
+}
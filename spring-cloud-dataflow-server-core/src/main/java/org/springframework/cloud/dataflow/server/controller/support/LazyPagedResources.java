@@ -0,0 +1,199 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.controller.support;
+
+import java.io.IOException;
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.web.PagedResourcesAssembler;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.PagedResources;
+import org.springframework.hateoas.RelProvider;
+import org.springframework.hateoas.Resource;
+import org.springframework.hateoas.ResourceAssembler;
+import org.springframework.hateoas.ResourceSupport;
+import org.springframework.hateoas.core.DefaultRelProvider;
+import org.springframework.util.Assert;
+
+/**
+ * {@link PagedResources} whose items are assembled one at a time while the response is
+ * being written, instead of all up front. Once written, an item can be collected, so
+ * writing a large page holds on to its entities, but no longer to all of their resources
+ * and links at once.
+ * <p>
+ * With the HAL object mapper, {@link HalMixIn} must be registered for this class, as the
+ * HAL serializer of collections otherwise gathers all items before writing them. The
+ * {@code _embedded} relation is derived from the type of the first item, using the
+ * {@link DefaultRelProvider} the server is configured with.
+ *
+ * @param <T> the type of the entities
+ * @param <R> the type of the resources
+ */
+public class LazyPagedResources<T, R extends ResourceSupport> extends PagedResources<R> {
+
+	private final Collection<R> content;
+
+	private LazyPagedResources(List<T> entities, ResourceAssembler<T, R> assembler, PageMetadata metadata,
+			Iterable<Link> links) {
+		super(Collections.<R>emptyList(), metadata, links);
+		this.content = new AssemblingCollection<>(entities, assembler);
+	}
+
+	/**
+	 * Create paged resources for the given page, with the same metadata and links as
+	 * {@link PagedResourcesAssembler#toResource(Page, ResourceAssembler)} would produce.
+	 *
+	 * @param page the page of entities
+	 * @param assembler the assembler turning an entity into a resource; items for which it
+	 * returns {@code null} are left out
+	 * @param pagedResourcesAssembler the assembler building the paging links
+	 * @param <T> the type of the entities
+	 * @param <R> the type of the resources
+	 * @return the paged resources
+	 */
+	public static <T, R extends ResourceSupport> PagedResources<R> of(Page<T> page, ResourceAssembler<T, R> assembler,
+			PagedResourcesAssembler<T> pagedResourcesAssembler) {
+		Assert.notNull(page, "page must not be null");
+		Assert.notNull(assembler, "assembler must not be null");
+		Assert.notNull(pagedResourcesAssembler, "pagedResourcesAssembler must not be null");
+		if (page.getSize() < 1) {
+			return pagedResourcesAssembler.toResource(page, assembler);
+		}
+		// an empty page carrying the same position yields the metadata and paging links
+		Page<T> position = new PageImpl<>(Collections.<T>emptyList(),
+				new PageRequest(page.getNumber(), page.getSize(), page.getSort()), page.getTotalElements());
+		PagedResources<R> shell = pagedResourcesAssembler.toResource(position, assembler);
+		return new LazyPagedResources<>(page.getContent(), assembler, shell.getMetadata(), shell.getLinks());
+	}
+
+	@Override
+	public Collection<R> getContent() {
+		return this.content;
+	}
+
+	@Override
+	public Iterator<R> iterator() {
+		return this.content.iterator();
+	}
+
+	/**
+	 * Read-only view of the entities that assembles each one when it is reached.
+	 */
+	private static class AssemblingCollection<T, R extends ResourceSupport> extends AbstractCollection<R> {
+
+		private final List<T> entities;
+
+		private final ResourceAssembler<T, R> assembler;
+
+		AssemblingCollection(List<T> entities, ResourceAssembler<T, R> assembler) {
+			this.entities = entities;
+			this.assembler = assembler;
+		}
+
+		@Override
+		public Iterator<R> iterator() {
+			Iterator<T> iterator = this.entities.iterator();
+			return new Iterator<R>() {
+
+				private R next;
+
+				@Override
+				public boolean hasNext() {
+					while (this.next == null && iterator.hasNext()) {
+						this.next = assembler.toResource(iterator.next());
+					}
+					return this.next != null;
+				}
+
+				@Override
+				public R next() {
+					if (!hasNext()) {
+						throw new NoSuchElementException();
+					}
+					R result = this.next;
+					this.next = null;
+					return result;
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return this.entities.size();
+		}
+	}
+
+	/**
+	 * Jackson mix-in writing the items of {@link LazyPagedResources} as HAL embedded
+	 * resources as they are assembled.
+	 */
+	public abstract static class HalMixIn {
+
+		@JsonProperty("_embedded")
+		@JsonInclude(JsonInclude.Include.NON_EMPTY)
+		@JsonSerialize(using = HalEmbeddedSerializer.class)
+		public abstract Collection<?> getContent();
+	}
+
+	/**
+	 * Writes a collection of resources of a single type as a HAL {@code _embedded}
+	 * object, without holding on to the resources already written.
+	 */
+	public static class HalEmbeddedSerializer extends JsonSerializer<Collection<?>> {
+
+		private final RelProvider relProvider = new DefaultRelProvider();
+
+		@Override
+		public void serialize(Collection<?> value, JsonGenerator gen, SerializerProvider provider)
+				throws IOException {
+			gen.writeStartObject();
+			boolean started = false;
+			for (Object item : value) {
+				if (!started) {
+					Object type = item instanceof Resource ? ((Resource<?>) item).getContent() : item;
+					gen.writeArrayFieldStart(this.relProvider.getCollectionResourceRelFor(type.getClass()));
+					started = true;
+				}
+				provider.defaultSerializeValue(item, gen);
+			}
+			if (started) {
+				gen.writeEndArray();
+			}
+			gen.writeEndObject();
+		}
+
+		@Override
+		public boolean isEmpty(SerializerProvider provider, Collection<?> value) {
+			return value == null || value.isEmpty();
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2017 the original author or authors.
+ * Copyright 2017-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,22 +20,37 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.netflix.hystrix.contrib.javanica.annotation.HystrixCommand;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.cloud.dataflow.rest.util.HttpClientConfigurer;
 import org.springframework.cloud.dataflow.server.config.MetricsProperties;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.hateoas.PagedResources;
 import org.springframework.hateoas.hal.Jackson2HalModule;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.util.StringUtils;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
@@ -43,12 +58,23 @@ import org.springframework.web.util.UriComponentsBuilder;
 
 
 /**
- * Store implementation returning metrics info from a collector application. Implemented
- * via hystrix command having a fallback to empty response.
+ * Store implementation returning metrics info from a collector application.
+ * <p>
+ * Requests are served from the last snapshot fetched from the collector, so that the
+ * load on the collector does not grow with the number of clients polling for metrics.
+ * While metrics are being requested, a background thread refreshes the snapshot once per
+ * poll interval, sending the validators of the previous response so that an unchanged
+ * snapshot is neither transferred nor parsed again. The collector is no longer polled
+ * once metrics have not been requested for the idle timeout. A request never waits for
+ * the collector: the first request after that is answered from the previous snapshot and
+ * has the background thread refresh it right away, unless the last attempt was less than
+ * a poll interval ago. A snapshot that could not be refreshed for two poll intervals is
+ * reported as stale, and an empty response is served until a first snapshot could be
+ * fetched.
  *
  * @author Janne Valkealahti
  */
-public class MetricStore {
+public class MetricStore implements DisposableBean {
 
 	private final static List<ApplicationsMetrics> EMPTY_RESPONSE = new ArrayList<ApplicationsMetrics>();
 
@@ -58,8 +84,22 @@ public class MetricStore {
 
 	private final MetricsProperties metricsProperties;
 
+	private final ReentrantLock refreshLock = new ReentrantLock();
+
+	private final AtomicBoolean refreshQueued = new AtomicBoolean();
+
 	private String collectorEndpoint;
 
+	private volatile Snapshot snapshot;
+
+	private volatile long lastRequested;
+
+	private ScheduledExecutorService executor;
+
+	private boolean failing;
+
+	private volatile long lastAttempt;
+
 	/**
 	 * Instantiates a new metric store.
 	 *
@@ -75,6 +115,10 @@ public class MetricStore {
 		messageConverter.setObjectMapper(mapper);
 		restTemplate = new RestTemplate(Arrays.asList(messageConverter));
 		final MetricsProperties.Collector collector = metricsProperties.getCollector();
+		SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+		requestFactory.setConnectTimeout(collector.getTimeout());
+		requestFactory.setReadTimeout(collector.getTimeout());
+		restTemplate.setRequestFactory(requestFactory);
 		String baseURI = collector.getUri();
 		if (StringUtils.hasText(baseURI)) {
 			try {
@@ -86,10 +130,18 @@ public class MetricStore {
 						collector.getPassword());
 				if (StringUtils.hasText(collector.getUsername())
 						&& StringUtils.hasText(collector.getPassword())) {
-					this.restTemplate.setRequestFactory(HttpClientConfigurer.create(new URI(collectorEndpoint))
+					ClientHttpRequestFactory authenticatingRequestFactory = HttpClientConfigurer
+							.create(new URI(collectorEndpoint))
 							.basicAuthCredentials(collector.getUsername(), collector.getPassword())
 							.skipTlsCertificateVerification(collector.isSkipSslValidation())
-							.buildClientHttpRequestFactory());
+							.buildClientHttpRequestFactory();
+					if (authenticatingRequestFactory instanceof HttpComponentsClientHttpRequestFactory) {
+						((HttpComponentsClientHttpRequestFactory) authenticatingRequestFactory)
+								.setConnectTimeout(collector.getTimeout());
+						((HttpComponentsClientHttpRequestFactory) authenticatingRequestFactory)
+								.setReadTimeout(collector.getTimeout());
+					}
+					this.restTemplate.setRequestFactory(authenticatingRequestFactory);
 					logger.debug("Configured basic security for Metrics Collector endpoint");
 				}
 				else {
@@ -105,40 +157,176 @@ public class MetricStore {
 		}
 	}
 
-	@HystrixCommand(fallbackMethod = "defaultMetrics")
+	/**
+	 * Return the last snapshot of the metrics of the collector.
+	 *
+	 * @return the metrics of the deployed stream applications
+	 */
 	public List<ApplicationsMetrics> getMetrics() {
-		List<ApplicationsMetrics> metrics = null;
-		if (StringUtils.hasText(this.collectorEndpoint)) {
+		if (!StringUtils.hasText(this.collectorEndpoint)) {
+			return defaultMetrics();
+		}
+		long now = System.currentTimeMillis();
+		boolean idle = now - this.lastRequested >= idleTimeout();
+		this.lastRequested = now;
+		startPolling();
+		Snapshot current = this.snapshot;
+		if ((current == null || (idle && isStale(current, now)))
+				&& now - this.lastAttempt >= this.metricsProperties.getCollector().getPollInterval()) {
+			// nobody kept the snapshot current, have it fetched without holding up this request
+			refreshSoon();
+		}
+		return current != null ? current.metrics : defaultMetrics();
+	}
+
+	/**
+	 * @return the time in milliseconds since the metrics served were fetched from the
+	 * collector, or {@code -1} if no collector is configured
+	 */
+	public long getAge() {
+		if (!StringUtils.hasText(this.collectorEndpoint)) {
+			return -1;
+		}
+		Snapshot current = this.snapshot;
+		return current != null ? System.currentTimeMillis() - current.fetchedAt : Long.MAX_VALUE;
+	}
+
+	/**
+	 * @return whether the metrics served could not be refreshed for two poll intervals
+	 */
+	public boolean isStale() {
+		if (!StringUtils.hasText(this.collectorEndpoint)) {
+			return false;
+		}
+		Snapshot current = this.snapshot;
+		return current == null || isStale(current, System.currentTimeMillis());
+	}
+
+	@Override
+	public void destroy() {
+		synchronized (this) {
+			if (this.executor != null) {
+				this.executor.shutdownNow();
+			}
+		}
+	}
+
+	RestTemplate getRestTemplate() {
+		return this.restTemplate;
+	}
+
+	/**
+	 * Fetch the metrics from the collector, unless another thread is fetching them, in
+	 * which case its result is waited for.
+	 */
+	void refresh() {
+		long requestedAt = System.currentTimeMillis();
+		this.refreshLock.lock();
+		try {
+			if (this.lastAttempt > requestedAt) {
+				// answered by the attempt this thread waited for, successful or not
+				return;
+			}
+			this.lastAttempt = System.currentTimeMillis();
+			this.snapshot = fetch(this.snapshot);
+			if (this.failing) {
+				logger.info("Requesting metrics from url '" + this.collectorEndpoint + "' succeeded again");
+				this.failing = false;
+			}
+		}
+		catch (Exception e) {
+			logFailure(e);
+		}
+		finally {
+			this.refreshLock.unlock();
+		}
+	}
+
+	private Snapshot fetch(Snapshot current) {
+		HttpHeaders headers = new HttpHeaders();
+		if (current != null && current.eTag != null) {
+			headers.setIfNoneMatch(current.eTag);
+		}
+		if (current != null && current.lastModified > 0) {
+			headers.setIfModifiedSince(current.lastModified);
+		}
+		ResponseEntity<PagedResources<ApplicationsMetrics>> response = this.restTemplate.exchange(
+				this.collectorEndpoint, HttpMethod.GET, new HttpEntity<>(headers),
+				new ParameterizedTypeReference<PagedResources<ApplicationsMetrics>>() {
+				});
+		long now = System.currentTimeMillis();
+		if (current != null && response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+			return new Snapshot(current.metrics, now, current.eTag, current.lastModified);
+		}
+		List<ApplicationsMetrics> metrics = response.getBody() != null
+				? Collections.unmodifiableList(new ArrayList<>(response.getBody().getContent()))
+				: defaultMetrics();
+		if (logger.isDebugEnabled()) {
+			logger.debug("Metrics = " + metrics);
+		}
+		return new Snapshot(metrics, now, response.getHeaders().getETag(),
+				response.getHeaders().getLastModified());
+	}
+
+	private void poll() {
+		if (System.currentTimeMillis() - this.lastRequested < idleTimeout()) {
+			refresh();
+		}
+	}
+
+	private synchronized void startPolling() {
+		if (this.executor == null) {
+			this.executor = new ScheduledThreadPoolExecutor(1, new CustomizableThreadFactory("metric-store-"));
+			long interval = this.metricsProperties.getCollector().getPollInterval();
+			this.executor.scheduleWithFixedDelay(this::poll, interval, interval, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Have the polling thread refresh the snapshot without waiting for the next poll,
+	 * unless a refresh is queued already.
+	 */
+	private synchronized void refreshSoon() {
+		if (this.refreshQueued.compareAndSet(false, true)) {
 			try {
-				PagedResources<ApplicationsMetrics> response = restTemplate.exchange(this.collectorEndpoint,
-						HttpMethod.GET, null, new ParameterizedTypeReference<PagedResources<ApplicationsMetrics>>() {
-						}).getBody();
-				metrics = new ArrayList<>(response.getContent());
-				if (logger.isDebugEnabled()) {
-					logger.debug("Metrics = " + metrics);
-				}
+				this.executor.execute(() -> {
+					this.refreshQueued.set(false);
+					refresh();
+				});
 			}
-			catch (Exception e) {
-				if (e instanceof HttpClientErrorException && e.getMessage().startsWith("401")) {
-					logger.warn(String.format(
-							"Failure while requesting metrics from url '%s': '%s'. "
-									+ "Unauthorized, please provide valid credentials.",
-							this.collectorEndpoint, e.getMessage()));
-				}
-				else {
-					logger.warn(String.format("Failure while requesting metrics from url '%s': %s",
-							this.collectorEndpoint, e.getMessage()));
-				}
-				if (logger.isDebugEnabled()) {
-					logger.debug("The metrics request failed with:", e);
-				}
-				throw e;
+			catch (RejectedExecutionException e) {
+				// shutting down
+				this.refreshQueued.set(false);
 			}
 		}
-		else {
-			metrics = defaultMetrics();
+	}
+
+	private boolean isStale(Snapshot snapshot, long now) {
+		return now - snapshot.fetchedAt > 2 * this.metricsProperties.getCollector().getPollInterval();
+	}
+
+	private long idleTimeout() {
+		return TimeUnit.SECONDS.toMillis(this.metricsProperties.getCollector().getIdleTimeout());
+	}
+
+	private void logFailure(Exception e) {
+		// a collector that is down is only reported once, not on every poll
+		if (!this.failing) {
+			if (e instanceof HttpClientErrorException && e.getMessage().startsWith("401")) {
+				logger.warn(String.format(
+						"Failure while requesting metrics from url '%s': '%s'. "
+								+ "Unauthorized, please provide valid credentials.",
+						this.collectorEndpoint, e.getMessage()));
+			}
+			else {
+				logger.warn(String.format("Failure while requesting metrics from url '%s': %s",
+						this.collectorEndpoint, e.getMessage()));
+			}
+			this.failing = true;
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("The metrics request failed with:", e);
 		}
-		return metrics;
 	}
 
 	public List<ApplicationsMetrics> defaultMetrics() {
@@ -154,4 +342,23 @@ public class MetricStore {
 			logger.warn("A username may be specified only together with a password");
 		}
 	}
+
+	private static class Snapshot {
+
+		private final List<ApplicationsMetrics> metrics;
+
+		private final long fetchedAt;
+
+		private final String eTag;
+
+		private final long lastModified;
+
+		Snapshot(List<ApplicationsMetrics> metrics, long fetchedAt, String eTag, long lastModified) {
+			this.metrics = metrics;
+			this.fetchedAt = fetchedAt;
+			this.eTag = eTag;
+			this.lastModified = lastModified;
+		}
+
+	}
 }
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.controller.support;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.cloud.dataflow.server.controller.TooManyRequestsException;
+import org.springframework.cloud.dataflow.server.support.ConcurrencyLimiter;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.Assert;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.util.UrlPathHelper;
+
+/**
+ * Admits the requests of expensive endpoints, such as stream validation, app details or
+ * completions, under a concurrency limit per class of requests, so that a burst against
+ * one of them can not take all request threads and memory of the server.
+ * <p>
+ * A request belongs to the first class whose methods and path patterns it matches.
+ * Requests beyond the limit of their class wait in a bounded queue, and are rejected with
+ * a {@link TooManyRequestsException} once the queue is full or their wait times out. For
+ * every class, {@code dataflow.admission.<class>.limit}, {@code .active},
+ * {@code .queue.limit}, {@code .queued}, {@code .admitted} and {@code .rejected} are
+ * published through the {@code metrics} management endpoint.
+ */
+public class RequestAdmission implements PublicMetrics {
+
+	static final String METRIC_PREFIX = "dataflow.admission.";
+
+	private final List<RequestClass> requestClasses = new ArrayList<>();
+
+	private final PathMatcher pathMatcher = new AntPathMatcher();
+
+	private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+	/**
+	 * Add a class of requests.
+	 *
+	 * @param name the name of the class
+	 * @param methods the HTTP methods of the requests, all methods if empty
+	 * @param patterns the Ant style path patterns of the requests
+	 * @param limiter the limiter of the requests
+	 * @param retryAfter the time in seconds after which rejected clients should retry
+	 */
+	public void addRequestClass(String name, Collection<String> methods, Collection<String> patterns,
+			ConcurrencyLimiter limiter, long retryAfter) {
+		Assert.hasText(name, "name must not be empty");
+		Assert.notEmpty(patterns, "patterns must not be empty");
+		Assert.notNull(limiter, "limiter must not be null");
+		Set<String> upperCaseMethods = new HashSet<>();
+		if (methods != null) {
+			for (String method : methods) {
+				upperCaseMethods.add(method.toUpperCase());
+			}
+		}
+		this.requestClasses.add(new RequestClass(name, upperCaseMethods, new ArrayList<>(patterns), limiter,
+				retryAfter));
+	}
+
+	/**
+	 * Admit a request, waiting if its class is at its limit.
+	 *
+	 * @param request the request
+	 * @return the limiter whose permit the request holds, to be released once the request
+	 * is served, or {@code null} if the request does not belong to a limited class
+	 * @throws TooManyRequestsException if the request is rejected
+	 */
+	public ConcurrencyLimiter admit(HttpServletRequest request) {
+		RequestClass requestClass = getRequestClass(request);
+		if (requestClass == null) {
+			return null;
+		}
+		if (!requestClass.limiter.acquire()) {
+			throw new TooManyRequestsException("Too many concurrent '" + requestClass.name
+					+ "' requests, retry later", requestClass.retryAfter);
+		}
+		return requestClass.limiter;
+	}
+
+	@Override
+	public Collection<Metric<?>> metrics() {
+		List<Metric<?>> metrics = new ArrayList<>();
+		for (RequestClass requestClass : this.requestClasses) {
+			String prefix = METRIC_PREFIX + requestClass.name;
+			ConcurrencyLimiter limiter = requestClass.limiter;
+			metrics.add(new Metric<>(prefix + ".limit", limiter.getLimit()));
+			metrics.add(new Metric<>(prefix + ".active", limiter.getActive()));
+			metrics.add(new Metric<>(prefix + ".queue.limit", limiter.getMaxQueued()));
+			metrics.add(new Metric<>(prefix + ".queued", limiter.getQueued()));
+			metrics.add(new Metric<>(prefix + ".admitted", limiter.getAdmitted()));
+			metrics.add(new Metric<>(prefix + ".rejected", limiter.getRejected()));
+		}
+		return metrics;
+	}
+
+	private RequestClass getRequestClass(HttpServletRequest request) {
+		if (this.requestClasses.isEmpty()) {
+			return null;
+		}
+		String path = this.urlPathHelper.getLookupPathForRequest(request);
+		for (RequestClass requestClass : this.requestClasses) {
+			if (!requestClass.methods.isEmpty() && !requestClass.methods.contains(request.getMethod())) {
+				continue;
+			}
+			for (String pattern : requestClass.patterns) {
+				if (this.pathMatcher.match(pattern, path)) {
+					return requestClass;
+				}
+			}
+		}
+		return null;
+	}
+
+	private static class RequestClass {
+
+		private final String name;
+
+		private final Set<String> methods;
+
+		private final List<String> patterns;
+
+		private final ConcurrencyLimiter limiter;
+
+		private final long retryAfter;
+
+		RequestClass(String name, Set<String> methods, List<String> patterns, ConcurrencyLimiter limiter,
+				long retryAfter) {
+			this.name = name;
+			this.methods = methods;
+			this.patterns = patterns;
+			this.limiter = limiter;
+			this.retryAfter = retryAfter;
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 the original author or authors.
+ * Copyright 2016-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -25,8 +25,10 @@ import javax.sql.DataSource;
 
 import org.springframework.cloud.dataflow.server.repository.support.Order;
 import org.springframework.cloud.dataflow.server.repository.support.PagingQueryProvider;
+import org.springframework.cloud.dataflow.server.repository.support.RepositoryJdbcTemplates;
 import org.springframework.cloud.dataflow.server.repository.support.SearchPageable;
 import org.springframework.cloud.dataflow.server.repository.support.SqlPagingQueryProviderFactoryBean;
+import org.springframework.cloud.dataflow.server.support.ChangeVersions;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -95,6 +97,10 @@ public abstract class AbstractRdbmsKeyValueRepository<D> implements PagingAndSor
 
 	protected String deleteFromTableByKey = deleteFromTableClause + whereClauseByKey;
 
+	private ChangeVersions changeVersions;
+
+	private RepositoryJdbcTemplates jdbcTemplates;
+
 	public AbstractRdbmsKeyValueRepository(DataSource dataSource, String tablePrefix, String tableSuffix,
 			RowMapper<D> rowMapper, String keyColumn, String valueColumn) {
 		Assert.notNull(dataSource, "dataSource mut not be null");
@@ -123,6 +129,56 @@ public abstract class AbstractRdbmsKeyValueRepository<D> implements PagingAndSor
 		deleteFromTableByKey = deleteFromTableClause + whereClauseByKey;
 	}
 
+	/**
+	 * Set the change counters in which saves and deletes are recorded, under the domain
+	 * returned by {@link #getChangeDomain()}.
+	 *
+	 * @param changeVersions the change counters
+	 */
+	public void setChangeVersions(ChangeVersions changeVersions) {
+		this.changeVersions = changeVersions;
+	}
+
+	/**
+	 * Set the templates through which statements are run, carrying the fetch size and
+	 * query timeout configured for this repository. Paged listings and searches are read
+	 * from the read replica, if any; lookups of single entries and unpaged listings stay
+	 * on the primary database, as they back the checks made before writes.
+	 *
+	 * @param jdbcTemplates the templates of this repository
+	 */
+	public void setJdbcTemplates(RepositoryJdbcTemplates jdbcTemplates) {
+		Assert.notNull(jdbcTemplates, "jdbcTemplates must not be null");
+		this.jdbcTemplates = jdbcTemplates;
+		this.jdbcTemplate = jdbcTemplates.getJdbcTemplate();
+		this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplates.getJdbcTemplate());
+	}
+
+	/**
+	 * @return the template for the statements of a paged listing or search
+	 */
+	protected JdbcOperations getReadOnlyJdbcTemplate() {
+		return this.jdbcTemplates != null ? this.jdbcTemplates.getReadOnlyJdbcTemplate() : this.jdbcTemplate;
+	}
+
+	/**
+	 * @return the domain under which changes of this repository are recorded, or
+	 * {@code null} if they are not recorded
+	 */
+	protected ChangeVersions.Domain getChangeDomain() {
+		return null;
+	}
+
+	/**
+	 * Record a change of the content of this repository.
+	 */
+	protected void changed() {
+		ChangeVersions.Domain domain = getChangeDomain();
+		if (this.changeVersions != null && domain != null) {
+			this.changeVersions.changed(domain);
+		}
+	}
+
 	@Override
 	public Iterable<D> findAll(Sort sort) {
 		Assert.notNull(sort, "sort must not be null");
@@ -136,7 +192,7 @@ public abstract class AbstractRdbmsKeyValueRepository<D> implements PagingAndSor
 				query = query + ", ";
 			}
 		}
-		return jdbcTemplate.query(query, rowMapper);
+		return getReadOnlyJdbcTemplate().query(query, rowMapper);
 	}
 
 	/**
@@ -164,15 +220,18 @@ public abstract class AbstractRdbmsKeyValueRepository<D> implements PagingAndSor
 		sql.append(whereClause == null ? "" : whereClause);
 
 		String query = sql.toString();
-		List<D> result = jdbcTemplate.query(query, params.toArray(), rowMapper);
-		return queryForPageableResults(searchPageable.getPageable(), selectClause, tableName, whereClause.toString(),
-				params.toArray(), result.size());
+		JdbcOperations readOnlyJdbcTemplate = getReadOnlyJdbcTemplate();
+		List<D> result = readOnlyJdbcTemplate.query(query, params.toArray(), rowMapper);
+		return queryForPageableResults(readOnlyJdbcTemplate, searchPageable.getPageable(), selectClause, tableName,
+				whereClause.toString(), params.toArray(), result.size());
 	}
 
 	@Override
 	public Page<D> findAll(Pageable pageable) {
 		Assert.notNull(pageable, "pageable must not be null");
-		return queryForPageableResults(pageable, selectClause, tableName, null, new Object[] {}, count());
+		JdbcOperations readOnlyJdbcTemplate = getReadOnlyJdbcTemplate();
+		return queryForPageableResults(readOnlyJdbcTemplate, pageable, selectClause, tableName, null, new Object[] {},
+				count(readOnlyJdbcTemplate));
 	}
 
 	@Override
@@ -229,6 +288,10 @@ public abstract class AbstractRdbmsKeyValueRepository<D> implements PagingAndSor
 
 	@Override
 	public long count() {
+		return count(jdbcTemplate);
+	}
+
+	private long count(JdbcOperations jdbcTemplate) {
 		try {
 			return jdbcTemplate.queryForObject(countAll, new Object[] {}, Long.class);
 		}
@@ -241,6 +304,7 @@ public abstract class AbstractRdbmsKeyValueRepository<D> implements PagingAndSor
 	public void delete(String name) {
 		Assert.hasText(name, "name must not be empty nor null");
 		jdbcTemplate.update(deleteFromTableByKey, name);
+		changed();
 	}
 
 	@Override
@@ -254,6 +318,7 @@ public abstract class AbstractRdbmsKeyValueRepository<D> implements PagingAndSor
 	@Override
 	public void deleteAll() {
 		jdbcTemplate.update(deleteFromTableClause);
+		changed();
 	}
 
 	private String updatePrefixSuffix(String base) {
@@ -261,8 +326,8 @@ public abstract class AbstractRdbmsKeyValueRepository<D> implements PagingAndSor
 		return StringUtils.replace(updatedPrefix, "%SUFFIX%", tableSuffix);
 	}
 
-	private Page<D> queryForPageableResults(Pageable pageable, String selectClause, String tableName,
-			String whereClause, Object[] queryParam, long totalCount) {
+	private Page<D> queryForPageableResults(JdbcOperations jdbcTemplate, Pageable pageable, String selectClause,
+			String tableName, String whereClause, Object[] queryParam, long totalCount) {
 		// TODO Possible performance improvement refactoring so factory isn't called every time.
 		SqlPagingQueryProviderFactoryBean factoryBean = new SqlPagingQueryProviderFactoryBean();
 		factoryBean.setSelectClause(selectClause);
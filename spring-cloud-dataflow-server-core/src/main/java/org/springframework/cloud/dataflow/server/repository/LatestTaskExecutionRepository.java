@@ -0,0 +1,37 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.cloud.task.repository.TaskExecution;
+
+/**
+ * Provides the latest execution of each task, as shown alongside the task definitions.
+ */
+@FunctionalInterface
+public interface LatestTaskExecutionRepository {
+
+	/**
+	 * Find the latest execution of each of the given tasks.
+	 *
+	 * @param taskNames the names of the tasks
+	 * @return the latest execution of each task that has been executed at least once
+	 */
+	List<TaskExecution> findLatestByTaskNames(Collection<String> taskNames);
+}
@@ -0,0 +1,318 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.springframework.cloud.dataflow.server.cluster.ClusterChangeEvent;
+import org.springframework.cloud.dataflow.server.cluster.ClusterCoordinator;
+import org.springframework.cloud.dataflow.server.service.TaskExecutionsPurgedEvent;
+import org.springframework.cloud.task.repository.TaskExecution;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.event.SmartApplicationListener;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.util.Assert;
+
+/**
+ * {@link LatestTaskExecutionRepository} that keeps the latest execution of every task in
+ * memory instead of running a max-per-group query over {@code TASK_EXECUTION} for each
+ * request.
+ * <p>
+ * The map is loaded once and then kept current incrementally: every lookup first reads
+ * the executions created since the highest id seen (a primary key range scan), and then
+ * re-reads those requested executions that had not ended yet, as task applications update
+ * their own rows when they finish. The latest execution of a task is the one with the
+ * highest id. Removing task executions through the retention service causes a reload,
+ * on the other servers of the cluster too when a {@link ClusterCoordinator} is set.
+ * <p>
+ * The map is never changed once published: queries run without holding a lock, and a
+ * lookup that found newer executions publishes an updated copy, so that concurrent
+ * lookups neither wait for each other's queries nor see a map being changed.
+ */
+public class RdbmsLatestTaskExecutionRepository implements LatestTaskExecutionRepository, SmartApplicationListener {
+
+	/**
+	 * Topic published to the other servers when task executions were removed.
+	 */
+	public static final String PURGED_TOPIC = "TASK_EXECUTIONS_PURGED";
+
+	/**
+	 * Number of ids below the highest id seen that are scanned again on each refresh, so
+	 * that an execution whose insert commits after a higher id was read is not missed.
+	 */
+	static final int ID_OVERLAP = 100;
+
+	private static final String COLUMNS = "TASK_EXECUTION_ID, START_TIME, END_TIME, TASK_NAME, EXIT_CODE, "
+			+ "EXIT_MESSAGE, ERROR_MESSAGE, EXTERNAL_EXECUTION_ID";
+
+	private static final String LATEST_BY_TASK = "SELECT " + COLUMNS + " FROM TASK_EXECUTION "
+			+ "WHERE TASK_EXECUTION_ID IN (SELECT MAX(TASK_EXECUTION_ID) FROM TASK_EXECUTION GROUP BY TASK_NAME)";
+
+	private static final String CREATED_AFTER = "SELECT " + COLUMNS + " FROM TASK_EXECUTION "
+			+ "WHERE TASK_EXECUTION_ID > ? ORDER BY TASK_EXECUTION_ID ASC";
+
+	private static final String BY_IDS = "SELECT " + COLUMNS + " FROM TASK_EXECUTION "
+			+ "WHERE TASK_EXECUTION_ID IN (:ids)";
+
+	private static final String PARAMS_BY_IDS = "SELECT TASK_EXECUTION_ID, TASK_PARAM FROM TASK_EXECUTION_PARAMS "
+			+ "WHERE TASK_EXECUTION_ID IN (:ids) ORDER BY TASK_EXECUTION_ID";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+	private final RowMapper<TaskExecution> rowMapper = new TaskExecutionRowMapper();
+
+	/**
+	 * Incremented whenever the executions must be loaded again.
+	 */
+	private final AtomicLong generation = new AtomicLong();
+
+	/**
+	 * The latest executions, {@code null} until loaded.
+	 */
+	private volatile LatestExecutions latestExecutions;
+
+	private ClusterCoordinator clusterCoordinator;
+
+	public RdbmsLatestTaskExecutionRepository(DataSource dataSource) {
+		this(new JdbcTemplate(dataSource));
+	}
+
+	public RdbmsLatestTaskExecutionRepository(JdbcTemplate jdbcTemplate) {
+		Assert.notNull(jdbcTemplate, "jdbcTemplate must not be null");
+		this.jdbcTemplate = jdbcTemplate;
+		this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(this.jdbcTemplate);
+	}
+
+	/**
+	 * Set the coordinator through which removals of task executions are exchanged with
+	 * the other servers sharing the database.
+	 *
+	 * @param clusterCoordinator the cluster coordinator
+	 */
+	public void setClusterCoordinator(ClusterCoordinator clusterCoordinator) {
+		this.clusterCoordinator = clusterCoordinator;
+	}
+
+	@Override
+	public List<TaskExecution> findLatestByTaskNames(Collection<String> taskNames) {
+		Assert.notNull(taskNames, "taskNames must not be null");
+		LatestExecutions current = refresh();
+		List<Long> unfinished = new ArrayList<>();
+		for (String taskName : taskNames) {
+			TaskExecution taskExecution = current.byTaskName.get(taskName);
+			if (taskExecution != null && taskExecution.getEndTime() == null) {
+				unfinished.add(taskExecution.getExecutionId());
+			}
+		}
+		Map<String, TaskExecution> reread = new HashMap<>();
+		if (!unfinished.isEmpty()) {
+			for (TaskExecution taskExecution : this.namedParameterJdbcTemplate.query(BY_IDS,
+					new MapSqlParameterSource("ids", unfinished), this.rowMapper)) {
+				reread.put(taskExecution.getTaskName(), taskExecution);
+			}
+			publish(current.with(reread.values()));
+		}
+		List<TaskExecution> found = new ArrayList<>(taskNames.size());
+		for (String taskName : taskNames) {
+			TaskExecution taskExecution = reread.getOrDefault(taskName, current.byTaskName.get(taskName));
+			if (taskExecution != null) {
+				found.add(taskExecution);
+			}
+		}
+		return withArguments(found);
+	}
+
+	@Override
+	public boolean supportsEventType(Class<? extends ApplicationEvent> eventType) {
+		return TaskExecutionsPurgedEvent.class.isAssignableFrom(eventType)
+				|| ClusterChangeEvent.class.isAssignableFrom(eventType);
+	}
+
+	@Override
+	public boolean supportsSourceType(Class<?> sourceType) {
+		return true;
+	}
+
+	@Override
+	public int getOrder() {
+		return Ordered.LOWEST_PRECEDENCE;
+	}
+
+	@Override
+	public void onApplicationEvent(ApplicationEvent event) {
+		if (event instanceof TaskExecutionsPurgedEvent) {
+			onTaskExecutionsPurged((TaskExecutionsPurgedEvent) event);
+		}
+		else {
+			onClusterChange((ClusterChangeEvent) event);
+		}
+	}
+
+	public void onTaskExecutionsPurged(TaskExecutionsPurgedEvent event) {
+		reload();
+		if (this.clusterCoordinator != null) {
+			this.clusterCoordinator.publish(PURGED_TOPIC);
+		}
+	}
+
+	public void onClusterChange(ClusterChangeEvent event) {
+		if (PURGED_TOPIC.equals(event.getTopic())) {
+			reload();
+		}
+	}
+
+	private void reload() {
+		this.generation.incrementAndGet();
+	}
+
+	/**
+	 * Bring the latest executions up to date, loading them all if a reload was requested.
+	 * The queries run without holding a lock.
+	 */
+	private LatestExecutions refresh() {
+		long generation = this.generation.get();
+		LatestExecutions current = this.latestExecutions;
+		if (current == null || current.generation != generation) {
+			return publish(new LatestExecutions(generation, Collections.emptyMap(), -1)
+					.with(this.jdbcTemplate.query(LATEST_BY_TASK, this.rowMapper)));
+		}
+		List<TaskExecution> created = this.jdbcTemplate.query(CREATED_AFTER, this.rowMapper,
+				current.highestId - ID_OVERLAP);
+		return publish(current.with(created));
+	}
+
+	/**
+	 * Publish the given executions unless a reload was requested since they were read, or
+	 * a concurrent lookup already published newer ones.
+	 *
+	 * @return the given executions
+	 */
+	private synchronized LatestExecutions publish(LatestExecutions updated) {
+		LatestExecutions current = this.latestExecutions;
+		if (updated != current && updated.generation == this.generation.get()
+				&& (current == null || current.generation != updated.generation
+						|| current.highestId <= updated.highestId)) {
+			this.latestExecutions = updated;
+		}
+		return updated;
+	}
+
+	/**
+	 * Returns copies of the given executions carrying their arguments, which are not kept
+	 * in memory.
+	 */
+	private List<TaskExecution> withArguments(List<TaskExecution> taskExecutions) {
+		if (taskExecutions.isEmpty()) {
+			return taskExecutions;
+		}
+		List<Long> ids = new ArrayList<>(taskExecutions.size());
+		for (TaskExecution taskExecution : taskExecutions) {
+			ids.add(taskExecution.getExecutionId());
+		}
+		Map<Long, List<String>> arguments = new HashMap<>();
+		this.namedParameterJdbcTemplate.query(PARAMS_BY_IDS, new MapSqlParameterSource("ids", ids),
+				resultSet -> {
+					arguments.computeIfAbsent(resultSet.getLong("TASK_EXECUTION_ID"), id -> new ArrayList<>())
+							.add(resultSet.getString("TASK_PARAM"));
+				});
+		List<TaskExecution> result = new ArrayList<>(taskExecutions.size());
+		for (TaskExecution taskExecution : taskExecutions) {
+			result.add(new TaskExecution(taskExecution.getExecutionId(), taskExecution.getExitCode(),
+					taskExecution.getTaskName(), taskExecution.getStartTime(), taskExecution.getEndTime(),
+					taskExecution.getExitMessage(),
+					arguments.getOrDefault(taskExecution.getExecutionId(), Collections.emptyList()),
+					taskExecution.getErrorMessage(), taskExecution.getExternalExecutionId()));
+		}
+		return result;
+	}
+
+	/**
+	 * Immutable view of the latest execution of every task.
+	 */
+	private static class LatestExecutions {
+
+		private final long generation;
+
+		private final Map<String, TaskExecution> byTaskName;
+
+		private final long highestId;
+
+		LatestExecutions(long generation, Map<String, TaskExecution> byTaskName, long highestId) {
+			this.generation = generation;
+			this.byTaskName = byTaskName;
+			this.highestId = highestId;
+		}
+
+		/**
+		 * Return a copy holding the given executions where they are at least as recent as the
+		 * ones held, or this instance if nothing changed.
+		 */
+		LatestExecutions with(Collection<TaskExecution> taskExecutions) {
+			Map<String, TaskExecution> updated = null;
+			long highest = this.highestId;
+			for (TaskExecution taskExecution : taskExecutions) {
+				highest = Math.max(highest, taskExecution.getExecutionId());
+				TaskExecution held = this.byTaskName.get(taskExecution.getTaskName());
+				if (held == null || held.getExecutionId() < taskExecution.getExecutionId()
+						|| (held.getExecutionId() == taskExecution.getExecutionId() && held.getEndTime() == null
+								&& taskExecution.getEndTime() != null)) {
+					if (updated == null) {
+						updated = new HashMap<>(this.byTaskName);
+					}
+					updated.put(taskExecution.getTaskName(), taskExecution);
+				}
+			}
+			if (updated == null && highest == this.highestId) {
+				return this;
+			}
+			return new LatestExecutions(this.generation,
+					updated != null ? Collections.unmodifiableMap(updated) : this.byTaskName, highest);
+		}
+	}
+
+	private static class TaskExecutionRowMapper implements RowMapper<TaskExecution> {
+
+		@Override
+		public TaskExecution mapRow(ResultSet resultSet, int rowNum) throws SQLException {
+			Integer exitCode = resultSet.getInt("EXIT_CODE");
+			if (resultSet.wasNull()) {
+				exitCode = null;
+			}
+			return new TaskExecution(resultSet.getLong("TASK_EXECUTION_ID"), exitCode,
+					resultSet.getString("TASK_NAME"), resultSet.getTimestamp("START_TIME"),
+					resultSet.getTimestamp("END_TIME"), resultSet.getString("EXIT_MESSAGE"),
+					Collections.emptyList(), resultSet.getString("ERROR_MESSAGE"),
+					resultSet.getString("EXTERNAL_EXECUTION_ID"));
+		}
+	}
+}
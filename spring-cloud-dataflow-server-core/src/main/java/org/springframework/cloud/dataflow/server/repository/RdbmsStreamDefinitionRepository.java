@@ -23,6 +23,7 @@ import java.sql.Types;
 import javax.sql.DataSource;
 
 import org.springframework.cloud.dataflow.core.StreamDefinition;
+import org.springframework.cloud.dataflow.server.support.ChangeVersions;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.util.Assert;
 
@@ -43,6 +44,11 @@ public class RdbmsStreamDefinitionRepository extends AbstractRdbmsKeyValueReposi
 		}, "DEFINITION_NAME", "DEFINITION");
 	}
 
+	@Override
+	protected ChangeVersions.Domain getChangeDomain() {
+		return ChangeVersions.Domain.STREAM_DEFINITIONS;
+	}
+
 	@Override
 	public <S extends StreamDefinition> S save(S definition) {
 		Assert.notNull(definition, "definition must not be null");
@@ -53,6 +59,7 @@ public class RdbmsStreamDefinitionRepository extends AbstractRdbmsKeyValueReposi
 		}
 		Object[] insertParameters = new Object[] { definition.getName(), definition.getDslText() };
 		jdbcTemplate.update(saveRow, insertParameters, new int[] { Types.VARCHAR, Types.CLOB });
+		changed();
 		return definition;
 	}
 
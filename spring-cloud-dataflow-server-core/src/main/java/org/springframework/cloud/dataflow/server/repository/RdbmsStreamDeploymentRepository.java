@@ -52,6 +52,11 @@ public class RdbmsStreamDeploymentRepository implements StreamDeploymentReposito
 		this.jdbcTemplate = new JdbcTemplate(dataSource);
 	}
 
+	public RdbmsStreamDeploymentRepository(JdbcTemplate jdbcTemplate) {
+		Assert.notNull(jdbcTemplate, "jdbcTemplate must not be null");
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
 	@Override
 	public StreamDeployment save(StreamDeployment streamDeployment) {
 		if (findOne(streamDeployment.getStreamName()) != null) {
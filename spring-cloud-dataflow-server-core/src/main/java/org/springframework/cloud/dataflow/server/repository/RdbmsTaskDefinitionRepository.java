@@ -23,6 +23,7 @@ import java.sql.Types;
 import javax.sql.DataSource;
 
 import org.springframework.cloud.dataflow.core.TaskDefinition;
+import org.springframework.cloud.dataflow.server.support.ChangeVersions;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.util.Assert;
 
@@ -44,6 +45,11 @@ public class RdbmsTaskDefinitionRepository extends AbstractRdbmsKeyValueReposito
 		}, "DEFINITION_NAME", "DEFINITION");
 	}
 
+	@Override
+	protected ChangeVersions.Domain getChangeDomain() {
+		return ChangeVersions.Domain.TASK_DEFINITIONS;
+	}
+
 	@Override
 	public <S extends TaskDefinition> S save(S definition) {
 		Assert.notNull(definition, "definition must not be null");
@@ -54,6 +60,7 @@ public class RdbmsTaskDefinitionRepository extends AbstractRdbmsKeyValueReposito
 		}
 		Object[] insertParameters = new Object[] { definition.getName(), definition.getDslText() };
 		jdbcTemplate.update(saveRow, insertParameters, new int[] { Types.VARCHAR, Types.LONGVARCHAR });
+		changed();
 		return definition;
 	}
 
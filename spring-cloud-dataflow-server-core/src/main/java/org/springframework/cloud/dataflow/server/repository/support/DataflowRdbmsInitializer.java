@@ -1,5 +1,5 @@
 /*
- * Copyright 2016-2017 the original author or authors.
+ * Copyright 2016-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,8 +16,25 @@
 
 package org.springframework.cloud.dataflow.server.repository.support;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.LineNumberReader;
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import javax.sql.DataSource;
 
@@ -30,9 +47,16 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.jdbc.DatabaseDriver;
 import org.springframework.cloud.dataflow.core.DataFlowPropertyKeys;
 import org.springframework.cloud.dataflow.server.config.features.FeaturesProperties;
+import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
-import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
-import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StreamUtils;
 
 /**
  * Utility for initializing the Definition Repository's datasource. If a single
@@ -41,6 +65,12 @@ import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
  * <p>
  * By default, initialization of the database can be disabled by configuring the property
  * <code>spring.cloud.dataflow.rdbms.initialize.enable</code> to false.
+ * <p>
+ * When {@link #setSkipUnchangedSchema(boolean) enabled}, a checksum of the scripts run is
+ * kept in the <code>DATAFLOW_SCHEMA_CHECKSUM</code> table, and the scripts are not run
+ * again on later starts as long as they are unchanged. The checksum is only stored when
+ * every statement either succeeded, was a <code>CREATE</code> or failed as the object it
+ * adds exists already, and all the tables of the scripts exist.
  *
  * @author Glenn Renfro
  * @author Ilayaperumal Gopinathan
@@ -62,6 +92,32 @@ public final class DataflowRdbmsInitializer implements InitializingBean {
 
 	private static final String JPA_SCHEMA_SUFFIX = "jpa";
 
+	private static final int MAX_SCHEMA_THREADS = 4;
+
+	private static final Pattern CREATE_TABLE = Pattern.compile("^CREATE\\s+TABLE\\s+(\\w+)",
+			Pattern.CASE_INSENSITIVE);
+
+	/**
+	 * SQL states reported for an object that exists already: ANSI/MySQL/H2 tables and
+	 * indexes, PostgreSQL relations, PostgreSQL/DB2 objects, HSQLDB objects and H2
+	 * sequences and constraints.
+	 */
+	private static final Set<String> ALREADY_EXISTS_SQL_STATES = new HashSet<>(
+			Arrays.asList("42S01", "42S11", "42P07", "42710", "42504", "90035", "90045"));
+
+	/**
+	 * Vendor codes reported for an object that exists already: Oracle names and
+	 * constraints, MySQL keys and SQL Server objects and indexes.
+	 */
+	private static final Set<Integer> ALREADY_EXISTS_ERROR_CODES = new HashSet<>(
+			Arrays.asList(955, 2260, 2261, 2275, 1061, 1826, 2714, 1913));
+
+	private static final String SELECT_CHECKSUM = "SELECT SCHEMA_CHECKSUM FROM DATAFLOW_SCHEMA_CHECKSUM";
+
+	private static final String DELETE_CHECKSUM = "DELETE FROM DATAFLOW_SCHEMA_CHECKSUM";
+
+	private static final String INSERT_CHECKSUM = "INSERT INTO DATAFLOW_SCHEMA_CHECKSUM (SCHEMA_CHECKSUM) VALUES (?)";
+
 	/**
 	 * Path to the SQL file to use to initialize the database schema.
 	 */
@@ -76,6 +132,10 @@ public final class DataflowRdbmsInitializer implements InitializingBean {
 	@Value("${" + DataFlowPropertyKeys.PREFIX + "rdbms.initialize.enable:true}")
 	private boolean definitionInitializationEnable;
 
+	private boolean skipUnchangedSchema;
+
+	private boolean parallel;
+
 	public DataflowRdbmsInitializer(FeaturesProperties featuresProperties) {
 		this.featuresProperties = featuresProperties;
 	}
@@ -89,46 +149,211 @@ public final class DataflowRdbmsInitializer implements InitializingBean {
 		this.resourceLoader = resourceLoader;
 	}
 
+	/**
+	 * Set whether the schema scripts are skipped when they have not changed since they
+	 * were last run against the database, as recorded by their checksum.
+	 *
+	 * @param skipUnchangedSchema whether unchanged schema scripts are skipped
+	 */
+	public void setSkipUnchangedSchema(boolean skipUnchangedSchema) {
+		this.skipUnchangedSchema = skipUnchangedSchema;
+	}
+
+	/**
+	 * Set whether the schema scripts are run concurrently. The scripts create unrelated
+	 * tables, so they do not depend on one another.
+	 *
+	 * @param parallel whether the schema scripts are run concurrently
+	 */
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+
 	@Override
 	public void afterPropertiesSet() throws Exception {
 		if (dataSource != null && definitionInitializationEnable) {
 			String platform = getDatabaseType(dataSource);
 
-			ResourceDatabasePopulator populator = new ResourceDatabasePopulator();
 			String schemaLocation = schema;
 			schemaLocation = schemaLocation.replace("@@platform@@", platform);
-			String commonSchemaLocation = schemaLocation;
-			commonSchemaLocation = commonSchemaLocation.replace("@@suffix@@", COMMON_SCHEMA_SUFFIX);
-			logger.info(String.format("Adding dataflow schema %s for %s database", commonSchemaLocation, platform));
-			populator.addScript(resourceLoader.getResource(commonSchemaLocation));
+			List<String> suffixes = new ArrayList<>();
+			suffixes.add(COMMON_SCHEMA_SUFFIX);
 			if (featuresProperties.isStreamsEnabled()) {
-				String streamsSchemaLocation = schemaLocation;
-				streamsSchemaLocation = streamsSchemaLocation.replace("@@suffix@@", STREAMS_SCHEMA_SUFFIX);
-				logger.info(
-						String.format("Adding dataflow schema %s for %s database", streamsSchemaLocation, platform));
-				populator.addScript(resourceLoader.getResource(streamsSchemaLocation));
+				suffixes.add(STREAMS_SCHEMA_SUFFIX);
 			}
 			if (featuresProperties.isTasksEnabled()) {
-				String tasksSchemaLocation = schemaLocation;
-				tasksSchemaLocation = tasksSchemaLocation.replace("@@suffix@@", TASKS_SCHEMA_SUFFIX);
-				logger.info(String.format("Adding dataflow schema %s for %s database", tasksSchemaLocation, platform));
-				populator.addScript(resourceLoader.getResource(tasksSchemaLocation));
+				suffixes.add(TASKS_SCHEMA_SUFFIX);
 			}
 			if (featuresProperties.isStreamsEnabled() || featuresProperties.isTasksEnabled()) {
-				String deploymentSchemaLocation = schemaLocation;
-				deploymentSchemaLocation = deploymentSchemaLocation.replace("@@suffix@@", DEPLOYMENT_SCHEMA_SUFFIX);
-				logger.info(
-						String.format("Adding dataflow schema %s for %s database", deploymentSchemaLocation, platform));
-				populator.addScript(resourceLoader.getResource(deploymentSchemaLocation));
+				suffixes.add(DEPLOYMENT_SCHEMA_SUFFIX);
+			}
+			suffixes.add(JPA_SCHEMA_SUFFIX);
+			List<Resource> scripts = new ArrayList<>();
+			for (String suffix : suffixes) {
+				String location = schemaLocation.replace("@@suffix@@", suffix);
+				logger.info(String.format("Adding dataflow schema %s for %s database", location, platform));
+				scripts.add(resourceLoader.getResource(location));
+			}
+
+			JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+			String checksum = checksum(platform, scripts);
+			if (skipUnchangedSchema && checksum.equals(storedChecksum(jdbcTemplate))) {
+				logger.info(String.format("Skipping dataflow schema for %s database, unchanged since last run",
+						platform));
+				return;
 			}
-			String jpaSchemaLocation = schemaLocation;
-			jpaSchemaLocation = jpaSchemaLocation.replace("@@suffix@@", JPA_SCHEMA_SUFFIX);
-			logger.info(
-					String.format("Adding dataflow schema %s for %s database", jpaSchemaLocation, platform));
-			populator.addScript(resourceLoader.getResource(jpaSchemaLocation));
-			populator.setContinueOnError(true);
 			logger.debug(String.format("Initializing dataflow schema for %s database", platform));
-			DatabasePopulatorUtils.execute(populator, dataSource);
+			long start = System.currentTimeMillis();
+			List<List<String>> statements = new ArrayList<>();
+			for (Resource script : scripts) {
+				statements.add(statements(script));
+			}
+			int failures = 0;
+			if (parallel && scripts.size() > 1) {
+				failures = executeInParallel(jdbcTemplate, statements);
+			}
+			else {
+				for (List<String> scriptStatements : statements) {
+					failures += execute(jdbcTemplate, scriptStatements);
+				}
+			}
+			logger.info(String.format("Initialized dataflow schema for %s database in %d ms", platform,
+					System.currentTimeMillis() - start));
+			if (skipUnchangedSchema) {
+				if (failures == 0 && tablesExist(jdbcTemplate, statements)) {
+					storeChecksum(jdbcTemplate, checksum);
+				}
+				else {
+					logger.warn(String.format("The dataflow schema for %s database was not fully initialized, the "
+							+ "schema will be initialized again on the next start", platform));
+				}
+			}
+		}
+	}
+
+	private int executeInParallel(JdbcTemplate jdbcTemplate, List<List<String>> statements) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(statements.size(), MAX_SCHEMA_THREADS),
+				new CustomizableThreadFactory("dataflow-schema-"));
+		try {
+			List<Future<Integer>> futures = new ArrayList<>();
+			for (List<String> scriptStatements : statements) {
+				futures.add(executor.submit(() -> execute(jdbcTemplate, scriptStatements)));
+			}
+			int failures = 0;
+			for (Future<Integer> future : futures) {
+				try {
+					failures += future.get();
+				}
+				catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					throw cause instanceof Exception ? (Exception) cause : e;
+				}
+			}
+			return failures;
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Execute the statements of a script on a single connection, returning the number of
+	 * statements that failed unexpectedly. The scripts are run again whenever they
+	 * change, so a statement failing as its object exists already is expected. A failing
+	 * <code>CREATE</code> is expected as well, the tables are checked afterwards.
+	 */
+	private static int execute(JdbcTemplate jdbcTemplate, List<String> statements) {
+		return jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+			int failures = 0;
+			try (Statement statement = connection.createStatement()) {
+				for (String sql : statements) {
+					try {
+						statement.execute(sql);
+					}
+					catch (SQLException e) {
+						if (alreadyExists(e) || sql.trim().toUpperCase(Locale.ENGLISH).startsWith("CREATE")) {
+							logger.debug("Skipped dataflow schema statement: " + sql + ": " + e.getMessage());
+						}
+						else {
+							failures++;
+							logger.warn("Failed to execute dataflow schema statement: " + sql, e);
+						}
+					}
+				}
+			}
+			return failures;
+		});
+	}
+
+	private static boolean alreadyExists(SQLException e) {
+		return ALREADY_EXISTS_SQL_STATES.contains(e.getSQLState())
+				|| ALREADY_EXISTS_ERROR_CODES.contains(e.getErrorCode());
+	}
+
+	private static boolean tablesExist(JdbcTemplate jdbcTemplate, List<List<String>> statements) {
+		for (List<String> scriptStatements : statements) {
+			for (String sql : scriptStatements) {
+				Matcher matcher = CREATE_TABLE.matcher(sql.trim());
+				if (matcher.find()) {
+					try {
+						jdbcTemplate.queryForList("SELECT * FROM " + matcher.group(1) + " WHERE 1 = 0");
+					}
+					catch (DataAccessException e) {
+						logger.warn("The dataflow schema table " + matcher.group(1) + " is missing", e);
+						return false;
+					}
+				}
+			}
+		}
+		return true;
+	}
+
+	private static List<String> statements(Resource script) throws IOException {
+		EncodedResource resource = new EncodedResource(script);
+		String content;
+		try (LineNumberReader reader = new LineNumberReader(resource.getReader())) {
+			content = ScriptUtils.readScript(reader, ScriptUtils.DEFAULT_COMMENT_PREFIX,
+					ScriptUtils.DEFAULT_STATEMENT_SEPARATOR);
+		}
+		String separator = ScriptUtils.containsSqlScriptDelimiters(content, ScriptUtils.DEFAULT_STATEMENT_SEPARATOR)
+				? ScriptUtils.DEFAULT_STATEMENT_SEPARATOR : ScriptUtils.FALLBACK_STATEMENT_SEPARATOR;
+		List<String> statements = new ArrayList<>();
+		ScriptUtils.splitSqlScript(resource, content, separator, ScriptUtils.DEFAULT_COMMENT_PREFIX,
+				ScriptUtils.DEFAULT_BLOCK_COMMENT_START_DELIMITER, ScriptUtils.DEFAULT_BLOCK_COMMENT_END_DELIMITER,
+				statements);
+		return statements;
+	}
+
+	private static String checksum(String platform, List<Resource> scripts) throws IOException {
+		ByteArrayOutputStream content = new ByteArrayOutputStream();
+		content.write(platform.getBytes(StandardCharsets.UTF_8));
+		for (Resource script : scripts) {
+			if (script.exists()) {
+				content.write(StreamUtils.copyToByteArray(script.getInputStream()));
+			}
+		}
+		return DigestUtils.md5DigestAsHex(content.toByteArray());
+	}
+
+	private static String storedChecksum(JdbcTemplate jdbcTemplate) {
+		try {
+			List<String> checksums = jdbcTemplate.queryForList(SELECT_CHECKSUM, String.class);
+			return checksums.isEmpty() ? null : checksums.get(0);
+		}
+		catch (DataAccessException e) {
+			// first run against this database
+			return null;
+		}
+	}
+
+	private static void storeChecksum(JdbcTemplate jdbcTemplate, String checksum) {
+		try {
+			jdbcTemplate.update(DELETE_CHECKSUM);
+			jdbcTemplate.update(INSERT_CHECKSUM, checksum);
+		}
+		catch (DataAccessException e) {
+			logger.warn("Unable to store the dataflow schema checksum, the schema will be initialized again on the "
+					+ "next start", e);
 		}
 	}
 
@@ -0,0 +1,311 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.repository.support;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.autoconfigure.jdbc.metadata.DataSourcePoolMetadata;
+import org.springframework.boot.autoconfigure.jdbc.metadata.DataSourcePoolMetadataProvider;
+import org.springframework.cloud.dataflow.server.config.RdbmsProperties;
+import org.springframework.core.InfrastructureProxy;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+/**
+ * The databases the repositories of the server run their statements against: the
+ * primary database, which all writes go to, and an optional read replica serving paged
+ * listings and searches, such as those of the dashboard, so that they do not compete
+ * with launches and deployments for the connections to the primary database.
+ * <p>
+ * Listings are read from the primary database while a transaction is active, as the
+ * replica does not see its changes, and for
+ * {@link RdbmsProperties.Replica#getMaxLag() a while} after this server last wrote to the
+ * primary database, so that a listing requested right after a change includes it.
+ * <p>
+ * The number of threads waiting for a connection and the time spent waiting are
+ * published through the {@code metrics} management endpoint for each database as
+ * {@code dataflow.datasource.<primary|replica>.pending}, {@code .acquired},
+ * {@code .wait.total} and {@code .wait.mean}, along with the {@code .active},
+ * {@code .max} and {@code .usage} of its connection pool where the pool is known.
+ */
+public class RepositoryDataSources implements PublicMetrics, DisposableBean {
+
+	static final String METRIC_PREFIX = "dataflow.datasource.";
+
+	private final TrackingDataSource dataSource;
+
+	private final TrackingDataSource replica;
+
+	private final RdbmsProperties properties;
+
+	private DataSourcePoolMetadataProvider poolMetadataProvider;
+
+	private volatile long lastWrite;
+
+	/**
+	 * Create the data sources of the repositories.
+	 *
+	 * @param dataSource the primary database
+	 * @param replica the read replica, or {@code null} if listings are read from the
+	 * primary database; it is closed with this object
+	 * @param properties the statement and replica settings
+	 */
+	public RepositoryDataSources(DataSource dataSource, DataSource replica, RdbmsProperties properties) {
+		Assert.notNull(dataSource, "dataSource must not be null");
+		Assert.notNull(properties, "properties must not be null");
+		this.dataSource = new TrackingDataSource(dataSource);
+		this.replica = replica != null ? new TrackingDataSource(replica) : null;
+		this.properties = properties;
+	}
+
+	/**
+	 * Set the provider through which the usage of the connection pools is read.
+	 *
+	 * @param poolMetadataProvider the pool metadata provider
+	 */
+	public void setPoolMetadataProvider(DataSourcePoolMetadataProvider poolMetadataProvider) {
+		this.poolMetadataProvider = poolMetadataProvider;
+	}
+
+	/**
+	 * @return the primary database; connections take part in the transactions of the
+	 * database it wraps
+	 */
+	public DataSource getDataSource() {
+		return this.dataSource;
+	}
+
+	/**
+	 * @return the read replica, or the primary database if there is no replica
+	 */
+	public DataSource getReadOnlyDataSource() {
+		return this.replica != null ? this.replica : this.dataSource;
+	}
+
+	/**
+	 * Create the templates of a repository, carrying the fetch size and query timeout
+	 * configured for it.
+	 *
+	 * @param repository the name of the repository, such as {@code stream-definitions}
+	 * @return the templates of the repository
+	 */
+	public RepositoryJdbcTemplates getJdbcTemplates(String repository) {
+		Assert.hasText(repository, "repository must not be empty");
+		JdbcTemplate jdbcTemplate = configure(new WriteTrackingJdbcTemplate(this.dataSource), repository);
+		JdbcTemplate replicaJdbcTemplate = this.replica != null
+				? configure(new JdbcTemplate(this.replica), repository) : null;
+		return new RepositoryJdbcTemplates(jdbcTemplate, replicaJdbcTemplate, this);
+	}
+
+	private JdbcTemplate configure(JdbcTemplate jdbcTemplate, String repository) {
+		jdbcTemplate.setFetchSize(this.properties.getFetchSize(repository));
+		jdbcTemplate.setQueryTimeout(this.properties.getQueryTimeout(repository));
+		return jdbcTemplate;
+	}
+
+	/**
+	 * @return whether listings can be read from the replica now
+	 */
+	boolean isReplicaReadable() {
+		return this.replica != null && !TransactionSynchronizationManager.isActualTransactionActive()
+				&& System.currentTimeMillis() - this.lastWrite >= this.properties.getReplica().getMaxLag();
+	}
+
+	@Override
+	public Collection<Metric<?>> metrics() {
+		List<Metric<?>> metrics = new ArrayList<>();
+		addMetrics(metrics, "primary", this.dataSource);
+		if (this.replica != null) {
+			addMetrics(metrics, "replica", this.replica);
+		}
+		return metrics;
+	}
+
+	private void addMetrics(List<Metric<?>> metrics, String name, TrackingDataSource dataSource) {
+		String prefix = METRIC_PREFIX + name;
+		long acquired = dataSource.acquired.sum();
+		long waitNanos = dataSource.waitNanos.sum();
+		metrics.add(new Metric<>(prefix + ".pending", dataSource.pending.get()));
+		metrics.add(new Metric<>(prefix + ".acquired", acquired));
+		metrics.add(new Metric<>(prefix + ".wait.total", TimeUnit.NANOSECONDS.toMillis(waitNanos)));
+		if (acquired > 0) {
+			metrics.add(new Metric<>(prefix + ".wait.mean", waitNanos / acquired / 1_000_000.0));
+		}
+		DataSourcePoolMetadata pool = this.poolMetadataProvider != null
+				? this.poolMetadataProvider.getDataSourcePoolMetadata(dataSource.getTargetDataSource()) : null;
+		if (pool != null) {
+			if (pool.getActive() != null) {
+				metrics.add(new Metric<>(prefix + ".active", pool.getActive()));
+			}
+			if (pool.getMax() != null) {
+				metrics.add(new Metric<>(prefix + ".max", pool.getMax()));
+			}
+			if (pool.getUsage() != null) {
+				metrics.add(new Metric<>(prefix + ".usage", pool.getUsage()));
+			}
+		}
+	}
+
+	@Override
+	public void destroy() throws IOException {
+		if (this.replica != null && this.replica.getTargetDataSource() instanceof Closeable) {
+			((Closeable) this.replica.getTargetDataSource()).close();
+		}
+	}
+
+	private void written() {
+		this.lastWrite = System.currentTimeMillis();
+	}
+
+	/**
+	 * Counts the threads waiting for a connection and the time they wait. Transactions
+	 * bound to the wrapped data source are shared, as it is exposed as an
+	 * {@link InfrastructureProxy}.
+	 */
+	private static class TrackingDataSource extends DelegatingDataSource implements InfrastructureProxy {
+
+		private final AtomicInteger pending = new AtomicInteger();
+
+		private final LongAdder acquired = new LongAdder();
+
+		private final LongAdder waitNanos = new LongAdder();
+
+		TrackingDataSource(DataSource targetDataSource) {
+			super(targetDataSource);
+		}
+
+		@Override
+		public Connection getConnection() throws SQLException {
+			long start = begin();
+			try {
+				return super.getConnection();
+			}
+			finally {
+				end(start);
+			}
+		}
+
+		@Override
+		public Connection getConnection(String username, String password) throws SQLException {
+			long start = begin();
+			try {
+				return super.getConnection(username, password);
+			}
+			finally {
+				end(start);
+			}
+		}
+
+		@Override
+		public Object getWrappedObject() {
+			return getTargetDataSource();
+		}
+
+		private long begin() {
+			this.pending.incrementAndGet();
+			return System.nanoTime();
+		}
+
+		private void end(long start) {
+			this.waitNanos.add(System.nanoTime() - start);
+			this.acquired.increment();
+			this.pending.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Records the time of every update it runs, after which listings are read from the
+	 * primary database for a while.
+	 */
+	private class WriteTrackingJdbcTemplate extends JdbcTemplate {
+
+		WriteTrackingJdbcTemplate(DataSource dataSource) {
+			super(dataSource);
+		}
+
+		@Override
+		protected int update(PreparedStatementCreator psc, PreparedStatementSetter pss) {
+			try {
+				return super.update(psc, pss);
+			}
+			finally {
+				written();
+			}
+		}
+
+		@Override
+		public int update(String sql) {
+			try {
+				return super.update(sql);
+			}
+			finally {
+				written();
+			}
+		}
+
+		@Override
+		public int[] batchUpdate(String... sql) {
+			try {
+				return super.batchUpdate(sql);
+			}
+			finally {
+				written();
+			}
+		}
+
+		@Override
+		public int[] batchUpdate(String sql, BatchPreparedStatementSetter pss) {
+			try {
+				return super.batchUpdate(sql, pss);
+			}
+			finally {
+				written();
+			}
+		}
+
+		@Override
+		public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+				ParameterizedPreparedStatementSetter<T> pss) {
+			try {
+				return super.batchUpdate(sql, batchArgs, batchSize, pss);
+			}
+			finally {
+				written();
+			}
+		}
+	}
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.repository.support;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * The templates through which a repository runs its statements, created by
+ * {@link RepositoryDataSources}.
+ */
+public class RepositoryJdbcTemplates {
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final JdbcTemplate replicaJdbcTemplate;
+
+	private final RepositoryDataSources dataSources;
+
+	RepositoryJdbcTemplates(JdbcTemplate jdbcTemplate, JdbcTemplate replicaJdbcTemplate,
+			RepositoryDataSources dataSources) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.replicaJdbcTemplate = replicaJdbcTemplate;
+		this.dataSources = dataSources;
+	}
+
+	/**
+	 * @return the template running statements against the primary database, for writes
+	 * and for reads that must see the latest changes
+	 */
+	public JdbcTemplate getJdbcTemplate() {
+		return this.jdbcTemplate;
+	}
+
+	/**
+	 * Return the template for a listing or search, to be used for the statements of that
+	 * listing only, as the database it runs against is chosen on every call.
+	 *
+	 * @return the template running statements against the read replica if it can be read
+	 * from now, or against the primary database otherwise
+	 */
+	public JdbcTemplate getReadOnlyJdbcTemplate() {
+		return this.replicaJdbcTemplate != null && this.dataSources.isReplicaReadable() ? this.replicaJdbcTemplate
+				: this.jdbcTemplate;
+	}
+}
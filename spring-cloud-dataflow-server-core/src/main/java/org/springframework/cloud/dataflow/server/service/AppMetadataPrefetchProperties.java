@@ -0,0 +1,96 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.cloud.dataflow.core.DataFlowPropertyKeys;
+
+/**
+ * Configuration properties for namespace 'spring.cloud.dataflow.app-registry.prefetch',
+ * controlling how metadata artifacts of newly registered apps are fetched.
+ */
+@ConfigurationProperties(prefix = AppMetadataPrefetchProperties.PREFIX)
+public class AppMetadataPrefetchProperties {
+
+	public static final String PREFIX = DataFlowPropertyKeys.PREFIX + "app-registry.prefetch";
+
+	/**
+	 * Number of threads fetching artifacts.
+	 */
+	private int threads = 4;
+
+	/**
+	 * Maximum number of artifacts fetched at the same time from one repository host.
+	 */
+	private int perHostConcurrency = 2;
+
+	/**
+	 * Maximum number of artifacts waiting to be fetched. Further artifacts are not
+	 * prefetched and are fetched when first used instead.
+	 */
+	private int queueCapacity = 1000;
+
+	/**
+	 * Number of attempts made to fetch an artifact.
+	 */
+	private int maxAttempts = 3;
+
+	/**
+	 * Delay in milliseconds before the first retry, doubled for every further retry.
+	 */
+	private long initialBackoff = 1000;
+
+	public int getThreads() {
+		return threads;
+	}
+
+	public void setThreads(int threads) {
+		this.threads = threads;
+	}
+
+	public int getPerHostConcurrency() {
+		return perHostConcurrency;
+	}
+
+	public void setPerHostConcurrency(int perHostConcurrency) {
+		this.perHostConcurrency = perHostConcurrency;
+	}
+
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	public void setQueueCapacity(int queueCapacity) {
+		this.queueCapacity = queueCapacity;
+	}
+
+	public int getMaxAttempts() {
+		return maxAttempts;
+	}
+
+	public void setMaxAttempts(int maxAttempts) {
+		this.maxAttempts = maxAttempts;
+	}
+
+	public long getInitialBackoff() {
+		return initialBackoff;
+	}
+
+	public void setInitialBackoff(long initialBackoff) {
+		this.initialBackoff = initialBackoff;
+	}
+}
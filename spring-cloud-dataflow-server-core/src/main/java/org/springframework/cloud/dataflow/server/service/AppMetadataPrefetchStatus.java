@@ -0,0 +1,144 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.service;
+
+import java.util.Map;
+
+/**
+ * Point in time view of the metadata prefetch queue and its totals since startup.
+ */
+public class AppMetadataPrefetchStatus {
+
+	private final int queued;
+
+	private final int inFlight;
+
+	private final Map<String, Integer> inFlightByHost;
+
+	private final long submitted;
+
+	private final long completed;
+
+	private final long failed;
+
+	private final long retried;
+
+	private final long rejected;
+
+	private final long deduplicated;
+
+	private final long downloadedBytes;
+
+	private final long downloadMillis;
+
+	private final Map<String, String> recentFailures;
+
+	public AppMetadataPrefetchStatus(int queued, int inFlight, Map<String, Integer> inFlightByHost, long submitted,
+			long completed, long failed, long retried, long rejected, long deduplicated, long downloadedBytes,
+			long downloadMillis, Map<String, String> recentFailures) {
+		this.queued = queued;
+		this.inFlight = inFlight;
+		this.inFlightByHost = inFlightByHost;
+		this.submitted = submitted;
+		this.completed = completed;
+		this.failed = failed;
+		this.retried = retried;
+		this.rejected = rejected;
+		this.deduplicated = deduplicated;
+		this.downloadedBytes = downloadedBytes;
+		this.downloadMillis = downloadMillis;
+		this.recentFailures = recentFailures;
+	}
+
+	/**
+	 * @return the number of artifacts waiting to be fetched, including those waiting for a
+	 * retry
+	 */
+	public int getQueued() {
+		return queued;
+	}
+
+	/**
+	 * @return the number of artifacts being fetched
+	 */
+	public int getInFlight() {
+		return inFlight;
+	}
+
+	/**
+	 * @return the number of artifacts being fetched, per repository host
+	 */
+	public Map<String, Integer> getInFlightByHost() {
+		return inFlightByHost;
+	}
+
+	public long getSubmitted() {
+		return submitted;
+	}
+
+	public long getCompleted() {
+		return completed;
+	}
+
+	/**
+	 * @return the number of artifacts that could not be fetched within the allowed attempts
+	 */
+	public long getFailed() {
+		return failed;
+	}
+
+	public long getRetried() {
+		return retried;
+	}
+
+	/**
+	 * @return the number of artifacts that were not queued because the queue was full
+	 */
+	public long getRejected() {
+		return rejected;
+	}
+
+	/**
+	 * @return the number of artifacts that were not queued because they were already
+	 * queued or being fetched
+	 */
+	public long getDeduplicated() {
+		return deduplicated;
+	}
+
+	public long getDownloadedBytes() {
+		return downloadedBytes;
+	}
+
+	public long getDownloadMillis() {
+		return downloadMillis;
+	}
+
+	/**
+	 * @return the average download throughput in bytes per second
+	 */
+	public long getBytesPerSecond() {
+		return downloadMillis > 0 ? downloadedBytes * 1000 / downloadMillis : 0;
+	}
+
+	/**
+	 * @return the error messages of the most recent failures, by artifact URI
+	 */
+	public Map<String, String> getRecentFailures() {
+		return recentFailures;
+	}
+}
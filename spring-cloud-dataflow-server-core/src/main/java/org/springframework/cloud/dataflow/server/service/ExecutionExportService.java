@@ -0,0 +1,63 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Exports task and job executions as newline-delimited JSON. Records are read in
+ * ascending execution id order using keyset pagination, so the cost of a chunk does not
+ * depend on how far into the table the export is, and at most one chunk is held in
+ * memory at a time.
+ * <p>
+ * The execution id of the last record written serves as the continuation token: passing
+ * it as {@code afterExecutionId} resumes the export right after that record.
+ */
+public interface ExecutionExportService {
+
+	/**
+	 * Media type of the export format, one JSON document per line.
+	 */
+	String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+
+	/**
+	 * Writes task executions with an id greater than {@code afterExecutionId}.
+	 *
+	 * @param afterExecutionId the continuation token, {@code -1} to start from the first
+	 * execution
+	 * @param maxRecords the maximum number of records to write, {@code -1} for no limit
+	 * @param outputStream the stream to write the records to
+	 * @return the number of records written
+	 * @throws IOException if the records could not be written
+	 */
+	long exportTaskExecutions(long afterExecutionId, long maxRecords, OutputStream outputStream)
+			throws IOException;
+
+	/**
+	 * Writes job executions with an id greater than {@code afterExecutionId}.
+	 *
+	 * @param afterExecutionId the continuation token, {@code -1} to start from the first
+	 * execution
+	 * @param maxRecords the maximum number of records to write, {@code -1} for no limit
+	 * @param outputStream the stream to write the records to
+	 * @return the number of records written
+	 * @throws IOException if the records could not be written
+	 */
+	long exportJobExecutions(long afterExecutionId, long maxRecords, OutputStream outputStream)
+			throws IOException;
+}
@@ -20,6 +20,8 @@ package org.springframework.cloud.dataflow.server.service;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.cloud.dataflow.rest.CreateScheduleRequest;
+import org.springframework.cloud.dataflow.rest.ScheduleResult;
 import org.springframework.cloud.scheduler.spi.core.ScheduleInfo;
 import org.springframework.data.domain.Pageable;
 
@@ -57,6 +59,26 @@ public interface SchedulerService {
 	 */
 	void unschedule(String scheduleName);
 
+	/**
+	 * Creates all of the given schedules. Each task definition is resolved once and the
+	 * schedules are submitted to the platform specific scheduler in parallel, up to
+	 * {@link SchedulerServiceProperties#getBulkConcurrency()} at a time. A failure to create
+	 * one schedule does not prevent the others from being created.
+	 *
+	 * @param createScheduleRequests the schedules to create.
+	 * @return the outcome for each schedule, in the order of the requests.
+	 */
+	List<ScheduleResult> schedule(List<CreateScheduleRequest> createScheduleRequests);
+
+	/**
+	 * Unschedules all of the given schedules, in parallel up to
+	 * {@link SchedulerServiceProperties#getBulkConcurrency()} at a time.
+	 *
+	 * @param scheduleNames the names of the schedules to be removed.
+	 * @return the outcome for each schedule, in the order of the names.
+	 */
+	List<ScheduleResult> unschedule(List<String> scheduleNames);
+
 	/**
 	 * List all of the Schedules associated with the provided TaskDefinition.
 	 *
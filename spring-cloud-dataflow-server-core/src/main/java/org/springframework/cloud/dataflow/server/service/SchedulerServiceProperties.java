@@ -35,6 +35,19 @@ public class SchedulerServiceProperties {
 	 */
 	private int maxSchedulesReturned = SCHEDULER_MAX_RETURNED_NUMBER;
 
+	/**
+	 * Interval in milliseconds at which the local schedule catalog is reconciled in the
+	 * background with the schedules known to the scheduler. A value of 0 or less reads the
+	 * schedules from the scheduler on every request.
+	 */
+	private long catalogRefreshInterval = 60000;
+
+	/**
+	 * Maximum number of concurrent calls to the scheduler when creating or removing
+	 * schedules in bulk, across all bulk requests.
+	 */
+	private int bulkConcurrency = 8;
+
 	public int getMaxSchedulesReturned() {
 		return maxSchedulesReturned;
 	}
@@ -42,4 +55,20 @@ public class SchedulerServiceProperties {
 	public void setMaxSchedulesReturned(int maxSchedulesReturned) {
 		this.maxSchedulesReturned = maxSchedulesReturned;
 	}
+
+	public long getCatalogRefreshInterval() {
+		return catalogRefreshInterval;
+	}
+
+	public void setCatalogRefreshInterval(long catalogRefreshInterval) {
+		this.catalogRefreshInterval = catalogRefreshInterval;
+	}
+
+	public int getBulkConcurrency() {
+		return bulkConcurrency;
+	}
+
+	public void setBulkConcurrency(int bulkConcurrency) {
+		this.bulkConcurrency = bulkConcurrency;
+	}
 }
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.service;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published by a {@link TaskRetentionService} once task executions have been removed, so
+ * that views derived from the task execution tables can be rebuilt.
+ */
+@SuppressWarnings("serial")
+public class TaskExecutionsPurgedEvent extends ApplicationEvent {
+
+	private final TaskRetentionResult result;
+
+	public TaskExecutionsPurgedEvent(Object source, TaskRetentionResult result) {
+		super(source);
+		this.result = result;
+	}
+
+	public TaskRetentionResult getResult() {
+		return result;
+	}
+}
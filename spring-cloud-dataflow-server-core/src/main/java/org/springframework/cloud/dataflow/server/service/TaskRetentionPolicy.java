@@ -0,0 +1,87 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.service;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.springframework.cloud.dataflow.rest.resource.TaskExecutionStatus;
+
+/**
+ * Describes which task executions are removed by a {@link TaskRetentionService}. An
+ * execution is removed when its status is one of {@link #getStatuses()} and it is either
+ * older than {@link #getMaxAgeDays()} or not among the {@link #getMaxExecutionsPerTask()}
+ * most recent executions of its task. Executions that have not ended are never removed.
+ */
+public class TaskRetentionPolicy {
+
+	/**
+	 * Executions that ended more than this many days ago are removed, {@code -1} to
+	 * disable the age policy.
+	 */
+	private int maxAgeDays = -1;
+
+	/**
+	 * The number of most recent executions kept for each task name, {@code -1} to disable
+	 * the count policy.
+	 */
+	private int maxExecutionsPerTask = -1;
+
+	/**
+	 * The statuses of the executions that may be removed. Only {@code COMPLETE} and
+	 * {@code ERROR} are taken into account.
+	 */
+	private Set<TaskExecutionStatus> statuses = EnumSet.of(TaskExecutionStatus.COMPLETE,
+			TaskExecutionStatus.ERROR);
+
+	/**
+	 * Restricts the policy to the executions of a single task, {@code null} for all tasks.
+	 */
+	private String taskName;
+
+	public int getMaxAgeDays() {
+		return maxAgeDays;
+	}
+
+	public void setMaxAgeDays(int maxAgeDays) {
+		this.maxAgeDays = maxAgeDays;
+	}
+
+	public int getMaxExecutionsPerTask() {
+		return maxExecutionsPerTask;
+	}
+
+	public void setMaxExecutionsPerTask(int maxExecutionsPerTask) {
+		this.maxExecutionsPerTask = maxExecutionsPerTask;
+	}
+
+	public Set<TaskExecutionStatus> getStatuses() {
+		return statuses;
+	}
+
+	public void setStatuses(Set<TaskExecutionStatus> statuses) {
+		this.statuses = statuses;
+	}
+
+	public String getTaskName() {
+		return taskName;
+	}
+
+	public void setTaskName(String taskName) {
+		this.taskName = taskName;
+	}
+}
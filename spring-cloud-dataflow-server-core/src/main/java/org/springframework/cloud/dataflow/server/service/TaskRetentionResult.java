@@ -0,0 +1,72 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.service;
+
+/**
+ * Outcome of a {@link TaskRetentionService#purge(TaskRetentionPolicy)} run.
+ */
+public class TaskRetentionResult {
+
+	private final long taskExecutions;
+
+	private final long jobExecutions;
+
+	private final int chunks;
+
+	private final long durationMillis;
+
+	public TaskRetentionResult(long taskExecutions, long jobExecutions, int chunks, long durationMillis) {
+		this.taskExecutions = taskExecutions;
+		this.jobExecutions = jobExecutions;
+		this.chunks = chunks;
+		this.durationMillis = durationMillis;
+	}
+
+	/**
+	 * @return the number of task executions removed
+	 */
+	public long getTaskExecutions() {
+		return taskExecutions;
+	}
+
+	/**
+	 * @return the number of job executions removed along with their task executions
+	 */
+	public long getJobExecutions() {
+		return jobExecutions;
+	}
+
+	/**
+	 * @return the number of transactions the removal was split into
+	 */
+	public int getChunks() {
+		return chunks;
+	}
+
+	/**
+	 * @return the time the run took in milliseconds
+	 */
+	public long getDurationMillis() {
+		return durationMillis;
+	}
+
+	@Override
+	public String toString() {
+		return "TaskRetentionResult{taskExecutions=" + taskExecutions + ", jobExecutions=" + jobExecutions
+				+ ", chunks=" + chunks + ", durationMillis=" + durationMillis + "}";
+	}
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.service;
+
+/**
+ * Removes task executions, together with their parameters and the batch job executions
+ * they launched, according to a {@link TaskRetentionPolicy}.
+ */
+public interface TaskRetentionService {
+
+	/**
+	 * Remove the task executions matched by the given policy. Rows are deleted in bounded
+	 * chunks, each in its own transaction, so a large purge neither holds long running
+	 * locks nor loses the work already done when it fails part way.
+	 *
+	 * @param policy the policy selecting the executions to remove
+	 * @return the outcome of the purge
+	 */
+	TaskRetentionResult purge(TaskRetentionPolicy policy);
+}
@@ -0,0 +1,313 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.service.impl;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.boot.actuate.metrics.GaugeService;
+import org.springframework.cloud.dataflow.registry.AppRegistryCommon;
+import org.springframework.cloud.dataflow.registry.domain.AppRegistration;
+import org.springframework.cloud.dataflow.server.service.AppMetadataPrefetchProperties;
+import org.springframework.cloud.dataflow.server.service.AppMetadataPrefetchStatus;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+/**
+ * Fetches the metadata artifacts of newly registered apps in the background, so that the
+ * first request needing their metadata does not wait for the download.
+ * <p>
+ * Artifacts are queued by metadata URI, which drops requests for artifacts that are
+ * already queued or being fetched, and the queue is bounded: artifacts that do not fit
+ * are fetched when first used instead. Queued artifacts are started in order on a
+ * dedicated pool, skipping those whose repository host already has the maximum number of
+ * downloads in flight. Failed downloads are retried with an exponential backoff. Queue
+ * depth, throughput and failures are published through the optional
+ * {@link CounterService} and {@link GaugeService} and are available from
+ * {@link #getStatus()}.
+ */
+public class AppMetadataPrefetcher implements DisposableBean {
+
+	private static final Logger logger = LoggerFactory.getLogger(AppMetadataPrefetcher.class);
+
+	static final String METRIC_PREFIX = "app.metadata.prefetch.";
+
+	private static final int RECENT_FAILURES = 20;
+
+	private final AppRegistryCommon appRegistry;
+
+	private final AppMetadataPrefetchProperties properties;
+
+	private final CounterService counterService;
+
+	private final GaugeService gaugeService;
+
+	private final ScheduledExecutorService executor;
+
+	private final Object monitor = new Object();
+
+	private final Map<URI, Fetch> queue = new LinkedHashMap<>();
+
+	/**
+	 * Artifacts being fetched or waiting for a retry.
+	 */
+	private final Set<URI> active = new HashSet<>();
+
+	private final Map<String, Integer> inFlightByHost = new HashMap<>();
+
+	private final Map<String, String> recentFailures = new LinkedHashMap<String, String>() {
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+			return size() > RECENT_FAILURES;
+		}
+	};
+
+	private int inFlight;
+
+	private int waitingForRetry;
+
+	private long submitted;
+
+	private long completed;
+
+	private long failed;
+
+	private long retried;
+
+	private long rejected;
+
+	private long deduplicated;
+
+	private long downloadedBytes;
+
+	private long downloadMillis;
+
+	/**
+	 * Create an {@link AppMetadataPrefetcher}.
+	 *
+	 * @param appRegistry the registry resolving metadata resources
+	 * @param properties the pool, queue and retry settings
+	 * @param counterService receives the number of fetched and failed artifacts, may be
+	 * {@code null}
+	 * @param gaugeService receives the queue depth and throughput, may be {@code null}
+	 */
+	public AppMetadataPrefetcher(AppRegistryCommon appRegistry, AppMetadataPrefetchProperties properties,
+			CounterService counterService, GaugeService gaugeService) {
+		Assert.notNull(appRegistry, "appRegistry must not be null");
+		Assert.notNull(properties, "properties must not be null");
+		Assert.isTrue(properties.getThreads() > 0, "threads must be greater than 0");
+		Assert.isTrue(properties.getPerHostConcurrency() > 0, "perHostConcurrency must be greater than 0");
+		Assert.isTrue(properties.getMaxAttempts() > 0, "maxAttempts must be greater than 0");
+		this.appRegistry = appRegistry;
+		this.properties = properties;
+		this.counterService = counterService;
+		this.gaugeService = gaugeService;
+		this.executor = new ScheduledThreadPoolExecutor(properties.getThreads(),
+				new CustomizableThreadFactory("metadata-prefetch-"));
+	}
+
+	/**
+	 * Queue the metadata artifacts of the given registrations. Registrations without an
+	 * explicit metadata URI are ignored.
+	 *
+	 * @param registrations the registrations to prefetch metadata for
+	 */
+	public void prefetch(Collection<AppRegistration> registrations) {
+		synchronized (this.monitor) {
+			for (AppRegistration registration : registrations) {
+				URI uri = registration.getMetadataUri();
+				if (uri == null) {
+					continue;
+				}
+				if (this.queue.containsKey(uri) || this.active.contains(uri)) {
+					this.deduplicated++;
+					increment("deduplicated");
+				}
+				else if (this.queue.size() + this.waitingForRetry >= this.properties.getQueueCapacity()) {
+					this.rejected++;
+					increment("rejected");
+					logger.debug("Prefetch queue is full, not fetching {}", uri);
+				}
+				else {
+					this.queue.put(uri, new Fetch(registration, hostOf(uri)));
+					this.submitted++;
+					increment("submitted");
+				}
+			}
+		}
+		dispatch();
+	}
+
+	public AppMetadataPrefetchStatus getStatus() {
+		synchronized (this.monitor) {
+			return new AppMetadataPrefetchStatus(this.queue.size() + this.waitingForRetry, this.inFlight,
+					new HashMap<>(this.inFlightByHost), this.submitted, this.completed, this.failed, this.retried,
+					this.rejected, this.deduplicated, this.downloadedBytes, this.downloadMillis,
+					new LinkedHashMap<>(this.recentFailures));
+		}
+	}
+
+	@Override
+	public void destroy() {
+		this.executor.shutdownNow();
+	}
+
+	/**
+	 * Start queued fetches, in order, as long as threads and host limits allow.
+	 */
+	private void dispatch() {
+		synchronized (this.monitor) {
+			if (this.executor.isShutdown()) {
+				return;
+			}
+			Iterator<Fetch> iterator = this.queue.values().iterator();
+			while (iterator.hasNext() && this.inFlight < this.properties.getThreads()) {
+				Fetch fetch = iterator.next();
+				int hostInFlight = this.inFlightByHost.getOrDefault(fetch.host, 0);
+				if (hostInFlight >= this.properties.getPerHostConcurrency()) {
+					continue;
+				}
+				iterator.remove();
+				this.inFlightByHost.put(fetch.host, hostInFlight + 1);
+				this.inFlight++;
+				this.active.add(fetch.uri);
+				this.executor.execute(() -> run(fetch));
+			}
+			submitGauge("queued", this.queue.size() + this.waitingForRetry);
+			submitGauge("in-flight", this.inFlight);
+		}
+	}
+
+	private void run(Fetch fetch) {
+		fetch.attempts++;
+		logger.info("Eagerly fetching {}", fetch.uri);
+		long start = System.currentTimeMillis();
+		Exception failure = null;
+		long bytes = 0;
+		try {
+			Resource resource = this.appRegistry.getAppMetadataResource(fetch.registration);
+			// resolving through the registry records the outcome in its caches
+			bytes = this.appRegistry.getResourceFile(resource).length();
+		}
+		catch (Exception e) {
+			failure = e;
+		}
+		long duration = System.currentTimeMillis() - start;
+		synchronized (this.monitor) {
+			this.inFlight--;
+			int hostInFlight = this.inFlightByHost.get(fetch.host) - 1;
+			if (hostInFlight == 0) {
+				this.inFlightByHost.remove(fetch.host);
+			}
+			else {
+				this.inFlightByHost.put(fetch.host, hostInFlight);
+			}
+			if (failure == null) {
+				this.active.remove(fetch.uri);
+				this.completed++;
+				this.downloadedBytes += bytes;
+				this.downloadMillis += duration;
+				increment("completed");
+				if (duration > 0) {
+					submitGauge("bytes-per-second", bytes * 1000 / duration);
+				}
+			}
+			else if (fetch.attempts < this.properties.getMaxAttempts() && !this.executor.isShutdown()) {
+				long backoff = this.properties.getInitialBackoff() << (fetch.attempts - 1);
+				logger.debug("Could not fetch {}, retrying in {}ms", fetch.uri, backoff, failure);
+				this.waitingForRetry++;
+				this.retried++;
+				increment("retried");
+				this.executor.schedule(() -> requeue(fetch), backoff, TimeUnit.MILLISECONDS);
+			}
+			else {
+				logger.warn("Could not fetch " + fetch.uri, failure);
+				this.active.remove(fetch.uri);
+				this.failed++;
+				this.recentFailures.remove(fetch.uri.toString());
+				this.recentFailures.put(fetch.uri.toString(), String.valueOf(failure.getMessage()));
+				increment("failed");
+			}
+		}
+		dispatch();
+	}
+
+	private void requeue(Fetch fetch) {
+		synchronized (this.monitor) {
+			this.waitingForRetry--;
+			this.active.remove(fetch.uri);
+			this.queue.put(fetch.uri, fetch);
+		}
+		dispatch();
+	}
+
+	/**
+	 * Returns the host an artifact is downloaded from, or its scheme for URIs such as
+	 * {@code maven://} coordinates that do not name one.
+	 */
+	static String hostOf(URI uri) {
+		if (uri.getHost() != null) {
+			return uri.getHost();
+		}
+		return uri.getScheme() != null ? uri.getScheme() : "";
+	}
+
+	private void increment(String name) {
+		if (this.counterService != null) {
+			this.counterService.increment(METRIC_PREFIX + name);
+		}
+	}
+
+	private void submitGauge(String name, double value) {
+		if (this.gaugeService != null) {
+			this.gaugeService.submit(METRIC_PREFIX + name, value);
+		}
+	}
+
+	private static class Fetch {
+
+		private final AppRegistration registration;
+
+		private final URI uri;
+
+		private final String host;
+
+		private int attempts;
+
+		Fetch(AppRegistration registration, String host) {
+			this.registration = registration;
+			this.uri = registration.getMetadataUri();
+			this.host = host;
+		}
+	}
+}
@@ -16,13 +16,30 @@
 
 package org.springframework.cloud.dataflow.server.service.impl;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.configurationmetadata.ConfigurationMetadataProperty;
 import org.springframework.cloud.dataflow.configuration.metadata.ApplicationConfigurationMetadataResolver;
 import org.springframework.cloud.dataflow.core.ApplicationType;
 import org.springframework.cloud.dataflow.core.TaskDefinition;
@@ -30,7 +47,11 @@ import org.springframework.cloud.dataflow.core.dsl.TaskNode;
 import org.springframework.cloud.dataflow.core.dsl.TaskParser;
 import org.springframework.cloud.dataflow.registry.AppRegistryCommon;
 import org.springframework.cloud.dataflow.registry.domain.AppRegistration;
+import org.springframework.cloud.dataflow.rest.CreateScheduleRequest;
+import org.springframework.cloud.dataflow.rest.ScheduleResult;
 import org.springframework.cloud.dataflow.rest.util.DeploymentPropertiesUtils;
+import org.springframework.cloud.dataflow.server.cluster.ClusterChangeEvent;
+import org.springframework.cloud.dataflow.server.cluster.ClusterCoordinator;
 import org.springframework.cloud.dataflow.server.config.apps.CommonApplicationProperties;
 import org.springframework.cloud.dataflow.server.controller.WhitelistProperties;
 import org.springframework.cloud.dataflow.server.repository.NoSuchTaskDefinitionException;
@@ -41,20 +62,42 @@ import org.springframework.cloud.deployer.spi.core.AppDefinition;
 import org.springframework.cloud.scheduler.spi.core.ScheduleInfo;
 import org.springframework.cloud.scheduler.spi.core.ScheduleRequest;
 import org.springframework.cloud.scheduler.spi.core.Scheduler;
+import org.springframework.context.ApplicationListener;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 
 /**
  * Default implementation of the {@link SchedulerService} interface. Provide service methods
  * for Scheduling tasks.
+ * <p>
+ * Schedules are read from a {@link ScheduleCatalog} that is updated by {@link #schedule}
+ * and {@link #unschedule} and reconciled with the {@link Scheduler} in the background every
+ * {@link SchedulerServiceProperties#getCatalogRefreshInterval()}, so that looking up or
+ * paging through schedules does not list all schedules of the platform. Only one
+ * reconciliation runs at a time; lookups only wait for one until the catalog has been
+ * loaded for the first time, and fail rather than serve an empty catalog if it cannot be.
+ * When a {@link ClusterCoordinator} is set, the catalog is also reconciled right after
+ * another server of the cluster changed the schedules.
  *
  * @author Glenn Renfro
  * @author Chris Schaefer
  */
-public class DefaultSchedulerService implements SchedulerService {
+public class DefaultSchedulerService implements SchedulerService, ApplicationListener<ClusterChangeEvent>,
+		DisposableBean {
+
+	/**
+	 * Topic published to the other servers when schedules were created or removed.
+	 */
+	public static final String SCHEDULES_TOPIC = "SCHEDULES";
+
+	private static final Logger logger = LoggerFactory.getLogger(DefaultSchedulerService.class);
+
+	private static final int RECONCILE_ATTEMPTS = 3;
 
 	private CommonApplicationProperties commonApplicationProperties;
 	private Scheduler scheduler;
@@ -65,6 +108,14 @@ public class DefaultSchedulerService implements SchedulerService {
 	private final String dataflowServerUri;
 	private final WhitelistProperties whitelistProperties;
 	private final SchedulerServiceProperties schedulerServiceProperties;
+	private final ApplicationConfigurationMetadataResolver metaDataResolver;
+	private final ScheduleCatalog scheduleCatalog = new ScheduleCatalog();
+	private ClusterCoordinator clusterCoordinator;
+	private final AtomicBoolean changedByCluster = new AtomicBoolean();
+	private final AtomicBoolean reconcileQueued = new AtomicBoolean();
+	private final ReentrantLock reconcileLock = new ReentrantLock();
+	private ScheduledExecutorService reconciler;
+	private AsyncTaskExecutor bulkExecutor;
 
 	public DefaultSchedulerService(CommonApplicationProperties commonApplicationProperties,
 			Scheduler scheduler, TaskDefinitionRepository taskDefinitionRepository,
@@ -90,15 +141,216 @@ public class DefaultSchedulerService implements SchedulerService {
 		this.registry = registry;
 		this.taskConfigurationProperties = taskConfigurationProperties;
 		this.dataflowServerUri = dataflowServerUri;
+		this.metaDataResolver = metaDataResolver;
 		this.whitelistProperties = new WhitelistProperties(metaDataResolver);
 		this.schedulerServiceProperties = schedulerServiceProperties;
 	}
 
+	/**
+	 * Set the coordinator through which schedule changes are exchanged with the other
+	 * servers sharing the database.
+	 *
+	 * @param clusterCoordinator the cluster coordinator
+	 */
+	public void setClusterCoordinator(ClusterCoordinator clusterCoordinator) {
+		this.clusterCoordinator = clusterCoordinator;
+	}
+
+	/**
+	 * Set the executor on which the calls to the {@link Scheduler} of bulk requests run,
+	 * shared by all requests so that it bounds the calls made at a time. Without one, the
+	 * calls run one after the other on the requesting thread.
+	 *
+	 * @param bulkExecutor the executor of bulk scheduler calls
+	 */
+	public void setBulkExecutor(AsyncTaskExecutor bulkExecutor) {
+		this.bulkExecutor = bulkExecutor;
+	}
+
+	@Override
+	public void onApplicationEvent(ClusterChangeEvent event) {
+		if (SCHEDULES_TOPIC.equals(event.getTopic())) {
+			this.changedByCluster.set(true);
+			reconcileSoon();
+		}
+	}
+
+	@Override
+	public void destroy() {
+		synchronized (this) {
+			if (this.reconciler != null) {
+				this.reconciler.shutdownNow();
+			}
+		}
+	}
+
 	@Override
 	public void schedule(String scheduleName, String taskDefinitionName, Map<String, String> taskDeploymentProperties,
 			List<String> commandLineArgs) {
 		Assert.hasText(taskDefinitionName, "The provided taskName must not be null or empty.");
 		Assert.notNull(taskDeploymentProperties, "The provided taskDeploymentProperties must not be null.");
+		ResolvedTaskDefinition resolvedTaskDefinition = resolve(taskDefinitionName, this.whitelistProperties);
+		ScheduleRequest scheduleRequest = createScheduleRequest(resolvedTaskDefinition, scheduleName,
+				taskDeploymentProperties, commandLineArgs);
+		this.scheduler.schedule(scheduleRequest);
+		addToCatalog(scheduleRequest, taskDefinitionName);
+	}
+
+	@Override
+	public List<ScheduleResult> schedule(List<CreateScheduleRequest> createScheduleRequests) {
+		Assert.notNull(createScheduleRequests, "createScheduleRequests must not be null");
+		// the metadata of an app is read once for all schedules of this request
+		WhitelistProperties bulkWhitelistProperties = new WhitelistProperties(
+				new CachingMetadataResolver(this.metaDataResolver));
+		Map<String, ResolvedTaskDefinition> resolvedTaskDefinitions = new HashMap<>();
+		Map<String, String> resolutionFailures = new HashMap<>();
+		List<Callable<ScheduleResult>> calls = new ArrayList<>(createScheduleRequests.size());
+		for (CreateScheduleRequest request : createScheduleRequests) {
+			String scheduleName = request.getScheduleName();
+			String taskDefinitionName = request.getTaskDefinitionName();
+			if (!StringUtils.hasText(scheduleName) || !StringUtils.hasText(taskDefinitionName)) {
+				ScheduleResult result = ScheduleResult.failed(scheduleName, taskDefinitionName,
+						"scheduleName and taskDefinitionName must not be null or empty");
+				calls.add(() -> result);
+				continue;
+			}
+			if (!resolvedTaskDefinitions.containsKey(taskDefinitionName)
+					&& !resolutionFailures.containsKey(taskDefinitionName)) {
+				try {
+					resolvedTaskDefinitions.put(taskDefinitionName, resolve(taskDefinitionName, bulkWhitelistProperties));
+				}
+				catch (RuntimeException e) {
+					resolutionFailures.put(taskDefinitionName, e.getMessage());
+				}
+			}
+			ResolvedTaskDefinition resolvedTaskDefinition = resolvedTaskDefinitions.get(taskDefinitionName);
+			if (resolvedTaskDefinition == null) {
+				ScheduleResult result = ScheduleResult.failed(scheduleName, taskDefinitionName,
+						resolutionFailures.get(taskDefinitionName));
+				calls.add(() -> result);
+				continue;
+			}
+			Map<String, String> properties = request.getProperties() != null ? request.getProperties()
+					: new HashMap<>();
+			List<String> arguments = request.getArguments() != null ? new ArrayList<>(request.getArguments())
+					: new ArrayList<>();
+			calls.add(() -> {
+				try {
+					ScheduleRequest scheduleRequest = createScheduleRequest(resolvedTaskDefinition, scheduleName,
+							properties, arguments);
+					this.scheduler.schedule(scheduleRequest);
+					addToCatalog(scheduleRequest, taskDefinitionName);
+					return ScheduleResult.succeeded(scheduleName, taskDefinitionName);
+				}
+				catch (RuntimeException e) {
+					logger.debug("Failed to create schedule " + scheduleName, e);
+					return ScheduleResult.failed(scheduleName, taskDefinitionName, e.getMessage());
+				}
+			});
+		}
+		return invokeAll(calls);
+	}
+
+	@Override
+	public void unschedule(String scheduleName) {
+		this.scheduler.unschedule(scheduleName);
+		this.scheduleCatalog.remove(scheduleName);
+		publishChange();
+	}
+
+	@Override
+	public List<ScheduleResult> unschedule(List<String> scheduleNames) {
+		Assert.notNull(scheduleNames, "scheduleNames must not be null");
+		List<Callable<ScheduleResult>> calls = new ArrayList<>(scheduleNames.size());
+		for (String scheduleName : scheduleNames) {
+			calls.add(() -> {
+				ScheduleInfo scheduleInfo = scheduleName != null ? this.scheduleCatalog.get(scheduleName) : null;
+				String taskDefinitionName = scheduleInfo != null ? scheduleInfo.getTaskDefinitionName() : null;
+				try {
+					Assert.hasText(scheduleName, "scheduleName must not be null or empty");
+					unschedule(scheduleName);
+					return ScheduleResult.succeeded(scheduleName, taskDefinitionName);
+				}
+				catch (RuntimeException e) {
+					logger.debug("Failed to remove schedule " + scheduleName, e);
+					return ScheduleResult.failed(scheduleName, taskDefinitionName, e.getMessage());
+				}
+			});
+		}
+		return invokeAll(calls);
+	}
+
+	@Override
+	public List<ScheduleInfo> list(Pageable pageable, String taskDefinitionName) {
+		Assert.notNull(pageable, "pageable must not be null");
+		return currentScheduleCatalog().list(taskDefinitionName, pageable.getOffset(), pageable.getPageSize());
+	}
+
+	@Override
+	public List<ScheduleInfo> list(Pageable pageable) {
+		Assert.notNull(pageable, "pageable must not be null");
+		return currentScheduleCatalog().list(pageable.getOffset(), pageable.getPageSize());
+	}
+
+	@Override
+	public List<ScheduleInfo> list(String taskDefinitionName) {
+		return currentScheduleCatalog().list(taskDefinitionName, 0,
+				this.schedulerServiceProperties.getMaxSchedulesReturned());
+	}
+
+	@Override
+	public List<ScheduleInfo> list() {
+		return currentScheduleCatalog().list(0, this.schedulerServiceProperties.getMaxSchedulesReturned());
+	}
+
+	@Override
+	public ScheduleInfo getSchedule(String scheduleName) {
+		return currentScheduleCatalog().get(scheduleName);
+	}
+
+	/**
+	 * Replace the content of the schedule catalog with the schedules currently known to the
+	 * {@link Scheduler}, waiting for a reconciliation that is running already.
+	 */
+	public void reconcile() {
+		this.reconcileLock.lock();
+		try {
+			doReconcile();
+		}
+		finally {
+			this.reconcileLock.unlock();
+		}
+	}
+
+	/**
+	 * Must be called while holding the reconcile lock. A change announced by the cluster
+	 * is only considered handled once a snapshot taken after it has been applied.
+	 */
+	private void doReconcile() {
+		boolean changedByCluster = this.changedByCluster.getAndSet(false);
+		boolean reconciled = false;
+		try {
+			for (int attempt = 0; attempt < RECONCILE_ATTEMPTS && !reconciled; attempt++) {
+				long version = this.scheduleCatalog.getVersion();
+				List<ScheduleInfo> schedules = this.scheduler.list();
+				reconciled = this.scheduleCatalog.replaceAll(schedules, version);
+			}
+			if (!reconciled) {
+				logger.debug("Schedule catalog changed while reconciling, keeping the local schedules until the next attempt");
+			}
+		}
+		finally {
+			if (!reconciled && changedByCluster) {
+				this.changedByCluster.set(true);
+			}
+		}
+	}
+
+	/**
+	 * Resolve everything about a task definition that does not depend on the schedule:
+	 * the definition itself, its app registration and the resources to run it with.
+	 */
+	private ResolvedTaskDefinition resolve(String taskDefinitionName, WhitelistProperties whitelistProperties) {
 		TaskDefinition taskDefinition = this.taskDefinitionRepository.findOne(taskDefinitionName);
 		if (taskDefinition == null) {
 			throw new NoSuchTaskDefinitionException(taskDefinitionName);
@@ -111,7 +363,6 @@ public class DefaultSchedulerService implements SchedulerService {
 			taskDefinition = new TaskDefinition(taskDefinition.getName(),
 					TaskServiceUtils.createComposedTaskDefinition(
 							taskNode.toExecutableDSL(), this.taskConfigurationProperties));
-			taskDeploymentProperties = TaskServiceUtils.establishComposedTaskProperties(taskDeploymentProperties, taskNode);
 		}
 
 		AppRegistration appRegistration = this.registry.find(taskDefinition.getRegisteredAppName(),
@@ -120,6 +371,17 @@ public class DefaultSchedulerService implements SchedulerService {
 		Resource metadataResource = this.registry.getAppMetadataResource(appRegistration);
 
 		taskDefinition = TaskServiceUtils.updateTaskProperties(taskDefinition, this.dataSourceProperties);
+		return new ResolvedTaskDefinition(taskDefinition, taskNode, metadataResource,
+				getTaskResource(taskDefinitionName), whitelistProperties);
+	}
+
+	private ScheduleRequest createScheduleRequest(ResolvedTaskDefinition resolvedTaskDefinition, String scheduleName,
+			Map<String, String> taskDeploymentProperties, List<String> commandLineArgs) {
+		TaskDefinition taskDefinition = resolvedTaskDefinition.taskDefinition;
+		TaskNode taskNode = resolvedTaskDefinition.taskNode;
+		if (taskNode.isComposed()) {
+			taskDeploymentProperties = TaskServiceUtils.establishComposedTaskProperties(taskDeploymentProperties, taskNode);
+		}
 
 		Map<String, String> appDeploymentProperties = new HashMap<>(commonApplicationProperties.getTask());
 		appDeploymentProperties.putAll(
@@ -130,57 +392,148 @@ public class DefaultSchedulerService implements SchedulerService {
 		if (StringUtils.hasText(this.dataflowServerUri) && taskNode.isComposed()) {
 			TaskServiceUtils.updateDataFlowUriIfNeeded(this.dataflowServerUri, appDeploymentProperties, commandLineArgs);
 		}
-		AppDefinition revisedDefinition = TaskServiceUtils.mergeAndExpandAppProperties(taskDefinition, metadataResource,
-				appDeploymentProperties, whitelistProperties);
+		AppDefinition revisedDefinition = TaskServiceUtils.mergeAndExpandAppProperties(taskDefinition,
+				resolvedTaskDefinition.metadataResource, appDeploymentProperties,
+				resolvedTaskDefinition.whitelistProperties);
 		DeploymentPropertiesUtils.validateDeploymentProperties(taskDeploymentProperties);
 		taskDeploymentProperties = extractAndQualifySchedulerProperties(taskDeploymentProperties);
-		ScheduleRequest scheduleRequest = new ScheduleRequest(revisedDefinition, taskDeploymentProperties,
-				deployerDeploymentProperties, commandLineArgs, scheduleName, getTaskResource(taskDefinitionName));
-		this.scheduler.schedule(scheduleRequest);
+		return new ScheduleRequest(revisedDefinition, taskDeploymentProperties,
+				deployerDeploymentProperties, commandLineArgs, scheduleName, resolvedTaskDefinition.taskResource);
 	}
 
-	@Override
-	public void unschedule(String scheduleName) {
-		this.scheduler.unschedule(scheduleName);
+	private void addToCatalog(ScheduleRequest scheduleRequest, String taskDefinitionName) {
+		ScheduleInfo scheduleInfo = new ScheduleInfo();
+		scheduleInfo.setScheduleName(scheduleRequest.getScheduleName());
+		scheduleInfo.setTaskDefinitionName(taskDefinitionName);
+		scheduleInfo.setScheduleProperties(scheduleRequest.getSchedulerProperties());
+		this.scheduleCatalog.put(scheduleInfo);
+		publishChange();
 	}
 
-	@Override
-	public List<ScheduleInfo> list(Pageable pageable, String taskDefinitionName) {
-		throw new UnsupportedOperationException("method not supported");
+	private void publishChange() {
+		if (this.clusterCoordinator != null) {
+			this.clusterCoordinator.publish(SCHEDULES_TOPIC);
+		}
 	}
 
-	@Override
-	public List<ScheduleInfo> list(Pageable pageable) {
-		throw new UnsupportedOperationException("method not supported");
+	/**
+	 * Run the given calls to the {@link Scheduler} on the {@link #setBulkExecutor(AsyncTaskExecutor)
+	 * bulk executor}, returning their results in order.
+	 */
+	private List<ScheduleResult> invokeAll(List<Callable<ScheduleResult>> calls) {
+		List<ScheduleResult> results = new ArrayList<>(calls.size());
+		try {
+			if (this.bulkExecutor == null) {
+				for (Callable<ScheduleResult> call : calls) {
+					results.add(call.call());
+				}
+				return results;
+			}
+			List<Future<ScheduleResult>> futures = new ArrayList<>(calls.size());
+			try {
+				for (Callable<ScheduleResult> call : calls) {
+					futures.add(this.bulkExecutor.submit(call));
+				}
+				for (Future<ScheduleResult> future : futures) {
+					results.add(future.get());
+				}
+			}
+			finally {
+				for (Future<ScheduleResult> future : futures) {
+					future.cancel(true);
+				}
+			}
+			return results;
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for the scheduler", e);
+		}
+		catch (ExecutionException e) {
+			throw new IllegalStateException("Failed to call the scheduler", e.getCause());
+		}
+		catch (Exception e) {
+			throw new IllegalStateException("Failed to call the scheduler", e);
+		}
 	}
 
-	@Override
-	public List<ScheduleInfo> list(String taskDefinitionName) {
-		return limitScheduleInfoResultSize(scheduler.list(taskDefinitionName),
-				this.schedulerServiceProperties.getMaxSchedulesReturned());
+	private ScheduleCatalog currentScheduleCatalog() {
+		long requestedAt = System.currentTimeMillis();
+		if (this.schedulerServiceProperties.getCatalogRefreshInterval() <= 0) {
+			reconcileIfOlderThan(requestedAt);
+		}
+		else {
+			startReconciling();
+			if (this.scheduleCatalog.getLastReconciled() < 0) {
+				// never loaded, so there is nothing to serve yet
+				reconcileIfOlderThan(0);
+			}
+		}
+		return this.scheduleCatalog;
 	}
 
-	@Override
-	public List<ScheduleInfo> list() {
-		return limitScheduleInfoResultSize(scheduler.list(),
-				this.schedulerServiceProperties.getMaxSchedulesReturned());
+	/**
+	 * Reconcile the catalog unless it was reconciled since the given time, for example by
+	 * the thread this one waited for.
+	 */
+	private void reconcileIfOlderThan(long time) {
+		this.reconcileLock.lock();
+		try {
+			if (this.scheduleCatalog.getLastReconciled() < time) {
+				doReconcile();
+			}
+		}
+		finally {
+			this.reconcileLock.unlock();
+		}
 	}
 
-	@Override
-	public ScheduleInfo getSchedule(String scheduleName) {
-		List<ScheduleInfo> result = list().stream()
-				.filter(scheduleInfo -> scheduleInfo.getScheduleName().equals(scheduleName))
-				.collect(Collectors.toList());
-		Assert.isTrue(!(result.size() > 1), "more than one schedule was returned for scheduleName, should only be one");
-		return result.size() > 0 ? result.get(0) : null;
+	private synchronized void startReconciling() {
+		if (this.reconciler == null) {
+			this.reconciler = new ScheduledThreadPoolExecutor(1, new CustomizableThreadFactory("schedule-catalog-"));
+			long interval = this.schedulerServiceProperties.getCatalogRefreshInterval();
+			if (interval > 0) {
+				this.reconciler.scheduleWithFixedDelay(this::poll, interval, interval, TimeUnit.MILLISECONDS);
+			}
+		}
 	}
 
-	private List<ScheduleInfo> limitScheduleInfoResultSize(List<ScheduleInfo> resultSet,
-			int schedulerLimitResultSize) {
-		if(resultSet.size() > schedulerLimitResultSize) {
-			resultSet = resultSet.subList(0, schedulerLimitResultSize);
+	/**
+	 * Have the background thread reconcile the catalog without waiting for the next poll,
+	 * unless a reconciliation is queued already.
+	 */
+	private void reconcileSoon() {
+		startReconciling();
+		if (this.reconcileQueued.compareAndSet(false, true)) {
+			try {
+				this.reconciler.execute(() -> {
+					this.reconcileQueued.set(false);
+					poll();
+				});
+			}
+			catch (RejectedExecutionException e) {
+				// shutting down
+				this.reconcileQueued.set(false);
+			}
+		}
+	}
+
+	private void poll() {
+		this.reconcileLock.lock();
+		try {
+			// checked while holding the lock, as a lookup may just have reconciled the catalog
+			long lastReconciled = this.scheduleCatalog.getLastReconciled();
+			if (this.changedByCluster.get() || lastReconciled < 0 || System.currentTimeMillis() - lastReconciled
+					>= this.schedulerServiceProperties.getCatalogRefreshInterval()) {
+				doReconcile();
+			}
+		}
+		catch (RuntimeException e) {
+			logger.warn("Failed to reconcile the schedule catalog with the scheduler, serving the local schedules", e);
+		}
+		finally {
+			this.reconcileLock.unlock();
 		}
-		return resultSet;
 	}
 
 	/**
@@ -221,4 +574,61 @@ public class DefaultSchedulerService implements SchedulerService {
 		return this.registry.getAppResource(appRegistration);
 	}
 
+	private static class ResolvedTaskDefinition {
+
+		private final TaskDefinition taskDefinition;
+
+		private final TaskNode taskNode;
+
+		private final Resource metadataResource;
+
+		private final Resource taskResource;
+
+		private final WhitelistProperties whitelistProperties;
+
+		ResolvedTaskDefinition(TaskDefinition taskDefinition, TaskNode taskNode, Resource metadataResource,
+				Resource taskResource, WhitelistProperties whitelistProperties) {
+			this.taskDefinition = taskDefinition;
+			this.taskNode = taskNode;
+			this.metadataResource = metadataResource;
+			this.taskResource = taskResource;
+			this.whitelistProperties = whitelistProperties;
+		}
+	}
+
+	/**
+	 * Remembers the properties listed for each metadata resource, so that the app is
+	 * only inspected once per bulk request.
+	 */
+	private static class CachingMetadataResolver extends ApplicationConfigurationMetadataResolver {
+
+		private final ApplicationConfigurationMetadataResolver delegate;
+
+		private final ConcurrentMap<Resource, List<ConfigurationMetadataProperty>> properties = new ConcurrentHashMap<>();
+
+		private final ConcurrentMap<Resource, List<ConfigurationMetadataProperty>> exhaustiveProperties = new ConcurrentHashMap<>();
+
+		CachingMetadataResolver(ApplicationConfigurationMetadataResolver delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public List<ConfigurationMetadataProperty> listProperties(Resource metadataResource, boolean exhaustive) {
+			if (metadataResource == null) {
+				return this.delegate.listProperties(null, exhaustive);
+			}
+			// list outside of the map, as inspecting an app may take a while
+			ConcurrentMap<Resource, List<ConfigurationMetadataProperty>> cache = exhaustive
+					? this.exhaustiveProperties : this.properties;
+			List<ConfigurationMetadataProperty> listed = cache.get(metadataResource);
+			if (listed == null) {
+				listed = this.delegate.listProperties(metadataResource, exhaustive);
+				List<ConfigurationMetadataProperty> previous = cache.putIfAbsent(metadataResource, listed);
+				if (previous != null) {
+					listed = previous;
+				}
+			}
+			return listed;
+		}
+	}
 }
@@ -46,6 +46,7 @@ import org.springframework.cloud.dataflow.server.service.TaskService;
 import org.springframework.cloud.dataflow.server.service.TaskValidationService;
 import org.springframework.cloud.dataflow.server.service.ValidationStatus;
 import org.springframework.cloud.dataflow.server.support.ApplicationDoesNotExistException;
+import org.springframework.cloud.dataflow.server.support.ChangeVersions;
 import org.springframework.cloud.deployer.spi.core.AppDefinition;
 import org.springframework.cloud.deployer.spi.core.AppDeploymentRequest;
 import org.springframework.cloud.deployer.spi.task.TaskLauncher;
@@ -113,6 +114,8 @@ public class DefaultTaskService implements TaskService {
 
 	protected final AuditRecordService auditRecordService;
 
+	private ChangeVersions changeVersions;
+
 	public static final String TASK_DEFINITION_DSL_TEXT = "taskDefinitionDslText";
 	public static final String TASK_DEPLOYMENT_PROPERTIES = "taskDeploymentProperties";
 	public static final String COMMAND_LINE_ARGS = "commandLineArgs";
@@ -169,6 +172,15 @@ public class DefaultTaskService implements TaskService {
 		this.taskValidationService = taskValidationService;
 	}
 
+	/**
+	 * Set the change counters in which launched task executions are recorded.
+	 *
+	 * @param changeVersions the change counters
+	 */
+	public void setChangeVersions(ChangeVersions changeVersions) {
+		this.changeVersions = changeVersions;
+	}
+
 	@Override
 	public long executeTask(String taskName, Map<String, String> taskDeploymentProperties,
 			List<String> commandLineArgs) {
@@ -204,6 +216,9 @@ public class DefaultTaskService implements TaskService {
 		Resource metadataResource = this.registry.getAppMetadataResource(appRegistration);
 
 		TaskExecution taskExecution = taskExecutionRepository.createTaskExecution(taskName);
+		if (this.changeVersions != null) {
+			this.changeVersions.changed(ChangeVersions.Domain.TASK_EXECUTIONS);
+		}
 		taskDefinition = TaskServiceUtils.updateTaskProperties(taskDefinition,
 				dataSourceProperties);
 
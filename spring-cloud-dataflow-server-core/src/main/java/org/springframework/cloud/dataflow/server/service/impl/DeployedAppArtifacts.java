@@ -0,0 +1,115 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.service.impl;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.cloud.dataflow.core.ApplicationType;
+import org.springframework.cloud.dataflow.core.StreamAppDefinition;
+import org.springframework.cloud.dataflow.core.StreamDefinition;
+import org.springframework.cloud.dataflow.core.StreamDeployment;
+import org.springframework.cloud.dataflow.core.TaskDefinition;
+import org.springframework.cloud.dataflow.registry.AppRegistryCommon;
+import org.springframework.cloud.dataflow.registry.domain.AppRegistration;
+import org.springframework.cloud.dataflow.server.repository.StreamDefinitionRepository;
+import org.springframework.cloud.dataflow.server.repository.StreamDeploymentRepository;
+import org.springframework.cloud.dataflow.server.repository.TaskDefinitionRepository;
+import org.springframework.cloud.task.repository.TaskExplorer;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.util.Assert;
+
+/**
+ * Determines the artifact URIs of the apps that are currently deployed by this server,
+ * so that they are kept in the {@link org.springframework.cloud.dataflow.registry.support.ArtifactCache}.
+ * <p>
+ * These are all registered versions of the apps of deployed streams and of tasks with a
+ * running execution. Protecting every version errs on the side of keeping artifacts, as
+ * the version a stream was deployed with is not recorded. Streams and tasks are only
+ * considered if the corresponding repositories are available.
+ */
+public class DeployedAppArtifacts {
+
+	private final AppRegistryCommon appRegistry;
+
+	private final StreamDefinitionRepository streamDefinitionRepository;
+
+	private final StreamDeploymentRepository streamDeploymentRepository;
+
+	private final TaskDefinitionRepository taskDefinitionRepository;
+
+	private final TaskExplorer taskExplorer;
+
+	public DeployedAppArtifacts(AppRegistryCommon appRegistry, StreamDefinitionRepository streamDefinitionRepository,
+			StreamDeploymentRepository streamDeploymentRepository, TaskDefinitionRepository taskDefinitionRepository,
+			TaskExplorer taskExplorer) {
+		Assert.notNull(appRegistry, "AppRegistryCommon must not be null");
+		this.appRegistry = appRegistry;
+		this.streamDefinitionRepository = streamDefinitionRepository;
+		this.streamDeploymentRepository = streamDeploymentRepository;
+		this.taskDefinitionRepository = taskDefinitionRepository;
+		this.taskExplorer = taskExplorer;
+	}
+
+	/**
+	 * @return the app and metadata URIs of the deployed apps
+	 */
+	public Set<String> getUris() {
+		Set<String> deployedApps = new HashSet<>();
+		if (this.streamDefinitionRepository != null && this.streamDeploymentRepository != null) {
+			List<String> streamNames = new ArrayList<>();
+			for (StreamDeployment streamDeployment : this.streamDeploymentRepository.findAll()) {
+				streamNames.add(streamDeployment.getStreamName());
+			}
+			if (!streamNames.isEmpty()) {
+				for (StreamDefinition streamDefinition : this.streamDefinitionRepository.findAll(streamNames)) {
+					for (StreamAppDefinition appDefinition : streamDefinition.getAppDefinitions()) {
+						deployedApps.add(key(appDefinition.getRegisteredAppName(), appDefinition.getApplicationType()));
+					}
+				}
+			}
+		}
+		if (this.taskDefinitionRepository != null && this.taskExplorer != null
+				&& this.taskExplorer.getRunningTaskExecutionCount() > 0) {
+			for (TaskDefinition taskDefinition : this.taskDefinitionRepository.findAll()) {
+				if (this.taskExplorer.findRunningTaskExecutions(taskDefinition.getName(), new PageRequest(0, 1))
+						.hasContent()) {
+					deployedApps.add(key(taskDefinition.getRegisteredAppName(), ApplicationType.task));
+				}
+			}
+		}
+		Set<String> uris = new HashSet<>();
+		if (deployedApps.isEmpty()) {
+			return uris;
+		}
+		for (AppRegistration registration : this.appRegistry.findAll()) {
+			if (deployedApps.contains(key(registration.getName(), registration.getType()))) {
+				uris.add(registration.getUri().toString());
+				if (registration.getMetadataUri() != null) {
+					uris.add(registration.getMetadataUri().toString());
+				}
+			}
+		}
+		return uris;
+	}
+
+	private static String key(String name, ApplicationType type) {
+		return type + ":" + name;
+	}
+}
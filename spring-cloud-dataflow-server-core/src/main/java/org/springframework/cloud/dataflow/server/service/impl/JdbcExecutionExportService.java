@@ -0,0 +1,304 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.service.impl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.util.ISO8601Utils;
+
+import org.springframework.cloud.dataflow.server.controller.support.ArgumentSanitizer;
+import org.springframework.cloud.dataflow.server.service.ExecutionExportService;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.util.Assert;
+
+/**
+ * JDBC based {@link ExecutionExportService} that reads directly from the task and batch
+ * tables. Each chunk is selected with {@code WHERE id > ? ORDER BY id} and capped with
+ * {@link PreparedStatement#setMaxRows(int)}, which works on every supported database
+ * without vendor specific paging syntax. As the ids of a chunk are bound to {@code IN}
+ * lists, the chunk size may not exceed {@link #MAX_CHUNK_SIZE}.
+ */
+public class JdbcExecutionExportService implements ExecutionExportService {
+
+	/**
+	 * The maximum number of rows read per query, as some databases limit {@code IN} lists
+	 * to 1000 elements.
+	 */
+	public static final int MAX_CHUNK_SIZE = 1000;
+
+	private static final String TASK_EXECUTIONS_AFTER = "SELECT TASK_EXECUTION_ID, START_TIME, END_TIME, "
+			+ "TASK_NAME, EXIT_CODE, EXIT_MESSAGE, ERROR_MESSAGE, EXTERNAL_EXECUTION_ID "
+			+ "FROM TASK_EXECUTION WHERE TASK_EXECUTION_ID > ? ORDER BY TASK_EXECUTION_ID ASC";
+
+	private static final String TASK_PARAMS_BY_IDS = "SELECT TASK_EXECUTION_ID, TASK_PARAM "
+			+ "FROM TASK_EXECUTION_PARAMS WHERE TASK_EXECUTION_ID IN (:ids)";
+
+	private static final String TASK_JOB_IDS_BY_IDS = "SELECT TASK_EXECUTION_ID, JOB_EXECUTION_ID "
+			+ "FROM TASK_TASK_BATCH WHERE TASK_EXECUTION_ID IN (:ids)";
+
+	private static final String JOB_EXECUTIONS_AFTER = "SELECT E.JOB_EXECUTION_ID, E.JOB_INSTANCE_ID, "
+			+ "I.JOB_NAME, T.TASK_EXECUTION_ID, E.STATUS, E.EXIT_CODE, E.EXIT_MESSAGE, E.CREATE_TIME, "
+			+ "E.START_TIME, E.END_TIME, E.LAST_UPDATED "
+			+ "FROM BATCH_JOB_EXECUTION E "
+			+ "JOIN BATCH_JOB_INSTANCE I ON E.JOB_INSTANCE_ID = I.JOB_INSTANCE_ID "
+			+ "LEFT OUTER JOIN TASK_TASK_BATCH T ON E.JOB_EXECUTION_ID = T.JOB_EXECUTION_ID "
+			+ "WHERE E.JOB_EXECUTION_ID > ? ORDER BY E.JOB_EXECUTION_ID ASC";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+	private final JsonFactory jsonFactory = new JsonFactory();
+
+	private final ArgumentSanitizer argumentSanitizer = new ArgumentSanitizer();
+
+	private final int chunkSize;
+
+	/**
+	 * Create a {@link JdbcExecutionExportService}.
+	 *
+	 * @param dataSource the data source holding the task and batch tables
+	 * @param chunkSize the number of rows read per query
+	 */
+	public JdbcExecutionExportService(DataSource dataSource, int chunkSize) {
+		Assert.notNull(dataSource, "dataSource must not be null");
+		Assert.isTrue(chunkSize > 0, "chunkSize must be greater than 0");
+		Assert.isTrue(chunkSize <= MAX_CHUNK_SIZE, "chunkSize must not be greater than " + MAX_CHUNK_SIZE);
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(this.jdbcTemplate);
+		this.chunkSize = chunkSize;
+	}
+
+	@Override
+	public long exportTaskExecutions(long afterExecutionId, long maxRecords, OutputStream outputStream)
+			throws IOException {
+		JsonGenerator generator = createGenerator(outputStream);
+		long written = 0;
+		long lastId = afterExecutionId;
+		List<Map<String, Object>> chunk;
+		do {
+			chunk = queryChunk(TASK_EXECUTIONS_AFTER, lastId, nextChunkSize(written, maxRecords),
+					new TaskExecutionRowMapper());
+			if (chunk.isEmpty()) {
+				break;
+			}
+			List<Long> ids = new ArrayList<>(chunk.size());
+			for (Map<String, Object> row : chunk) {
+				ids.add((Long) row.get("executionId"));
+			}
+			Map<Long, List<String>> arguments = queryArguments(ids);
+			Map<Long, List<Long>> jobExecutionIds = queryJobExecutionIds(ids);
+			for (Map<String, Object> row : chunk) {
+				Long id = (Long) row.get("executionId");
+				List<String> sanitized = new ArrayList<>();
+				for (String argument : arguments.getOrDefault(id, Collections.emptyList())) {
+					sanitized.add(this.argumentSanitizer.sanitize(argument));
+				}
+				row.put("arguments", sanitized);
+				row.put("jobExecutionIds", jobExecutionIds.getOrDefault(id, Collections.emptyList()));
+				writeRecord(generator, row);
+				lastId = id;
+			}
+			written += chunk.size();
+			generator.flush();
+		}
+		while (chunk.size() == this.chunkSize && (maxRecords < 0 || written < maxRecords));
+		generator.flush();
+		return written;
+	}
+
+	@Override
+	public long exportJobExecutions(long afterExecutionId, long maxRecords, OutputStream outputStream)
+			throws IOException {
+		JsonGenerator generator = createGenerator(outputStream);
+		long written = 0;
+		long lastId = afterExecutionId;
+		List<Map<String, Object>> chunk;
+		do {
+			chunk = queryChunk(JOB_EXECUTIONS_AFTER, lastId, nextChunkSize(written, maxRecords),
+					new JobExecutionRowMapper());
+			for (Map<String, Object> row : chunk) {
+				writeRecord(generator, row);
+				lastId = (Long) row.get("executionId");
+			}
+			written += chunk.size();
+			generator.flush();
+		}
+		while (chunk.size() == this.chunkSize && (maxRecords < 0 || written < maxRecords));
+		generator.flush();
+		return written;
+	}
+
+	private JsonGenerator createGenerator(OutputStream outputStream) throws IOException {
+		JsonGenerator generator = this.jsonFactory.createGenerator(outputStream, JsonEncoding.UTF8);
+		generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		generator.setRootValueSeparator(null);
+		return generator;
+	}
+
+	private int nextChunkSize(long written, long maxRecords) {
+		if (maxRecords < 0) {
+			return this.chunkSize;
+		}
+		return (int) Math.min(this.chunkSize, maxRecords - written);
+	}
+
+	private List<Map<String, Object>> queryChunk(String sql, long afterId, int size,
+			RowMapper<Map<String, Object>> rowMapper) {
+		if (size <= 0) {
+			return Collections.emptyList();
+		}
+		return this.jdbcTemplate.query(connection -> {
+			PreparedStatement statement = connection.prepareStatement(sql);
+			statement.setMaxRows(size);
+			statement.setFetchSize(size);
+			statement.setLong(1, afterId);
+			return statement;
+		}, rowMapper);
+	}
+
+	private Map<Long, List<String>> queryArguments(List<Long> ids) {
+		Map<Long, List<String>> result = new HashMap<>();
+		this.namedParameterJdbcTemplate.query(TASK_PARAMS_BY_IDS, new MapSqlParameterSource("ids", ids),
+				resultSet -> {
+					result.computeIfAbsent(resultSet.getLong("TASK_EXECUTION_ID"), id -> new ArrayList<>())
+							.add(resultSet.getString("TASK_PARAM"));
+				});
+		return result;
+	}
+
+	private Map<Long, List<Long>> queryJobExecutionIds(List<Long> ids) {
+		Map<Long, List<Long>> result = new HashMap<>();
+		this.namedParameterJdbcTemplate.query(TASK_JOB_IDS_BY_IDS, new MapSqlParameterSource("ids", ids),
+				resultSet -> {
+					result.computeIfAbsent(resultSet.getLong("TASK_EXECUTION_ID"), id -> new ArrayList<>())
+							.add(resultSet.getLong("JOB_EXECUTION_ID"));
+				});
+		return result;
+	}
+
+	private void writeRecord(JsonGenerator generator, Map<String, Object> row) throws IOException {
+		generator.writeStartObject();
+		for (Map.Entry<String, Object> field : row.entrySet()) {
+			generator.writeFieldName(field.getKey());
+			writeValue(generator, field.getValue());
+		}
+		generator.writeEndObject();
+		generator.writeRaw('\n');
+	}
+
+	private void writeValue(JsonGenerator generator, Object value) throws IOException {
+		if (value == null) {
+			generator.writeNull();
+		}
+		else if (value instanceof Date) {
+			generator.writeString(ISO8601Utils.format((Date) value, true));
+		}
+		else if (value instanceof Long || value instanceof Integer) {
+			generator.writeNumber(((Number) value).longValue());
+		}
+		else if (value instanceof List) {
+			generator.writeStartArray();
+			for (Object element : (List<?>) value) {
+				writeValue(generator, element);
+			}
+			generator.writeEndArray();
+		}
+		else {
+			generator.writeString(value.toString());
+		}
+	}
+
+	private static Date toDate(Timestamp timestamp) {
+		return timestamp == null ? null : new Date(timestamp.getTime());
+	}
+
+	private static Integer getNullableInteger(ResultSet resultSet, String column) throws SQLException {
+		int value = resultSet.getInt(column);
+		return resultSet.wasNull() ? null : value;
+	}
+
+	private static Long getNullableLong(ResultSet resultSet, String column) throws SQLException {
+		long value = resultSet.getLong(column);
+		return resultSet.wasNull() ? null : value;
+	}
+
+	/**
+	 * Maps a {@code TASK_EXECUTION} row onto the field names used by
+	 * {@code TaskExecutionResource}.
+	 */
+	private static class TaskExecutionRowMapper implements RowMapper<Map<String, Object>> {
+
+		@Override
+		public Map<String, Object> mapRow(ResultSet resultSet, int rowNum) throws SQLException {
+			Map<String, Object> row = new LinkedHashMap<>();
+			row.put("executionId", resultSet.getLong("TASK_EXECUTION_ID"));
+			row.put("exitCode", getNullableInteger(resultSet, "EXIT_CODE"));
+			row.put("taskName", resultSet.getString("TASK_NAME"));
+			row.put("startTime", toDate(resultSet.getTimestamp("START_TIME")));
+			row.put("endTime", toDate(resultSet.getTimestamp("END_TIME")));
+			row.put("exitMessage", resultSet.getString("EXIT_MESSAGE"));
+			row.put("errorMessage", resultSet.getString("ERROR_MESSAGE"));
+			row.put("externalExecutionId", resultSet.getString("EXTERNAL_EXECUTION_ID"));
+			return row;
+		}
+	}
+
+	/**
+	 * Maps a {@code BATCH_JOB_EXECUTION} row onto the field names used by
+	 * {@code JobExecutionThinResource}.
+	 */
+	private static class JobExecutionRowMapper implements RowMapper<Map<String, Object>> {
+
+		@Override
+		public Map<String, Object> mapRow(ResultSet resultSet, int rowNum) throws SQLException {
+			Map<String, Object> row = new LinkedHashMap<>();
+			row.put("executionId", resultSet.getLong("JOB_EXECUTION_ID"));
+			row.put("jobInstanceId", resultSet.getLong("JOB_INSTANCE_ID"));
+			row.put("name", resultSet.getString("JOB_NAME"));
+			row.put("taskExecutionId", getNullableLong(resultSet, "TASK_EXECUTION_ID"));
+			row.put("status", resultSet.getString("STATUS"));
+			row.put("exitCode", resultSet.getString("EXIT_CODE"));
+			row.put("exitMessage", resultSet.getString("EXIT_MESSAGE"));
+			row.put("createTime", toDate(resultSet.getTimestamp("CREATE_TIME")));
+			row.put("startTime", toDate(resultSet.getTimestamp("START_TIME")));
+			row.put("endTime", toDate(resultSet.getTimestamp("END_TIME")));
+			row.put("lastUpdated", toDate(resultSet.getTimestamp("LAST_UPDATED")));
+			return row;
+		}
+	}
+}
@@ -0,0 +1,323 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.service.impl;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.boot.actuate.metrics.GaugeService;
+import org.springframework.cloud.dataflow.rest.resource.TaskExecutionStatus;
+import org.springframework.cloud.dataflow.server.service.TaskExecutionsPurgedEvent;
+import org.springframework.cloud.dataflow.server.service.TaskRetentionPolicy;
+import org.springframework.cloud.dataflow.server.service.TaskRetentionResult;
+import org.springframework.cloud.dataflow.server.service.TaskRetentionService;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * JDBC based {@link TaskRetentionService}. Candidates are selected by id with
+ * {@link PreparedStatement#setMaxRows(int)} capping each selection at the chunk size, and
+ * every chunk is removed from the task and batch tables in a single transaction. The job
+ * executions of a chunk can outnumber its task executions, so statements on job ids are
+ * issued for at most {@link #MAX_IN_LIST_SIZE} ids at a time.
+ * <p>
+ * The count policy is applied per task name by looking up the id of the oldest execution
+ * that is still kept; everything of that task with a lower id is a candidate. The optional
+ * {@link CounterService} counts the deleted chunks and the optional {@link GaugeService}
+ * receives the executions deleted by the current and the last run. A
+ * {@link TaskExecutionsPurgedEvent} is published whenever executions were removed.
+ */
+public class JdbcTaskRetentionService implements TaskRetentionService, ApplicationEventPublisherAware {
+
+	private static final Logger logger = LoggerFactory.getLogger(JdbcTaskRetentionService.class);
+
+	static final String METRIC_PREFIX = "task.retention.";
+
+	/**
+	 * The maximum number of ids bound to a single {@code IN} list, which some databases
+	 * limit to 1000.
+	 */
+	public static final int MAX_IN_LIST_SIZE = 1000;
+
+	private static final String TASK_NAMES = "SELECT DISTINCT TASK_NAME FROM TASK_EXECUTION "
+			+ "WHERE TASK_NAME IS NOT NULL";
+
+	private static final String NEWEST_IDS_BY_NAME = "SELECT TASK_EXECUTION_ID FROM TASK_EXECUTION "
+			+ "WHERE TASK_NAME = ? ORDER BY TASK_EXECUTION_ID DESC";
+
+	private static final String ENDED_EXECUTIONS = "SELECT TASK_EXECUTION_ID FROM TASK_EXECUTION "
+			+ "WHERE END_TIME IS NOT NULL";
+
+	private static final String JOB_EXECUTION_IDS = "SELECT JOB_EXECUTION_ID FROM TASK_TASK_BATCH "
+			+ "WHERE TASK_EXECUTION_ID IN (:ids)";
+
+	private static final String JOB_INSTANCE_IDS = "SELECT DISTINCT JOB_INSTANCE_ID FROM BATCH_JOB_EXECUTION "
+			+ "WHERE JOB_EXECUTION_ID IN (:ids)";
+
+	private static final String DELETE_STEP_EXECUTION_CONTEXTS = "DELETE FROM BATCH_STEP_EXECUTION_CONTEXT "
+			+ "WHERE STEP_EXECUTION_ID IN (SELECT STEP_EXECUTION_ID FROM BATCH_STEP_EXECUTION "
+			+ "WHERE JOB_EXECUTION_ID IN (:ids))";
+
+	private static final String DELETE_STEP_EXECUTIONS = "DELETE FROM BATCH_STEP_EXECUTION "
+			+ "WHERE JOB_EXECUTION_ID IN (:ids)";
+
+	private static final String DELETE_JOB_EXECUTION_CONTEXTS = "DELETE FROM BATCH_JOB_EXECUTION_CONTEXT "
+			+ "WHERE JOB_EXECUTION_ID IN (:ids)";
+
+	private static final String DELETE_JOB_EXECUTION_PARAMS = "DELETE FROM BATCH_JOB_EXECUTION_PARAMS "
+			+ "WHERE JOB_EXECUTION_ID IN (:ids)";
+
+	private static final String DELETE_JOB_EXECUTIONS = "DELETE FROM BATCH_JOB_EXECUTION "
+			+ "WHERE JOB_EXECUTION_ID IN (:ids)";
+
+	private static final String DELETE_ORPHANED_JOB_INSTANCES = "DELETE FROM BATCH_JOB_INSTANCE "
+			+ "WHERE JOB_INSTANCE_ID IN (:ids) AND NOT EXISTS (SELECT 1 FROM BATCH_JOB_EXECUTION E "
+			+ "WHERE E.JOB_INSTANCE_ID = BATCH_JOB_INSTANCE.JOB_INSTANCE_ID)";
+
+	private static final String DELETE_TASK_BATCH = "DELETE FROM TASK_TASK_BATCH WHERE TASK_EXECUTION_ID IN (:ids)";
+
+	private static final String DELETE_TASK_PARAMS = "DELETE FROM TASK_EXECUTION_PARAMS "
+			+ "WHERE TASK_EXECUTION_ID IN (:ids)";
+
+	private static final String DELETE_TASK_EXECUTIONS = "DELETE FROM TASK_EXECUTION "
+			+ "WHERE TASK_EXECUTION_ID IN (:ids)";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final int chunkSize;
+
+	private final CounterService counterService;
+
+	private final GaugeService gaugeService;
+
+	private ApplicationEventPublisher eventPublisher;
+
+	/**
+	 * Create a {@link JdbcTaskRetentionService}.
+	 *
+	 * @param dataSource the data source holding the task and batch tables
+	 * @param transactionManager the transaction manager each chunk is deleted with
+	 * @param chunkSize the maximum number of task executions deleted per transaction
+	 * @param counterService receives the number of deleted chunks, may be {@code null}
+	 * @param gaugeService receives the progress of the current run, may be {@code null}
+	 */
+	public JdbcTaskRetentionService(DataSource dataSource, PlatformTransactionManager transactionManager,
+			int chunkSize, CounterService counterService, GaugeService gaugeService) {
+		Assert.notNull(dataSource, "dataSource must not be null");
+		Assert.notNull(transactionManager, "transactionManager must not be null");
+		Assert.isTrue(chunkSize > 0, "chunkSize must be greater than 0");
+		Assert.isTrue(chunkSize <= MAX_IN_LIST_SIZE, "chunkSize must not be greater than " + MAX_IN_LIST_SIZE);
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(this.jdbcTemplate);
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.chunkSize = chunkSize;
+		this.counterService = counterService;
+		this.gaugeService = gaugeService;
+	}
+
+	@Override
+	public void setApplicationEventPublisher(ApplicationEventPublisher eventPublisher) {
+		this.eventPublisher = eventPublisher;
+	}
+
+	@Override
+	public TaskRetentionResult purge(TaskRetentionPolicy policy) {
+		Assert.notNull(policy, "policy must not be null");
+		long start = System.currentTimeMillis();
+		Progress progress = new Progress();
+		String statusClause = statusClause(policy.getStatuses());
+		if (statusClause != null) {
+			if (policy.getMaxAgeDays() >= 0) {
+				Timestamp endedBefore = new Timestamp(
+						start - TimeUnit.DAYS.toMillis(policy.getMaxAgeDays()));
+				if (StringUtils.hasText(policy.getTaskName())) {
+					purgeChunks(ENDED_EXECUTIONS + statusClause + " AND END_TIME < ? AND TASK_NAME = ?", progress,
+							endedBefore, policy.getTaskName());
+				}
+				else {
+					purgeChunks(ENDED_EXECUTIONS + statusClause + " AND END_TIME < ?", progress, endedBefore);
+				}
+			}
+			if (policy.getMaxExecutionsPerTask() >= 0) {
+				List<String> taskNames = StringUtils.hasText(policy.getTaskName())
+						? Collections.singletonList(policy.getTaskName())
+						: this.jdbcTemplate.queryForList(TASK_NAMES, String.class);
+				for (String taskName : taskNames) {
+					Long oldestKept = oldestKeptExecutionId(taskName, policy.getMaxExecutionsPerTask());
+					if (oldestKept != null) {
+						purgeChunks(ENDED_EXECUTIONS + statusClause + " AND TASK_NAME = ? AND TASK_EXECUTION_ID < ?",
+								progress, taskName, oldestKept);
+					}
+				}
+			}
+		}
+		TaskRetentionResult result = new TaskRetentionResult(progress.taskExecutions, progress.jobExecutions,
+				progress.chunks, System.currentTimeMillis() - start);
+		submitGauge("last.task-executions.deleted", result.getTaskExecutions());
+		submitGauge("last.job-executions.deleted", result.getJobExecutions());
+		submitGauge("last.duration", result.getDurationMillis());
+		logger.info("Task execution retention finished: {}", result);
+		if (result.getTaskExecutions() > 0 && this.eventPublisher != null) {
+			this.eventPublisher.publishEvent(new TaskExecutionsPurgedEvent(this, result));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the id of the oldest of the {@code keep} most recent executions of a task, or
+	 * {@code null} when the task does not have more than {@code keep} executions.
+	 */
+	private Long oldestKeptExecutionId(String taskName, int keep) {
+		if (keep == 0) {
+			return Long.MAX_VALUE;
+		}
+		List<Long> newest = this.jdbcTemplate.query(connection -> {
+			PreparedStatement statement = connection.prepareStatement(NEWEST_IDS_BY_NAME);
+			statement.setMaxRows(keep);
+			statement.setString(1, taskName);
+			return statement;
+		}, (rs, rowNum) -> rs.getLong(1));
+		return newest.size() < keep ? null : newest.get(newest.size() - 1);
+	}
+
+	private void purgeChunks(String candidateQuery, Progress progress, Object... args) {
+		List<Long> ids;
+		do {
+			ids = this.jdbcTemplate.query(connection -> {
+				PreparedStatement statement = connection.prepareStatement(candidateQuery);
+				statement.setMaxRows(this.chunkSize);
+				for (int i = 0; i < args.length; i++) {
+					statement.setObject(i + 1, args[i]);
+				}
+				return statement;
+			}, (rs, rowNum) -> rs.getLong(1));
+			if (!ids.isEmpty()) {
+				List<Long> chunk = ids;
+				int jobExecutions = this.transactionTemplate.execute(status -> deleteChunk(chunk));
+				progress.chunks++;
+				progress.taskExecutions += chunk.size();
+				progress.jobExecutions += jobExecutions;
+				increment("chunks.deleted");
+				submitGauge("current.task-executions", progress.taskExecutions);
+				submitGauge("current.job-executions", progress.jobExecutions);
+				logger.debug("Purged {} task executions and {} job executions", chunk.size(), jobExecutions);
+			}
+		}
+		while (ids.size() == this.chunkSize);
+	}
+
+	private int deleteChunk(List<Long> taskExecutionIds) {
+		MapSqlParameterSource taskIds = new MapSqlParameterSource("ids", taskExecutionIds);
+		List<Long> jobExecutionIds = this.namedParameterJdbcTemplate.queryForList(JOB_EXECUTION_IDS, taskIds,
+				Long.class);
+		this.namedParameterJdbcTemplate.update(DELETE_TASK_BATCH, taskIds);
+		if (!jobExecutionIds.isEmpty()) {
+			List<List<Long>> jobIdPartitions = partition(jobExecutionIds);
+			LinkedHashSet<Long> jobInstanceIds = new LinkedHashSet<>();
+			for (List<Long> jobIds : jobIdPartitions) {
+				jobInstanceIds.addAll(this.namedParameterJdbcTemplate.queryForList(JOB_INSTANCE_IDS,
+						new MapSqlParameterSource("ids", jobIds), Long.class));
+			}
+			update(DELETE_STEP_EXECUTION_CONTEXTS, jobIdPartitions);
+			update(DELETE_STEP_EXECUTIONS, jobIdPartitions);
+			update(DELETE_JOB_EXECUTION_CONTEXTS, jobIdPartitions);
+			update(DELETE_JOB_EXECUTION_PARAMS, jobIdPartitions);
+			update(DELETE_JOB_EXECUTIONS, jobIdPartitions);
+			update(DELETE_ORPHANED_JOB_INSTANCES, partition(new ArrayList<>(jobInstanceIds)));
+		}
+		this.namedParameterJdbcTemplate.update(DELETE_TASK_PARAMS, taskIds);
+		this.namedParameterJdbcTemplate.update(DELETE_TASK_EXECUTIONS, taskIds);
+		return jobExecutionIds.size();
+	}
+
+	private void update(String sql, List<List<Long>> idPartitions) {
+		for (List<Long> ids : idPartitions) {
+			this.namedParameterJdbcTemplate.update(sql, new MapSqlParameterSource("ids", ids));
+		}
+	}
+
+	private static List<List<Long>> partition(List<Long> ids) {
+		List<List<Long>> partitions = new ArrayList<>();
+		for (int from = 0; from < ids.size(); from += MAX_IN_LIST_SIZE) {
+			partitions.add(ids.subList(from, Math.min(ids.size(), from + MAX_IN_LIST_SIZE)));
+		}
+		return partitions;
+	}
+
+	/**
+	 * Returns the SQL restricting the candidates to the given statuses, or {@code null} if
+	 * none of the statuses applies to an execution that has ended.
+	 */
+	private static String statusClause(Set<TaskExecutionStatus> statuses) {
+		boolean complete = statuses != null && statuses.contains(TaskExecutionStatus.COMPLETE);
+		boolean error = statuses != null && statuses.contains(TaskExecutionStatus.ERROR);
+		if (complete && error) {
+			return "";
+		}
+		if (complete) {
+			return " AND EXIT_CODE = 0";
+		}
+		if (error) {
+			return " AND (EXIT_CODE IS NULL OR EXIT_CODE <> 0)";
+		}
+		return null;
+	}
+
+	private void increment(String name) {
+		if (this.counterService != null) {
+			this.counterService.increment(METRIC_PREFIX + name);
+		}
+	}
+
+	private void submitGauge(String name, double value) {
+		if (this.gaugeService != null) {
+			this.gaugeService.submit(METRIC_PREFIX + name, value);
+		}
+	}
+
+	private static class Progress {
+
+		private long taskExecutions;
+
+		private long jobExecutions;
+
+		private int chunks;
+	}
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import org.springframework.cloud.scheduler.spi.core.ScheduleInfo;
+import org.springframework.util.Assert;
+
+/**
+ * Local copy of the schedule metadata held by the
+ * {@link org.springframework.cloud.scheduler.spi.core.Scheduler}, indexed by schedule name
+ * and by task definition name.
+ * <p>
+ * Schedules are kept sorted by name, so that a page can be served without asking the
+ * platform for all schedules. Lookups are lock free; updates are serialized so that both
+ * indexes stay consistent. {@link #replaceAll(Collection, long)} only applies a snapshot
+ * taken from the platform if the catalog has not been changed while the snapshot was
+ * being read, as it would otherwise drop schedules created in the meantime.
+ */
+public class ScheduleCatalog {
+
+	private final ConcurrentSkipListMap<String, ScheduleInfo> schedulesByName = new ConcurrentSkipListMap<>();
+
+	private final Map<String, NavigableSet<String>> scheduleNamesByTaskDefinition = new ConcurrentHashMap<>();
+
+	private final Object monitor = new Object();
+
+	private volatile long version;
+
+	private volatile long lastReconciled = -1;
+
+	/**
+	 * @return the current version of the catalog, incremented by every update
+	 */
+	public long getVersion() {
+		return this.version;
+	}
+
+	/**
+	 * @return the time at which a platform snapshot was last applied, or {@code -1} if
+	 * the catalog has never been loaded
+	 */
+	public long getLastReconciled() {
+		return this.lastReconciled;
+	}
+
+	public ScheduleInfo get(String scheduleName) {
+		Assert.notNull(scheduleName, "scheduleName must not be null");
+		return copy(this.schedulesByName.get(scheduleName));
+	}
+
+	public void put(ScheduleInfo scheduleInfo) {
+		Assert.notNull(scheduleInfo, "scheduleInfo must not be null");
+		Assert.notNull(scheduleInfo.getScheduleName(), "scheduleName must not be null");
+		synchronized (this.monitor) {
+			index(copy(scheduleInfo));
+			this.version++;
+		}
+	}
+
+	public void remove(String scheduleName) {
+		Assert.notNull(scheduleName, "scheduleName must not be null");
+		synchronized (this.monitor) {
+			unindex(scheduleName);
+			this.version++;
+		}
+	}
+
+	/**
+	 * Replace the content of the catalog with a snapshot read from the platform.
+	 *
+	 * @param scheduleInfos all schedules known to the platform
+	 * @param expectedVersion the version of the catalog before the snapshot was read
+	 * @return {@code true} if the snapshot was applied, {@code false} if the catalog was
+	 * changed in the meantime
+	 */
+	public boolean replaceAll(Collection<ScheduleInfo> scheduleInfos, long expectedVersion) {
+		Assert.notNull(scheduleInfos, "scheduleInfos must not be null");
+		synchronized (this.monitor) {
+			if (this.version != expectedVersion) {
+				return false;
+			}
+			Map<String, ScheduleInfo> current = new HashMap<>();
+			for (ScheduleInfo scheduleInfo : scheduleInfos) {
+				current.put(scheduleInfo.getScheduleName(), scheduleInfo);
+			}
+			for (String scheduleName : new ArrayList<>(this.schedulesByName.keySet())) {
+				if (!current.containsKey(scheduleName)) {
+					unindex(scheduleName);
+				}
+			}
+			for (ScheduleInfo scheduleInfo : current.values()) {
+				index(copy(scheduleInfo));
+			}
+			this.version++;
+			this.lastReconciled = System.currentTimeMillis();
+			return true;
+		}
+	}
+
+	public int size() {
+		return this.schedulesByName.size();
+	}
+
+	/**
+	 * Return the schedules sorted by name, skipping the first {@code offset} entries.
+	 *
+	 * @param offset number of schedules to skip
+	 * @param limit maximum number of schedules to return
+	 * @return the requested slice of schedules
+	 */
+	public List<ScheduleInfo> list(long offset, int limit) {
+		return slice(this.schedulesByName.keySet(), offset, limit);
+	}
+
+	/**
+	 * Return the schedules of a task definition sorted by name, skipping the first
+	 * {@code offset} entries.
+	 *
+	 * @param taskDefinitionName the name of the task definition
+	 * @param offset number of schedules to skip
+	 * @param limit maximum number of schedules to return
+	 * @return the requested slice of schedules
+	 */
+	public List<ScheduleInfo> list(String taskDefinitionName, long offset, int limit) {
+		Assert.notNull(taskDefinitionName, "taskDefinitionName must not be null");
+		NavigableSet<String> scheduleNames = this.scheduleNamesByTaskDefinition.get(taskDefinitionName);
+		if (scheduleNames == null) {
+			return Collections.emptyList();
+		}
+		return slice(scheduleNames, offset, limit);
+	}
+
+	private List<ScheduleInfo> slice(Collection<String> scheduleNames, long offset, int limit) {
+		List<ScheduleInfo> result = new ArrayList<>();
+		Iterator<String> iterator = scheduleNames.iterator();
+		for (long skipped = 0; skipped < offset && iterator.hasNext(); skipped++) {
+			iterator.next();
+		}
+		while (iterator.hasNext() && result.size() < limit) {
+			// an entry can disappear between reading the index and the lookup
+			ScheduleInfo scheduleInfo = this.schedulesByName.get(iterator.next());
+			if (scheduleInfo != null) {
+				result.add(copy(scheduleInfo));
+			}
+		}
+		return result;
+	}
+
+	private void index(ScheduleInfo scheduleInfo) {
+		ScheduleInfo previous = this.schedulesByName.put(scheduleInfo.getScheduleName(), scheduleInfo);
+		if (previous != null) {
+			removeFromTaskDefinition(previous);
+		}
+		if (scheduleInfo.getTaskDefinitionName() != null) {
+			this.scheduleNamesByTaskDefinition
+					.computeIfAbsent(scheduleInfo.getTaskDefinitionName(), name -> new ConcurrentSkipListSet<>())
+					.add(scheduleInfo.getScheduleName());
+		}
+	}
+
+	private void unindex(String scheduleName) {
+		ScheduleInfo previous = this.schedulesByName.remove(scheduleName);
+		if (previous != null) {
+			removeFromTaskDefinition(previous);
+		}
+	}
+
+	private void removeFromTaskDefinition(ScheduleInfo scheduleInfo) {
+		if (scheduleInfo.getTaskDefinitionName() == null) {
+			return;
+		}
+		NavigableSet<String> scheduleNames = this.scheduleNamesByTaskDefinition
+				.get(scheduleInfo.getTaskDefinitionName());
+		if (scheduleNames != null) {
+			scheduleNames.remove(scheduleInfo.getScheduleName());
+			if (scheduleNames.isEmpty()) {
+				this.scheduleNamesByTaskDefinition.remove(scheduleInfo.getTaskDefinitionName());
+			}
+		}
+	}
+
+	private static ScheduleInfo copy(ScheduleInfo scheduleInfo) {
+		if (scheduleInfo == null) {
+			return null;
+		}
+		ScheduleInfo copy = new ScheduleInfo();
+		copy.setScheduleName(scheduleInfo.getScheduleName());
+		copy.setTaskDefinitionName(scheduleInfo.getTaskDefinitionName());
+		copy.setScheduleProperties(scheduleInfo.getScheduleProperties() == null ? null
+				: new HashMap<>(scheduleInfo.getScheduleProperties()));
+		return copy;
+	}
+}
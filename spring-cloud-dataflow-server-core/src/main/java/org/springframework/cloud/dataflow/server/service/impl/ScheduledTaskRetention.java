@@ -0,0 +1,82 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.service.impl;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.cloud.dataflow.server.service.TaskRetentionService;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+/**
+ * Periodically applies the retention policy configured through
+ * {@link TaskConfigurationProperties.Retention}. Runs are made on a thread of its own,
+ * {@link TaskConfigurationProperties.Retention#getInterval() interval} milliseconds
+ * apart, so that scheduling does not have to be enabled for the whole application
+ * context.
+ */
+public class ScheduledTaskRetention implements InitializingBean, DisposableBean {
+
+	private static final Logger logger = LoggerFactory.getLogger(ScheduledTaskRetention.class);
+
+	private final TaskRetentionService taskRetentionService;
+
+	private final TaskConfigurationProperties.Retention retention;
+
+	private ScheduledExecutorService executor;
+
+	public ScheduledTaskRetention(TaskRetentionService taskRetentionService,
+			TaskConfigurationProperties taskConfigurationProperties) {
+		Assert.notNull(taskRetentionService, "taskRetentionService must not be null");
+		Assert.notNull(taskConfigurationProperties, "taskConfigurationProperties must not be null");
+		this.taskRetentionService = taskRetentionService;
+		this.retention = taskConfigurationProperties.getRetention();
+	}
+
+	@Override
+	public synchronized void afterPropertiesSet() {
+		long interval = this.retention.getInterval();
+		Assert.isTrue(interval > 0, "retention interval must be greater than 0");
+		if (this.executor == null) {
+			this.executor = new ScheduledThreadPoolExecutor(1, new CustomizableThreadFactory("task-retention-"));
+			this.executor.scheduleWithFixedDelay(this::purge, interval, interval, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	@Override
+	public synchronized void destroy() {
+		if (this.executor != null) {
+			this.executor.shutdownNow();
+		}
+	}
+
+	public void purge() {
+		try {
+			this.taskRetentionService.purge(this.retention.toPolicy());
+		}
+		catch (Exception e) {
+			logger.warn("Scheduled task execution retention failed, retrying with the next run", e);
+		}
+	}
+}
@@ -16,12 +16,19 @@
 
 package org.springframework.cloud.dataflow.server.service.impl;
 
+import java.util.EnumSet;
+import java.util.Set;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 
 import org.hibernate.validator.constraints.NotBlank;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.cloud.dataflow.core.DataFlowPropertyKeys;
+import org.springframework.cloud.dataflow.rest.resource.TaskExecutionStatus;
+import org.springframework.cloud.dataflow.server.service.TaskRetentionPolicy;
 import org.springframework.validation.annotation.Validated;
 
 
@@ -32,10 +39,12 @@ import org.springframework.validation.annotation.Validated;
  * @author David Turanski
  */
 @Validated
-@ConfigurationProperties(prefix = TaskConfigurationProperties.COMPOSED_TASK_PREFIX)
+@ConfigurationProperties(prefix = TaskConfigurationProperties.TASK_PREFIX)
 public class TaskConfigurationProperties {
 
-	public static final String COMPOSED_TASK_PREFIX = DataFlowPropertyKeys.PREFIX + "task";
+	public static final String TASK_PREFIX = DataFlowPropertyKeys.PREFIX + "task";
+
+	public static final String COMPOSED_TASK_PREFIX = TASK_PREFIX;
 
 	/**
 	 * The task application name to be used for the composed task runner.
@@ -46,6 +55,20 @@ public class TaskConfigurationProperties {
 	@Min(1)
 	private long maximumConcurrentTasks = 20;
 
+	/**
+	 * The number of rows read per query when exporting task and job executions, at most
+	 * 1000 as the ids of a chunk are bound to a single IN list.
+	 */
+	@Min(1)
+	@Max(1000)
+	private int exportChunkSize = 500;
+
+	/**
+	 * Retention of task executions and the job executions they launched.
+	 */
+	@Valid
+	private Retention retention = new Retention();
+
 	public String getComposedTaskRunnerName() {
 		return composedTaskRunnerName;
 	}
@@ -61,4 +84,121 @@ public class TaskConfigurationProperties {
 	public void setMaximumConcurrentTasks(long maximumConcurrentTasks) {
 		this.maximumConcurrentTasks = maximumConcurrentTasks;
 	}
+
+	public int getExportChunkSize() {
+		return exportChunkSize;
+	}
+
+	public void setExportChunkSize(int exportChunkSize) {
+		this.exportChunkSize = exportChunkSize;
+	}
+
+	public Retention getRetention() {
+		return retention;
+	}
+
+	public void setRetention(Retention retention) {
+		this.retention = retention;
+	}
+
+	public static class Retention {
+
+		/**
+		 * Whether the retention policy is applied periodically.
+		 */
+		private boolean enabled;
+
+		/**
+		 * The delay in milliseconds between two scheduled retention runs.
+		 */
+		@Min(1)
+		private long interval = 3600000;
+
+		/**
+		 * Task executions that ended more than this many days ago are removed, -1 to keep
+		 * executions regardless of their age.
+		 */
+		@Min(-1)
+		private int maxAgeDays = -1;
+
+		/**
+		 * The number of most recent executions kept for each task, -1 to keep executions
+		 * regardless of their number.
+		 */
+		@Min(-1)
+		private int maxExecutionsPerTask = -1;
+
+		/**
+		 * The statuses of the task executions that may be removed.
+		 */
+		private Set<TaskExecutionStatus> statuses = EnumSet.of(TaskExecutionStatus.COMPLETE,
+				TaskExecutionStatus.ERROR);
+
+		/**
+		 * The maximum number of task executions removed per transaction, at most 1000 as
+		 * the ids of a chunk are bound to a single IN list.
+		 */
+		@Min(1)
+		@Max(1000)
+		private int chunkSize = 500;
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public long getInterval() {
+			return interval;
+		}
+
+		public void setInterval(long interval) {
+			this.interval = interval;
+		}
+
+		public int getMaxAgeDays() {
+			return maxAgeDays;
+		}
+
+		public void setMaxAgeDays(int maxAgeDays) {
+			this.maxAgeDays = maxAgeDays;
+		}
+
+		public int getMaxExecutionsPerTask() {
+			return maxExecutionsPerTask;
+		}
+
+		public void setMaxExecutionsPerTask(int maxExecutionsPerTask) {
+			this.maxExecutionsPerTask = maxExecutionsPerTask;
+		}
+
+		public Set<TaskExecutionStatus> getStatuses() {
+			return statuses;
+		}
+
+		public void setStatuses(Set<TaskExecutionStatus> statuses) {
+			this.statuses = statuses;
+		}
+
+		public int getChunkSize() {
+			return chunkSize;
+		}
+
+		public void setChunkSize(int chunkSize) {
+			this.chunkSize = chunkSize;
+		}
+
+		/**
+		 * @return the configured policy, applied to all tasks
+		 */
+		public TaskRetentionPolicy toPolicy() {
+			TaskRetentionPolicy policy = new TaskRetentionPolicy();
+			policy.setMaxAgeDays(this.maxAgeDays);
+			policy.setMaxExecutionsPerTask(this.maxExecutionsPerTask);
+			policy.setStatuses(this.statuses);
+			return policy;
+		}
+	}
 }
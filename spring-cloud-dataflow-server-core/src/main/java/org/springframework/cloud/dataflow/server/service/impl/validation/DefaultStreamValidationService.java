@@ -15,6 +15,10 @@
  */
 package org.springframework.cloud.dataflow.server.service.impl.validation;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 import org.springframework.cloud.dataflow.core.ApplicationType;
 import org.springframework.cloud.dataflow.core.StreamAppDefinition;
 import org.springframework.cloud.dataflow.core.StreamDefinition;
@@ -52,12 +56,15 @@ public class DefaultStreamValidationService extends DefaultValidationService imp
 		ValidationStatus validationStatus = new ValidationStatus(
 				definition.getName(),
 				definition.getDslText());
+		Map<String, CompletableFuture<Boolean>> statuses = new LinkedHashMap<>();
 		for (StreamAppDefinition streamAppDefinition : definition.getAppDefinitions()) {
 			ApplicationType appType = streamAppDefinition.getApplicationType();
-			boolean status = this.validate(streamAppDefinition.getName(), appType);
-			validationStatus.getAppsStatuses().put(
-					String.format("%s:%s", appType.name(), streamAppDefinition.getName()),
-					(status) ? NodeStatus.valid.name() : NodeStatus.invalid.name());
+			statuses.put(String.format("%s:%s", appType.name(), streamAppDefinition.getName()),
+					validateAsync(streamAppDefinition.getName(), appType));
+		}
+		for (Map.Entry<String, CompletableFuture<Boolean>> status : statuses.entrySet()) {
+			validationStatus.getAppsStatuses().put(status.getKey(),
+					join(status.getValue()) ? NodeStatus.valid.name() : NodeStatus.invalid.name());
 		}
 		return validationStatus;
 	}
@@ -15,6 +15,10 @@
  */
 package org.springframework.cloud.dataflow.server.service.impl.validation;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 import org.springframework.cloud.dataflow.core.ApplicationType;
 import org.springframework.cloud.dataflow.core.TaskDefinition;
 import org.springframework.cloud.dataflow.core.dsl.TaskNode;
@@ -66,13 +70,14 @@ public class DefaultTaskValidationService extends DefaultValidationService imple
 				TaskParser taskParser = new TaskParser(name, definition.getDslText(), true, true);
 				TaskNode taskNode = taskParser.parse();
 				String childTaskPrefix = TaskNode.getTaskPrefix(name);
+				Map<String, CompletableFuture<Boolean>> statuses = new LinkedHashMap<>();
 				taskNode.getTaskApps().stream().forEach(task -> {
 					TaskDefinition childDefinition = this.taskDefinitionRepository.findByNameRequired(childTaskPrefix + task.getName());
-					boolean status = this.validate(childDefinition.getRegisteredAppName(), ApplicationType.task);
-					validationStatus.getAppsStatuses().put(
-							String.format("%s:%s", appType.name(), childDefinition.getName()),
-							(status) ? NodeStatus.valid.name() : NodeStatus.invalid.name());
+					statuses.put(String.format("%s:%s", appType.name(), childDefinition.getName()),
+							validateAsync(childDefinition.getRegisteredAppName(), ApplicationType.task));
 				});
+				statuses.forEach((key, status) -> validationStatus.getAppsStatuses().put(key,
+						join(status) ? NodeStatus.valid.name() : NodeStatus.invalid.name()));
 			}
 			else {
 				validationStatus.getAppsStatuses().put(
@@ -16,15 +16,20 @@
 package org.springframework.cloud.dataflow.server.service.impl.validation;
 
 import java.io.File;
-import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
-import org.springframework.boot.loader.archive.Archive;
-import org.springframework.boot.loader.archive.ExplodedArchive;
-import org.springframework.boot.loader.archive.JarFileArchive;
-import org.springframework.cloud.dataflow.configuration.metadata.BootClassLoaderFactory;
+import org.springframework.cloud.dataflow.configuration.metadata.BootApplicationConfigurationMetadataResolver;
+import org.springframework.cloud.dataflow.configuration.metadata.BootArchiveEntryReader;
 import org.springframework.cloud.dataflow.core.ApplicationType;
 import org.springframework.cloud.dataflow.registry.AppRegistryCommon;
 import org.springframework.cloud.dataflow.registry.domain.AppRegistration;
@@ -36,6 +41,12 @@ import org.springframework.util.Assert;
 
 /**
  * Implementation of Validation Service that delegates to the application registry.
+ * <p>
+ * An archive is valid if it and the jars nested in it are well formed, which is checked
+ * from their central directories and local file headers, without creating a class loader
+ * or reading any class. As the result only depends on the content of the archive, it is
+ * remembered by a digest of the archive central directory, so that an unchanged archive
+ * is not checked again.
  *
  * @author Glenn Renfo
  * @author Mark Pollack
@@ -44,6 +55,11 @@ public class DefaultValidationService implements ValidationService {
 
 	private static Log logger = LogFactory.getLog(DefaultValidationService.class);
 
+	/**
+	 * Maximum number of archive digests remembered as valid.
+	 */
+	private static final int MAX_VERIFIED_ARCHIVES = 1000;
+
 	/**
 	 * The urls and credentials to required to validate access docker resources.
 	 */
@@ -51,6 +67,23 @@ public class DefaultValidationService implements ValidationService {
 
 	private final AppRegistryCommon appRegistry;
 
+	private final BootArchiveEntryReader archiveReader = new BootArchiveEntryReader(Arrays.asList(
+			BootApplicationConfigurationMetadataResolver.CONFIGURATION_METADATA_ENTRY,
+			BootApplicationConfigurationMetadataResolver.WHITELIST_PROPERTIES_ENTRY));
+
+	private final Set<String> verifiedArchives = Collections.newSetFromMap(Collections.synchronizedMap(
+			new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+					return size() > MAX_VERIFIED_ARCHIVES;
+				}
+			}));
+
+	private Executor executor = Runnable::run;
+
+	private volatile DockerRegistryClient dockerRegistryClient;
+
 	public DefaultValidationService(AppRegistryCommon appRegistry,
 									DockerValidatorProperties dockerValidatorProperties) {
 		Assert.notNull(dockerValidatorProperties, "DockerValidatorProperties must not be null");
@@ -59,6 +92,28 @@ public class DefaultValidationService implements ValidationService {
 		this.appRegistry = appRegistry;
 	}
 
+	/**
+	 * Set the executor used to validate the apps of a definition concurrently. By default,
+	 * apps are validated one after the other on the calling thread.
+	 *
+	 * @param executor the executor
+	 */
+	public void setExecutor(Executor executor) {
+		Assert.notNull(executor, "executor must not be null");
+		this.executor = executor;
+	}
+
+	/**
+	 * Set the client used to validate Docker apps, to share it with other services. By
+	 * default, a client is created on the first validation of a Docker app.
+	 *
+	 * @param dockerRegistryClient the Docker registry client
+	 */
+	public void setDockerRegistryClient(DockerRegistryClient dockerRegistryClient) {
+		Assert.notNull(dockerRegistryClient, "dockerRegistryClient must not be null");
+		this.dockerRegistryClient = dockerRegistryClient;
+	}
+
 	@Override
 	public boolean isRegistered(String name, ApplicationType applicationType) {
 		return appRegistry.appExist(name, applicationType);
@@ -75,12 +130,11 @@ public class DefaultValidationService implements ValidationService {
 			Resource resource = appRegistry.getAppResource(registration);
 			try {
 				if ((resource instanceof DockerResource)) {
-					result = validateDockerResource(dockerValidatorProperties, (DockerResource) resource);
+					result = new DockerRegistryValidator(getDockerRegistryClient(), (DockerResource) resource)
+							.isImagePresent();
 				}
 				else {
-					new BootClassLoaderFactory(resolveAsArchive(appRegistry.getAppResource(registration)), null)
-							.createClassLoader();
-					result = true;
+					result = validateArchive(appRegistry.getResourceFile(resource));
 				}
 			}
 			catch (Exception ex) {
@@ -90,16 +144,55 @@ public class DefaultValidationService implements ValidationService {
 		return result;
 	}
 
-	private static boolean validateDockerResource(DockerValidatorProperties dockerValidatorProperties,
-			DockerResource resource) throws Exception {
-		DockerRegistryValidator info = new DockerRegistryValidator(dockerValidatorProperties, resource);
-		return info.isImagePresent();
+	/**
+	 * Validate an app on the configured executor.
+	 *
+	 * @param name the name of the app
+	 * @param appType the type of the app
+	 * @return a future completed with the result of {@link #validate(String, ApplicationType)}
+	 */
+	protected CompletableFuture<Boolean> validateAsync(String name, ApplicationType appType) {
+		return CompletableFuture.supplyAsync(() -> validate(name, appType), this.executor);
 	}
 
-	private static Archive resolveAsArchive(Resource app) throws IOException {
-		File moduleFile = app.getFile();
-		return moduleFile.isDirectory() ? new ExplodedArchive(moduleFile) : new JarFileArchive(moduleFile);
+	/**
+	 * Wait for the result of {@link #validateAsync(String, ApplicationType)}, rethrowing
+	 * the exception thrown by the validation, if any.
+	 *
+	 * @param status the pending validation
+	 * @return the result of the validation
+	 */
+	protected static boolean join(CompletableFuture<Boolean> status) {
+		try {
+			return status.join();
+		}
+		catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		}
 	}
 
+	private boolean validateArchive(File archive) throws Exception {
+		String digest = this.archiveReader.digest(archive);
+		if (digest == null || !this.verifiedArchives.contains(digest)) {
+			this.archiveReader.verify(archive);
+			if (digest != null) {
+				this.verifiedArchives.add(digest);
+			}
+		}
+		return true;
+	}
 
+	private DockerRegistryClient getDockerRegistryClient() {
+		if (this.dockerRegistryClient == null) {
+			synchronized (this) {
+				if (this.dockerRegistryClient == null) {
+					this.dockerRegistryClient = new DockerRegistryClient(this.dockerValidatorProperties);
+				}
+			}
+		}
+		return this.dockerRegistryClient;
+	}
 }
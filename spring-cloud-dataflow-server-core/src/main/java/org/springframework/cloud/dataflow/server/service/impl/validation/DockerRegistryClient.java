@@ -0,0 +1,320 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.service.impl.validation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.ssl.SSLContexts;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.cloud.dataflow.server.DockerValidatorProperties;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Client for the Docker registry used to validate Docker apps, meant to be shared by all
+ * validations.
+ * <p>
+ * Requests go through a pool of connections, so that validating the apps of a definition
+ * does not open a connection, and do a TLS handshake, per app. The auth token obtained
+ * with the configured credentials is kept until it expires, as read from its {@code exp}
+ * claim, or for {@link DockerValidatorProperties#getAuthTokenTtlInMillis()} if it has
+ * none. The tags of a repository are kept for
+ * {@link DockerValidatorProperties#getTagCacheTtlInMillis()}, and concurrent lookups of
+ * the same repository share a single request. A tag that is not among the kept tags is
+ * looked up in the registry again, as the image may have been pushed since.
+ */
+public class DockerRegistryClient implements Closeable {
+
+	private static final Logger logger = LoggerFactory.getLogger(DockerRegistryClient.class);
+
+	private static final String DOCKER_REGISTRY_AUTH_TYPE = "JWT";
+
+	private static final String DOCKER_REGISTRY_TAGS_PATH = "/%s/tags/";
+
+	private static final String USER_NAME_KEY = "username";
+
+	private static final String PASSWORD_KEY = "password";
+
+	/**
+	 * Time before its expiry at which a token is no longer used.
+	 */
+	private static final long TOKEN_EXPIRY_MARGIN = 30_000;
+
+	/**
+	 * Number of cached tag lists above which expired ones are purged.
+	 */
+	private static final int MAX_CACHED_REPOSITORIES = 1000;
+
+	private final DockerValidatorProperties properties;
+
+	private final PoolingHttpClientConnectionManager connectionManager;
+
+	private final RestTemplate restTemplate;
+
+	private final Object tokenMonitor = new Object();
+
+	private volatile Expiring<String> token;
+
+	private final ConcurrentMap<String, Expiring<Set<String>>> tags = new ConcurrentHashMap<>();
+
+	private final ConcurrentMap<String, CompletableFuture<Set<String>>> pendingTags = new ConcurrentHashMap<>();
+
+	public DockerRegistryClient(DockerValidatorProperties properties) {
+		Assert.notNull(properties, "DockerValidatorProperties must not be null");
+		this.properties = properties;
+		Registry<ConnectionSocketFactory> socketFactories = RegistryBuilder.<ConnectionSocketFactory>create()
+				.register("http", PlainConnectionSocketFactory.getSocketFactory())
+				.register("https", new SSLConnectionSocketFactory(SSLContexts.createDefault(),
+						NoopHostnameVerifier.INSTANCE))
+				.build();
+		this.connectionManager = new PoolingHttpClientConnectionManager(socketFactories);
+		this.connectionManager.setMaxTotal(properties.getMaxConnections());
+		this.connectionManager.setDefaultMaxPerRoute(properties.getMaxConnections());
+		CloseableHttpClient httpClient = HttpClients.custom()
+				.setConnectionManager(this.connectionManager)
+				.build();
+		HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory();
+		requestFactory.setHttpClient(httpClient);
+		requestFactory.setConnectTimeout(properties.getConnectTimeoutInMillis());
+		requestFactory.setReadTimeout(properties.getReadTimeoutInMillis());
+		this.restTemplate = new RestTemplate(requestFactory);
+	}
+
+	/**
+	 * Return the names of the tags of a repository.
+	 *
+	 * @param repository the repository, with its registry host if any, without tag
+	 * @return the names of the tags
+	 * @throws HttpClientErrorException if the registry rejects the request, in particular
+	 * if the repository does not exist
+	 */
+	public Set<String> getTags(String repository) {
+		Assert.hasText(repository, "repository must not be empty");
+		Expiring<Set<String>> cached = this.tags.get(repository);
+		if (cached != null && !cached.isExpired()) {
+			return cached.value;
+		}
+		return fetchSharedTags(repository);
+	}
+
+	/**
+	 * Return whether a repository has a tag. Only the presence of a tag is taken from the
+	 * kept tags; its absence is confirmed with the registry.
+	 *
+	 * @param repository the repository, with its registry host if any, without tag
+	 * @param tag the name of the tag
+	 * @return whether the tag exists
+	 * @throws HttpClientErrorException if the registry rejects the request, in particular
+	 * if the repository does not exist
+	 */
+	public boolean hasTag(String repository, String tag) {
+		Assert.hasText(repository, "repository must not be empty");
+		Expiring<Set<String>> cached = this.tags.get(repository);
+		if (cached != null && !cached.isExpired() && cached.value.contains(tag)) {
+			return true;
+		}
+		return fetchSharedTags(repository).contains(tag);
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.connectionManager.shutdown();
+	}
+
+	/**
+	 * Fetch and keep the tags of a repository, sharing the request of a concurrent lookup.
+	 */
+	private Set<String> fetchSharedTags(String repository) {
+		CompletableFuture<Set<String>> future = new CompletableFuture<>();
+		CompletableFuture<Set<String>> pending = this.pendingTags.putIfAbsent(repository, future);
+		if (pending != null) {
+			return join(pending);
+		}
+		try {
+			Set<String> names = fetchTags(repository);
+			if (this.tags.size() >= MAX_CACHED_REPOSITORIES) {
+				this.tags.values().removeIf(Expiring::isExpired);
+			}
+			this.tags.put(repository, new Expiring<>(names,
+					System.currentTimeMillis() + this.properties.getTagCacheTtlInMillis()));
+			future.complete(names);
+			return names;
+		}
+		catch (RuntimeException e) {
+			future.completeExceptionally(e);
+			throw e;
+		}
+		finally {
+			this.pendingTags.remove(repository, future);
+		}
+	}
+
+	private Set<String> fetchTags(String repository) {
+		String url = String.format(this.properties.getDockerRegistryUrl() + DOCKER_REGISTRY_TAGS_PATH, repository);
+		DockerResult result;
+		try {
+			result = this.restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(authorization()),
+					DockerResult.class).getBody();
+		}
+		catch (HttpClientErrorException e) {
+			if (e.getStatusCode() != HttpStatus.UNAUTHORIZED || this.token == null) {
+				throw e;
+			}
+			// the token was revoked or expired early, get a new one and try once more
+			logger.debug("Auth token rejected by {}, requesting a new one", url);
+			this.token = null;
+			result = this.restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(authorization()),
+					DockerResult.class).getBody();
+		}
+		Set<String> names = new LinkedHashSet<>();
+		if (result != null && result.getCount() > 0) {
+			for (DockerTag tag : result.getResults()) {
+				names.add(tag.getName());
+			}
+		}
+		return Collections.unmodifiableSet(names);
+	}
+
+	private HttpHeaders authorization() {
+		HttpHeaders headers = new HttpHeaders();
+		String token = getToken();
+		if (token != null) {
+			headers.add(HttpHeaders.AUTHORIZATION, DOCKER_REGISTRY_AUTH_TYPE + " " + token);
+		}
+		return headers;
+	}
+
+	private String getToken() {
+		String userName = this.properties.getUserName();
+		String password = this.properties.getPassword();
+		if (!StringUtils.hasText(userName) || password == null) {
+			return null;
+		}
+		Expiring<String> current = this.token;
+		if (current != null && !current.isExpired()) {
+			return current.value;
+		}
+		synchronized (this.tokenMonitor) {
+			current = this.token;
+			if (current == null || current.isExpired()) {
+				String value = login(userName, password);
+				current = new Expiring<>(value, expiry(value));
+				this.token = current;
+			}
+			return current.value;
+		}
+	}
+
+	private String login(String userName, String password) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+		JSONObject request = new JSONObject();
+		try {
+			request.put(USER_NAME_KEY, userName);
+			request.put(PASSWORD_KEY, password);
+		}
+		catch (JSONException ie) {
+			throw new IllegalStateException(ie);
+		}
+		DockerAuth dockerAuth = this.restTemplate.exchange(this.properties.getDockerAuthUrl(), HttpMethod.POST,
+				new HttpEntity<>(request.toString(), headers), DockerAuth.class).getBody();
+		Assert.state(dockerAuth != null && dockerAuth.getToken() != null,
+				"No token returned by " + this.properties.getDockerAuthUrl());
+		return dockerAuth.getToken();
+	}
+
+	/**
+	 * Return the time after which a token should not be used, from its {@code exp} claim
+	 * if it is a JWT that has one.
+	 */
+	private long expiry(String token) {
+		long now = System.currentTimeMillis();
+		String[] parts = token.split("\\.");
+		if (parts.length == 3) {
+			try {
+				String claims = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8);
+				long expiresAt = new JSONObject(claims).optLong("exp", 0) * 1000;
+				if (expiresAt > 0) {
+					return Math.max(now, expiresAt - TOKEN_EXPIRY_MARGIN);
+				}
+			}
+			catch (IllegalArgumentException | JSONException e) {
+				logger.debug("Could not read the expiry of the auth token", e);
+			}
+		}
+		return now + this.properties.getAuthTokenTtlInMillis();
+	}
+
+	private static <T> T join(CompletableFuture<T> future) {
+		try {
+			return future.join();
+		}
+		catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	private static class Expiring<T> {
+
+		private final T value;
+
+		private final long expiresAt;
+
+		Expiring(T value, long expiresAt) {
+			this.value = value;
+			this.expiresAt = expiresAt;
+		}
+
+		boolean isExpired() {
+			return System.currentTimeMillis() >= this.expiresAt;
+		}
+	}
+}
@@ -18,11 +18,6 @@ package org.springframework.cloud.dataflow.server.service.impl.validation;
 
 import java.io.IOException;
 
-import org.apache.http.conn.ssl.NoopHostnameVerifier;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
-import org.json.JSONException;
-import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,15 +26,9 @@ import org.springframework.cloud.dataflow.registry.support.DockerImage;
 import org.springframework.cloud.dataflow.server.DockerValidatorProperties;
 import org.springframework.cloud.deployer.resource.docker.DockerResource;
 import org.springframework.cloud.deployer.resource.maven.MavenProperties;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.RestTemplate;
 
 /**
  * Provides operations to query the Docker repository for tags for a given
@@ -50,45 +39,50 @@ import org.springframework.web.client.RestTemplate;
  */
 public class DockerRegistryValidator {
 	private static final Logger logger = LoggerFactory.getLogger(DockerRegistryValidator.class);
-	private static final String DOCKER_REGISTRY_AUTH_TYPE = "JWT";
-	private static final String DOCKER_REGISTRY_TAGS_PATH = "/%s/tags/";
-	private static final String USER_NAME_KEY = "username";
-	private static final String PASSWORD_KEY = "password";
 	private final AppResourceCommon appResourceCommon;
 
-	private DockerAuth dockerAuth;
-	private RestTemplate restTemplate;
+	private final DockerRegistryClient dockerRegistryClient;
+
+	private final boolean ownsClient;
 
 	private DockerResource dockerResource;
-	private DockerValidatorProperties dockerValidatiorProperties;
 
+	/**
+	 * Create a validator with a client of its own, which is closed after the validation.
+	 *
+	 * @deprecated use {@link #DockerRegistryValidator(DockerRegistryClient, DockerResource)}
+	 * with a shared client, so that connections, auth tokens and tags are reused across
+	 * validations
+	 */
+	@Deprecated
 	public DockerRegistryValidator(DockerValidatorProperties dockerValidatorProperties,
 			DockerResource dockerResource) {
-		this.dockerValidatiorProperties = dockerValidatorProperties;
+		this(new DockerRegistryClient(dockerValidatorProperties), dockerResource, true);
+	}
+
+	public DockerRegistryValidator(DockerRegistryClient dockerRegistryClient, DockerResource dockerResource) {
+		this(dockerRegistryClient, dockerResource, false);
+	}
+
+	private DockerRegistryValidator(DockerRegistryClient dockerRegistryClient, DockerResource dockerResource,
+			boolean ownsClient) {
+		Assert.notNull(dockerRegistryClient, "DockerRegistryClient must not be null");
+		this.dockerRegistryClient = dockerRegistryClient;
+		this.ownsClient = ownsClient;
 		this.dockerResource = dockerResource;
-		this.restTemplate = configureRestTemplate();
-		this.dockerAuth = getDockerAuth();
 		this.appResourceCommon =  new AppResourceCommon(new MavenProperties(), null);
 	}
 
 	/**
 	 * Verifies that the image is present.
-	 *JobDependencies.java
+	 *
 	 * @return true if image is present.
 	 */
 	public boolean isImagePresent() {
 		boolean result = false;
 		try {
-			DockerResult dockerResult = getDockerImageInfo();
 			String resourceTag = this.appResourceCommon.getResourceVersion(this.dockerResource);
-			if (dockerResult.getCount() > 0) {
-				for (DockerTag tag : dockerResult.getResults()) {
-					if (tag.getName().equals(resourceTag)) {
-						result = true;
-						break;
-					}
-				}
-			}
+			result = this.dockerRegistryClient.hasTag(getDockerImageWithoutVersion(dockerResource), resourceTag);
 		}
 		catch (HttpClientErrorException hcee) {
 			//when attempting to access an invalid docker image or if you
@@ -96,64 +90,21 @@ public class DockerRegistryValidator {
 			logger.info("Unable to find image because of the following exception:", hcee);
 			result = false;
 		}
-		return result;
-	}
-
-	private RestTemplate configureRestTemplate() {
-		CloseableHttpClient httpClient
-				= HttpClients.custom()
-				.setSSLHostnameVerifier(new NoopHostnameVerifier())
-				.build();
-		HttpComponentsClientHttpRequestFactory requestFactory
-				= new HttpComponentsClientHttpRequestFactory();
-		requestFactory.setHttpClient(httpClient);
-		requestFactory.setConnectTimeout(dockerValidatiorProperties.getConnectTimeoutInMillis());
-		requestFactory.setReadTimeout(dockerValidatiorProperties.getReadTimeoutInMillis());
-
-		RestTemplate restTemplate = new RestTemplate(requestFactory);
-		return restTemplate;
-	}
-
-	private DockerAuth getDockerAuth() {
-		DockerAuth result = null;
-		String userName = dockerValidatiorProperties.getUserName();
-		String password = dockerValidatiorProperties.getPassword();
-		if (StringUtils.hasText(userName) && password != null) {
-			HttpHeaders headers = new HttpHeaders();
-			headers.setContentType(MediaType.APPLICATION_JSON);
-			HttpEntity httpEntity;
-			JSONObject request = new JSONObject();
-			try {
-				request.put(USER_NAME_KEY, userName);
-				request.put(PASSWORD_KEY, password);
+		finally {
+			if (this.ownsClient) {
+				closeClient();
 			}
-			catch (JSONException ie) {
-				throw new IllegalStateException(ie);
-			}
-			httpEntity = new HttpEntity(request.toString(), headers);
-			ResponseEntity dockerAuth = restTemplate.exchange(
-					dockerValidatiorProperties.getDockerAuthUrl(),
-					HttpMethod.POST, httpEntity, DockerAuth.class);
-			result = (DockerAuth) dockerAuth.getBody();
 		}
 		return result;
 	}
 
-	private DockerResult getDockerImageInfo() {
-		HttpHeaders headers = new HttpHeaders();
-		if (this.dockerAuth != null) {
-			headers.add(HttpHeaders.AUTHORIZATION, DOCKER_REGISTRY_AUTH_TYPE + " " + this.dockerAuth.getToken());
+	private void closeClient() {
+		try {
+			this.dockerRegistryClient.close();
+		}
+		catch (IOException e) {
+			logger.debug("Failed to close the Docker registry client", e);
 		}
-		HttpEntity httpEntity = new HttpEntity(headers);
-		String result = getDockerTagsEndpointUrl();
-		ResponseEntity tags = this.restTemplate.exchange(getDockerTagsEndpointUrl(), HttpMethod.GET, httpEntity,
-				DockerResult.class);
-
-		return (DockerResult) tags.getBody();
-	}
-
-	private String getDockerTagsEndpointUrl() {
-		return String.format(dockerValidatiorProperties.getDockerRegistryUrl() + DOCKER_REGISTRY_TAGS_PATH, getDockerImageWithoutVersion(dockerResource));
 	}
 
 	private String getDockerImageWithoutVersion(DockerResource dockerResource) {
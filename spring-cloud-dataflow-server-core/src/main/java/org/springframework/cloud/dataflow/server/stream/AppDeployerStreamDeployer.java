@@ -44,6 +44,7 @@ import org.springframework.cloud.dataflow.server.repository.DeploymentKey;
 import org.springframework.cloud.dataflow.server.repository.NoSuchStreamDefinitionException;
 import org.springframework.cloud.dataflow.server.repository.StreamDefinitionRepository;
 import org.springframework.cloud.dataflow.server.repository.StreamDeploymentRepository;
+import org.springframework.cloud.dataflow.server.support.ChangeVersions;
 import org.springframework.cloud.deployer.spi.app.AppDeployer;
 import org.springframework.cloud.deployer.spi.app.AppStatus;
 import org.springframework.cloud.deployer.spi.app.DeploymentState;
@@ -99,6 +100,8 @@ public class AppDeployerStreamDeployer implements StreamDeployer {
 	 */
 	private final AppRegistry appRegistry;
 
+	private ChangeVersions changeVersions;
+
 	public AppDeployerStreamDeployer(AppDeployer appDeployer, DeploymentIdRepository deploymentIdRepository,
 			StreamDefinitionRepository streamDefinitionRepository,
 			StreamDeploymentRepository streamDeploymentRepository, ForkJoinPool forkJoinPool,
@@ -117,6 +120,16 @@ public class AppDeployerStreamDeployer implements StreamDeployer {
 		this.appRegistry = appRegistry;
 	}
 
+	/**
+	 * Set the change counters in which deployments and undeployments of streams
+	 * are recorded as changes of the app statuses.
+	 *
+	 * @param changeVersions the change counters
+	 */
+	public void setChangeVersions(ChangeVersions changeVersions) {
+		this.changeVersions = changeVersions;
+	}
+
 	public void deployStream(StreamDeploymentRequest streamDeploymentRequest) {
 		for (AppDeploymentRequest appDeploymentRequest : streamDeploymentRequest.getAppDeploymentRequests()) {
 			try {
@@ -148,6 +161,7 @@ public class AppDeployerStreamDeployer implements StreamDeployer {
 		StreamDeployment streamDeployment = new StreamDeployment(streamDeploymentRequest.getStreamName(),
 				new JSONObject(deploymentProperties).toString());
 		this.streamDeploymentRepository.save(streamDeployment);
+		statusesChanged();
 	}
 
 	public void undeployStream(String streamName) {
@@ -165,6 +179,13 @@ public class AppDeployerStreamDeployer implements StreamDeployer {
 			}
 		}
 		this.streamDeploymentRepository.delete(streamDefinition.getName());
+		statusesChanged();
+	}
+
+	private void statusesChanged() {
+		if (this.changeVersions != null) {
+			this.changeVersions.changed(ChangeVersions.Domain.APP_STATUSES);
+		}
 	}
 
 	@Override
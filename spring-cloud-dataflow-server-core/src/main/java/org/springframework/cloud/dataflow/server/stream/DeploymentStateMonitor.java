@@ -0,0 +1,449 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.stream;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiPredicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cloud.dataflow.core.StreamDefinition;
+import org.springframework.cloud.dataflow.server.repository.StreamDefinitionRepository;
+import org.springframework.cloud.dataflow.server.support.ChangeVersions;
+import org.springframework.cloud.deployer.spi.app.AppInstanceStatus;
+import org.springframework.cloud.deployer.spi.app.AppStatus;
+import org.springframework.cloud.deployer.spi.app.DeploymentState;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+/**
+ * Polls the {@link StreamDeployer} for the states of all streams and the statuses of all
+ * deployed apps, and notifies listeners of the entries that changed since the previous
+ * poll.
+ * <p>
+ * The platform is asked once per interval no matter how many listeners are registered,
+ * and only for the kind of state that has listeners: without any, polling costs nothing.
+ * A listener is first told about all current entries and then only about changes, so the
+ * state it holds stays complete. A listener that throws is removed.
+ * <p>
+ * Listeners are called from a small pool of delivery threads, never from the polling
+ * thread and never while a lock is held, so that a slow listener does not hold up the
+ * polls or the other listeners. Each listener is called by one thread at a time, in the
+ * order of the changes. A listener with more than the maximum number of pending updates
+ * has fallen behind: it is removed and told that it was {@link Listener#dropped()
+ * dropped}.
+ */
+public class DeploymentStateMonitor implements DisposableBean {
+
+	private static final Logger logger = LoggerFactory.getLogger(DeploymentStateMonitor.class);
+
+	private static final int APP_STATUS_PAGE_SIZE = 100;
+
+	private static final int DELIVERY_THREADS = 4;
+
+	private final StreamDefinitionRepository streamDefinitionRepository;
+
+	private final StreamDeployer streamDeployer;
+
+	private final long interval;
+
+	private final ScheduledExecutorService executor;
+
+	private final ExecutorService deliveryExecutor;
+
+	private final Channel<DeploymentState> streamStates;
+
+	private final Channel<AppStatus> appStatuses;
+
+	private ChangeVersions changeVersions;
+
+	private volatile int maxPendingUpdates = 16;
+
+	private boolean started;
+
+	/**
+	 * Create a {@link DeploymentStateMonitor}.
+	 *
+	 * @param streamDefinitionRepository the repository listing the streams to watch
+	 * @param streamDeployer the deployer asked for stream states and app statuses
+	 * @param interval the time in milliseconds between the end of a poll and the start of
+	 * the next one
+	 */
+	public DeploymentStateMonitor(StreamDefinitionRepository streamDefinitionRepository,
+			StreamDeployer streamDeployer, long interval) {
+		Assert.notNull(streamDefinitionRepository, "streamDefinitionRepository must not be null");
+		Assert.notNull(streamDeployer, "streamDeployer must not be null");
+		Assert.isTrue(interval > 0, "interval must be greater than 0");
+		this.streamDefinitionRepository = streamDefinitionRepository;
+		this.streamDeployer = streamDeployer;
+		this.interval = interval;
+		this.executor = new ScheduledThreadPoolExecutor(1, new CustomizableThreadFactory("deployment-state-"));
+		this.deliveryExecutor = Executors.newFixedThreadPool(DELIVERY_THREADS,
+				new CustomizableThreadFactory("deployment-events-"));
+		this.streamStates = new Channel<>("stream states", this::loadStreamStates, Objects::equals);
+		this.appStatuses = new Channel<>("app statuses", this::loadAppStatuses,
+				DeploymentStateMonitor::sameStatus);
+	}
+
+	/**
+	 * Set the change counters that are told when a poll finds app statuses that changed,
+	 * so that conditional requests for the statuses are not answered from a stale version
+	 * while the state is being watched.
+	 *
+	 * @param changeVersions the change counters
+	 */
+	public void setChangeVersions(ChangeVersions changeVersions) {
+		this.changeVersions = changeVersions;
+	}
+
+	/**
+	 * Set the number of updates that may wait to be delivered to a listener before it is
+	 * dropped as too slow.
+	 *
+	 * @param maxPendingUpdates the maximum number of pending updates per listener
+	 */
+	public void setMaxPendingUpdates(int maxPendingUpdates) {
+		Assert.isTrue(maxPendingUpdates > 0, "maxPendingUpdates must be greater than 0");
+		this.maxPendingUpdates = maxPendingUpdates;
+	}
+
+	/**
+	 * Register a listener for the deployment states of streams, keyed by stream name.
+	 *
+	 * @param listener the listener to register
+	 */
+	public void addStreamStateListener(Listener<DeploymentState> listener) {
+		add(this.streamStates, listener);
+	}
+
+	public void removeStreamStateListener(Listener<DeploymentState> listener) {
+		this.streamStates.remove(listener);
+	}
+
+	/**
+	 * Register a listener for the statuses of deployed apps, keyed by deployment id.
+	 *
+	 * @param listener the listener to register
+	 */
+	public void addAppStatusListener(Listener<AppStatus> listener) {
+		add(this.appStatuses, listener);
+	}
+
+	public void removeAppStatusListener(Listener<AppStatus> listener) {
+		this.appStatuses.remove(listener);
+	}
+
+	@Override
+	public void destroy() {
+		this.executor.shutdownNow();
+		this.deliveryExecutor.shutdownNow();
+	}
+
+	private <T> void add(Channel<T> channel, Listener<T> listener) {
+		Assert.notNull(listener, "listener must not be null");
+		synchronized (channel) {
+			Subscription<T> subscription = new Subscription<>(channel, listener);
+			channel.subscriptions.add(subscription);
+			if (channel.entries != null) {
+				subscription.offer(channel.entries, Collections.emptySet());
+			}
+		}
+		synchronized (this) {
+			if (!this.started) {
+				this.executor.scheduleWithFixedDelay(this::poll, 0, this.interval, TimeUnit.MILLISECONDS);
+				this.started = true;
+			}
+			else if (channel.entries == null) {
+				// the first listener should not wait for the next scheduled poll
+				this.executor.execute(this::poll);
+			}
+		}
+	}
+
+	void poll() {
+		boolean streamStatesChanged = this.streamStates.poll();
+		boolean appStatusesChanged = this.appStatuses.poll();
+		if ((streamStatesChanged || appStatusesChanged) && this.changeVersions != null) {
+			this.changeVersions.changed(ChangeVersions.Domain.APP_STATUSES);
+		}
+	}
+
+	private Map<String, DeploymentState> loadStreamStates() {
+		List<StreamDefinition> streamDefinitions = new ArrayList<>();
+		for (StreamDefinition streamDefinition : this.streamDefinitionRepository.findAll()) {
+			streamDefinitions.add(streamDefinition);
+		}
+		Map<String, DeploymentState> states = new HashMap<>();
+		for (Map.Entry<StreamDefinition, DeploymentState> entry : this.streamDeployer.streamsStates(streamDefinitions)
+				.entrySet()) {
+			states.put(entry.getKey().getName(), entry.getValue());
+		}
+		return states;
+	}
+
+	private Map<String, AppStatus> loadAppStatuses() throws Exception {
+		Map<String, AppStatus> statuses = new HashMap<>();
+		Page<AppStatus> page = this.streamDeployer.getAppStatuses(new PageRequest(0, APP_STATUS_PAGE_SIZE));
+		while (true) {
+			for (AppStatus appStatus : page.getContent()) {
+				statuses.put(appStatus.getDeploymentId(), appStatus);
+			}
+			if (!page.hasNext()) {
+				return statuses;
+			}
+			page = this.streamDeployer.getAppStatuses(page.nextPageable());
+		}
+	}
+
+	static boolean sameStatus(AppStatus previous, AppStatus current) {
+		if (previous.getState() != current.getState()
+				|| previous.getInstances().size() != current.getInstances().size()) {
+			return false;
+		}
+		for (Map.Entry<String, AppInstanceStatus> entry : current.getInstances().entrySet()) {
+			AppInstanceStatus instance = previous.getInstances().get(entry.getKey());
+			if (instance == null || instance.getState() != entry.getValue().getState()
+					|| !Objects.equals(instance.getAttributes(), entry.getValue().getAttributes())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Receives the entries that changed since it was last called.
+	 *
+	 * @param <T> the type of state
+	 */
+	@FunctionalInterface
+	public interface Listener<T> {
+
+		/**
+		 * Called with the entries that are new or changed, and the keys of the entries that
+		 * are gone.
+		 *
+		 * @param changed the new or changed entries
+		 * @param removed the keys of the removed entries
+		 * @throws Exception to be removed from the listeners
+		 */
+		void changed(Map<String, T> changed, Set<String> removed) throws Exception;
+
+		/**
+		 * Called once the listener is removed because it fell behind. It is not called
+		 * again afterwards.
+		 */
+		default void dropped() {
+		}
+	}
+
+	/**
+	 * An update waiting to be delivered to a listener.
+	 */
+	private static class Update<T> {
+
+		private final Map<String, T> changed;
+
+		private final Set<String> removed;
+
+		Update(Map<String, T> changed, Set<String> removed) {
+			this.changed = Collections.unmodifiableMap(changed);
+			this.removed = Collections.unmodifiableSet(removed);
+		}
+	}
+
+	/**
+	 * A listener with the updates not delivered to it yet, delivered by at most one
+	 * delivery thread at a time.
+	 */
+	private class Subscription<T> implements Runnable {
+
+		private final Channel<T> channel;
+
+		private final Listener<T> listener;
+
+		private final Queue<Update<T>> pending = new ArrayDeque<>();
+
+		private boolean scheduled;
+
+		private boolean dropped;
+
+		private boolean cancelled;
+
+		Subscription(Channel<T> channel, Listener<T> listener) {
+			this.channel = channel;
+			this.listener = listener;
+		}
+
+		/**
+		 * Queue an update without blocking, dropping the listener if too many are pending.
+		 */
+		synchronized void offer(Map<String, T> changed, Set<String> removed) {
+			if (this.cancelled) {
+				return;
+			}
+			if (this.pending.size() >= DeploymentStateMonitor.this.maxPendingUpdates) {
+				logger.debug("Dropping listener for {} that fell behind", this.channel.name);
+				this.channel.subscriptions.remove(this);
+				this.pending.clear();
+				this.cancelled = true;
+				this.dropped = true;
+			}
+			else {
+				this.pending.add(new Update<>(changed, removed));
+			}
+			if (!this.scheduled) {
+				this.scheduled = true;
+				DeploymentStateMonitor.this.deliveryExecutor.execute(this);
+			}
+		}
+
+		synchronized void cancel() {
+			this.pending.clear();
+			this.cancelled = true;
+		}
+
+		@Override
+		public void run() {
+			while (true) {
+				Update<T> update;
+				boolean notifyDropped = false;
+				synchronized (this) {
+					update = this.pending.poll();
+					if (update == null) {
+						this.scheduled = false;
+						notifyDropped = this.dropped;
+						this.dropped = false;
+					}
+				}
+				if (update == null) {
+					if (notifyDropped) {
+						this.listener.dropped();
+					}
+					return;
+				}
+				try {
+					this.listener.changed(update.changed, update.removed);
+				}
+				catch (Exception e) {
+					logger.debug("Removing listener for " + this.channel.name + " that failed", e);
+					this.channel.subscriptions.remove(this);
+					cancel();
+				}
+			}
+		}
+	}
+
+	/**
+	 * One kind of state, with its listeners and the entries they were last told about.
+	 */
+	private class Channel<T> {
+
+		private final String name;
+
+		private final Callable<Map<String, T>> loader;
+
+		private final BiPredicate<T, T> same;
+
+		private final List<Subscription<T>> subscriptions = new CopyOnWriteArrayList<>();
+
+		/**
+		 * The entries last sent to the listeners, {@code null} until loaded.
+		 */
+		private Map<String, T> entries;
+
+		Channel(String name, Callable<Map<String, T>> loader, BiPredicate<T, T> same) {
+			this.name = name;
+			this.loader = loader;
+			this.same = same;
+		}
+
+		void remove(Listener<T> listener) {
+			for (Subscription<T> subscription : this.subscriptions) {
+				if (subscription.listener == listener) {
+					this.subscriptions.remove(subscription);
+					subscription.cancel();
+				}
+			}
+		}
+
+		/**
+		 * Load the current entries and notify the listeners of the differences.
+		 *
+		 * @return whether entries changed since the previous poll
+		 */
+		boolean poll() {
+			if (this.subscriptions.isEmpty()) {
+				synchronized (this) {
+					// do not replay entries that were not kept current to later listeners
+					this.entries = null;
+				}
+				return false;
+			}
+			Map<String, T> current;
+			try {
+				current = this.loader.call();
+			}
+			catch (Exception e) {
+				logger.warn("Could not poll " + this.name + ", retrying with the next poll", e);
+				return false;
+			}
+			synchronized (this) {
+				boolean initial = this.entries == null;
+				Map<String, T> previous = initial ? Collections.emptyMap() : this.entries;
+				Map<String, T> changed = new LinkedHashMap<>();
+				for (Map.Entry<String, T> entry : current.entrySet()) {
+					T before = previous.get(entry.getKey());
+					if (before == null || !this.same.test(before, entry.getValue())) {
+						changed.put(entry.getKey(), entry.getValue());
+					}
+				}
+				Set<String> removed = new HashSet<>(previous.keySet());
+				removed.removeAll(current.keySet());
+				this.entries = current;
+				if (changed.isEmpty() && removed.isEmpty()) {
+					return false;
+				}
+				// queued under the lock so that every listener sees the updates in order
+				for (Subscription<T> subscription : this.subscriptions) {
+					subscription.offer(changed, removed);
+				}
+				return !initial;
+			}
+		}
+	}
+}
@@ -50,6 +50,7 @@ import org.springframework.cloud.dataflow.registry.service.AppRegistryService;
 import org.springframework.cloud.dataflow.rest.SkipperStream;
 import org.springframework.cloud.dataflow.server.controller.NoSuchAppException;
 import org.springframework.cloud.dataflow.server.repository.StreamDefinitionRepository;
+import org.springframework.cloud.dataflow.server.support.ChangeVersions;
 import org.springframework.cloud.deployer.spi.app.AppInstanceStatus;
 import org.springframework.cloud.deployer.spi.app.AppStatus;
 import org.springframework.cloud.deployer.spi.app.DeploymentState;
@@ -105,6 +106,8 @@ public class SkipperStreamDeployer implements StreamDeployer {
 
 	private final ForkJoinPool forkJoinPool;
 
+	private ChangeVersions changeVersions;
+
 	public SkipperStreamDeployer(SkipperClient skipperClient, StreamDefinitionRepository streamDefinitionRepository,
 			AppRegistryService appRegistryService, ForkJoinPool forkJoinPool) {
 		Assert.notNull(skipperClient, "SkipperClient can not be null");
@@ -117,6 +120,16 @@ public class SkipperStreamDeployer implements StreamDeployer {
 		this.forkJoinPool = forkJoinPool;
 	}
 
+	/**
+	 * Set the change counters in which deployments, undeployments and updates of streams
+	 * are recorded as changes of the app statuses.
+	 *
+	 * @param changeVersions the change counters
+	 */
+	public void setChangeVersions(ChangeVersions changeVersions) {
+		this.changeVersions = changeVersions;
+	}
+
 	public static List<AppStatus> deserializeAppStatus(String platformStatus) {
 		try {
 			if (platformStatus != null) {
@@ -252,10 +265,17 @@ public class SkipperStreamDeployer implements StreamDeployer {
 			}
 			throw new SkipperException(e.getMessage());
 		}
+		statusesChanged();
 		// TODO store releasename in deploymentIdRepository...
 		return release;
 	}
 
+	private void statusesChanged() {
+		if (this.changeVersions != null) {
+			this.changeVersions.changed(ChangeVersions.Domain.APP_STATUSES);
+		}
+	}
+
 	private String determinePlatformName(final String platformName) {
 		Resources<Deployer> deployerResources = skipperClient.listDeployers();
 		Collection<Deployer> deployers = deployerResources.getContent();
@@ -424,6 +444,9 @@ public class SkipperStreamDeployer implements StreamDeployer {
 				logger.info(String.format("Release not found for %s. Deleting the package %s", streamName, streamName));
 				this.skipperClient.packageDelete(streamName);
 			}
+			finally {
+				statusesChanged();
+			}
 		}
 	}
 
@@ -537,7 +560,12 @@ public class SkipperStreamDeployer implements StreamDeployer {
 		upgradeRequest.setUpgradeProperties(upgradeProperties);
 		upgradeRequest.setForce(force);
 		upgradeRequest.setAppNames(appNames);
-		return this.skipperClient.upgrade(upgradeRequest);
+		try {
+			return this.skipperClient.upgrade(upgradeRequest);
+		}
+		finally {
+			statusesChanged();
+		}
 	}
 
 	/**
@@ -546,7 +574,12 @@ public class SkipperStreamDeployer implements StreamDeployer {
 	 * @param releaseVersion the version of the stream to rollback to
 	 */
 	public void rollbackStream(String streamName, int releaseVersion) {
-		this.skipperClient.rollback(streamName, releaseVersion);
+		try {
+			this.skipperClient.rollback(streamName, releaseVersion);
+		}
+		finally {
+			statusesChanged();
+		}
 	}
 
 	public String manifest(String name, int version) {
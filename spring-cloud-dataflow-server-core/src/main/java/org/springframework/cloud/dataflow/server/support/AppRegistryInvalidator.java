@@ -0,0 +1,62 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.support;
+
+import org.springframework.cloud.dataflow.registry.AppRegistryCommon;
+import org.springframework.cloud.dataflow.server.cluster.ClusterChangeEvent;
+import org.springframework.cloud.dataflow.server.support.ChangeVersions.Domain;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.event.SmartApplicationListener;
+import org.springframework.core.Ordered;
+import org.springframework.util.Assert;
+
+/**
+ * Discards what the {@link AppRegistryCommon} caches of the registrations when another
+ * server changed them. It runs before {@link ChangeVersions}, so that a response carrying
+ * the incremented version is never built from registrations read before the change.
+ */
+public class AppRegistryInvalidator implements SmartApplicationListener {
+
+	private final AppRegistryCommon appRegistry;
+
+	public AppRegistryInvalidator(AppRegistryCommon appRegistry) {
+		Assert.notNull(appRegistry, "appRegistry must not be null");
+		this.appRegistry = appRegistry;
+	}
+
+	@Override
+	public boolean supportsEventType(Class<? extends ApplicationEvent> eventType) {
+		return ClusterChangeEvent.class.isAssignableFrom(eventType);
+	}
+
+	@Override
+	public boolean supportsSourceType(Class<?> sourceType) {
+		return true;
+	}
+
+	@Override
+	public int getOrder() {
+		return Ordered.HIGHEST_PRECEDENCE;
+	}
+
+	@Override
+	public void onApplicationEvent(ApplicationEvent event) {
+		if (Domain.APP_REGISTRATIONS.name().equals(((ClusterChangeEvent) event).getTopic())) {
+			this.appRegistry.invalidate();
+		}
+	}
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.support;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.cloud.dataflow.server.cluster.ClusterChangeEvent;
+import org.springframework.cloud.dataflow.server.cluster.ClusterCoordinator;
+import org.springframework.cloud.dataflow.server.service.TaskExecutionsPurgedEvent;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.event.SmartApplicationListener;
+import org.springframework.core.Ordered;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+/**
+ * Monotonic change counters for the state exposed by the REST API, from which
+ * controllers derive the {@code ETag} and {@code Last-Modified} values of their
+ * collection resources. A conditional request whose validators are still current can be
+ * answered with {@code 304 Not Modified} without reading the database or asking the
+ * platform.
+ * <p>
+ * Repositories, deployers and services call {@link #changed(Domain)} when they modify a
+ * domain. Inside a transaction the counter is only incremented once the transaction
+ * completes, and controllers read the counters before reading the state they describe,
+ * so that a response never carries a validator newer than its content.
+ * <p>
+ * Some changes are not made through this server: app instances change state on the
+ * platform, task applications record their own executions, and other servers sharing
+ * the database change definitions and registrations. The counter of a domain is
+ * therefore also incremented once its time to live has elapsed since its last change,
+ * which bounds how long such a change goes unnoticed. When a {@link ClusterCoordinator}
+ * is set, changes of the stored state and of the task executions are also published to
+ * the other servers once committed, and their changes increment the counters of this
+ * server as soon as they are received. App statuses are not published, each server
+ * reading them from the platform.
+ */
+public class ChangeVersions implements SmartApplicationListener {
+
+	/**
+	 * Default time to live in milliseconds of the stored state versions.
+	 */
+	public static final long DEFAULT_STORED_STATE_TTL = 30000;
+
+	/**
+	 * Default time to live in milliseconds of the runtime state versions.
+	 */
+	public static final long DEFAULT_RUNTIME_STATE_TTL = 5000;
+
+	/**
+	 * The kinds of state whose changes are counted.
+	 */
+	public enum Domain {
+
+		STREAM_DEFINITIONS(false, true),
+
+		TASK_DEFINITIONS(false, true),
+
+		APP_REGISTRATIONS(false, true),
+
+		APP_STATUSES(true, false),
+
+		TASK_EXECUTIONS(true, true);
+
+		private final boolean runtimeState;
+
+		private final boolean published;
+
+		Domain(boolean runtimeState, boolean published) {
+			this.runtimeState = runtimeState;
+			this.published = published;
+		}
+
+		/**
+		 * @return whether the domain is changed on the platform rather than in the
+		 * database
+		 */
+		public boolean isRuntimeState() {
+			return this.runtimeState;
+		}
+
+		/**
+		 * @return whether changes of the domain are published to the other servers
+		 */
+		public boolean isPublished() {
+			return this.published;
+		}
+	}
+
+	/**
+	 * Distinguishes the validators of this server instance from those handed out before
+	 * a restart, when the counters started from the same values.
+	 */
+	private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+	private final AtomicLongArray versions = new AtomicLongArray(Domain.values().length);
+
+	private final AtomicLongArray lastModified = new AtomicLongArray(Domain.values().length);
+
+	private final long storedStateTtl;
+
+	private final long runtimeStateTtl;
+
+	private ClusterCoordinator clusterCoordinator;
+
+	public ChangeVersions() {
+		this(DEFAULT_STORED_STATE_TTL, DEFAULT_RUNTIME_STATE_TTL);
+	}
+
+	/**
+	 * Create the change counters.
+	 *
+	 * @param storedStateTtl time in milliseconds after which the version of a domain held
+	 * in the database is incremented even if it was not changed through this server
+	 * @param runtimeStateTtl time in milliseconds after which the version of a domain
+	 * changed on the platform is incremented even if it was not changed through this server
+	 */
+	public ChangeVersions(long storedStateTtl, long runtimeStateTtl) {
+		this.storedStateTtl = storedStateTtl;
+		this.runtimeStateTtl = runtimeStateTtl;
+		long now = System.currentTimeMillis();
+		for (int i = 0; i < this.lastModified.length(); i++) {
+			this.lastModified.set(i, now);
+		}
+	}
+
+	/**
+	 * Set the coordinator through which changes are exchanged with the other servers
+	 * sharing the database.
+	 *
+	 * @param clusterCoordinator the cluster coordinator
+	 */
+	public void setClusterCoordinator(ClusterCoordinator clusterCoordinator) {
+		this.clusterCoordinator = clusterCoordinator;
+	}
+
+	/**
+	 * Record a change of the given domain. If a transaction is active, the version is
+	 * incremented once it completes, and the change is only published to the other
+	 * servers if it committed.
+	 *
+	 * @param domain the changed domain
+	 */
+	public void changed(Domain domain) {
+		Assert.notNull(domain, "domain must not be null");
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+				@Override
+				public void afterCompletion(int status) {
+					increment(domain);
+					if (status == TransactionSynchronization.STATUS_COMMITTED) {
+						publish(domain);
+					}
+				}
+			});
+		}
+		else {
+			increment(domain);
+			publish(domain);
+		}
+	}
+
+	/**
+	 * @param domain the domain
+	 * @return the current version of the domain
+	 */
+	public long getVersion(Domain domain) {
+		Assert.notNull(domain, "domain must not be null");
+		int index = domain.ordinal();
+		long ttl = domain.isRuntimeState() ? this.runtimeStateTtl : this.storedStateTtl;
+		long changedAt = this.lastModified.get(index);
+		long now = System.currentTimeMillis();
+		if (now - changedAt >= ttl && this.lastModified.compareAndSet(index, changedAt, now)) {
+			return this.versions.incrementAndGet(index);
+		}
+		return this.versions.get(index);
+	}
+
+	/**
+	 * Return a strong entity tag that changes whenever one of the given domains changes.
+	 *
+	 * @param domains the domains a resource is built from
+	 * @return the quoted entity tag
+	 */
+	public String getETag(Domain... domains) {
+		StringBuilder etag = new StringBuilder("\"").append(this.epoch);
+		for (Domain domain : domains) {
+			etag.append('-').append(Long.toString(getVersion(domain), Character.MAX_RADIX));
+		}
+		return etag.append('"').toString();
+	}
+
+	/**
+	 * @param domains the domains a resource is built from
+	 * @return the time in milliseconds of the latest change of the given domains
+	 */
+	public long getLastModified(Domain... domains) {
+		long result = 0;
+		for (Domain domain : domains) {
+			getVersion(domain);
+			result = Math.max(result, this.lastModified.get(domain.ordinal()));
+		}
+		return result;
+	}
+
+	@Override
+	public boolean supportsEventType(Class<? extends ApplicationEvent> eventType) {
+		return TaskExecutionsPurgedEvent.class.isAssignableFrom(eventType)
+				|| ClusterChangeEvent.class.isAssignableFrom(eventType);
+	}
+
+	@Override
+	public boolean supportsSourceType(Class<?> sourceType) {
+		return true;
+	}
+
+	@Override
+	public int getOrder() {
+		return Ordered.LOWEST_PRECEDENCE;
+	}
+
+	@Override
+	public void onApplicationEvent(ApplicationEvent event) {
+		if (event instanceof TaskExecutionsPurgedEvent) {
+			onTaskExecutionsPurged((TaskExecutionsPurgedEvent) event);
+		}
+		else {
+			onClusterChange((ClusterChangeEvent) event);
+		}
+	}
+
+	public void onTaskExecutionsPurged(TaskExecutionsPurgedEvent event) {
+		changed(Domain.TASK_EXECUTIONS);
+	}
+
+	public void onClusterChange(ClusterChangeEvent event) {
+		for (Domain domain : Domain.values()) {
+			if (domain.isPublished() && domain.name().equals(event.getTopic())) {
+				increment(domain);
+			}
+		}
+	}
+
+	private void publish(Domain domain) {
+		if (this.clusterCoordinator != null && domain.isPublished()) {
+			this.clusterCoordinator.publish(domain.name());
+		}
+	}
+
+	private void increment(Domain domain) {
+		this.versions.incrementAndGet(domain.ordinal());
+		this.lastModified.set(domain.ordinal(), System.currentTimeMillis());
+	}
+}
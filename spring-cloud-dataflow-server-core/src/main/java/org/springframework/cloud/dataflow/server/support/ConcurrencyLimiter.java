@@ -0,0 +1,148 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.support;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.util.Assert;
+
+/**
+ * Limits the number of concurrent executions of some work. A caller that finds all
+ * permits taken waits in a bounded queue, served in arrival order, for at most the
+ * configured time. A caller that finds the queue full is rejected at once, so that a
+ * burst is turned away instead of piling up threads.
+ */
+public class ConcurrencyLimiter {
+
+	private final int limit;
+
+	private final int maxQueued;
+
+	private final long maxWait;
+
+	private final Semaphore permits;
+
+	private final AtomicInteger queued = new AtomicInteger();
+
+	private final LongAdder admitted = new LongAdder();
+
+	private final LongAdder rejected = new LongAdder();
+
+	/**
+	 * Create a limiter.
+	 *
+	 * @param limit the maximum number of concurrent executions
+	 * @param maxQueued the maximum number of callers waiting for a permit
+	 * @param maxWait the maximum time in milliseconds a caller waits for a permit
+	 */
+	public ConcurrencyLimiter(int limit, int maxQueued, long maxWait) {
+		Assert.isTrue(limit > 0, "limit must be positive");
+		Assert.isTrue(maxQueued >= 0, "maxQueued must not be negative");
+		Assert.isTrue(maxWait >= 0, "maxWait must not be negative");
+		this.limit = limit;
+		this.maxQueued = maxQueued;
+		this.maxWait = maxWait;
+		this.permits = new Semaphore(limit, true);
+	}
+
+	/**
+	 * Acquire a permit, waiting if all are taken and the queue is not full. A permit that
+	 * was acquired must be given back with {@link #release()}.
+	 *
+	 * @return whether a permit was acquired
+	 */
+	public boolean acquire() {
+		try {
+			// honors the callers already waiting, unlike the untimed tryAcquire
+			if (this.permits.tryAcquire(0, TimeUnit.MILLISECONDS)) {
+				this.admitted.increment();
+				return true;
+			}
+			if (this.queued.incrementAndGet() > this.maxQueued) {
+				this.queued.decrementAndGet();
+				this.rejected.increment();
+				return false;
+			}
+			try {
+				if (this.permits.tryAcquire(this.maxWait, TimeUnit.MILLISECONDS)) {
+					this.admitted.increment();
+					return true;
+				}
+			}
+			finally {
+				this.queued.decrementAndGet();
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		this.rejected.increment();
+		return false;
+	}
+
+	/**
+	 * Give back a permit acquired with {@link #acquire()}.
+	 */
+	public void release() {
+		this.permits.release();
+	}
+
+	/**
+	 * @return the maximum number of concurrent executions
+	 */
+	public int getLimit() {
+		return this.limit;
+	}
+
+	/**
+	 * @return the number of permits currently taken
+	 */
+	public int getActive() {
+		return this.limit - this.permits.availablePermits();
+	}
+
+	/**
+	 * @return the maximum number of callers waiting for a permit
+	 */
+	public int getMaxQueued() {
+		return this.maxQueued;
+	}
+
+	/**
+	 * @return the number of callers currently waiting for a permit
+	 */
+	public int getQueued() {
+		return this.queued.get();
+	}
+
+	/**
+	 * @return the number of permits acquired so far
+	 */
+	public long getAdmitted() {
+		return this.admitted.sum();
+	}
+
+	/**
+	 * @return the number of callers rejected so far
+	 */
+	public long getRejected() {
+		return this.rejected.sum();
+	}
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.support;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.cloud.dataflow.configuration.metadata.ApplicationConfigurationMetadataResolver;
+import org.springframework.cloud.dataflow.registry.support.MavenResourceCache;
+import org.springframework.cloud.dataflow.server.repository.DeploymentIdRepository;
+import org.springframework.cloud.dataflow.server.repository.LatestTaskExecutionRepository;
+import org.springframework.cloud.dataflow.server.repository.StreamDefinitionRepository;
+import org.springframework.cloud.dataflow.server.repository.StreamDeploymentRepository;
+import org.springframework.cloud.dataflow.server.repository.TaskDefinitionRepository;
+import org.springframework.cloud.deployer.spi.app.AppDeployer;
+import org.springframework.cloud.deployer.spi.core.AppDeploymentRequest;
+import org.springframework.cloud.deployer.spi.task.TaskLauncher;
+import org.springframework.cloud.skipper.client.SkipperClient;
+import org.springframework.cloud.task.repository.TaskExplorer;
+import org.springframework.core.io.Resource;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Wraps the beans through which the server calls the platform, Skipper, the database and
+ * the app artifacts, so that the latency of every call is recorded by the
+ * {@link LatencyRecorder}.
+ * <p>
+ * Calls are named after the seam and the method, such as {@code app-deployer.status} or
+ * {@code repository.stream-definitions.findAll}; only the methods of the seam type and
+ * of the interfaces extending it, such as {@code MultiStateAppDeployer}, are timed. Beans
+ * of an interface seam are wrapped in an interface based proxy implementing all their
+ * interfaces, and only beans of a class seam in a class based proxy. Beans that are
+ * already Spring proxies get the timing advice added instead.
+ */
+public class LatencyInstrumentingPostProcessor implements BeanPostProcessor, BeanFactoryAware {
+
+	private static final Map<Class<?>, String> SEAMS = new LinkedHashMap<>();
+
+	static {
+		SEAMS.put(AppDeployer.class, "app-deployer");
+		SEAMS.put(TaskLauncher.class, "task-launcher");
+		SEAMS.put(SkipperClient.class, "skipper");
+		SEAMS.put(ApplicationConfigurationMetadataResolver.class, "metadata");
+		SEAMS.put(MavenResourceCache.class, "maven");
+		SEAMS.put(StreamDefinitionRepository.class, "repository.stream-definitions");
+		SEAMS.put(StreamDeploymentRepository.class, "repository.stream-deployments");
+		SEAMS.put(TaskDefinitionRepository.class, "repository.task-definitions");
+		SEAMS.put(DeploymentIdRepository.class, "repository.deployment-ids");
+		SEAMS.put(LatestTaskExecutionRepository.class, "repository.latest-task-executions");
+		SEAMS.put(TaskExplorer.class, "repository.task-executions");
+	}
+
+	private BeanFactory beanFactory;
+
+	@Override
+	public void setBeanFactory(BeanFactory beanFactory) {
+		this.beanFactory = beanFactory;
+	}
+
+	@Override
+	public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+		return bean;
+	}
+
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+		for (Map.Entry<Class<?>, String> seam : SEAMS.entrySet()) {
+			if (!seam.getKey().isInstance(bean)) {
+				continue;
+			}
+			List<Class<?>> seamTypes = new ArrayList<>();
+			seamTypes.add(seam.getKey());
+			for (Class<?> type : ClassUtils.getAllInterfacesForClassAsSet(bean.getClass())) {
+				if (type != seam.getKey() && seam.getKey().isAssignableFrom(type)) {
+					seamTypes.add(type);
+				}
+			}
+			TimingInterceptor interceptor = new TimingInterceptor(seam.getValue(), seamTypes, beanName);
+			if (bean instanceof Advised && !((Advised) bean).isFrozen()) {
+				((Advised) bean).addAdvice(0, interceptor);
+				return bean;
+			}
+			ProxyFactory proxyFactory = new ProxyFactory(bean);
+			if (!seam.getKey().isInterface()) {
+				if (Modifier.isFinal(bean.getClass().getModifiers()) || Proxy.isProxyClass(bean.getClass())) {
+					return bean;
+				}
+				proxyFactory.setProxyTargetClass(true);
+			}
+			proxyFactory.addAdvice(interceptor);
+			return proxyFactory.getProxy(bean.getClass().getClassLoader());
+		}
+		return bean;
+	}
+
+	/**
+	 * Returns what a call was made for, from its first argument.
+	 */
+	static String describe(Object[] arguments) {
+		if (arguments.length == 0 || arguments[0] == null) {
+			return null;
+		}
+		Object argument = arguments[0];
+		if (argument instanceof String) {
+			return (String) argument;
+		}
+		if (argument instanceof String[]) {
+			String[] values = (String[]) argument;
+			return values.length <= 3 ? StringUtils.arrayToCommaDelimitedString(values) : values.length + " ids";
+		}
+		if (argument instanceof AppDeploymentRequest) {
+			return ((AppDeploymentRequest) argument).getDefinition().getName();
+		}
+		if (argument instanceof Resource) {
+			return ((Resource) argument).getDescription();
+		}
+		return null;
+	}
+
+	private class TimingInterceptor implements MethodInterceptor {
+
+		private final String name;
+
+		private final List<Class<?>> seamTypes;
+
+		private final String beanName;
+
+		private final ConcurrentMap<Method, Optional<String>> callNames = new ConcurrentHashMap<>();
+
+		private volatile LatencyRecorder recorder;
+
+		TimingInterceptor(String name, List<Class<?>> seamTypes, String beanName) {
+			this.name = name;
+			this.seamTypes = seamTypes;
+			this.beanName = beanName;
+		}
+
+		@Override
+		public Object invoke(MethodInvocation invocation) throws Throwable {
+			Optional<String> callName = this.callNames.computeIfAbsent(invocation.getMethod(), this::getCallName);
+			if (!callName.isPresent()) {
+				return invocation.proceed();
+			}
+			long start = System.nanoTime();
+			boolean failed = true;
+			try {
+				Object result = invocation.proceed();
+				failed = false;
+				return result;
+			}
+			finally {
+				getRecorder().record(callName.get(), () -> {
+					String detail = describe(invocation.getArguments());
+					return detail != null ? this.beanName + ": " + detail : this.beanName;
+				}, System.nanoTime() - start, failed);
+			}
+		}
+
+		/**
+		 * Returns the name the calls of the given method are recorded under, or nothing if
+		 * the method is not one of the seam.
+		 */
+		private Optional<String> getCallName(Method method) {
+			if (method.getDeclaringClass() != Object.class) {
+				for (Class<?> seamType : this.seamTypes) {
+					Method seamMethod = ReflectionUtils.findMethod(seamType, method.getName(),
+							method.getParameterTypes());
+					if (seamMethod != null && seamMethod.getDeclaringClass() != Object.class) {
+						return Optional.of(this.name + "." + method.getName());
+					}
+				}
+			}
+			return Optional.empty();
+		}
+
+		private LatencyRecorder getRecorder() {
+			if (this.recorder == null) {
+				// resolved lazily, as instrumented beans are created before the recorder
+				this.recorder = beanFactory.getBean(LatencyRecorder.class);
+			}
+			return this.recorder;
+		}
+	}
+}
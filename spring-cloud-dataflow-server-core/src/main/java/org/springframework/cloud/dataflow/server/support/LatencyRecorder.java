@@ -0,0 +1,225 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.util.Assert;
+
+/**
+ * Records the latency of calls the server makes to the platform, Skipper, the database and
+ * the app artifacts, and of the requests it serves, and publishes them through the
+ * {@code metrics} management endpoint.
+ * <p>
+ * For every call name, {@code dataflow.latency.<name>.count} and {@code .errors} are
+ * published, along with the {@code .mean}, {@code .max}, {@code .p50}, {@code .p95} and
+ * {@code .p99} durations in milliseconds over the most recent calls. Calls slower than
+ * the threshold configured for their name, matched by the longest dot separated prefix,
+ * are logged with their detail, such as the stream, app or task they were made for.
+ * <p>
+ * A thread can also collect the calls it makes between {@link #startBreakdown()} and
+ * {@link #finishBreakdown()}, which tells where a slow request spent its time. Calls made
+ * on other threads, such as the parallel status queries of the stream deployer, are not
+ * part of the breakdown.
+ */
+public class LatencyRecorder implements PublicMetrics {
+
+	private static final Logger logger = LoggerFactory.getLogger(LatencyRecorder.class);
+
+	static final String METRIC_PREFIX = "dataflow.latency.";
+
+	private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+	private final ThreadLocal<Map<String, long[]>> breakdown = new ThreadLocal<>();
+
+	private final int reservoirSize;
+
+	private final long slowCallThreshold;
+
+	private final Map<String, Long> slowCallThresholds;
+
+	/**
+	 * Create a {@link LatencyRecorder}.
+	 *
+	 * @param reservoirSize the number of most recent calls per name the percentiles are
+	 * computed over
+	 * @param slowCallThreshold the duration in milliseconds above which a call is logged
+	 * @param slowCallThresholds thresholds in milliseconds overriding the default for the
+	 * call names they prefix
+	 */
+	public LatencyRecorder(int reservoirSize, long slowCallThreshold, Map<String, Long> slowCallThresholds) {
+		Assert.isTrue(reservoirSize > 0, "reservoirSize must be greater than 0");
+		Assert.notNull(slowCallThresholds, "slowCallThresholds must not be null");
+		this.reservoirSize = reservoirSize;
+		this.slowCallThreshold = slowCallThreshold;
+		this.slowCallThresholds = new LinkedHashMap<>(slowCallThresholds);
+	}
+
+	/**
+	 * Record a call.
+	 *
+	 * @param name the name of the call, such as {@code skipper.status}
+	 * @param detail supplies what the call was made for, logged with slow calls, may
+	 * supply {@code null}
+	 * @param nanos the duration of the call in nanoseconds
+	 * @param failed whether the call failed
+	 * @return whether the call was slower than its threshold
+	 */
+	public boolean record(String name, Supplier<String> detail, long nanos, boolean failed) {
+		this.timers.computeIfAbsent(name, key -> new Timer(this.reservoirSize)).record(nanos, failed);
+		Map<String, long[]> calls = this.breakdown.get();
+		if (calls != null) {
+			long[] total = calls.computeIfAbsent(name, key -> new long[2]);
+			total[0]++;
+			total[1] += nanos;
+		}
+		long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+		boolean slow = millis >= getSlowCallThreshold(name);
+		if (slow && logger.isWarnEnabled()) {
+			String description = detail.get();
+			logger.warn("Slow call {}{} took {} ms{}", name, description != null ? " [" + description + "]" : "",
+					millis, failed ? " and failed" : "");
+		}
+		return slow;
+	}
+
+	/**
+	 * Start collecting the calls made by the current thread.
+	 */
+	public void startBreakdown() {
+		this.breakdown.set(new LinkedHashMap<>());
+	}
+
+	/**
+	 * Stop collecting the calls made by the current thread.
+	 *
+	 * @return the number of calls and their total duration in nanoseconds by call name,
+	 * or an empty map if no calls were being collected
+	 */
+	public Map<String, long[]> finishBreakdown() {
+		Map<String, long[]> calls = this.breakdown.get();
+		this.breakdown.remove();
+		return calls != null ? calls : Collections.emptyMap();
+	}
+
+	long getSlowCallThreshold(String name) {
+		String prefix = name;
+		while (true) {
+			Long threshold = this.slowCallThresholds.get(prefix);
+			if (threshold != null) {
+				return threshold;
+			}
+			int separator = prefix.lastIndexOf('.');
+			if (separator < 0) {
+				return this.slowCallThreshold;
+			}
+			prefix = prefix.substring(0, separator);
+		}
+	}
+
+	@Override
+	public Collection<Metric<?>> metrics() {
+		List<Metric<?>> metrics = new ArrayList<>();
+		for (Map.Entry<String, Timer> entry : this.timers.entrySet()) {
+			String prefix = METRIC_PREFIX + entry.getKey();
+			Timer timer = entry.getValue();
+			metrics.add(new Metric<>(prefix + ".count", timer.count.sum()));
+			metrics.add(new Metric<>(prefix + ".errors", timer.errors.sum()));
+			long[] samples = timer.samples();
+			if (samples.length == 0) {
+				continue;
+			}
+			long total = 0;
+			for (long sample : samples) {
+				total += sample;
+			}
+			metrics.add(new Metric<>(prefix + ".mean", toMillis(total / samples.length)));
+			metrics.add(new Metric<>(prefix + ".max", toMillis(samples[samples.length - 1])));
+			metrics.add(new Metric<>(prefix + ".p50", toMillis(percentile(samples, 50))));
+			metrics.add(new Metric<>(prefix + ".p95", toMillis(percentile(samples, 95))));
+			metrics.add(new Metric<>(prefix + ".p99", toMillis(percentile(samples, 99))));
+		}
+		return metrics;
+	}
+
+	private static long percentile(long[] sortedSamples, int percentile) {
+		int index = (int) Math.ceil(percentile / 100.0 * sortedSamples.length) - 1;
+		return sortedSamples[Math.max(index, 0)];
+	}
+
+	private static double toMillis(long nanos) {
+		return nanos / 1_000_000.0;
+	}
+
+	/**
+	 * Call counts and a ring of the most recent durations.
+	 */
+	private static class Timer {
+
+		private final LongAdder count = new LongAdder();
+
+		private final LongAdder errors = new LongAdder();
+
+		private final AtomicLong recorded = new AtomicLong();
+
+		private final AtomicLongArray reservoir;
+
+		Timer(int reservoirSize) {
+			this.reservoir = new AtomicLongArray(reservoirSize);
+		}
+
+		void record(long nanos, boolean failed) {
+			this.count.increment();
+			if (failed) {
+				this.errors.increment();
+			}
+			long index = this.recorded.getAndIncrement();
+			this.reservoir.set((int) (index % this.reservoir.length()), nanos);
+		}
+
+		/**
+		 * Returns the recorded durations, sorted.
+		 */
+		long[] samples() {
+			int size = (int) Math.min(this.recorded.get(), this.reservoir.length());
+			long[] samples = new long[size];
+			for (int i = 0; i < size; i++) {
+				samples[i] = this.reservoir.get(i);
+			}
+			Arrays.sort(samples);
+			return samples;
+		}
+	}
+}
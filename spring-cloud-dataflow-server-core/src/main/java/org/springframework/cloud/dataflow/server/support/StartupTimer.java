@@ -0,0 +1,170 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.support;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessorAdapter;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+import org.springframework.util.Assert;
+
+/**
+ * Measures the time taken to create every bean during startup and logs a report once the
+ * application is ready, listing the total startup time and the beans that took longest.
+ * <p>
+ * The time of a bean covers its instantiation, dependency injection and initialization
+ * callbacks, such as running schema scripts, but not the creation of the beans it
+ * depends on, which are accounted for separately. Beans created before this
+ * post-processor is registered, such as other post-processors, are not measured.
+ */
+public class StartupTimer extends InstantiationAwareBeanPostProcessorAdapter
+		implements ApplicationListener<ApplicationReadyEvent>, PriorityOrdered {
+
+	private static final Logger logger = LoggerFactory.getLogger(StartupTimer.class);
+
+	private final int reportSize;
+
+	private final Map<String, Long> creationTimes = new ConcurrentHashMap<>();
+
+	private final ThreadLocal<Deque<Creation>> creations = ThreadLocal.withInitial(ArrayDeque::new);
+
+	private volatile boolean ready;
+
+	/**
+	 * Create a startup timer.
+	 *
+	 * @param reportSize the number of slowest beans listed in the report
+	 */
+	public StartupTimer(int reportSize) {
+		Assert.isTrue(reportSize >= 0, "reportSize must not be negative");
+		this.reportSize = reportSize;
+	}
+
+	@Override
+	public int getOrder() {
+		return Ordered.HIGHEST_PRECEDENCE;
+	}
+
+	@Override
+	public Object postProcessBeforeInstantiation(Class<?> beanClass, String beanName) {
+		if (!this.ready && beanName != null) {
+			this.creations.get().push(new Creation(beanName, System.nanoTime()));
+		}
+		return null;
+	}
+
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName) {
+		Deque<Creation> inProgress = this.creations.get();
+		if (beanName == null || !contains(inProgress, beanName)) {
+			// the product of a factory bean, or a bean whose creation started earlier
+			return bean;
+		}
+		Creation creation = inProgress.pop();
+		while (!creation.beanName.equals(beanName)) {
+			// the creation of that bean failed
+			creation = inProgress.pop();
+		}
+		long elapsed = System.nanoTime() - creation.start;
+		this.creationTimes.merge(beanName, elapsed - creation.dependencies, Long::sum);
+		Creation dependent = inProgress.peek();
+		if (dependent != null) {
+			dependent.dependencies += elapsed;
+		}
+		return bean;
+	}
+
+	@Override
+	public void onApplicationEvent(ApplicationReadyEvent event) {
+		if (this.ready) {
+			return;
+		}
+		this.ready = true;
+		this.creations.remove();
+		long contextTime = System.currentTimeMillis() - event.getApplicationContext().getStartupDate();
+		long beansTime = 0;
+		for (long nanos : this.creationTimes.values()) {
+			beansTime += nanos;
+		}
+		StringBuilder report = new StringBuilder(String.format(
+				"Started in %d ms (JVM up for %d ms), %d beans created in %d ms", contextTime,
+				ManagementFactory.getRuntimeMXBean().getUptime(), this.creationTimes.size(),
+				TimeUnit.NANOSECONDS.toMillis(beansTime)));
+		Map<String, Long> slowest = getCreationTimes();
+		if (!slowest.isEmpty() && this.reportSize > 0) {
+			report.append(", slowest:");
+			int listed = 0;
+			for (Map.Entry<String, Long> entry : slowest.entrySet()) {
+				if (listed++ == this.reportSize) {
+					break;
+				}
+				report.append(String.format("%n  %6d ms  %s", entry.getValue(), entry.getKey()));
+			}
+		}
+		logger.info(report.toString());
+	}
+
+	/**
+	 * @return the time in milliseconds taken to create each bean measured, slowest first
+	 */
+	public Map<String, Long> getCreationTimes() {
+		List<Map.Entry<String, Long>> entries = new ArrayList<>(this.creationTimes.entrySet());
+		entries.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+		Map<String, Long> result = new LinkedHashMap<>();
+		for (Map.Entry<String, Long> entry : entries) {
+			result.put(entry.getKey(), TimeUnit.NANOSECONDS.toMillis(entry.getValue()));
+		}
+		return result;
+	}
+
+	private static boolean contains(Deque<Creation> creations, String beanName) {
+		for (Creation creation : creations) {
+			if (creation.beanName.equals(beanName)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static class Creation {
+
+		private final String beanName;
+
+		private final long start;
+
+		private long dependencies;
+
+		Creation(String beanName, long start) {
+			this.beanName = beanName;
+			this.start = start;
+		}
+	}
+}
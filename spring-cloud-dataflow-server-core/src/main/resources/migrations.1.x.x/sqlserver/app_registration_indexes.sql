@@ -0,0 +1,6 @@
+-- Adds the APP_REGISTRATION indexes to a database created before they were part of jpa.sql.
+-- Duplicate registrations of the same name, type and version are removed first, keeping the
+-- one registered first.
+delete from APP_REGISTRATION where id not in (select min(id) from APP_REGISTRATION group by name, type, version);
+create index APP_REGISTRATION_DEFAULT_IDX on APP_REGISTRATION (name, type, default_Version);
+create unique index APP_REGISTRATION_UK on APP_REGISTRATION (name, type, version) where version is not null;
@@ -0,0 +1,8 @@
+-- Adds the APP_REGISTRY_CHANGE_COUNTER table to a database created before it was part of jpa.sql,
+-- and seeds its single row so that servers sharing the database only ever update it.
+create table APP_REGISTRY_CHANGE_COUNTER (
+    id bigint not null,
+    change_Count bigint not null,
+    primary key (id)
+);
+insert into APP_REGISTRY_CHANGE_COUNTER (id, change_Count) select 1, 0 from APP_REGISTRY_CHANGE_COUNTER having count(*) = 0;
@@ -2,3 +2,13 @@ CREATE TABLE URI_REGISTRY  (
 	NAME VARCHAR(255) NOT NULL PRIMARY KEY,
 	URI VARCHAR(255) NOT NULL
 );
+
+CREATE TABLE DATAFLOW_CHANGE_LOG  (
+	TOPIC VARCHAR(64) NOT NULL PRIMARY KEY,
+	CHANGE_VERSION BIGINT NOT NULL,
+	INSTANCE_ID VARCHAR(64)
+);
+
+CREATE TABLE DATAFLOW_SCHEMA_CHECKSUM  (
+	SCHEMA_CHECKSUM VARCHAR(32) NOT NULL
+);
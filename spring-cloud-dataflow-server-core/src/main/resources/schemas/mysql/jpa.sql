@@ -11,6 +11,12 @@
         primary key (id)
     );
 
+    create table APP_REGISTRY_CHANGE_COUNTER (
+       id bigint not null,
+        change_Count bigint not null,
+        primary key (id)
+    );
+
     create table AUDIT_RECORDS (
        id bigint not null,
         audit_Action bigint,
@@ -23,8 +29,14 @@
         primary key (id)
     );
 
+    create index APP_REGISTRATION_DEFAULT_IDX on APP_REGISTRATION (name, type, default_Version);
+
+    create unique index APP_REGISTRATION_UK on APP_REGISTRATION (name, type, version);
+
     create table hibernate_sequence (
         next_val bigint
     );
 
     insert into hibernate_sequence(next_val) select * from (select 1) as tmp where not exists ( select next_val from hibernate_sequence) limit 1;
+
+    insert into APP_REGISTRY_CHANGE_COUNTER (id, change_Count) select 1, 0 from APP_REGISTRY_CHANGE_COUNTER having count(*) = 0;
@@ -13,6 +13,12 @@
         primary key (id)
     );
 
+    create table APP_REGISTRY_CHANGE_COUNTER (
+       id number(19,0) not null,
+        change_Count number(19,0) not null,
+        primary key (id)
+    );
+
     create table AUDIT_RECORDS (
        id number(19,0) not null,
         audit_Action number(19,0),
@@ -23,4 +29,10 @@
         created_On timestamp,
         server_host varchar2(255 char),
         primary key (id)
-    );
\ No newline at end of file
+    );
+
+    create index APP_REGISTRATION_DEFAULT_IDX on APP_REGISTRATION (name, type, default_Version);
+
+    create unique index APP_REGISTRATION_UK on APP_REGISTRATION (name, type, version);
+
+    insert into APP_REGISTRY_CHANGE_COUNTER (id, change_Count) select 1, 0 from APP_REGISTRY_CHANGE_COUNTER having count(*) = 0;
@@ -13,6 +13,12 @@
         primary key (id)
     );
 
+    create table APP_REGISTRY_CHANGE_COUNTER (
+       id int8 not null,
+        change_Count int8 not null,
+        primary key (id)
+    );
+
     create table AUDIT_RECORDS (
        id int8 not null,
         audit_Action int8,
@@ -23,4 +29,9 @@
         created_On timestamp,
         server_host varchar(255),
         primary key (id)
-    );
\ No newline at end of file
+    );
+
+    create index APP_REGISTRATION_DEFAULT_IDX on APP_REGISTRATION (name, type, default_Version);
+
+    create unique index APP_REGISTRATION_UK on APP_REGISTRATION (name, type, version);
+    insert into APP_REGISTRY_CHANGE_COUNTER (id, change_Count) select 1, 0 from APP_REGISTRY_CHANGE_COUNTER having count(*) = 0;
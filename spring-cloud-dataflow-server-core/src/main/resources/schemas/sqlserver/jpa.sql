@@ -16,6 +16,12 @@
         primary key (id)
     );
 
+    create table APP_REGISTRY_CHANGE_COUNTER (
+       id bigint not null,
+        change_Count bigint not null,
+        primary key (id)
+    );
+
     create table AUDIT_RECORDS (
        id bigint not null,
         audit_Action bigint,
@@ -27,3 +33,9 @@
         server_host varchar(255),
         primary key (id)
     );
+
+    create index APP_REGISTRATION_DEFAULT_IDX on APP_REGISTRATION (name, type, default_Version);
+
+    create unique index APP_REGISTRATION_UK on APP_REGISTRATION (name, type, version) where version is not null;
+
+    insert into APP_REGISTRY_CHANGE_COUNTER (id, change_Count) select 1, 0 from APP_REGISTRY_CHANGE_COUNTER having count(*) = 0;
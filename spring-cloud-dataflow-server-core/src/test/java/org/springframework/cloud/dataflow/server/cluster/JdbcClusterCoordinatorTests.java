@@ -0,0 +1,152 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.cluster;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.cloud.dataflow.server.support.ChangeVersions;
+import org.springframework.cloud.dataflow.server.support.ChangeVersions.Domain;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationListener;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JdbcClusterCoordinatorTests {
+
+	private EmbeddedDatabase database;
+
+	private JdbcClusterCoordinator first;
+
+	private JdbcClusterCoordinator second;
+
+	private final List<String> firstReceived = new ArrayList<>();
+
+	private final List<String> secondReceived = new ArrayList<>();
+
+	@Before
+	public void setup() {
+		database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true)
+				.addScript("classpath:schemas/h2/common.sql").build();
+		first = coordinator("first", firstReceived);
+		second = coordinator("second", secondReceived);
+		first.poll();
+		second.poll();
+	}
+
+	@After
+	public void shutdown() {
+		database.shutdown();
+	}
+
+	@Test
+	public void testChangesAreDeliveredToTheOtherServerOnly() {
+		first.publish("STREAM_DEFINITIONS");
+		first.poll();
+		second.poll();
+		assertThat(firstReceived).isEmpty();
+		assertThat(secondReceived).containsExactly("STREAM_DEFINITIONS");
+
+		second.publish("STREAM_DEFINITIONS");
+		second.poll();
+		first.poll();
+		second.poll();
+		assertThat(firstReceived).containsExactly("STREAM_DEFINITIONS");
+		assertThat(secondReceived).containsExactly("STREAM_DEFINITIONS");
+	}
+
+	@Test
+	public void testChangesOfOnePollAreCoalesced() {
+		first.publish("APP_STATUSES");
+		first.publish("APP_STATUSES");
+		first.publish("TASK_DEFINITIONS");
+		first.poll();
+		second.publish("APP_STATUSES");
+		second.poll();
+		assertThat(secondReceived).containsExactlyInAnyOrder("APP_STATUSES", "TASK_DEFINITIONS");
+		first.poll();
+		assertThat(firstReceived).containsExactly("APP_STATUSES");
+	}
+
+	@Test
+	public void testFirstPollOnlyReadsTheVersions() {
+		first.publish("TASK_DEFINITIONS");
+		first.poll();
+		List<String> received = new ArrayList<>();
+		JdbcClusterCoordinator third = coordinator("third", received);
+		third.poll();
+		assertThat(received).isEmpty();
+		first.publish("TASK_DEFINITIONS");
+		first.poll();
+		third.poll();
+		assertThat(received).containsExactly("TASK_DEFINITIONS");
+	}
+
+	@Test
+	public void testInMemoryMembersUpdateChangeVersions() {
+		InMemoryClusterCoordinator coordinator = new InMemoryClusterCoordinator();
+		ChangeVersions local = changeVersions(coordinator);
+		ChangeVersions remote = changeVersions(coordinator.join());
+		long version = remote.getVersion(Domain.APP_REGISTRATIONS);
+
+		local.changed(Domain.APP_REGISTRATIONS);
+		assertThat(remote.getVersion(Domain.APP_REGISTRATIONS)).isEqualTo(version + 1);
+		assertThat(local.getVersion(Domain.APP_REGISTRATIONS)).isEqualTo(version + 1);
+		assertThat(remote.getVersion(Domain.STREAM_DEFINITIONS)).isEqualTo(local.getVersion(Domain.STREAM_DEFINITIONS));
+	}
+
+	private JdbcClusterCoordinator coordinator(String instanceId, List<String> received) {
+		JdbcClusterCoordinator coordinator = new JdbcClusterCoordinator(database, instanceId, 1000);
+		coordinator.setApplicationEventPublisher(new TestPublisher(
+				event -> received.add(((ClusterChangeEvent) event).getTopic())));
+		return coordinator;
+	}
+
+	private static ChangeVersions changeVersions(InMemoryClusterCoordinator coordinator) {
+		ChangeVersions changeVersions = new ChangeVersions(60000, 60000);
+		changeVersions.setClusterCoordinator(coordinator);
+		coordinator.setApplicationEventPublisher(new TestPublisher(changeVersions));
+		return changeVersions;
+	}
+
+	private static class TestPublisher implements ApplicationEventPublisher {
+
+		private final ApplicationListener<ApplicationEvent> listener;
+
+		TestPublisher(ApplicationListener<ApplicationEvent> listener) {
+			this.listener = listener;
+		}
+
+		@Override
+		public void publishEvent(ApplicationEvent event) {
+			this.listener.onApplicationEvent(event);
+		}
+
+		@Override
+		public void publishEvent(Object event) {
+			publishEvent((ApplicationEvent) event);
+		}
+	}
+}
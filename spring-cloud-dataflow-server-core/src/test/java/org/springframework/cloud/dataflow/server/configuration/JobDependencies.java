@@ -52,11 +52,15 @@ import org.springframework.cloud.dataflow.server.repository.DeploymentIdReposito
 import org.springframework.cloud.dataflow.server.repository.InMemoryDeploymentIdRepository;
 import org.springframework.cloud.dataflow.server.repository.InMemoryTaskDefinitionRepository;
 import org.springframework.cloud.dataflow.server.repository.TaskDefinitionRepository;
+import org.springframework.cloud.dataflow.server.service.ExecutionExportService;
 import org.springframework.cloud.dataflow.server.service.TaskJobService;
+import org.springframework.cloud.dataflow.server.service.TaskRetentionService;
 import org.springframework.cloud.dataflow.server.service.TaskService;
 import org.springframework.cloud.dataflow.server.service.TaskValidationService;
 import org.springframework.cloud.dataflow.server.service.impl.DefaultTaskJobService;
 import org.springframework.cloud.dataflow.server.service.impl.DefaultTaskService;
+import org.springframework.cloud.dataflow.server.service.impl.JdbcExecutionExportService;
+import org.springframework.cloud.dataflow.server.service.impl.JdbcTaskRetentionService;
 import org.springframework.cloud.dataflow.server.service.impl.TaskConfigurationProperties;
 import org.springframework.cloud.dataflow.server.service.impl.validation.DefaultTaskValidationService;
 import org.springframework.cloud.deployer.resource.maven.MavenProperties;
@@ -126,8 +130,9 @@ public class JobDependencies {
 	}
 
 	@Bean
-	public JobExecutionController jobExecutionController(TaskJobService repository) {
-		return new JobExecutionController(repository);
+	public JobExecutionController jobExecutionController(TaskJobService repository,
+			ExecutionExportService executionExportService) {
+		return new JobExecutionController(repository, executionExportService);
 	}
 
 	@Bean
@@ -147,8 +152,21 @@ public class JobDependencies {
 
 	@Bean
 	public TaskExecutionController taskExecutionController(TaskExplorer explorer, TaskService taskService,
-			TaskDefinitionRepository taskDefinitionRepository) {
-		return new TaskExecutionController(explorer, taskService, taskDefinitionRepository);
+			TaskDefinitionRepository taskDefinitionRepository, ExecutionExportService executionExportService,
+			TaskRetentionService taskRetentionService) {
+		return new TaskExecutionController(explorer, taskService, taskDefinitionRepository, executionExportService,
+				taskRetentionService);
+	}
+
+	@Bean
+	public ExecutionExportService executionExportService(DataSource dataSource) {
+		return new JdbcExecutionExportService(dataSource, 2);
+	}
+
+	@Bean
+	public TaskRetentionService taskRetentionService(DataSource dataSource,
+			DataSourceTransactionManager transactionManager) {
+		return new JdbcTaskRetentionService(dataSource, transactionManager, 2, null, null);
 	}
 
 	@Bean
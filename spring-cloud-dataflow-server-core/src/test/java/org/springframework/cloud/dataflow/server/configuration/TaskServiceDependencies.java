@@ -59,6 +59,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 import static org.mockito.Matchers.anyString;
@@ -192,12 +193,23 @@ public class TaskServiceDependencies {
 			DataSourceProperties dataSourceProperties,
 			ApplicationConfigurationMetadataResolver metaDataResolver,
 			SchedulerServiceProperties schedulerServiceProperties) {
-		return new DefaultSchedulerService(commonApplicationProperties,
+		DefaultSchedulerService schedulerService = new DefaultSchedulerService(commonApplicationProperties,
 				scheduler, taskDefinitionRepository,
 				registry, resourceLoader,
 				new TaskConfigurationProperties(),
 				dataSourceProperties, null,
 				metaDataResolver, schedulerServiceProperties);
+		schedulerService.setBulkExecutor(schedulerBulkExecutor());
+		return schedulerService;
+	}
+
+	@Bean
+	public ThreadPoolTaskExecutor schedulerBulkExecutor() {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(4);
+		executor.setMaxPoolSize(4);
+		executor.setThreadNamePrefix("scheduler-bulk-");
+		return executor;
 	}
 
 	@Bean
@@ -208,7 +220,7 @@ public class TaskServiceDependencies {
 		List<ScheduleInfo> schedules = new ArrayList<>();
 
 		@Override
-		public void schedule(ScheduleRequest scheduleRequest) {
+		public synchronized void schedule(ScheduleRequest scheduleRequest) {
 			ScheduleInfo schedule = new ScheduleInfo();
 			schedule.setScheduleName(scheduleRequest.getScheduleName());
 			schedule.setScheduleProperties(scheduleRequest.getSchedulerProperties());
@@ -226,14 +238,14 @@ public class TaskServiceDependencies {
 		}
 
 		@Override
-		public void unschedule(String scheduleName) {
+		public synchronized void unschedule(String scheduleName) {
 			schedules = schedules.stream().filter(
 					s -> !s.getScheduleName().equals(scheduleName)).
 					collect(Collectors.toList());
 		}
 
 		@Override
-		public List<ScheduleInfo> list(String taskDefinitionName) {
+		public synchronized List<ScheduleInfo> list(String taskDefinitionName) {
 			return schedules.stream().filter(
 					s -> s.getTaskDefinitionName().equals(taskDefinitionName)).
 					collect(Collectors.toList());
@@ -24,6 +24,8 @@ import java.util.Map;
 import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
+import javax.sql.DataSource;
+
 import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -40,6 +42,7 @@ import org.springframework.cloud.dataflow.configuration.metadata.ApplicationConf
 import org.springframework.cloud.dataflow.registry.AppRegistry;
 import org.springframework.cloud.dataflow.registry.AppRegistryCommon;
 import org.springframework.cloud.dataflow.registry.repository.AppRegistrationRepository;
+import org.springframework.cloud.dataflow.registry.repository.AppRegistryChangeCounterRepository;
 import org.springframework.cloud.dataflow.registry.service.AppRegistryService;
 import org.springframework.cloud.dataflow.registry.service.DefaultAppRegistryService;
 import org.springframework.cloud.dataflow.registry.support.AppResourceCommon;
@@ -55,6 +58,7 @@ import org.springframework.cloud.dataflow.server.config.VersionInfoProperties;
 import org.springframework.cloud.dataflow.server.config.apps.CommonApplicationProperties;
 import org.springframework.cloud.dataflow.server.config.features.FeaturesProperties;
 import org.springframework.cloud.dataflow.server.controller.AboutController;
+import org.springframework.cloud.dataflow.server.controller.AppMetadataPrefetchController;
 import org.springframework.cloud.dataflow.server.controller.AppRegistryController;
 import org.springframework.cloud.dataflow.server.controller.AuditRecordController;
 import org.springframework.cloud.dataflow.server.controller.CompletionController;
@@ -85,6 +89,7 @@ import org.springframework.cloud.dataflow.server.repository.InMemoryTaskDefiniti
 import org.springframework.cloud.dataflow.server.repository.StreamDefinitionRepository;
 import org.springframework.cloud.dataflow.server.repository.StreamDeploymentRepository;
 import org.springframework.cloud.dataflow.server.repository.TaskDefinitionRepository;
+import org.springframework.cloud.dataflow.server.service.AppMetadataPrefetchProperties;
 import org.springframework.cloud.dataflow.server.service.SchedulerService;
 import org.springframework.cloud.dataflow.server.service.SchedulerServiceProperties;
 import org.springframework.cloud.dataflow.server.service.SkipperStreamService;
@@ -92,17 +97,21 @@ import org.springframework.cloud.dataflow.server.service.StreamService;
 import org.springframework.cloud.dataflow.server.service.StreamValidationService;
 import org.springframework.cloud.dataflow.server.service.TaskService;
 import org.springframework.cloud.dataflow.server.service.TaskValidationService;
+import org.springframework.cloud.dataflow.server.service.impl.AppMetadataPrefetcher;
 import org.springframework.cloud.dataflow.server.service.impl.AppDeployerStreamService;
 import org.springframework.cloud.dataflow.server.service.impl.AppDeploymentRequestCreator;
 import org.springframework.cloud.dataflow.server.service.impl.DefaultSchedulerService;
 import org.springframework.cloud.dataflow.server.service.impl.DefaultSkipperStreamService;
 import org.springframework.cloud.dataflow.server.service.impl.DefaultTaskService;
+import org.springframework.cloud.dataflow.server.service.impl.JdbcExecutionExportService;
+import org.springframework.cloud.dataflow.server.service.impl.JdbcTaskRetentionService;
 import org.springframework.cloud.dataflow.server.service.impl.TaskConfigurationProperties;
 import org.springframework.cloud.dataflow.server.service.impl.validation.DefaultStreamValidationService;
 import org.springframework.cloud.dataflow.server.service.impl.validation.DefaultTaskValidationService;
 import org.springframework.cloud.dataflow.server.stream.AppDeployerStreamDeployer;
 import org.springframework.cloud.dataflow.server.stream.SkipperStreamDeployer;
 import org.springframework.cloud.dataflow.server.stream.StreamDeployer;
+import org.springframework.cloud.dataflow.server.support.ChangeVersions;
 import org.springframework.cloud.deployer.resource.maven.MavenProperties;
 import org.springframework.cloud.deployer.resource.maven.MavenResourceLoader;
 import org.springframework.cloud.deployer.resource.registry.InMemoryUriRegistry;
@@ -129,6 +138,7 @@ import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.data.web.config.EnableSpringDataWebSupport;
 import org.springframework.hateoas.config.EnableHypermediaSupport;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 import org.springframework.validation.beanvalidation.MethodValidationPostProcessor;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
@@ -333,8 +343,27 @@ public class TestDependencies extends WebMvcConfigurationSupport {
 	@Bean
 	@ConditionalOnSkipperDisabled
 	public AppRegistryController appRegistryController(AppRegistry registry,
-			ApplicationConfigurationMetadataResolver metadataResolver) {
-		return new AppRegistryController(registry, metadataResolver, new ForkJoinPool(2));
+			ApplicationConfigurationMetadataResolver metadataResolver, AppMetadataPrefetcher appMetadataPrefetcher,
+			ChangeVersions changeVersions) {
+		AppRegistryController appRegistryController = new AppRegistryController(registry, metadataResolver,
+				appMetadataPrefetcher);
+		appRegistryController.setChangeVersions(changeVersions);
+		return appRegistryController;
+	}
+
+	@Bean
+	public ChangeVersions changeVersions() {
+		return new ChangeVersions();
+	}
+
+	@Bean
+	public AppMetadataPrefetcher appMetadataPrefetcher(AppRegistryCommon appRegistry) {
+		return new AppMetadataPrefetcher(appRegistry, new AppMetadataPrefetchProperties(), null, null);
+	}
+
+	@Bean
+	public AppMetadataPrefetchController appMetadataPrefetchController(AppMetadataPrefetcher appMetadataPrefetcher) {
+		return new AppMetadataPrefetchController(appMetadataPrefetcher);
 	}
 
 	@Bean
@@ -346,8 +375,10 @@ public class TestDependencies extends WebMvcConfigurationSupport {
 	@Bean
 	@ConditionalOnSkipperEnabled
 	public AppRegistryService appRegistryService(AppRegistrationRepository appRegistrationRepository,
-			AppResourceCommon appResourceService) {
-		return new DefaultAppRegistryService(appRegistrationRepository, appResourceService);
+			AppResourceCommon appResourceService,
+			AppRegistryChangeCounterRepository appRegistryChangeCounterRepository) {
+		return new DefaultAppRegistryService(appRegistrationRepository, appResourceService,
+				appRegistryChangeCounterRepository);
 	}
 
 	@Bean
@@ -356,9 +387,10 @@ public class TestDependencies extends WebMvcConfigurationSupport {
 			StreamDefinitionRepository streamDefinitionRepository,
 			StreamService streamService,
 			AppRegistryService appRegistry,
-			ApplicationConfigurationMetadataResolver metadataResolver, MavenProperties mavenProperties) {
+			ApplicationConfigurationMetadataResolver metadataResolver, AppMetadataPrefetcher appMetadataPrefetcher,
+			MavenProperties mavenProperties) {
 		return new SkipperAppRegistryController(streamDefinitionRepository, streamService, appRegistry, metadataResolver,
-				new ForkJoinPool(2), mavenProperties);
+				appMetadataPrefetcher, mavenProperties);
 	}
 
 	@Bean
@@ -423,18 +455,21 @@ public class TestDependencies extends WebMvcConfigurationSupport {
 		return new TaskDefinitionController(explorer, repository,
 				taskService(metadataResolver, taskRepository(), deploymentIdRepository, appRegistry,
 						/* delegatingResourceLoader, */auditRecordService, commonApplicationProperties,
-						taskValidationService));
+						taskValidationService),
+				taskNames -> explorer.getLatestTaskExecutionsByTaskNames(taskNames.toArray(new String[0])));
 	}
 
 	@Bean
 	public TaskExecutionController taskExecutionController(TaskExplorer explorer,
 			ApplicationConfigurationMetadataResolver metadataResolver, DeploymentIdRepository deploymentIdRepository,
 			AppRegistryCommon appRegistry, AuditRecordService auditRecordService,
-			CommonApplicationProperties commonApplicationProperties, TaskValidationService taskValidationService) {
+			CommonApplicationProperties commonApplicationProperties, TaskValidationService taskValidationService,
+			DataSource dataSource, PlatformTransactionManager transactionManager) {
 		return new TaskExecutionController(
 				explorer, taskService(metadataResolver, taskRepository(), deploymentIdRepository, appRegistry,
 						auditRecordService, commonApplicationProperties, taskValidationService),
-				taskDefinitionRepository());
+				taskDefinitionRepository(), new JdbcExecutionExportService(dataSource, 500),
+				new JdbcTaskRetentionService(dataSource, transactionManager, 500, null, null));
 	}
 
 	@Bean
@@ -588,7 +623,7 @@ public class TestDependencies extends WebMvcConfigurationSupport {
 		List<ScheduleInfo> schedules = new ArrayList<>();
 
 		@Override
-		public void schedule(ScheduleRequest scheduleRequest) {
+		public synchronized void schedule(ScheduleRequest scheduleRequest) {
 			ScheduleInfo schedule = new ScheduleInfo();
 			schedule.setScheduleName(scheduleRequest.getScheduleName());
 			schedule.setScheduleProperties(scheduleRequest.getSchedulerProperties());
@@ -606,14 +641,14 @@ public class TestDependencies extends WebMvcConfigurationSupport {
 		}
 
 		@Override
-		public void unschedule(String scheduleName) {
+		public synchronized void unschedule(String scheduleName) {
 			schedules = schedules.stream().filter(
 					s -> !s.getScheduleName().equals(scheduleName)).
 					collect(Collectors.toList());
 		}
 
 		@Override
-		public List<ScheduleInfo> list(String taskDefinitionName) {
+		public synchronized List<ScheduleInfo> list(String taskDefinitionName) {
 			return schedules.stream().filter(
 					s -> s.getTaskDefinitionName().equals(taskDefinitionName)).
 					collect(Collectors.toList());
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.controller;
+
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import org.springframework.cloud.dataflow.server.stream.DeploymentStateMonitor;
+import org.springframework.cloud.deployer.spi.app.AppStatus;
+import org.springframework.cloud.deployer.spi.app.DeploymentState;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class DeploymentEventsControllerTests {
+
+	private DeploymentStateMonitor deploymentStateMonitor;
+
+	private MockMvc mockMvc;
+
+	@Before
+	public void setup() {
+		this.deploymentStateMonitor = mock(DeploymentStateMonitor.class);
+		this.mockMvc = MockMvcBuilders
+				.standaloneSetup(new DeploymentEventsController(this.deploymentStateMonitor, 60_000)).build();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testStreamEvents() throws Exception {
+		MvcResult result = this.mockMvc.perform(get("/streams/events").accept(MediaType.TEXT_EVENT_STREAM))
+				.andExpect(status().isOk()).andExpect(request().asyncStarted()).andReturn();
+		ArgumentCaptor<DeploymentStateMonitor.Listener> listener = ArgumentCaptor
+				.forClass(DeploymentStateMonitor.Listener.class);
+		verify(this.deploymentStateMonitor).addStreamStateListener(listener.capture());
+
+		listener.getValue().changed(Collections.singletonMap("foo", DeploymentState.deployed),
+				Collections.singleton("bar"));
+
+		String content = result.getResponse().getContentAsString();
+		assertThat(content).contains("event:changed\ndata:{\"name\":\"foo\",\"status\":\"deployed\"}\n\n");
+		assertThat(content).contains("event:removed\ndata:bar\n\n");
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testAppEvents() throws Exception {
+		MvcResult result = this.mockMvc.perform(get("/runtime/apps/events").accept(MediaType.TEXT_EVENT_STREAM))
+				.andExpect(status().isOk()).andExpect(request().asyncStarted()).andReturn();
+		ArgumentCaptor<DeploymentStateMonitor.Listener> listener = ArgumentCaptor
+				.forClass(DeploymentStateMonitor.Listener.class);
+		verify(this.deploymentStateMonitor).addAppStatusListener(listener.capture());
+
+		listener.getValue().changed(Collections.singletonMap("foo.log",
+				AppStatus.of("foo.log").generalState(DeploymentState.deployed).build()),
+				Collections.singleton("foo.time"));
+
+		String content = result.getResponse().getContentAsString();
+		assertThat(content).contains("event:changed\ndata:{\"deploymentId\":\"foo.log\"");
+		assertThat(content).contains("\"state\":\"deployed\"");
+		assertThat(content).contains("event:removed\ndata:foo.time\n\n");
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testDroppedSubscriberIsDisconnected() throws Exception {
+		MvcResult result = this.mockMvc.perform(get("/streams/events").accept(MediaType.TEXT_EVENT_STREAM))
+				.andExpect(request().asyncStarted()).andReturn();
+		ArgumentCaptor<DeploymentStateMonitor.Listener> listener = ArgumentCaptor
+				.forClass(DeploymentStateMonitor.Listener.class);
+		verify(this.deploymentStateMonitor).addStreamStateListener(listener.capture());
+
+		listener.getValue().dropped();
+
+		// the emitter is completed, ending the request
+		assertThat(result.getAsyncResult(1000)).isNull();
+	}
+}
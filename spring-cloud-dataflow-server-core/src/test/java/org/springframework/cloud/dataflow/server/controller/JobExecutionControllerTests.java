@@ -37,6 +37,7 @@ import org.springframework.boot.context.properties.EnableConfigurationProperties
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.cloud.dataflow.server.config.apps.CommonApplicationProperties;
 import org.springframework.cloud.dataflow.server.configuration.JobDependencies;
+import org.springframework.cloud.dataflow.server.service.ExecutionExportService;
 import org.springframework.cloud.task.batch.listener.TaskBatchDao;
 import org.springframework.cloud.task.repository.TaskExecution;
 import org.springframework.cloud.task.repository.dao.TaskExecutionDao;
@@ -92,6 +93,9 @@ public class JobExecutionControllerTests {
 	@Autowired
 	private TaskBatchDao taskBatchDao;
 
+	@Autowired
+	private ExecutionExportService executionExportService;
+
 	private MockMvc mockMvc;
 
 	@Autowired
@@ -111,7 +115,7 @@ public class JobExecutionControllerTests {
 
 	@Test(expected = IllegalArgumentException.class)
 	public void testJobExecutionControllerConstructorMissingRepository() {
-		new JobExecutionController(null);
+		new JobExecutionController(null, executionExportService);
 	}
 
 	@Test
@@ -215,6 +219,32 @@ public class JobExecutionControllerTests {
 				.andExpect(status().isNotFound());
 	}
 
+	@Test
+	public void testExportExecutions() throws Exception {
+		String content = mockMvc.perform(get("/jobs/executions/export")
+				.accept(MediaType.valueOf(ExecutionExportService.NDJSON_MEDIA_TYPE)))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		String[] lines = content.trim().split("\n");
+		Assert.assertEquals(7, lines.length);
+		Assert.assertTrue(lines[0].startsWith("{\"executionId\":1,"));
+		Assert.assertTrue(lines[0].contains("\"name\":\"" + JOB_NAME_ORIG + "\""));
+		Assert.assertTrue(lines[0].contains("\"taskExecutionId\":1"));
+		Assert.assertTrue(lines[6].startsWith("{\"executionId\":7,"));
+		Assert.assertTrue(lines[6].contains("\"status\":\"STOPPED\""));
+	}
+
+	@Test
+	public void testExportExecutionsAfterContinuationToken() throws Exception {
+		String content = mockMvc.perform(get("/jobs/executions/export").param("after", "5")
+				.accept(MediaType.valueOf(ExecutionExportService.NDJSON_MEDIA_TYPE)))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		String[] lines = content.trim().split("\n");
+		Assert.assertEquals(2, lines.length);
+		Assert.assertTrue(lines[0].startsWith("{\"executionId\":6,"));
+	}
+
 	private void createSampleJob(String jobName, int jobExecutionCount, BatchStatus status) {
 		JobInstance instance = jobRepository.createJobInstance(jobName, new JobParameters());
 		TaskExecution taskExecution = dao.createTaskExecution(jobName, new Date(), new ArrayList<String>(), null);
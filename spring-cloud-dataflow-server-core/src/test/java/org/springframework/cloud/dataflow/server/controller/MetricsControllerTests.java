@@ -1,5 +1,5 @@
 /*
- * Copyright 2017 the original author or authors.
+ * Copyright 2017-2018 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,8 @@
 
 package org.springframework.cloud.dataflow.server.controller;
 
+import java.util.Collections;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -23,6 +25,8 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.cloud.dataflow.server.configuration.TestDependencies;
+import org.springframework.cloud.dataflow.server.controller.support.MetricStore;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.annotation.DirtiesContext;
@@ -34,8 +38,11 @@ import org.springframework.web.context.WebApplicationContext;
 
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
@@ -68,4 +75,37 @@ public class MetricsControllerTests {
 		assertThat(responseString.getContentAsString(), containsString("ticktock1"));
 		assertThat(responseString.getContentAsString(), containsString("aggregateMetrics"));
 	}
+
+	@Test
+	public void testAgeOfMetricsIsSent() throws Exception {
+		MetricStore metricStore = mock(MetricStore.class);
+		when(metricStore.getMetrics()).thenReturn(Collections.emptyList());
+		when(metricStore.getAge()).thenReturn(12500L);
+		MockMvcBuilders.standaloneSetup(new MetricsController(metricStore)).build()
+				.perform(get("/metrics/streams").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.AGE, "12"))
+				.andExpect(header().doesNotExist(HttpHeaders.WARNING));
+	}
+
+	@Test
+	public void testStaleMetricsAreMarked() throws Exception {
+		MetricStore metricStore = mock(MetricStore.class);
+		when(metricStore.getMetrics()).thenReturn(Collections.emptyList());
+		when(metricStore.getAge()).thenReturn(Long.MAX_VALUE);
+		when(metricStore.isStale()).thenReturn(true);
+		MockMvcBuilders.standaloneSetup(new MetricsController(metricStore)).build()
+				.perform(get("/metrics/streams").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(header().doesNotExist(HttpHeaders.AGE))
+				.andExpect(header().string(HttpHeaders.WARNING, "110 - \"Response is Stale\""));
+	}
+
+	@Test
+	public void testNoHeadersWithoutCollector() throws Exception {
+		mockMvc.perform(get("/metrics/streams").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(header().doesNotExist(HttpHeaders.AGE))
+				.andExpect(header().doesNotExist(HttpHeaders.WARNING));
+	}
 }
@@ -25,6 +25,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.cloud.dataflow.core.StreamDefinition;
 import org.springframework.cloud.dataflow.core.StreamDeployment;
+import org.springframework.cloud.dataflow.rest.DataFlowMediaTypes;
 import org.springframework.cloud.dataflow.registry.AppRegistry;
 import org.springframework.cloud.dataflow.registry.domain.AppRegistration;
 import org.springframework.cloud.dataflow.server.configuration.TestDependencies;
@@ -43,7 +44,9 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -143,6 +146,23 @@ public class RuntimeAppsControllerTests {
 		assertThat(responseString.getContentAsString().contains("ticktock2.log"), is(true));
 	}
 
+	@Test
+	public void testListRuntimeAppsCompact() throws Exception {
+		MockHttpServletResponse response = mockMvc
+				.perform(get("/runtime/apps").accept(MediaType.APPLICATION_JSON)).andDo(print())
+				.andExpect(status().isOk()).andReturn().getResponse();
+		assertThat(response.getContentAsString(), containsString("/runtime/apps/ticktock1.time"));
+
+		response = mockMvc
+				.perform(get("/runtime/apps").accept(DataFlowMediaTypes.COMPACT_JSON, MediaType.APPLICATION_JSON))
+				.andDo(print()).andExpect(status().isOk()).andReturn().getResponse();
+		assertThat(MediaType.valueOf(response.getContentType()).isCompatibleWith(DataFlowMediaTypes.COMPACT_JSON),
+				is(true));
+		assertThat(response.getContentAsString(), containsString("ticktock1.time"));
+		assertThat(response.getContentAsString(), containsString("ticktock2.log"));
+		assertThat(response.getContentAsString(), not(containsString("/runtime/apps/ticktock1.time")));
+	}
+
 	@Test
 	public void testListRuntimeAppsPageSizes() throws Exception {
 		MockHttpServletResponse responseString = mockMvc
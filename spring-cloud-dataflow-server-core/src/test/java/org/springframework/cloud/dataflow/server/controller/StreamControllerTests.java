@@ -34,6 +34,7 @@ import org.springframework.cloud.dataflow.core.BindingPropertyKeys;
 import org.springframework.cloud.dataflow.core.StreamAppDefinition;
 import org.springframework.cloud.dataflow.core.StreamDefinition;
 import org.springframework.cloud.dataflow.core.StreamPropertyKeys;
+import org.springframework.cloud.dataflow.rest.DataFlowMediaTypes;
 import org.springframework.cloud.dataflow.server.config.apps.CommonApplicationProperties;
 import org.springframework.cloud.dataflow.server.configuration.TestDependencies;
 import org.springframework.cloud.dataflow.server.repository.DeploymentIdRepository;
@@ -54,9 +55,12 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.startsWith;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
@@ -273,6 +277,24 @@ public class StreamControllerTests {
 		assertTrue(response3.contains("\"totalElements\":2"));
 	}
 
+	@Test
+	public void testFindAllCompact() throws Exception {
+		repository.save(new StreamDefinition("myStream1", "time | log"));
+		repository.save(new StreamDefinition("myStream2", "time | log"));
+
+		String response = mockMvc.perform(get("/streams/definitions").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+		assertThat(response, containsString("/streams/definitions/myStream1"));
+
+		response = mockMvc
+				.perform(get("/streams/definitions").accept(DataFlowMediaTypes.COMPACT_JSON, MediaType.APPLICATION_JSON))
+				.andDo(print()).andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(DataFlowMediaTypes.COMPACT_JSON))
+				.andExpect(jsonPath("$.content[*].name", containsInAnyOrder("myStream1", "myStream2")))
+				.andReturn().getResponse().getContentAsString();
+		assertThat(response, not(containsString("/streams/definitions/myStream1")));
+	}
+
 	@Test
 	public void testFindAll() throws Exception {
 		assertEquals(0, repository.count());
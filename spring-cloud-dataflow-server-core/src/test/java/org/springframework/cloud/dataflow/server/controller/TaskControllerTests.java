@@ -18,6 +18,7 @@ package org.springframework.cloud.dataflow.server.controller;
 
 import java.net.URI;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 
 import org.apache.http.client.entity.UrlEncodedFormEntity;
@@ -34,6 +35,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.cloud.dataflow.core.ApplicationType;
 import org.springframework.cloud.dataflow.core.TaskDefinition;
 import org.springframework.cloud.dataflow.registry.AppRegistry;
+import org.springframework.cloud.dataflow.rest.DataFlowMediaTypes;
 import org.springframework.cloud.dataflow.server.TaskValidationController;
 import org.springframework.cloud.dataflow.server.configuration.TestDependencies;
 import org.springframework.cloud.dataflow.server.repository.InMemoryTaskDefinitionRepository;
@@ -52,9 +54,11 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
 import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
@@ -132,12 +136,18 @@ public class TaskControllerTests {
 
 	@Test(expected = IllegalArgumentException.class)
 	public void testTaskDefinitionControllerConstructorMissingRepository() {
-		new TaskDefinitionController(taskExplorer, null, taskService);
+		new TaskDefinitionController(taskExplorer, null, taskService, taskNames -> Collections.emptyList());
 	}
 
 	@Test(expected = IllegalArgumentException.class)
 	public void testTaskDefinitionControllerConstructorMissingTaskExplorer() {
-		new TaskDefinitionController(null, new InMemoryTaskDefinitionRepository(), taskService);
+		new TaskDefinitionController(null, new InMemoryTaskDefinitionRepository(), taskService,
+				taskNames -> Collections.emptyList());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTaskDefinitionControllerConstructorMissingLatestTaskExecutionRepository() {
+		new TaskDefinitionController(taskExplorer, new InMemoryTaskDefinitionRepository(), taskService, null);
 	}
 
 	@Test
@@ -377,6 +387,24 @@ public class TaskControllerTests {
 				.andExpect(jsonPath("$.content[*].status", containsInAnyOrder("RUNNING", "COMPLETE", "UNKNOWN")));
 	}
 
+	@Test
+	public void testGetAllTasksCompact() throws Exception {
+		repository.save(new TaskDefinition("myTask", "timestamp"));
+		repository.save(new TaskDefinition("myTask2", "timestamp"));
+
+		String response = mockMvc.perform(get("/tasks/definitions/").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+		assertThat(response, containsString("/tasks/definitions/myTask"));
+
+		response = mockMvc
+				.perform(get("/tasks/definitions/").accept(DataFlowMediaTypes.COMPACT_JSON, MediaType.APPLICATION_JSON))
+				.andDo(print()).andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(DataFlowMediaTypes.COMPACT_JSON))
+				.andExpect(jsonPath("$.content[*].name", containsInAnyOrder("myTask", "myTask2")))
+				.andReturn().getResponse().getContentAsString();
+		assertThat(response, not(containsString("/tasks/definitions/myTask")));
+	}
+
 	@Test
 	public void testValidate() throws Exception {
 		repository.save(new TaskDefinition("myTask", "foo"));
@@ -38,6 +38,8 @@ import org.springframework.cloud.dataflow.core.TaskDefinition;
 import org.springframework.cloud.dataflow.server.config.apps.CommonApplicationProperties;
 import org.springframework.cloud.dataflow.server.configuration.JobDependencies;
 import org.springframework.cloud.dataflow.server.repository.TaskDefinitionRepository;
+import org.springframework.cloud.dataflow.server.service.ExecutionExportService;
+import org.springframework.cloud.dataflow.server.service.TaskRetentionService;
 import org.springframework.cloud.dataflow.server.service.TaskService;
 import org.springframework.cloud.deployer.spi.task.TaskLauncher;
 import org.springframework.cloud.task.batch.listener.TaskBatchDao;
@@ -55,6 +57,9 @@ import org.springframework.web.context.WebApplicationContext;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -113,6 +118,12 @@ public class TaskExecutionControllerTests {
 	@Autowired
 	private TaskLauncher taskLauncher;
 
+	@Autowired
+	private ExecutionExportService executionExportService;
+
+	@Autowired
+	private TaskRetentionService taskRetentionService;
+
 	@Before
 	public void setupMockMVC() {
 		this.mockMvc = MockMvcBuilders.webAppContextSetup(wac)
@@ -153,17 +164,32 @@ public class TaskExecutionControllerTests {
 
 	@Test(expected = IllegalArgumentException.class)
 	public void testTaskExecutionControllerConstructorMissingExplorer() {
-		new TaskExecutionController(null, taskService, taskDefinitionRepository);
+		new TaskExecutionController(null, taskService, taskDefinitionRepository, executionExportService,
+				taskRetentionService);
 	}
 
 	@Test(expected = IllegalArgumentException.class)
 	public void testTaskExecutionControllerConstructorMissingTaskService() {
-		new TaskExecutionController(taskExplorer, null, taskDefinitionRepository);
+		new TaskExecutionController(taskExplorer, null, taskDefinitionRepository, executionExportService,
+				taskRetentionService);
 	}
 
 	@Test(expected = IllegalArgumentException.class)
 	public void testTaskExecutionControllerConstructorMissingTaskDefinitionRepository() {
-		new TaskExecutionController(taskExplorer, taskService, null);
+		new TaskExecutionController(taskExplorer, taskService, null, executionExportService,
+				taskRetentionService);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTaskExecutionControllerConstructorMissingExecutionExportService() {
+		new TaskExecutionController(taskExplorer, taskService, taskDefinitionRepository, null,
+				taskRetentionService);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTaskExecutionControllerConstructorMissingTaskRetentionService() {
+		new TaskExecutionController(taskExplorer, taskService, taskDefinitionRepository, executionExportService,
+				null);
 	}
 
 	@Test
@@ -234,6 +260,61 @@ public class TaskExecutionControllerTests {
 				.getContentAsString().contains("NoSuchTaskExecutionException");
 	}
 
+	@Test
+	public void testCleanupMultipleIdsNotFound() throws Exception {
+		mockMvc.perform(delete("/tasks/executions/2,10")).andExpect(status().is(404)).andReturn().getResponse()
+				.getContentAsString().contains("NoSuchTaskExecutionException");
+	}
+
+	@Test
+	public void testPurgeKeepsRunningExecutions() throws Exception {
+		mockMvc.perform(delete("/tasks/executions").param("maxExecutionsPerTask", "0")
+				.accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("taskExecutions", is(0)))
+				.andExpect(jsonPath("jobExecutions", is(0)));
+		mockMvc.perform(get("/tasks/executions/").accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk())
+				.andExpect(jsonPath("$.content", hasSize(4)));
+	}
+
+	@Test
+	public void testPurgeByNameWithoutDefinition() throws Exception {
+		mockMvc.perform(delete("/tasks/executions").param("name", TASK_NAME_FOO).param("maxAgeDays", "0")
+				.accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("taskExecutions", is(0)));
+	}
+
+	@Test
+	public void testExportExecutions() throws Exception {
+		String content = mockMvc.perform(get("/tasks/executions/export")
+				.accept(MediaType.valueOf(ExecutionExportService.NDJSON_MEDIA_TYPE)))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(ExecutionExportService.NDJSON_MEDIA_TYPE))
+				.andReturn().getResponse().getContentAsString();
+		String[] lines = content.trim().split("\n");
+		assertEquals(4, lines.length);
+		assertTrue(lines[0].startsWith("{\"executionId\":1,"));
+		assertTrue(lines[0].contains("\"exitCode\":null,"));
+		assertTrue(lines[0].contains("\"taskName\":\"" + TASK_NAME_ORIG + "\""));
+		assertTrue(lines[0].contains("\"--password=******\""));
+		assertFalse(lines[0].contains("dbpass"));
+		assertTrue(lines[3].startsWith("{\"executionId\":4,"));
+		assertTrue(lines[3].contains("\"jobExecutionIds\":[1]"));
+	}
+
+	@Test
+	public void testExportExecutionsAfterContinuationToken() throws Exception {
+		String content = mockMvc.perform(get("/tasks/executions/export").param("after", "2").param("size", "1")
+				.accept(MediaType.valueOf(ExecutionExportService.NDJSON_MEDIA_TYPE)))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		String[] lines = content.trim().split("\n");
+		assertEquals(1, lines.length);
+		assertTrue(lines[0].startsWith("{\"executionId\":3,"));
+		assertTrue(lines[0].contains("\"taskName\":\"" + TASK_NAME_FOO + "\""));
+	}
+
 	private ResultActions verifyTaskArgs(List<String> expectedArgs, String prefix, ResultActions ra) throws Exception {
 		ra.andExpect(jsonPath(prefix + "arguments", hasSize(expectedArgs.size())));
 		for (int argCount = 0; argCount < expectedArgs.size(); argCount++) {
@@ -40,6 +40,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.Assert.assertEquals;
@@ -166,6 +167,27 @@ public class TaskSchedulerControllerTests {
 		assertEquals(0, simpleTestScheduler.list().size());
 	}
 
+	@Test
+	public void testBulkCreateAndRemoveSchedules() throws Exception {
+		this.registry.register("task.testApp", new URI("file:src/test/resources/apps/foo-task"));
+		repository.save(new TaskDefinition("testDefinition", "testApp"));
+		createSampleSchedule("existing");
+		mockMvc.perform(post("/tasks/schedules/bulk").contentType(MediaType.APPLICATION_JSON)
+				.content("[{\"scheduleName\": \"schedule1\", \"taskDefinitionName\": \"testDefinition\", "
+						+ "\"properties\": {\"scheduler.cron.expression\": \"* * * * *\"}},"
+						+ "{\"scheduleName\": \"existing\", \"taskDefinitionName\": \"testDefinition\"},"
+						+ "{\"scheduleName\": \"schedule2\", \"taskDefinitionName\": \"unknown\"}]")
+				.accept(MediaType.APPLICATION_JSON)).andDo(print()).andExpect(status().isOk())
+				.andExpect(jsonPath("$[*].scheduleName", contains("schedule1", "existing", "schedule2")))
+				.andExpect(jsonPath("$[*].success", contains(true, false, false)));
+		assertEquals(2, simpleTestScheduler.list().size());
+
+		mockMvc.perform(delete("/tasks/schedules").param("names", "schedule1,existing")
+				.accept(MediaType.APPLICATION_JSON)).andDo(print()).andExpect(status().isOk())
+				.andExpect(jsonPath("$[*].success", contains(true, true)));
+		assertEquals(0, simpleTestScheduler.list().size());
+	}
+
 	private void createSampleSchedule(String scheduleName) {
 		createSampleSchedule("testDefinition", scheduleName);
 	}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.controller.support;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.cloud.dataflow.rest.resource.AppRegistrationResource;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.web.HateoasPageableHandlerMethodArgumentResolver;
+import org.springframework.data.web.PagedResourcesAssembler;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.ResourceAssembler;
+import org.springframework.hateoas.config.EnableHypermediaSupport;
+import org.springframework.hateoas.core.DefaultRelProvider;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LazyPagedResourcesTests {
+
+	private static final ResourceAssembler<String, AppRegistrationResource> ASSEMBLER = name -> {
+		if (name.startsWith("skip")) {
+			return null;
+		}
+		AppRegistrationResource resource = new AppRegistrationResource(name, "source", "maven://org.example:" + name);
+		resource.add(new Link("http://localhost/apps/source/" + name));
+		return resource;
+	};
+
+	private final PagedResourcesAssembler<String> pagedResourcesAssembler = new PagedResourcesAssembler<>(
+			new HateoasPageableHandlerMethodArgumentResolver(), null);
+
+	private AnnotationConfigApplicationContext context;
+
+	private ObjectMapper objectMapper;
+
+	@Before
+	public void setup() {
+		RequestContextHolder
+				.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest("GET", "/apps")));
+		this.context = new AnnotationConfigApplicationContext(HalConfiguration.class);
+		this.objectMapper = this.context.getBean("_halObjectMapper", ObjectMapper.class);
+		this.objectMapper.addMixIn(LazyPagedResources.class, LazyPagedResources.HalMixIn.class);
+	}
+
+	@After
+	public void tearDown() {
+		this.context.close();
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	@Test
+	public void testSameRepresentationAsAssembledPage() {
+		Page<String> page = page(1, 3, 25, "foo", "skip", "bar");
+		JsonNode expected = this.objectMapper
+				.valueToTree(this.pagedResourcesAssembler.toResource(page(1, 3, 25, "foo", "bar"), ASSEMBLER));
+		JsonNode actual = this.objectMapper
+				.valueToTree(LazyPagedResources.of(page, ASSEMBLER, this.pagedResourcesAssembler));
+
+		assertThat(actual).isEqualTo(expected);
+		assertThat(actual.path("_embedded").path("appRegistrationResourceList")).hasSize(2);
+		assertThat(actual.path("_links").has("next")).isTrue();
+		assertThat(actual.path("page").path("totalElements").asLong()).isEqualTo(25);
+	}
+
+	@Test
+	public void testEmptyPage() {
+		Page<String> page = page(0, 20, 0);
+		JsonNode expected = this.objectMapper.valueToTree(this.pagedResourcesAssembler.toResource(page, ASSEMBLER));
+		JsonNode actual = this.objectMapper
+				.valueToTree(LazyPagedResources.of(page, ASSEMBLER, this.pagedResourcesAssembler));
+
+		assertThat(actual).isEqualTo(expected);
+		assertThat(actual.has("_embedded")).isFalse();
+	}
+
+	@Test
+	public void testItemsAreAssembledWhileWriting() throws Exception {
+		int size = 2000;
+		String[] names = new String[size];
+		for (int i = 0; i < size; i++) {
+			names[i] = "app" + i;
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		List<Integer> writtenBeforeAssembly = new ArrayList<>();
+		ResourceAssembler<String, AppRegistrationResource> recordingAssembler = name -> {
+			writtenBeforeAssembly.add(out.size());
+			return ASSEMBLER.toResource(name);
+		};
+
+		this.objectMapper.writeValue(out,
+				LazyPagedResources.of(page(0, size, size, names), recordingAssembler, this.pagedResourcesAssembler));
+
+		// a page assembled up front would be assembled before a single byte is written
+		assertThat(writtenBeforeAssembly).hasSize(size);
+		assertThat(writtenBeforeAssembly.get(0)).isEqualTo(0);
+		assertThat(writtenBeforeAssembly.get(size - 1)).isGreaterThan(out.size() / 2);
+		assertThat(this.objectMapper.readTree(out.toByteArray()).path("_embedded")
+				.path("appRegistrationResourceList")).hasSize(size);
+	}
+
+	private static Page<String> page(int number, int size, long total, String... names) {
+		List<String> content = new ArrayList<>();
+		for (String name : names) {
+			content.add(name);
+		}
+		return new PageImpl<>(content, new PageRequest(number, size), total);
+	}
+
+	@Configuration
+	@EnableHypermediaSupport(type = EnableHypermediaSupport.HypermediaType.HAL)
+	static class HalConfiguration {
+
+		// as configured by WebConfiguration
+		@Bean
+		public static BeanPostProcessor relProviderOverridingBeanPostProcessor() {
+			return new BeanPostProcessor() {
+
+				@Override
+				public Object postProcessBeforeInitialization(Object bean, String beanName) {
+					return "defaultRelProvider".equals(beanName) ? new DefaultRelProvider() : bean;
+				}
+
+				@Override
+				public Object postProcessAfterInitialization(Object bean, String beanName) {
+					return bean;
+				}
+			};
+		}
+	}
+}
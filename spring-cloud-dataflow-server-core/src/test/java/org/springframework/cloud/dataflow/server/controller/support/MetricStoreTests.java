@@ -0,0 +1,157 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.controller.support;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.cloud.dataflow.server.config.MetricsProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+public class MetricStoreTests {
+
+	private static final String ENDPOINT = "http://collector:8080/collector/metrics/streams";
+
+	private MetricStore metricStore;
+
+	private MockRestServiceServer collector;
+
+	@Before
+	public void setup() {
+		MetricsProperties metricsProperties = new MetricsProperties();
+		metricsProperties.getCollector().setUri("http://collector:8080");
+		metricsProperties.getCollector().setPollInterval(60000);
+		metricStore = new MetricStore(metricsProperties);
+		collector = MockRestServiceServer.bindTo(metricStore.getRestTemplate()).build();
+	}
+
+	@After
+	public void shutdown() {
+		metricStore.destroy();
+	}
+
+	@Test
+	public void testMetricsAreServedFromTheLastSnapshot() throws Exception {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setETag("\"1\"");
+		collector.expect(requestTo(ENDPOINT)).andExpect(method(HttpMethod.GET))
+				.andRespond(withSuccess("{\"_embedded\":{\"applicationsMetricsList\":[{\"name\":\"ticktock\"}]}}",
+						MediaType.parseMediaType("application/hal+json")).headers(headers));
+
+		// the first request has the snapshot fetched in the background
+		assertThat(metricStore.getMetrics()).isEmpty();
+		awaitSnapshot();
+		assertThat(metricStore.getMetrics()).extracting("name").containsExactly("ticktock");
+		assertThat(metricStore.getMetrics()).extracting("name").containsExactly("ticktock");
+		assertThat(metricStore.isStale()).isFalse();
+		assertThat(metricStore.getAge()).isBetween(0L, 60000L);
+		collector.verify();
+	}
+
+	@Test
+	public void testUnchangedAndFailedRefreshesKeepTheSnapshot() throws Exception {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setETag("\"1\"");
+		collector.expect(requestTo(ENDPOINT))
+				.andRespond(withSuccess("{\"_embedded\":{\"applicationsMetricsList\":[{\"name\":\"ticktock\"}]}}",
+						MediaType.parseMediaType("application/hal+json")).headers(headers));
+		collector.expect(requestTo(ENDPOINT)).andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"1\""))
+				.andRespond(withStatus(HttpStatus.NOT_MODIFIED));
+		collector.expect(requestTo(ENDPOINT)).andRespond(withServerError());
+
+		metricStore.getMetrics();
+		awaitSnapshot();
+		assertThat(metricStore.getMetrics()).hasSize(1);
+		metricStore.refresh();
+		assertThat(metricStore.getMetrics()).extracting("name").containsExactly("ticktock");
+		metricStore.refresh();
+		assertThat(metricStore.getMetrics()).extracting("name").containsExactly("ticktock");
+		collector.verify();
+	}
+
+	@Test
+	public void testNothingIsServedBeforeAFirstSnapshot() throws Exception {
+		collector.expect(requestTo(ENDPOINT)).andRespond(withServerError());
+		assertThat(metricStore.getMetrics()).isEmpty();
+		awaitRequests();
+		// the failed attempt is not repeated before the next poll
+		assertThat(metricStore.getMetrics()).isEmpty();
+		assertThat(metricStore.isStale()).isTrue();
+	}
+
+	@Test
+	public void testRequestsDoNotWaitForTheCollector() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		collector.expect(requestTo(ENDPOINT)).andRespond(request -> {
+			try {
+				release.await(10, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return withSuccess("{\"_embedded\":{\"applicationsMetricsList\":[{\"name\":\"ticktock\"}]}}",
+					MediaType.parseMediaType("application/hal+json")).createResponse(request);
+		});
+
+		assertThat(metricStore.getMetrics()).isEmpty();
+		assertThat(metricStore.getMetrics()).isEmpty();
+		release.countDown();
+		awaitSnapshot();
+		assertThat(metricStore.getMetrics()).extracting("name").containsExactly("ticktock");
+		collector.verify();
+	}
+
+	private void awaitSnapshot() throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 10000;
+		while (metricStore.getAge() == Long.MAX_VALUE && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(metricStore.getAge()).as("expected a snapshot").isNotEqualTo(Long.MAX_VALUE);
+	}
+
+	private void awaitRequests() throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 10000;
+		while (true) {
+			try {
+				collector.verify();
+				return;
+			}
+			catch (AssertionError e) {
+				if (System.currentTimeMillis() > deadline) {
+					throw e;
+				}
+				Thread.sleep(10);
+			}
+		}
+	}
+}
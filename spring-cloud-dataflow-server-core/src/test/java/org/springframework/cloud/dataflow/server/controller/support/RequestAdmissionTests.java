@@ -0,0 +1,102 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.controller.support;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.cloud.dataflow.server.controller.TooManyRequestsException;
+import org.springframework.cloud.dataflow.server.support.ConcurrencyLimiter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class RequestAdmissionTests {
+
+	private RequestAdmission requestAdmission;
+
+	private AdmissionHandlerInterceptor interceptor;
+
+	@Before
+	public void setup() {
+		requestAdmission = new RequestAdmission();
+		requestAdmission.addRequestClass("app-details", Collections.singletonList("get"),
+				Arrays.asList("/apps/*/*", "/apps/*/*/*"), new ConcurrencyLimiter(1, 0, 0), 3);
+		requestAdmission.addRequestClass("completions", Collections.emptyList(),
+				Collections.singletonList("/completions/**"), new ConcurrencyLimiter(2, 0, 0), 1);
+		interceptor = new AdmissionHandlerInterceptor(requestAdmission);
+	}
+
+	@Test
+	public void testRequestsBeyondTheLimitOfTheirClassAreRejected() {
+		MockHttpServletRequest first = request("GET", "/apps/source/time");
+		assertThat(interceptor.preHandle(first, new MockHttpServletResponse(), null)).isTrue();
+		try {
+			interceptor.preHandle(request("GET", "/apps/sink/log/1.0.0"), new MockHttpServletResponse(), null);
+			fail("Expected the request to be rejected");
+		}
+		catch (TooManyRequestsException e) {
+			assertThat(e.getRetryAfter()).isEqualTo(3);
+		}
+		// other classes, methods and paths are not affected
+		assertThat(interceptor.preHandle(request("GET", "/completions/stream"), new MockHttpServletResponse(),
+				null)).isTrue();
+		assertThat(interceptor.preHandle(request("POST", "/apps/sink/log"), new MockHttpServletResponse(), null))
+				.isTrue();
+		assertThat(interceptor.preHandle(request("GET", "/apps"), new MockHttpServletResponse(), null)).isTrue();
+
+		interceptor.afterCompletion(first, new MockHttpServletResponse(), null, null);
+		interceptor.afterCompletion(first, new MockHttpServletResponse(), null, null);
+		assertThat(interceptor.preHandle(request("GET", "/apps/sink/log"), new MockHttpServletResponse(), null))
+				.isTrue();
+		assertThat(metrics()).containsEntry("dataflow.admission.app-details.active", 1)
+				.containsEntry("dataflow.admission.app-details.admitted", 2L)
+				.containsEntry("dataflow.admission.app-details.rejected", 1L)
+				.containsEntry("dataflow.admission.completions.limit", 2)
+				.containsEntry("dataflow.admission.completions.active", 1);
+	}
+
+	@Test
+	public void testStreamingResponsesReleaseTheirPermitWhenStarted() {
+		MockHttpServletRequest events = request("GET", "/apps/source/time");
+		interceptor.preHandle(events, new MockHttpServletResponse(), null);
+		interceptor.afterConcurrentHandlingStarted(events, new MockHttpServletResponse(), null);
+		assertThat(metrics()).containsEntry("dataflow.admission.app-details.active", 0);
+	}
+
+	private Map<String, Object> metrics() {
+		Map<String, Object> metrics = new HashMap<>();
+		for (Metric<?> metric : requestAdmission.metrics()) {
+			metrics.put(metric.getName(), metric.getValue());
+		}
+		return metrics;
+	}
+
+	private static MockHttpServletRequest request(String method, String path) {
+		MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+		request.setServletPath(path);
+		return request;
+	}
+}
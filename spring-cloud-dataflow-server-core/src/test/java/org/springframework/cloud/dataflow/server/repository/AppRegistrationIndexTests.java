@@ -0,0 +1,118 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * Verifies the {@code APP_REGISTRATION} indexes of the shipped schema.
+ */
+public class AppRegistrationIndexTests {
+
+	private static final int APP_COUNT = 5000;
+
+	private static final int VERSIONS_PER_APP = 4;
+
+	private static final String BY_VERSION = "select id from APP_REGISTRATION where name = ? and type = ? and version = ?";
+
+	private static final String DEFAULT_VERSION = "select id from APP_REGISTRATION where name = ? and type = ? "
+			+ "and default_Version = true";
+
+	private EmbeddedDatabase database;
+
+	private JdbcTemplate template;
+
+	@Before
+	public void setup() {
+		database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true)
+				.addScript("classpath:schemas/h2/jpa.sql").build();
+		template = new JdbcTemplate(database);
+	}
+
+	@After
+	public void tearDown() {
+		database.shutdown();
+	}
+
+	@Test
+	public void testDuplicateRegistrationIsRejected() {
+		insert(1, "time", 0, "1.0.0", true);
+		insert(2, "time", 1, "1.0.0", true);
+		try {
+			insert(3, "time", 0, "1.0.0", false);
+			fail("Expected a DuplicateKeyException to be thrown.");
+		}
+		catch (DuplicateKeyException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testLookupsUseIndexes() {
+		assertThat(explain(BY_VERSION)).doesNotContain("tableScan");
+		assertThat(explain(DEFAULT_VERSION)).doesNotContain("tableScan");
+	}
+
+	@Test
+	public void testLookupsOnLargeRegistry() {
+		List<Object[]> rows = new ArrayList<>();
+		long id = 0;
+		for (int app = 0; app < APP_COUNT; app++) {
+			for (int version = 0; version < VERSIONS_PER_APP; version++) {
+				rows.add(new Object[] { ++id, "app-" + app, app % 5, version + ".0.0", version == 0 });
+			}
+		}
+		template.batchUpdate("insert into APP_REGISTRATION (id, object_Version, name, type, version, default_Version, "
+				+ "uri) values (?, 0, ?, ?, ?, ?, 'maven://org.example:app:1.0.0')", rows);
+		template.execute("analyze");
+
+		assertThat(explain(BY_VERSION)).doesNotContain("tableScan");
+		assertThat(explain(DEFAULT_VERSION)).doesNotContain("tableScan");
+		for (int app = 0; app < APP_COUNT; app += 997) {
+			long firstId = (long) app * VERSIONS_PER_APP + 1;
+			assertThat(template.queryForList(BY_VERSION, Long.class, "app-" + app, app % 5, "2.0.0"))
+					.containsExactly(firstId + 2);
+			assertThat(template.queryForList(DEFAULT_VERSION, Long.class, "app-" + app, app % 5))
+					.containsExactly(firstId);
+		}
+	}
+
+	private String explain(String query) {
+		return template.queryForObject("explain " + query.replace("?", "'x'").replaceFirst("type = 'x'", "type = 0"),
+				String.class);
+	}
+
+	private void insert(long id, String name, int type, String version, boolean defaultVersion) {
+		template.update("insert into APP_REGISTRATION (id, object_Version, name, type, version, default_Version, uri) "
+				+ "values (?, 0, ?, ?, ?, ?, 'maven://org.example:app:1.0.0')", id, name, type, version,
+				defaultVersion);
+	}
+}
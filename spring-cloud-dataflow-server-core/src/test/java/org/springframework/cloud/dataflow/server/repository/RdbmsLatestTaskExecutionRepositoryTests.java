@@ -0,0 +1,147 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.repository;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.EmbeddedDataSourceConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.dataflow.server.cluster.ClusterChangeEvent;
+import org.springframework.cloud.dataflow.server.configuration.TaskDependencies;
+import org.springframework.cloud.dataflow.server.service.TaskExecutionsPurgedEvent;
+import org.springframework.cloud.dataflow.server.service.TaskRetentionResult;
+import org.springframework.cloud.task.repository.TaskExecution;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = { TaskDependencies.class, EmbeddedDataSourceConfiguration.class,
+		PropertyPlaceholderAutoConfiguration.class })
+@DirtiesContext
+public class RdbmsLatestTaskExecutionRepositoryTests {
+
+	@Autowired
+	private DataSource dataSource;
+
+	private JdbcTemplate template;
+
+	private RdbmsLatestTaskExecutionRepository repository;
+
+	@Before
+	public void setup() {
+		template = new JdbcTemplate(dataSource);
+		template.execute("DELETE FROM task_execution_params");
+		template.execute("DELETE FROM task_execution");
+		repository = new RdbmsLatestTaskExecutionRepository(dataSource);
+	}
+
+	@Test
+	public void testLatestExecutionPerTask() {
+		insertExecution(1L, "foo", new Date());
+		insertExecution(2L, "bar", new Date());
+		insertExecution(3L, "foo", new Date());
+		template.update("INSERT INTO task_execution_params (task_execution_id, task_param) VALUES (?, ?)", 3L,
+				"--foo=bar");
+
+		Map<String, TaskExecution> latest = findLatest("foo", "bar", "baz");
+		assertEquals(2, latest.size());
+		assertEquals(3L, latest.get("foo").getExecutionId());
+		assertEquals(Collections.singletonList("--foo=bar"), latest.get("foo").getArguments());
+		assertEquals(2L, latest.get("bar").getExecutionId());
+	}
+
+	@Test
+	public void testNewAndFinishedExecutionsArePickedUp() {
+		insertExecution(1L, "foo", null);
+		assertNull(findLatest("foo").get("foo").getEndTime());
+
+		template.update("UPDATE task_execution SET end_time = ?, exit_code = 0 WHERE task_execution_id = 1",
+				new Date());
+		insertExecution(2L, "bar", new Date());
+
+		Map<String, TaskExecution> latest = findLatest("foo", "bar");
+		assertNotNull(latest.get("foo").getEndTime());
+		assertEquals(Integer.valueOf(0), latest.get("foo").getExitCode());
+		assertEquals(2L, latest.get("bar").getExecutionId());
+
+		insertExecution(3L, "bar", null);
+		assertEquals(3L, findLatest("bar").get("bar").getExecutionId());
+	}
+
+	@Test
+	public void testPurgeEventReloads() {
+		insertExecution(1L, "foo", new Date());
+		insertExecution(2L, "foo", new Date());
+		assertEquals(2L, findLatest("foo").get("foo").getExecutionId());
+
+		template.update("DELETE FROM task_execution WHERE task_execution_id = 2");
+		repository.onTaskExecutionsPurged(new TaskExecutionsPurgedEvent(this, new TaskRetentionResult(1, 0, 1, 0)));
+
+		assertEquals(1L, findLatest("foo").get("foo").getExecutionId());
+		template.update("DELETE FROM task_execution WHERE task_execution_id = 1");
+		repository.onTaskExecutionsPurged(new TaskExecutionsPurgedEvent(this, new TaskRetentionResult(1, 0, 1, 0)));
+		assertTrue(findLatest("foo").isEmpty());
+	}
+
+	@Test
+	public void testPurgeOnAnotherServerReloads() {
+		insertExecution(1L, "foo", new Date());
+		insertExecution(2L, "foo", new Date());
+		assertEquals(2L, findLatest("foo").get("foo").getExecutionId());
+
+		template.update("DELETE FROM task_execution WHERE task_execution_id = 2");
+		repository.onClusterChange(new ClusterChangeEvent(this, "STREAM_DEFINITIONS"));
+		assertEquals(2L, findLatest("foo").get("foo").getExecutionId());
+		repository.onClusterChange(
+				new ClusterChangeEvent(this, RdbmsLatestTaskExecutionRepository.PURGED_TOPIC));
+		assertEquals(1L, findLatest("foo").get("foo").getExecutionId());
+	}
+
+	private Map<String, TaskExecution> findLatest(String... taskNames) {
+		List<TaskExecution> found = repository.findLatestByTaskNames(Arrays.asList(taskNames));
+		Map<String, TaskExecution> latest = new HashMap<>();
+		for (TaskExecution taskExecution : found) {
+			latest.put(taskExecution.getTaskName(), taskExecution);
+		}
+		return latest;
+	}
+
+	private void insertExecution(long id, String taskName, Date endTime) {
+		template.update("INSERT INTO task_execution (task_execution_id, start_time, end_time, task_name, "
+				+ "exit_code, exit_message, last_updated) VALUES (?,?,?,?,?,?,?)", id, new Date(), endTime, taskName,
+				endTime == null ? null : 0, null, new Date());
+	}
+}
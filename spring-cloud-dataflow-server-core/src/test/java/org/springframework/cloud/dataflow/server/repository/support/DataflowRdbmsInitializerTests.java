@@ -0,0 +1,141 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.repository.support;
+
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.cloud.dataflow.server.config.features.FeaturesProperties;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DataflowRdbmsInitializerTests {
+
+	private EmbeddedDatabase dataSource;
+
+	private JdbcTemplate jdbcTemplate;
+
+	@Before
+	public void setup() {
+		dataSource = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+		jdbcTemplate = new JdbcTemplate(dataSource);
+	}
+
+	@After
+	public void tearDown() {
+		dataSource.shutdown();
+	}
+
+	@Test
+	public void testUnchangedSchemaIsSkipped() throws Exception {
+		initializer(false).afterPropertiesSet();
+		assertThat(tables()).contains("URI_REGISTRY", "STREAM_DEFINITIONS", "TASK_DEFINITIONS",
+				"DATAFLOW_SCHEMA_CHECKSUM");
+
+		jdbcTemplate.execute("DROP TABLE URI_REGISTRY");
+		initializer(false).afterPropertiesSet();
+		assertThat(tables()).doesNotContain("URI_REGISTRY");
+
+		jdbcTemplate.update("UPDATE DATAFLOW_SCHEMA_CHECKSUM SET SCHEMA_CHECKSUM = 'outdated'");
+		initializer(false).afterPropertiesSet();
+		assertThat(tables()).contains("URI_REGISTRY");
+		assertThat(jdbcTemplate.queryForList("SELECT SCHEMA_CHECKSUM FROM DATAFLOW_SCHEMA_CHECKSUM", String.class))
+				.hasSize(1).doesNotContain("outdated");
+	}
+
+	@Test
+	public void testScriptsRunInParallel() throws Exception {
+		initializer(true).afterPropertiesSet();
+		assertThat(tables()).contains("URI_REGISTRY", "STREAM_DEFINITIONS", "STREAM_DEPLOYMENTS",
+				"TASK_DEFINITIONS", "DEPLOYMENT_IDS", "APP_REGISTRATION", "AUDIT_RECORDS");
+	}
+
+	@Test
+	public void testChecksumNotStoredWhenStatementFails() throws Exception {
+		DataflowRdbmsInitializer initializer = initializer(false);
+		initializer.setResourceLoader(commonScript("CREATE TABLE DATAFLOW_SCHEMA_CHECKSUM (SCHEMA_CHECKSUM "
+				+ "VARCHAR(32) NOT NULL);\nINSERT INTO MISSING_TABLE VALUES (1);"));
+		initializer.afterPropertiesSet();
+		assertThat(tables()).contains("DATAFLOW_SCHEMA_CHECKSUM", "STREAM_DEFINITIONS");
+		assertThat(checksums()).isEmpty();
+	}
+
+	@Test
+	public void testChecksumNotStoredWhenTableMissing() throws Exception {
+		DataflowRdbmsInitializer initializer = initializer(true);
+		initializer.setResourceLoader(commonScript("CREATE TABLE DATAFLOW_SCHEMA_CHECKSUM (SCHEMA_CHECKSUM "
+				+ "VARCHAR(32) NOT NULL);\nCREATE TABLE BROKEN_TABLE (ID UNKNOWN_TYPE);"));
+		initializer.afterPropertiesSet();
+		assertThat(tables()).contains("DATAFLOW_SCHEMA_CHECKSUM").doesNotContain("BROKEN_TABLE");
+		assertThat(checksums()).isEmpty();
+	}
+
+	@Test
+	public void testExistingConstraintIsNotAFailure() throws Exception {
+		DataflowRdbmsInitializer initializer = initializer(false);
+		initializer.setResourceLoader(commonScript("CREATE TABLE DATAFLOW_SCHEMA_CHECKSUM (SCHEMA_CHECKSUM "
+				+ "VARCHAR(32) NOT NULL);\nCREATE TABLE CONSTRAINED (ID INT);\n"
+				+ "ALTER TABLE CONSTRAINED ADD CONSTRAINT CONSTRAINED_UK UNIQUE (ID);"));
+		initializer.afterPropertiesSet();
+		assertThat(checksums()).hasSize(1);
+
+		jdbcTemplate.update("UPDATE DATAFLOW_SCHEMA_CHECKSUM SET SCHEMA_CHECKSUM = 'outdated'");
+		initializer.afterPropertiesSet();
+		assertThat(checksums()).hasSize(1).doesNotContain("outdated");
+	}
+
+	private DataflowRdbmsInitializer initializer(boolean parallel) {
+		DataflowRdbmsInitializer initializer = new DataflowRdbmsInitializer(new FeaturesProperties());
+		initializer.setDataSource(dataSource);
+		initializer.setResourceLoader(new DefaultResourceLoader());
+		initializer.setSkipUnchangedSchema(true);
+		initializer.setParallel(parallel);
+		ReflectionTestUtils.setField(initializer, "definitionInitializationEnable", true);
+		return initializer;
+	}
+
+	private static DefaultResourceLoader commonScript(String content) {
+		return new DefaultResourceLoader() {
+
+			@Override
+			public Resource getResource(String location) {
+				return location.endsWith("/common.sql") ? new ByteArrayResource(content.getBytes())
+						: super.getResource(location);
+			}
+		};
+	}
+
+	private List<String> checksums() {
+		return jdbcTemplate.queryForList("SELECT SCHEMA_CHECKSUM FROM DATAFLOW_SCHEMA_CHECKSUM", String.class);
+	}
+
+	private List<String> tables() {
+		return jdbcTemplate.queryForList(
+				"SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = 'PUBLIC'", String.class);
+	}
+}
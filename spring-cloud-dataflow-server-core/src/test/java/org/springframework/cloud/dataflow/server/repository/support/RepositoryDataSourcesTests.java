@@ -0,0 +1,140 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.repository.support;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.cloud.dataflow.server.config.RdbmsProperties;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RepositoryDataSourcesTests {
+
+	private EmbeddedDatabase primary;
+
+	private EmbeddedDatabase replica;
+
+	private RdbmsProperties properties;
+
+	@Before
+	public void setup() {
+		primary = database("primary");
+		replica = database("replica");
+		properties = new RdbmsProperties();
+	}
+
+	@After
+	public void tearDown() {
+		primary.shutdown();
+		replica.shutdown();
+	}
+
+	@Test
+	public void testListingsAreReadFromReplicaUnlessWrittenRecently() {
+		properties.getReplica().setMaxLag(60000);
+		RepositoryJdbcTemplates jdbcTemplates = new RepositoryDataSources(primary, replica, properties)
+				.getJdbcTemplates("test");
+		assertThat(names(jdbcTemplates.getReadOnlyJdbcTemplate())).containsExactly("replica");
+		assertThat(names(jdbcTemplates.getJdbcTemplate())).containsExactly("primary");
+
+		jdbcTemplates.getJdbcTemplate().update("INSERT INTO TEST (NAME) VALUES (?)", "written");
+		assertThat(names(jdbcTemplates.getReadOnlyJdbcTemplate())).containsExactly("primary", "written");
+
+		properties.getReplica().setMaxLag(0);
+		assertThat(names(jdbcTemplates.getReadOnlyJdbcTemplate())).containsExactly("replica");
+	}
+
+	@Test
+	public void testListingsAreReadFromPrimaryInTransactions() {
+		properties.getReplica().setMaxLag(0);
+		RepositoryDataSources dataSources = new RepositoryDataSources(primary, replica, properties);
+		RepositoryJdbcTemplates jdbcTemplates = dataSources.getJdbcTemplates("test");
+		new TransactionTemplate(new DataSourceTransactionManager(primary)).execute(status -> {
+			jdbcTemplates.getJdbcTemplate().update("INSERT INTO TEST (NAME) VALUES (?)", "uncommitted");
+			assertThat(names(jdbcTemplates.getReadOnlyJdbcTemplate())).containsExactly("primary", "uncommitted");
+			status.setRollbackOnly();
+			return null;
+		});
+		assertThat(names(jdbcTemplates.getReadOnlyJdbcTemplate())).containsExactly("replica");
+		assertThat(names(jdbcTemplates.getJdbcTemplate())).containsExactly("primary");
+	}
+
+	@Test
+	public void testWithoutReplica() {
+		RepositoryJdbcTemplates jdbcTemplates = new RepositoryDataSources(primary, null, properties)
+				.getJdbcTemplates("test");
+		assertThat(jdbcTemplates.getReadOnlyJdbcTemplate()).isSameAs(jdbcTemplates.getJdbcTemplate());
+		assertThat(names(jdbcTemplates.getReadOnlyJdbcTemplate())).containsExactly("primary");
+	}
+
+	@Test
+	public void testStatementSettingsAndMetrics() {
+		properties.setFetchSize(50);
+		properties.setQueryTimeout(30);
+		RdbmsProperties.Statements statements = new RdbmsProperties.Statements();
+		statements.setQueryTimeout(7);
+		properties.getRepositories().put("test", statements);
+		properties.getReplica().setMaxLag(0);
+		RepositoryDataSources dataSources = new RepositoryDataSources(primary, replica, properties);
+
+		RepositoryJdbcTemplates jdbcTemplates = dataSources.getJdbcTemplates("test");
+		assertThat(jdbcTemplates.getJdbcTemplate().getFetchSize()).isEqualTo(50);
+		assertThat(jdbcTemplates.getJdbcTemplate().getQueryTimeout()).isEqualTo(7);
+		assertThat(jdbcTemplates.getReadOnlyJdbcTemplate().getQueryTimeout()).isEqualTo(7);
+		assertThat(dataSources.getJdbcTemplates("other").getJdbcTemplate().getQueryTimeout()).isEqualTo(30);
+
+		names(jdbcTemplates.getReadOnlyJdbcTemplate());
+		names(jdbcTemplates.getReadOnlyJdbcTemplate());
+		names(jdbcTemplates.getJdbcTemplate());
+		Map<String, Number> metrics = new HashMap<>();
+		for (Metric<?> metric : dataSources.metrics()) {
+			metrics.put(metric.getName(), metric.getValue());
+		}
+		assertThat(metrics.get("dataflow.datasource.replica.acquired")).isEqualTo(2L);
+		assertThat(metrics.get("dataflow.datasource.primary.acquired")).isEqualTo(1L);
+		assertThat(metrics.get("dataflow.datasource.primary.pending")).isEqualTo(0);
+		assertThat(metrics).containsKeys("dataflow.datasource.replica.wait.total",
+				"dataflow.datasource.replica.wait.mean");
+	}
+
+	private static List<String> names(JdbcOperations jdbcTemplate) {
+		return jdbcTemplate.queryForList("SELECT NAME FROM TEST ORDER BY NAME", String.class);
+	}
+
+	private static EmbeddedDatabase database(String name) {
+		EmbeddedDatabase database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2)
+				.generateUniqueName(true).build();
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+		jdbcTemplate.execute("CREATE TABLE TEST (NAME VARCHAR(20) NOT NULL)");
+		jdbcTemplate.update("INSERT INTO TEST (NAME) VALUES (?)", name);
+		return database;
+	}
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.service.impl;
+
+import java.io.File;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.springframework.cloud.dataflow.core.ApplicationType;
+import org.springframework.cloud.dataflow.registry.AppRegistryCommon;
+import org.springframework.cloud.dataflow.registry.domain.AppRegistration;
+import org.springframework.cloud.dataflow.server.service.AppMetadataPrefetchProperties;
+import org.springframework.cloud.dataflow.server.service.AppMetadataPrefetchStatus;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AppMetadataPrefetcherTests {
+
+	private AppRegistryCommon appRegistry = mock(AppRegistryCommon.class);
+
+	private AppMetadataPrefetchProperties properties = new AppMetadataPrefetchProperties();
+
+	private CountDownLatch release = new CountDownLatch(1);
+
+	private AppMetadataPrefetcher prefetcher;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Before
+	public void setup() throws Exception {
+		when(appRegistry.getAppMetadataResource(any(AppRegistration.class))).thenAnswer(invocation -> {
+			release.await(10, TimeUnit.SECONDS);
+			return new ByteArrayResource(new byte[10]);
+		});
+		File file = folder.newFile();
+		Files.write(file.toPath(), new byte[10]);
+		when(appRegistry.getResourceFile(any(Resource.class))).thenReturn(file);
+	}
+
+	@After
+	public void tearDown() {
+		release.countDown();
+		if (prefetcher != null) {
+			prefetcher.destroy();
+		}
+	}
+
+	@Test
+	public void testDuplicatesAreFetchedOnce() throws Exception {
+		prefetcher = new AppMetadataPrefetcher(appRegistry, properties, null, null);
+		prefetcher.prefetch(Arrays.asList(registration("http://repo/foo.jar"), registration("http://repo/foo.jar")));
+		prefetcher.prefetch(Collections.singletonList(registration("http://repo/foo.jar")));
+		assertThat(prefetcher.getStatus().getDeduplicated()).isEqualTo(2);
+
+		release.countDown();
+		AppMetadataPrefetchStatus status = await(s -> s.getCompleted() == 1);
+		assertThat(status.getSubmitted()).isEqualTo(1);
+		assertThat(status.getDownloadedBytes()).isEqualTo(10);
+		assertThat(status.getInFlight()).isEqualTo(0);
+	}
+
+	@Test
+	public void testConcurrencyIsLimitedPerHost() throws Exception {
+		properties.setPerHostConcurrency(1);
+		prefetcher = new AppMetadataPrefetcher(appRegistry, properties, null, null);
+		prefetcher.prefetch(Arrays.asList(registration("http://a/foo.jar"), registration("http://a/bar.jar"),
+				registration("http://b/foo.jar"), registration("maven://org.example:foo:jar:metadata:1.0.0")));
+
+		AppMetadataPrefetchStatus status = prefetcher.getStatus();
+		assertThat(status.getInFlight()).isEqualTo(3);
+		assertThat(status.getQueued()).isEqualTo(1);
+		assertThat(status.getInFlightByHost()).containsEntry("a", 1).containsEntry("b", 1).containsEntry("maven", 1);
+
+		release.countDown();
+		await(s -> s.getCompleted() == 4);
+	}
+
+	@Test
+	public void testQueueIsBounded() throws Exception {
+		properties.setThreads(1);
+		properties.setQueueCapacity(2);
+		prefetcher = new AppMetadataPrefetcher(appRegistry, properties, null, null);
+		prefetcher.prefetch(Arrays.asList(registration("http://a/foo.jar"), registration("http://a/bar.jar"),
+				registration("http://a/baz.jar")));
+
+		AppMetadataPrefetchStatus status = prefetcher.getStatus();
+		assertThat(status.getInFlight()).isEqualTo(1);
+		assertThat(status.getQueued()).isEqualTo(1);
+		assertThat(status.getRejected()).isEqualTo(1);
+	}
+
+	@Test
+	public void testFailedFetchesAreRetried() throws Exception {
+		doThrow(new IllegalStateException("unreachable")).when(appRegistry)
+				.getAppMetadataResource(any(AppRegistration.class));
+		properties.setMaxAttempts(3);
+		properties.setInitialBackoff(10);
+		prefetcher = new AppMetadataPrefetcher(appRegistry, properties, null, null);
+		prefetcher.prefetch(Collections.singletonList(registration("http://a/foo.jar")));
+
+		AppMetadataPrefetchStatus status = await(s -> s.getFailed() == 1);
+		assertThat(status.getRetried()).isEqualTo(2);
+		assertThat(status.getQueued()).isEqualTo(0);
+		assertThat(status.getRecentFailures()).containsEntry("http://a/foo.jar", "unreachable");
+	}
+
+	private AppMetadataPrefetchStatus await(Predicate<AppMetadataPrefetchStatus> condition)
+			throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 10000;
+		AppMetadataPrefetchStatus status = prefetcher.getStatus();
+		while (!condition.test(status) && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+			status = prefetcher.getStatus();
+		}
+		assertThat(condition.test(status)).isTrue();
+		return status;
+	}
+
+	private static AppRegistration registration(String metadataUri) {
+		return new AppRegistration("foo", ApplicationType.source, "1.0.0", URI.create("http://repo/app.jar"),
+				URI.create(metadataUri));
+	}
+}
@@ -19,6 +19,7 @@ package org.springframework.cloud.dataflow.server.service.impl;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -42,7 +43,10 @@ import org.springframework.cloud.dataflow.core.TaskDefinition;
 import org.springframework.cloud.dataflow.registry.AppRegistry;
 import org.springframework.cloud.dataflow.registry.AppRegistryCommon;
 import org.springframework.cloud.dataflow.registry.domain.AppRegistration;
+import org.springframework.cloud.dataflow.rest.CreateScheduleRequest;
+import org.springframework.cloud.dataflow.rest.ScheduleResult;
 import org.springframework.cloud.dataflow.server.DockerValidatorProperties;
+import org.springframework.cloud.dataflow.server.cluster.ClusterChangeEvent;
 import org.springframework.cloud.dataflow.server.config.apps.CommonApplicationProperties;
 import org.springframework.cloud.dataflow.server.configuration.TaskServiceDependencies;
 import org.springframework.cloud.dataflow.server.repository.TaskDefinitionRepository;
@@ -62,9 +66,11 @@ import org.springframework.test.context.junit4.SpringRunner;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -189,6 +195,49 @@ public class DefaultSchedulerServiceTests {
 
 	}
 
+	@Test
+	@DirtiesContext
+	public void testBulkSchedule() {
+		List<CreateScheduleRequest> requests = new ArrayList<>();
+		requests.add(new CreateScheduleRequest(BASE_SCHEDULE_NAME + 1, BASE_DEFINITION_NAME, this.testProperties, null));
+		requests.add(new CreateScheduleRequest(BASE_SCHEDULE_NAME + 2, "unknownDefinition", this.testProperties, null));
+		requests.add(new CreateScheduleRequest(BASE_SCHEDULE_NAME + 3, CTR_DEFINITION_NAME, this.testProperties, null));
+		requests.add(new CreateScheduleRequest(BASE_SCHEDULE_NAME + 4, BASE_DEFINITION_NAME, this.testProperties,
+				this.commandLineArgs));
+
+		List<ScheduleResult> results = schedulerService.schedule(requests);
+
+		assertThat(results).extracting("scheduleName").containsExactly(BASE_SCHEDULE_NAME + 1,
+				BASE_SCHEDULE_NAME + 2, BASE_SCHEDULE_NAME + 3, BASE_SCHEDULE_NAME + 4);
+		assertThat(results).extracting("success").containsExactly(true, false, true, true);
+		assertThat(results.get(1).getErrorMessage()).contains("unknownDefinition");
+		validateSchedulesCount(3);
+		verifyScheduleExistsInScheduler(createScheduleInfo(BASE_SCHEDULE_NAME + 1));
+		verifyScheduleExistsInScheduler(createScheduleInfo(BASE_SCHEDULE_NAME + 3, CTR_DEFINITION_NAME));
+		verifyScheduleExistsInScheduler(createScheduleInfo(BASE_SCHEDULE_NAME + 4));
+		assertThat(schedulerService.list(BASE_DEFINITION_NAME).size()).isEqualTo(2);
+	}
+
+	@Test
+	@DirtiesContext
+	public void testBulkUnschedule() {
+		schedulerService.schedule(BASE_SCHEDULE_NAME + 1,
+				BASE_DEFINITION_NAME, this.testProperties, this.commandLineArgs);
+		schedulerService.schedule(BASE_SCHEDULE_NAME + 2,
+				BASE_DEFINITION_NAME, this.testProperties, this.commandLineArgs);
+		schedulerService.schedule(BASE_SCHEDULE_NAME + 3,
+				BASE_DEFINITION_NAME, this.testProperties, this.commandLineArgs);
+
+		List<ScheduleResult> results = schedulerService.unschedule(
+				Arrays.asList(BASE_SCHEDULE_NAME + 1, BASE_SCHEDULE_NAME + 3));
+
+		assertThat(results).extracting("success").containsExactly(true, true);
+		assertThat(results.get(0).getTaskDefinitionName()).isEqualTo(BASE_DEFINITION_NAME);
+		validateSchedulesCount(1);
+		verifyScheduleExistsInScheduler(createScheduleInfo(BASE_SCHEDULE_NAME + 2));
+		assertThat(schedulerService.getSchedule(BASE_SCHEDULE_NAME + 1)).isNull();
+	}
+
 	@Test
 	@DirtiesContext
 	public void testEmptyUnschedule(){
@@ -227,16 +276,110 @@ public class DefaultSchedulerServiceTests {
 		assertThat(schedules.size()).isEqualTo(MAX_COUNT);
 	}
 
-	@Test(expected = UnsupportedOperationException.class)
+	@Test
 	@DirtiesContext
 	public void testListPaginated() {
-		schedulerService.list(new PageRequest(0, 1));
+		for (int i = 1; i <= 5; i++) {
+			schedulerService.schedule(BASE_SCHEDULE_NAME + i,
+					BASE_DEFINITION_NAME, this.testProperties, this.commandLineArgs);
+		}
+		List<ScheduleInfo> schedules = schedulerService.list(new PageRequest(1, 2));
+		assertThat(schedules.size()).isEqualTo(2);
+		assertThat(schedules.get(0).getScheduleName()).isEqualTo(BASE_SCHEDULE_NAME + 3);
+		assertThat(schedules.get(1).getScheduleName()).isEqualTo(BASE_SCHEDULE_NAME + 4);
+		assertThat(schedulerService.list(new PageRequest(2, 2)).size()).isEqualTo(1);
+		assertThat(schedulerService.list(new PageRequest(3, 2)).size()).isEqualTo(0);
 	}
 
-	@Test(expected = UnsupportedOperationException.class)
+	@Test
 	@DirtiesContext
 	public void testListWithParamsPaginated() {
-		schedulerService.list(new PageRequest(0, 1), BASE_DEFINITION_NAME);
+		taskDefinitionRepository.save(new TaskDefinition(BASE_DEFINITION_NAME + 1, "demo"));
+		schedulerService.schedule(BASE_SCHEDULE_NAME + 1,
+				BASE_DEFINITION_NAME, this.testProperties, this.commandLineArgs);
+		schedulerService.schedule(BASE_SCHEDULE_NAME + 2,
+				BASE_DEFINITION_NAME + 1, this.testProperties, this.commandLineArgs);
+		schedulerService.schedule(BASE_SCHEDULE_NAME + 3,
+				BASE_DEFINITION_NAME, this.testProperties, this.commandLineArgs);
+
+		List<ScheduleInfo> schedules = schedulerService.list(new PageRequest(1, 1), BASE_DEFINITION_NAME);
+		assertThat(schedules.size()).isEqualTo(1);
+		assertThat(schedules.get(0).getScheduleName()).isEqualTo(BASE_SCHEDULE_NAME + 3);
+		assertThat(schedulerService.list(new PageRequest(0, 10), BASE_DEFINITION_NAME + 2)).isEmpty();
+	}
+
+	@Test
+	@DirtiesContext
+	public void testGetSchedule() {
+		schedulerService.schedule(BASE_SCHEDULE_NAME + 1,
+				BASE_DEFINITION_NAME, this.testProperties, this.commandLineArgs);
+		ScheduleInfo scheduleInfo = schedulerService.getSchedule(BASE_SCHEDULE_NAME + 1);
+		verifyScheduleExistsInScheduler(scheduleInfo);
+		assertThat(scheduleInfo.getScheduleProperties()).isEqualTo(this.resolvedProperties);
+
+		schedulerService.unschedule(BASE_SCHEDULE_NAME + 1);
+		assertThat(schedulerService.getSchedule(BASE_SCHEDULE_NAME + 1)).isNull();
+	}
+
+	@Test
+	@DirtiesContext
+	public void testCatalogReconciledWithScheduler() {
+		schedulerService.schedule(BASE_SCHEDULE_NAME + 1,
+				BASE_DEFINITION_NAME, this.testProperties, this.commandLineArgs);
+		assertThat(schedulerService.list().size()).isEqualTo(1);
+
+		ScheduleInfo external = createScheduleInfo(BASE_SCHEDULE_NAME + 2);
+		((TaskServiceDependencies.SimpleTestScheduler)simpleTestScheduler).getSchedules().add(external);
+		assertThat(schedulerService.getSchedule(BASE_SCHEDULE_NAME + 2)).isNull();
+
+		schedulerServiceProperties.setCatalogRefreshInterval(0);
+		assertThat(schedulerService.getSchedule(BASE_SCHEDULE_NAME + 2)).isNotNull();
+		assertThat(schedulerService.list(BASE_DEFINITION_NAME).size()).isEqualTo(2);
+	}
+
+	@Test
+	public void testCatalogNotServedEmptyWhenFirstLoadFails() {
+		Scheduler mockScheduler = mock(Scheduler.class);
+		DefaultSchedulerService service = createSchedulerService(mockScheduler, 60000);
+		try {
+			when(mockScheduler.list()).thenThrow(new IllegalStateException("scheduler unavailable"))
+					.thenReturn(Collections.singletonList(createScheduleInfo(BASE_SCHEDULE_NAME)));
+			try {
+				service.list();
+				fail("Expected an IllegalStateException to be thrown.");
+			}
+			catch (IllegalStateException e) {
+				assertThat(e.getMessage()).isEqualTo("scheduler unavailable");
+			}
+			assertThat(service.list()).hasSize(1);
+			assertThat(service.list()).hasSize(1);
+			verify(mockScheduler, times(2)).list();
+		}
+		finally {
+			service.destroy();
+		}
+	}
+
+	@Test
+	public void testClusterChangeKeptUntilReconciled() throws Exception {
+		Scheduler mockScheduler = mock(Scheduler.class);
+		DefaultSchedulerService service = createSchedulerService(mockScheduler, 100);
+		try {
+			when(mockScheduler.list()).thenReturn(Collections.emptyList());
+			assertThat(service.list()).isEmpty();
+
+			when(mockScheduler.list()).thenThrow(new IllegalStateException("scheduler unavailable"))
+					.thenReturn(Collections.singletonList(createScheduleInfo(BASE_SCHEDULE_NAME)));
+			service.onApplicationEvent(new ClusterChangeEvent(this, DefaultSchedulerService.SCHEDULES_TOPIC));
+			long deadline = System.currentTimeMillis() + 5000;
+			while (service.getSchedule(BASE_SCHEDULE_NAME) == null && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			assertThat(service.getSchedule(BASE_SCHEDULE_NAME)).isNotNull();
+		}
+		finally {
+			service.destroy();
+		}
 	}
 
 	@Test
@@ -312,6 +455,15 @@ public class DefaultSchedulerServiceTests {
 		return scheduleRequestArgumentCaptor.getValue().getCommandlineArguments();
 	}
 
+	private DefaultSchedulerService createSchedulerService(Scheduler scheduler, long catalogRefreshInterval) {
+		SchedulerServiceProperties properties = new SchedulerServiceProperties();
+		properties.setCatalogRefreshInterval(catalogRefreshInterval);
+		return new DefaultSchedulerService(mock(CommonApplicationProperties.class), scheduler,
+				mock(TaskDefinitionRepository.class), mock(AppRegistryCommon.class), mock(ResourceLoader.class),
+				mock(TaskConfigurationProperties.class), mock(DataSourceProperties.class), "uri",
+				mock(ApplicationConfigurationMetadataResolver.class), properties);
+	}
+
 	private void verifyScheduleExistsInScheduler(ScheduleInfo scheduleInfo) {
 		List<ScheduleInfo> scheduleInfos = ((TaskServiceDependencies.SimpleTestScheduler)simpleTestScheduler).getSchedules();
 		scheduleInfos = scheduleInfos.stream().filter(s -> s.getScheduleName().
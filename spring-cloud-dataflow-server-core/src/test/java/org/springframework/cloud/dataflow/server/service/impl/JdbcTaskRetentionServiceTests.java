@@ -0,0 +1,247 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.metrics.CounterService;
+import org.springframework.boot.actuate.metrics.GaugeService;
+import org.springframework.boot.autoconfigure.batch.BatchProperties;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.EmbeddedDataSourceConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.dataflow.rest.resource.TaskExecutionStatus;
+import org.springframework.cloud.dataflow.server.config.apps.CommonApplicationProperties;
+import org.springframework.cloud.dataflow.server.configuration.JobDependencies;
+import org.springframework.cloud.dataflow.server.service.TaskRetentionPolicy;
+import org.springframework.cloud.dataflow.server.service.TaskRetentionResult;
+import org.springframework.cloud.dataflow.server.service.TaskRetentionService;
+import org.springframework.cloud.task.batch.listener.TaskBatchDao;
+import org.springframework.cloud.task.repository.TaskExecution;
+import org.springframework.cloud.task.repository.TaskExplorer;
+import org.springframework.cloud.task.repository.dao.TaskExecutionDao;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = { EmbeddedDataSourceConfiguration.class, JobDependencies.class,
+		PropertyPlaceholderAutoConfiguration.class, BatchProperties.class })
+@EnableConfigurationProperties({ CommonApplicationProperties.class })
+@DirtiesContext
+public class JdbcTaskRetentionServiceTests {
+
+	@Autowired
+	private TaskRetentionService taskRetentionService;
+
+	@Autowired
+	private TaskExecutionDao dao;
+
+	@Autowired
+	private TaskExplorer taskExplorer;
+
+	@Autowired
+	private JobRepository jobRepository;
+
+	@Autowired
+	private TaskBatchDao taskBatchDao;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private DataSourceTransactionManager transactionManager;
+
+	private JdbcTemplate jdbcTemplate;
+
+	@Before
+	public void setup() {
+		this.jdbcTemplate = new JdbcTemplate(this.dataSource);
+	}
+
+	@Test
+	public void testCountPolicyKeepsMostRecentAndRunning() {
+		String taskName = "retentionByCount";
+		TaskExecution first = createExecution(taskName, 0, 1);
+		TaskExecution second = createExecution(taskName, 0, 1);
+		TaskExecution running = this.dao.createTaskExecution(taskName, new Date(),
+				Collections.singletonList("--foo=bar"), null);
+		TaskExecution last = createExecution(taskName, 0, 1);
+
+		TaskRetentionPolicy policy = new TaskRetentionPolicy();
+		policy.setMaxExecutionsPerTask(1);
+		policy.setTaskName(taskName);
+		TaskRetentionResult result = this.taskRetentionService.purge(policy);
+
+		assertEquals(2, result.getTaskExecutions());
+		assertEquals(1, result.getChunks());
+		assertNull(this.taskExplorer.getTaskExecution(first.getExecutionId()));
+		assertNull(this.taskExplorer.getTaskExecution(second.getExecutionId()));
+		assertNotNull(this.taskExplorer.getTaskExecution(running.getExecutionId()));
+		assertNotNull(this.taskExplorer.getTaskExecution(last.getExecutionId()));
+		assertEquals(Integer.valueOf(0), this.jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM TASK_EXECUTION_PARAMS WHERE TASK_EXECUTION_ID = ?", Integer.class,
+				first.getExecutionId()));
+	}
+
+	@Test
+	public void testAgePolicyRemovesJobExecutionsInChunks() {
+		String taskName = "retentionByAge";
+		TaskExecution withJob = createExecution(taskName, 0, 10);
+		JobInstance instance = this.jobRepository.createJobInstance(taskName, new JobParameters());
+		JobExecution jobExecution = this.jobRepository.createJobExecution(instance, new JobParameters(), null);
+		this.taskBatchDao.saveRelationship(withJob, jobExecution);
+		createExecution(taskName, 0, 10);
+		createExecution(taskName, 1, 10);
+		TaskExecution other = createExecution("retentionByAgeOther", 0, 10);
+		TaskExecution recent = createExecution(taskName, 0, 1);
+
+		TaskRetentionPolicy policy = new TaskRetentionPolicy();
+		policy.setMaxAgeDays(5);
+		policy.setTaskName(taskName);
+		TaskRetentionResult result = this.taskRetentionService.purge(policy);
+
+		assertEquals(3, result.getTaskExecutions());
+		assertEquals(1, result.getJobExecutions());
+		assertEquals(2, result.getChunks());
+		assertNotNull(this.taskExplorer.getTaskExecution(recent.getExecutionId()));
+		assertNotNull(this.taskExplorer.getTaskExecution(other.getExecutionId()));
+		assertEquals(Integer.valueOf(0), this.jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM BATCH_JOB_EXECUTION WHERE JOB_EXECUTION_ID = ?", Integer.class,
+				jobExecution.getId()));
+		assertEquals(Integer.valueOf(0), this.jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM BATCH_JOB_INSTANCE WHERE JOB_INSTANCE_ID = ?", Integer.class,
+				instance.getId()));
+		assertEquals(Integer.valueOf(0), this.jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM TASK_TASK_BATCH WHERE TASK_EXECUTION_ID = ?", Integer.class,
+				withJob.getExecutionId()));
+	}
+
+	@Test
+	public void testJobExecutionsBeyondInListLimitAreRemoved() {
+		String taskName = "retentionWithManyJobs";
+		TaskExecution withJobs = createExecution(taskName, 0, 10);
+		JobInstance instance = this.jobRepository.createJobInstance(taskName, new JobParameters());
+		int jobExecutions = JdbcTaskRetentionService.MAX_IN_LIST_SIZE + 1;
+		List<Object[]> jobRows = new ArrayList<>();
+		List<Object[]> relationshipRows = new ArrayList<>();
+		for (long id = 100_000; id < 100_000 + jobExecutions; id++) {
+			jobRows.add(new Object[] { id, instance.getId(), new Date() });
+			relationshipRows.add(new Object[] { withJobs.getExecutionId(), id });
+		}
+		this.jdbcTemplate.batchUpdate("INSERT INTO BATCH_JOB_EXECUTION (JOB_EXECUTION_ID, VERSION, "
+				+ "JOB_INSTANCE_ID, CREATE_TIME) VALUES (?, 0, ?, ?)", jobRows);
+		this.jdbcTemplate.batchUpdate("INSERT INTO TASK_TASK_BATCH (TASK_EXECUTION_ID, JOB_EXECUTION_ID) "
+				+ "VALUES (?, ?)", relationshipRows);
+
+		TaskRetentionPolicy policy = new TaskRetentionPolicy();
+		policy.setMaxAgeDays(5);
+		policy.setTaskName(taskName);
+		TaskRetentionResult result = this.taskRetentionService.purge(policy);
+
+		assertEquals(1, result.getTaskExecutions());
+		assertEquals(jobExecutions, result.getJobExecutions());
+		assertEquals(Integer.valueOf(0), this.jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM BATCH_JOB_EXECUTION WHERE JOB_INSTANCE_ID = ?", Integer.class,
+				instance.getId()));
+		assertEquals(Integer.valueOf(0), this.jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM BATCH_JOB_INSTANCE WHERE JOB_INSTANCE_ID = ?", Integer.class,
+				instance.getId()));
+	}
+
+	@Test
+	public void testStatusAndNameRestrictPolicy() {
+		String taskName = "retentionByStatus";
+		TaskExecution complete = createExecution(taskName, 0, 10);
+		TaskExecution failed = createExecution(taskName, 1, 10);
+		TaskExecution otherFailed = createExecution("retentionByStatusOther", 1, 10);
+
+		TaskRetentionPolicy policy = new TaskRetentionPolicy();
+		policy.setMaxAgeDays(5);
+		policy.setStatuses(EnumSet.of(TaskExecutionStatus.ERROR));
+		policy.setTaskName(taskName);
+		TaskRetentionResult result = this.taskRetentionService.purge(policy);
+
+		assertEquals(1, result.getTaskExecutions());
+		assertNotNull(this.taskExplorer.getTaskExecution(complete.getExecutionId()));
+		assertNull(this.taskExplorer.getTaskExecution(failed.getExecutionId()));
+		assertNotNull(this.taskExplorer.getTaskExecution(otherFailed.getExecutionId()));
+	}
+
+	@Test
+	public void testNoPolicyRemovesNothing() {
+		createExecution("retentionWithoutPolicy", 0, 10);
+		TaskRetentionResult result = this.taskRetentionService.purge(new TaskRetentionPolicy());
+		assertEquals(0, result.getTaskExecutions());
+		assertEquals(0, result.getChunks());
+	}
+
+	@Test
+	public void testMetricsAreUpdatedOncePerChunk() {
+		String taskName = "retentionWithMetrics";
+		for (int i = 0; i < 5; i++) {
+			createExecution(taskName, 0, 10);
+		}
+		CounterService counterService = mock(CounterService.class);
+		GaugeService gaugeService = mock(GaugeService.class);
+		JdbcTaskRetentionService service = new JdbcTaskRetentionService(this.dataSource, this.transactionManager,
+				2, counterService, gaugeService);
+
+		TaskRetentionPolicy policy = new TaskRetentionPolicy();
+		policy.setMaxAgeDays(5);
+		policy.setTaskName(taskName);
+		TaskRetentionResult result = service.purge(policy);
+
+		assertEquals(5, result.getTaskExecutions());
+		assertEquals(3, result.getChunks());
+		verify(counterService, times(3)).increment("task.retention.chunks.deleted");
+		verify(gaugeService).submit("task.retention.last.task-executions.deleted", 5);
+	}
+
+	private TaskExecution createExecution(String taskName, int exitCode, int endedDaysAgo) {
+		Date endTime = new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(endedDaysAgo));
+		TaskExecution execution = this.dao.createTaskExecution(taskName, endTime,
+				Collections.singletonList("--foo=bar"), null);
+		this.dao.completeTaskExecution(execution.getExecutionId(), exitCode, endTime, null);
+		return execution;
+	}
+}
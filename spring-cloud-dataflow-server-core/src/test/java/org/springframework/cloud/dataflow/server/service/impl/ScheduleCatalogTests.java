@@ -0,0 +1,82 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.service.impl;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import org.springframework.cloud.scheduler.spi.core.ScheduleInfo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ScheduleCatalogTests {
+
+	@Test
+	public void testIndexesFollowUpdates() {
+		ScheduleCatalog catalog = new ScheduleCatalog();
+		catalog.put(scheduleInfo("b", "foo"));
+		catalog.put(scheduleInfo("a", "foo"));
+		catalog.put(scheduleInfo("c", "bar"));
+
+		assertThat(catalog.list(0, 10)).extracting("scheduleName").containsExactly("a", "b", "c");
+		assertThat(catalog.list("foo", 1, 10)).extracting("scheduleName").containsExactly("b");
+
+		catalog.put(scheduleInfo("b", "bar"));
+		assertThat(catalog.list("foo", 0, 10)).extracting("scheduleName").containsExactly("a");
+		assertThat(catalog.list("bar", 0, 10)).extracting("scheduleName").containsExactly("b", "c");
+
+		catalog.remove("a");
+		assertThat(catalog.get("a")).isNull();
+		assertThat(catalog.list("foo", 0, 10)).isEmpty();
+		assertThat(catalog.size()).isEqualTo(2);
+	}
+
+	@Test
+	public void testReplaceAllIsSkippedAfterConcurrentChange() {
+		ScheduleCatalog catalog = new ScheduleCatalog();
+		assertThat(catalog.getLastReconciled()).isEqualTo(-1);
+
+		long version = catalog.getVersion();
+		catalog.put(scheduleInfo("created", "foo"));
+		assertThat(catalog.replaceAll(Collections.singletonList(scheduleInfo("old", "foo")), version)).isFalse();
+		assertThat(catalog.get("created")).isNotNull();
+		assertThat(catalog.getLastReconciled()).isEqualTo(-1);
+
+		assertThat(catalog.replaceAll(Arrays.asList(scheduleInfo("created", "foo"), scheduleInfo("external", "bar")),
+				catalog.getVersion())).isTrue();
+		assertThat(catalog.list(0, 10)).extracting("scheduleName").containsExactly("created", "external");
+		assertThat(catalog.getLastReconciled()).isGreaterThan(0);
+	}
+
+	@Test
+	public void testReturnedSchedulesAreCopies() {
+		ScheduleCatalog catalog = new ScheduleCatalog();
+		catalog.put(scheduleInfo("a", "foo"));
+		catalog.get("a").setTaskDefinitionName("bar");
+		assertThat(catalog.get("a").getTaskDefinitionName()).isEqualTo("foo");
+	}
+
+	private static ScheduleInfo scheduleInfo(String scheduleName, String taskDefinitionName) {
+		ScheduleInfo scheduleInfo = new ScheduleInfo();
+		scheduleInfo.setScheduleName(scheduleName);
+		scheduleInfo.setTaskDefinitionName(taskDefinitionName);
+		scheduleInfo.setScheduleProperties(Collections.singletonMap("spring.cloud.scheduler.cron.expression", "* * * * *"));
+		return scheduleInfo;
+	}
+}
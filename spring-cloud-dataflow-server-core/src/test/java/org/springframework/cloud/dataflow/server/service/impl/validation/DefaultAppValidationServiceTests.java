@@ -16,6 +16,7 @@
 
 package org.springframework.cloud.dataflow.server.service.impl.validation;
 
+import java.io.File;
 import java.net.URI;
 
 import org.apache.http.conn.ssl.NoopHostnameVerifier;
@@ -70,7 +71,7 @@ public class DefaultAppValidationServiceTests {
 
 	@Test
 	@DirtiesContext
-	public void validateValidTaskTest() {
+	public void validateValidTaskTest() throws Exception {
 		initializeSuccessfulRegistry(this.appRegistry);
 		assertTrue(appValidationService.validate("AAA", ApplicationType.task));
 	}
@@ -82,6 +83,16 @@ public class DefaultAppValidationServiceTests {
 		assertFalse(appValidationService.validate("AAA", ApplicationType.task));
 	}
 
+	@Test
+	@DirtiesContext
+	public void validateCorruptArchiveTest() throws Exception {
+		when(appRegistry.find(anyString(), any(ApplicationType.class))).thenReturn(
+				new AppRegistration("some-name", ApplicationType.task, URI.create("http://helloworld")));
+		when(appRegistry.getAppResource(any())).thenReturn(new FileSystemResource("src/test/resources/test.yml"));
+		when(appRegistry.getResourceFile(any())).thenReturn(new File("src/test/resources/test.yml"));
+		assertFalse(appValidationService.validate("AAA", ApplicationType.task));
+	}
+
 	@Test
 	@DirtiesContext
 	public void validateInvalidDockerTest() {
@@ -104,10 +115,11 @@ public class DefaultAppValidationServiceTests {
 		assertFalse(appValidationService.validate("AAA", ApplicationType.task));
 	}
 
-	private void initializeSuccessfulRegistry(AppRegistry appRegistry) {
+	private void initializeSuccessfulRegistry(AppRegistry appRegistry) throws Exception {
 		when(appRegistry.find(anyString(), any(ApplicationType.class))).thenReturn(
 				new AppRegistration("some-name", ApplicationType.task, URI.create("http://helloworld")));
 		when(appRegistry.getAppResource(any())).thenReturn(new FileSystemResource("src/test/resources/apps/foo-task"));
+		when(appRegistry.getResourceFile(any())).thenReturn(new File("src/test/resources/apps/foo-task"));
 		when(appRegistry.getAppMetadataResource(any())).thenReturn(null);
 	}
 
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.service.impl.validation;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.cloud.dataflow.server.DockerValidatorProperties;
+import org.springframework.cloud.deployer.resource.docker.DockerResource;
+import org.springframework.web.client.HttpClientErrorException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link DockerRegistryClient} against a local stand-in for the registry.
+ */
+public class DockerRegistryClientTests {
+
+	private HttpServer server;
+
+	private ExecutorService executor;
+
+	private final AtomicInteger logins = new AtomicInteger();
+
+	private final List<String> tagRequests = new CopyOnWriteArrayList<>();
+
+	private final List<String> authorizations = new CopyOnWriteArrayList<>();
+
+	private volatile long tokenExpiry = System.currentTimeMillis() / 1000 + 3600;
+
+	private volatile int unauthorizedResponses;
+
+	private volatile long tagsDelay;
+
+	private volatile String tags = "{\"count\":2,\"results\":[{\"name\":\"1.0\"},{\"name\":\"latest\"}]}";
+
+	private DockerValidatorProperties properties;
+
+	@Before
+	public void setup() throws IOException {
+		this.executor = Executors.newCachedThreadPool();
+		this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		this.server.setExecutor(this.executor);
+		this.server.createContext("/login", exchange -> {
+			int login = this.logins.incrementAndGet();
+			respond(exchange, 200, "{\"token\":\"" + token(login) + "\"}");
+		});
+		this.server.createContext("/repositories", exchange -> {
+			this.tagRequests.add(exchange.getRequestURI().getPath());
+			this.authorizations.add(exchange.getRequestHeaders().getFirst("Authorization"));
+			sleep(this.tagsDelay);
+			if (this.unauthorizedResponses > 0) {
+				this.unauthorizedResponses--;
+				respond(exchange, 401, "{}");
+			}
+			else if (exchange.getRequestURI().getPath().contains("/missing/")) {
+				respond(exchange, 404, "{}");
+			}
+			else {
+				respond(exchange, 200, this.tags);
+			}
+		});
+		this.server.start();
+		String url = "http://localhost:" + this.server.getAddress().getPort();
+		this.properties = new DockerValidatorProperties();
+		this.properties.setDockerAuthUrl(url + "/login");
+		this.properties.setDockerRegistryUrl(url + "/repositories");
+		this.properties.setUserName("user");
+		this.properties.setPassword("secret");
+	}
+
+	@After
+	public void tearDown() {
+		this.server.stop(0);
+		this.executor.shutdownNow();
+	}
+
+	@Test
+	public void testTagsAndTokenAreReused() throws IOException {
+		try (DockerRegistryClient client = new DockerRegistryClient(this.properties)) {
+			assertThat(client.getTags("springcloud/foo")).containsExactly("1.0", "latest");
+			assertThat(client.getTags("springcloud/foo")).containsExactly("1.0", "latest");
+			assertThat(client.getTags("springcloud/bar")).containsExactly("1.0", "latest");
+		}
+		assertThat(this.logins.get()).isEqualTo(1);
+		assertThat(this.tagRequests).containsExactly("/repositories/springcloud/foo/tags/",
+				"/repositories/springcloud/bar/tags/");
+		assertThat(this.authorizations).containsOnly("JWT " + token(1));
+	}
+
+	@Test
+	public void testTagsExpire() throws IOException {
+		this.properties.setTagCacheTtlInMillis(0);
+		try (DockerRegistryClient client = new DockerRegistryClient(this.properties)) {
+			client.getTags("springcloud/foo");
+			client.getTags("springcloud/foo");
+		}
+		assertThat(this.tagRequests).hasSize(2);
+		assertThat(this.logins.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void testExpiredTokenIsRenewed() throws IOException {
+		this.tokenExpiry = System.currentTimeMillis() / 1000 - 60;
+		this.properties.setTagCacheTtlInMillis(0);
+		try (DockerRegistryClient client = new DockerRegistryClient(this.properties)) {
+			client.getTags("springcloud/foo");
+			client.getTags("springcloud/foo");
+		}
+		assertThat(this.logins.get()).isEqualTo(2);
+		assertThat(this.authorizations).containsExactly("JWT " + token(1), "JWT " + token(2));
+	}
+
+	@Test
+	public void testRejectedTokenIsRenewed() throws IOException {
+		this.unauthorizedResponses = 1;
+		try (DockerRegistryClient client = new DockerRegistryClient(this.properties)) {
+			assertThat(client.getTags("springcloud/foo")).contains("1.0");
+		}
+		assertThat(this.logins.get()).isEqualTo(2);
+		assertThat(this.authorizations).containsExactly("JWT " + token(1), "JWT " + token(2));
+	}
+
+	@Test
+	public void testConcurrentLookupsShareOneRequest() throws Exception {
+		this.tagsDelay = 200;
+		ExecutorService callers = Executors.newFixedThreadPool(8);
+		try (DockerRegistryClient client = new DockerRegistryClient(this.properties)) {
+			List<Future<?>> lookups = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				lookups.add(callers.submit(() -> client.getTags("springcloud/foo")));
+			}
+			for (Future<?> lookup : lookups) {
+				assertThat(lookup.get()).isNotNull();
+			}
+		}
+		finally {
+			callers.shutdownNow();
+		}
+		assertThat(this.tagRequests).hasSize(1);
+		assertThat(this.logins.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void testMissingRepository() throws IOException {
+		try (DockerRegistryClient client = new DockerRegistryClient(this.properties)) {
+			try {
+				client.getTags("springcloud/missing");
+				fail("Expected HttpClientErrorException");
+			}
+			catch (HttpClientErrorException e) {
+				assertThat(e.getRawStatusCode()).isEqualTo(404);
+			}
+		}
+	}
+
+	@Test
+	public void testValidatorsShareClient() throws IOException {
+		try (DockerRegistryClient client = new DockerRegistryClient(this.properties)) {
+			assertThat(new DockerRegistryValidator(client, new DockerResource("springcloud/foo:1.0"))
+					.isImagePresent()).isTrue();
+			assertThat(new DockerRegistryValidator(client, new DockerResource("springcloud/foo:2.0"))
+					.isImagePresent()).isFalse();
+			assertThat(new DockerRegistryValidator(client, new DockerResource("springcloud/missing:1.0"))
+					.isImagePresent()).isFalse();
+		}
+		assertThat(this.tagRequests).hasSize(3);
+		assertThat(this.logins.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void testMissingTagIsNotTakenFromCache() throws IOException {
+		try (DockerRegistryClient client = new DockerRegistryClient(this.properties)) {
+			assertThat(client.hasTag("springcloud/foo", "2.0")).isFalse();
+			this.tags = "{\"count\":2,\"results\":[{\"name\":\"1.0\"},{\"name\":\"2.0\"}]}";
+			assertThat(client.hasTag("springcloud/foo", "2.0")).isTrue();
+			assertThat(client.hasTag("springcloud/foo", "1.0")).isTrue();
+			assertThat(client.getTags("springcloud/foo")).containsExactly("1.0", "2.0");
+		}
+		assertThat(this.tagRequests).hasSize(2);
+	}
+
+	private String token(int login) {
+		Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+		String claims = "{\"sub\":\"user\",\"jti\":\"" + login + "\",\"exp\":" + this.tokenExpiry + "}";
+		return encoder.encodeToString("{\"alg\":\"none\"}".getBytes(StandardCharsets.UTF_8)) + "."
+				+ encoder.encodeToString(claims.getBytes(StandardCharsets.UTF_8)) + ".signature";
+	}
+
+	private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().add("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status, bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
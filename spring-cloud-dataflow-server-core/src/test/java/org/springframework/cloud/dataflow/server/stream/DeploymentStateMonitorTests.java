@@ -0,0 +1,221 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.stream;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.cloud.dataflow.core.StreamDefinition;
+import org.springframework.cloud.dataflow.server.repository.StreamDefinitionRepository;
+import org.springframework.cloud.deployer.spi.app.AppStatus;
+import org.springframework.cloud.deployer.spi.app.DeploymentState;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DeploymentStateMonitorTests {
+
+	private final StreamDefinition foo = new StreamDefinition("foo", "time | log");
+
+	private final StreamDefinition bar = new StreamDefinition("bar", "time | log");
+
+	private StreamDefinitionRepository streamDefinitionRepository;
+
+	private StreamDeployer streamDeployer;
+
+	private DeploymentStateMonitor monitor;
+
+	@Before
+	public void setup() {
+		this.streamDefinitionRepository = mock(StreamDefinitionRepository.class);
+		this.streamDeployer = mock(StreamDeployer.class);
+		// scheduled polls do not interfere, only the one for the first listener runs
+		this.monitor = new DeploymentStateMonitor(this.streamDefinitionRepository, this.streamDeployer,
+				TimeUnit.HOURS.toMillis(1));
+	}
+
+	@After
+	public void tearDown() {
+		this.monitor.destroy();
+	}
+
+	@Test
+	public void testListenersReceiveCurrentStateThenChanges() throws Exception {
+		when(this.streamDefinitionRepository.findAll()).thenReturn(Arrays.asList(this.foo, this.bar));
+		streamStates(DeploymentState.deploying, DeploymentState.undeployed);
+
+		Recorder<DeploymentState> first = new Recorder<>();
+		this.monitor.addStreamStateListener(first);
+		assertThat(first.next().changed).containsOnly(entry("foo", DeploymentState.deploying),
+				entry("bar", DeploymentState.undeployed));
+
+		streamStates(DeploymentState.deployed, DeploymentState.undeployed);
+		this.monitor.poll();
+		assertThat(first.next().changed).containsOnly(entry("foo", DeploymentState.deployed));
+
+		Recorder<DeploymentState> second = new Recorder<>();
+		this.monitor.addStreamStateListener(second);
+		assertThat(second.next().changed).containsOnly(entry("foo", DeploymentState.deployed),
+				entry("bar", DeploymentState.undeployed));
+
+		this.monitor.poll();
+		assertThat(first.events).isEmpty();
+
+		when(this.streamDefinitionRepository.findAll()).thenReturn(Collections.singletonList(this.foo));
+		when(this.streamDeployer.streamsStates(any()))
+				.thenReturn(Collections.singletonMap(this.foo, DeploymentState.deployed));
+		this.monitor.removeStreamStateListener(second);
+		this.monitor.poll();
+		Recorded<DeploymentState> removal = first.next();
+		assertThat(removal.changed).isEmpty();
+		assertThat(removal.removed).containsExactly("bar");
+		assertThat(second.events).isEmpty();
+		verify(this.streamDeployer, never()).getAppStatuses(any());
+	}
+
+	@Test
+	public void testFailingListenerIsRemoved() throws Exception {
+		when(this.streamDeployer.getAppStatuses(any())).thenAnswer(invocation -> {
+			Pageable pageable = (Pageable) invocation.getArguments()[0];
+			return new PageImpl<>(Collections.singletonList(
+					AppStatus.of("foo.log").generalState(DeploymentState.deployed).build()), pageable, 1);
+		});
+		Recorder<AppStatus> failing = new Recorder<AppStatus>() {
+
+			@Override
+			public void changed(Map<String, AppStatus> changed, Set<String> removed) throws Exception {
+				super.changed(changed, removed);
+				throw new IllegalStateException("gone");
+			}
+		};
+		this.monitor.addAppStatusListener(failing);
+		assertThat(failing.next().changed).containsOnlyKeys("foo.log");
+
+		when(this.streamDeployer.getAppStatuses(any())).thenReturn(new PageImpl<>(Collections.singletonList(
+				AppStatus.of("foo.log").generalState(DeploymentState.failed).build()), new PageRequest(0, 100), 1));
+		this.monitor.poll();
+		assertThat(failing.events).isEmpty();
+	}
+
+	@Test
+	public void testListenerFallingBehindIsDropped() throws Exception {
+		when(this.streamDefinitionRepository.findAll()).thenReturn(Arrays.asList(this.foo, this.bar));
+		streamStates(DeploymentState.deploying, DeploymentState.undeployed);
+		this.monitor.setMaxPendingUpdates(1);
+		CountDownLatch blocked = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch dropped = new CountDownLatch(1);
+		Recorder<DeploymentState> slow = new Recorder<DeploymentState>() {
+
+			@Override
+			public void changed(Map<String, DeploymentState> changed, Set<String> removed) throws Exception {
+				super.changed(changed, removed);
+				blocked.countDown();
+				release.await(10, TimeUnit.SECONDS);
+			}
+
+			@Override
+			public void dropped() {
+				dropped.countDown();
+			}
+		};
+		Recorder<DeploymentState> fast = new Recorder<>();
+		this.monitor.addStreamStateListener(slow);
+		assertThat(blocked.await(10, TimeUnit.SECONDS)).isTrue();
+		this.monitor.addStreamStateListener(fast);
+		fast.next();
+
+		// the polls are not held up by the blocked listener
+		streamStates(DeploymentState.deployed, DeploymentState.undeployed);
+		this.monitor.poll();
+		streamStates(DeploymentState.deployed, DeploymentState.deploying);
+		this.monitor.poll();
+		assertThat(fast.next().changed).containsOnly(entry("foo", DeploymentState.deployed));
+		assertThat(fast.next().changed).containsOnly(entry("bar", DeploymentState.deploying));
+
+		release.countDown();
+		assertThat(dropped.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(slow.next().changed).containsOnlyKeys("foo", "bar");
+		streamStates(DeploymentState.deployed, DeploymentState.deployed);
+		this.monitor.poll();
+		fast.next();
+		assertThat(slow.events).isEmpty();
+	}
+
+	@Test
+	public void testSameStatusComparesInstanceStates() {
+		AppStatus deployed = AppStatus.of("foo.log").generalState(DeploymentState.deployed).build();
+		assertThat(DeploymentStateMonitor.sameStatus(deployed,
+				AppStatus.of("foo.log").generalState(DeploymentState.deployed).build())).isTrue();
+		assertThat(DeploymentStateMonitor.sameStatus(deployed,
+				AppStatus.of("foo.log").generalState(DeploymentState.failed).build())).isFalse();
+	}
+
+	private void streamStates(DeploymentState fooState, DeploymentState barState) {
+		Map<StreamDefinition, DeploymentState> states = new HashMap<>();
+		states.put(this.foo, fooState);
+		states.put(this.bar, barState);
+		when(this.streamDeployer.streamsStates(any())).thenReturn(states);
+	}
+
+	private static class Recorded<T> {
+
+		private final Map<String, T> changed;
+
+		private final Set<String> removed;
+
+		Recorded(Map<String, T> changed, Set<String> removed) {
+			this.changed = changed;
+			this.removed = removed;
+		}
+	}
+
+	private static class Recorder<T> implements DeploymentStateMonitor.Listener<T> {
+
+		private final BlockingQueue<Recorded<T>> events = new LinkedBlockingQueue<>();
+
+		@Override
+		public void changed(Map<String, T> changed, Set<String> removed) throws Exception {
+			this.events.add(new Recorded<>(changed, removed));
+		}
+
+		Recorded<T> next() throws InterruptedException {
+			Recorded<T> recorded = this.events.poll(10, TimeUnit.SECONDS);
+			assertThat(recorded).as("expected a notification").isNotNull();
+			return recorded;
+		}
+	}
+}
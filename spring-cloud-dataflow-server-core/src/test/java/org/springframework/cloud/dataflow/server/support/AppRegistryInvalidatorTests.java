@@ -0,0 +1,80 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.support;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.cloud.dataflow.registry.AppRegistryCommon;
+import org.springframework.cloud.dataflow.server.cluster.InMemoryClusterCoordinator;
+import org.springframework.cloud.dataflow.server.support.ChangeVersions.Domain;
+import org.springframework.context.support.GenericApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class AppRegistryInvalidatorTests {
+
+	private final AppRegistryCommon appRegistry = mock(AppRegistryCommon.class);
+
+	private final ChangeVersions changeVersions = new ChangeVersions(60000, 60000);
+
+	private final InMemoryClusterCoordinator otherServer = new InMemoryClusterCoordinator();
+
+	private GenericApplicationContext context;
+
+	@Before
+	public void setup() {
+		context = new GenericApplicationContext();
+		context.addApplicationListener(changeVersions);
+		context.addApplicationListener(new AppRegistryInvalidator(appRegistry));
+		context.refresh();
+		otherServer.join().setApplicationEventPublisher(context);
+	}
+
+	@After
+	public void close() {
+		context.close();
+	}
+
+	@Test
+	public void testRegistryIsInvalidatedBeforeTheVersionIsIncremented() {
+		long version = changeVersions.getVersion(Domain.APP_REGISTRATIONS);
+		AtomicLong versionWhenInvalidated = new AtomicLong(-1);
+		doAnswer(invocation -> {
+			versionWhenInvalidated.set(changeVersions.getVersion(Domain.APP_REGISTRATIONS));
+			return null;
+		}).when(appRegistry).invalidate();
+
+		otherServer.publish(Domain.APP_REGISTRATIONS.name());
+
+		assertThat(versionWhenInvalidated.get()).isEqualTo(version);
+		assertThat(changeVersions.getVersion(Domain.APP_REGISTRATIONS)).isEqualTo(version + 1);
+	}
+
+	@Test
+	public void testOtherChangesKeepTheRegistry() {
+		otherServer.publish(Domain.STREAM_DEFINITIONS.name());
+		verify(appRegistry, never()).invalidate();
+	}
+}
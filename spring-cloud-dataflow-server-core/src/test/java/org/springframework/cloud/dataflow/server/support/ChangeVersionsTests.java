@@ -0,0 +1,115 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.support;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.springframework.cloud.dataflow.server.cluster.ClusterCoordinator;
+import org.springframework.cloud.dataflow.server.service.TaskExecutionsPurgedEvent;
+import org.springframework.cloud.dataflow.server.service.TaskRetentionResult;
+import org.springframework.cloud.dataflow.server.support.ChangeVersions.Domain;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class ChangeVersionsTests {
+
+	@After
+	public void clearSynchronization() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	public void testETagFollowsChangesOfItsDomains() {
+		ChangeVersions changeVersions = new ChangeVersions(60000, 60000);
+		String definitions = changeVersions.getETag(Domain.STREAM_DEFINITIONS, Domain.APP_STATUSES);
+		String registrations = changeVersions.getETag(Domain.APP_REGISTRATIONS);
+		assertThat(definitions).startsWith("\"").endsWith("\"");
+		assertThat(changeVersions.getETag(Domain.STREAM_DEFINITIONS, Domain.APP_STATUSES)).isEqualTo(definitions);
+
+		changeVersions.changed(Domain.APP_STATUSES);
+		assertThat(changeVersions.getETag(Domain.STREAM_DEFINITIONS, Domain.APP_STATUSES)).isNotEqualTo(definitions);
+		assertThat(changeVersions.getETag(Domain.APP_REGISTRATIONS)).isEqualTo(registrations);
+	}
+
+	@Test
+	public void testChangeInTransactionIsRecordedOnCompletion() {
+		ChangeVersions changeVersions = new ChangeVersions(60000, 60000);
+		long version = changeVersions.getVersion(Domain.TASK_DEFINITIONS);
+		TransactionSynchronizationManager.initSynchronization();
+		changeVersions.changed(Domain.TASK_DEFINITIONS);
+		assertThat(changeVersions.getVersion(Domain.TASK_DEFINITIONS)).isEqualTo(version);
+
+		for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+			synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+		}
+		assertThat(changeVersions.getVersion(Domain.TASK_DEFINITIONS)).isEqualTo(version + 1);
+	}
+
+	@Test
+	public void testOnlyCommittedChangesArePublished() {
+		ChangeVersions changeVersions = new ChangeVersions(60000, 60000);
+		ClusterCoordinator clusterCoordinator = mock(ClusterCoordinator.class);
+		changeVersions.setClusterCoordinator(clusterCoordinator);
+		TransactionSynchronizationManager.initSynchronization();
+		changeVersions.changed(Domain.TASK_DEFINITIONS);
+		for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+			synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+		}
+		verify(clusterCoordinator, never()).publish(anyString());
+
+		TransactionSynchronizationManager.clearSynchronization();
+		changeVersions.changed(Domain.TASK_DEFINITIONS);
+		verify(clusterCoordinator).publish(Domain.TASK_DEFINITIONS.name());
+	}
+
+	@Test
+	public void testAppStatusesAreNotPublished() {
+		ChangeVersions changeVersions = new ChangeVersions(60000, 60000);
+		ClusterCoordinator clusterCoordinator = mock(ClusterCoordinator.class);
+		changeVersions.setClusterCoordinator(clusterCoordinator);
+		changeVersions.changed(Domain.APP_STATUSES);
+		verify(clusterCoordinator, never()).publish(anyString());
+	}
+
+	@Test
+	public void testVersionsExpire() {
+		ChangeVersions changeVersions = new ChangeVersions(60000, 0);
+		long statuses = changeVersions.getVersion(Domain.APP_STATUSES);
+		long definitions = changeVersions.getVersion(Domain.STREAM_DEFINITIONS);
+		assertThat(changeVersions.getVersion(Domain.APP_STATUSES)).isGreaterThan(statuses);
+		assertThat(changeVersions.getVersion(Domain.STREAM_DEFINITIONS)).isEqualTo(definitions);
+	}
+
+	@Test
+	public void testPurgeChangesTaskExecutions() {
+		ChangeVersions changeVersions = new ChangeVersions(60000, 60000);
+		long version = changeVersions.getVersion(Domain.TASK_EXECUTIONS);
+		changeVersions.onApplicationEvent(new TaskExecutionsPurgedEvent(this, new TaskRetentionResult(1, 0, 1, 0)));
+		assertThat(changeVersions.getVersion(Domain.TASK_EXECUTIONS)).isEqualTo(version + 1);
+		assertThat(changeVersions.getLastModified(Domain.TASK_EXECUTIONS))
+				.isGreaterThanOrEqualTo(changeVersions.getLastModified(Domain.TASK_DEFINITIONS));
+	}
+}
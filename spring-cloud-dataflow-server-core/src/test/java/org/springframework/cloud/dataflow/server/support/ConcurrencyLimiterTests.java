@@ -0,0 +1,78 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.support;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConcurrencyLimiterTests {
+
+	@Test
+	public void testRejectsOnceTheQueueIsFull() {
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter(2, 0, 1000);
+		assertThat(limiter.acquire()).isTrue();
+		assertThat(limiter.acquire()).isTrue();
+		assertThat(limiter.acquire()).isFalse();
+		assertThat(limiter.getActive()).isEqualTo(2);
+		assertThat(limiter.getAdmitted()).isEqualTo(2);
+		assertThat(limiter.getRejected()).isEqualTo(1);
+
+		limiter.release();
+		assertThat(limiter.acquire()).isTrue();
+	}
+
+	@Test
+	public void testRejectsOnceTheWaitTimesOut() {
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1, 10);
+		assertThat(limiter.acquire()).isTrue();
+		assertThat(limiter.acquire()).isFalse();
+		assertThat(limiter.getQueued()).isEqualTo(0);
+		assertThat(limiter.getRejected()).isEqualTo(1);
+	}
+
+	@Test
+	public void testQueuedCallerIsAdmittedOnRelease() throws Exception {
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1, 10000);
+		assertThat(limiter.acquire()).isTrue();
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			CountDownLatch started = new CountDownLatch(1);
+			Future<Boolean> queued = executor.submit(() -> {
+				started.countDown();
+				return limiter.acquire();
+			});
+			started.await();
+			while (limiter.getQueued() == 0) {
+				Thread.sleep(5);
+			}
+			assertThat(limiter.acquire()).isFalse();
+			limiter.release();
+			assertThat(queued.get(10, TimeUnit.SECONDS)).isTrue();
+			assertThat(limiter.getActive()).isEqualTo(1);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.dataflow.server.support;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.cloud.dataflow.server.repository.DeploymentIdRepository;
+import org.springframework.core.Ordered;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class LatencyRecorderTests {
+
+	@Test
+	public void testPercentilesCoverMostRecentCalls() {
+		LatencyRecorder recorder = new LatencyRecorder(4, 1000, Collections.emptyMap());
+		for (long millis = 1; millis <= 6; millis++) {
+			recorder.record("skipper.status", () -> null, millis * 1_000_000, millis == 6);
+		}
+		Map<String, Number> metrics = metrics(recorder);
+		assertThat(metrics).contains(entry("dataflow.latency.skipper.status.count", 6L),
+				entry("dataflow.latency.skipper.status.errors", 1L),
+				entry("dataflow.latency.skipper.status.mean", 4.5),
+				entry("dataflow.latency.skipper.status.max", 6.0),
+				entry("dataflow.latency.skipper.status.p50", 4.0),
+				entry("dataflow.latency.skipper.status.p99", 6.0));
+	}
+
+	@Test
+	public void testSlowCallThresholdIsMatchedByLongestPrefix() {
+		Map<String, Long> thresholds = new HashMap<>();
+		thresholds.put("repository", 10L);
+		thresholds.put("repository.stream-definitions.findAll", 100L);
+		LatencyRecorder recorder = new LatencyRecorder(16, 1000, thresholds);
+		assertThat(recorder.getSlowCallThreshold("repository.stream-definitions.findAll")).isEqualTo(100);
+		assertThat(recorder.getSlowCallThreshold("repository.stream-definitions.findOne")).isEqualTo(10);
+		assertThat(recorder.getSlowCallThreshold("skipper.status")).isEqualTo(1000);
+		assertThat(recorder.record("repository.deployment-ids.findOne", () -> "foo", 20_000_000, false)).isTrue();
+		assertThat(recorder.record("skipper.status", () -> "foo", 20_000_000, false)).isFalse();
+	}
+
+	@Test
+	public void testBreakdownCollectsCallsOfCurrentThread() {
+		LatencyRecorder recorder = new LatencyRecorder(16, 1000, Collections.emptyMap());
+		recorder.record("skipper.status", () -> null, 1, false);
+		recorder.startBreakdown();
+		recorder.record("skipper.status", () -> null, 2, false);
+		recorder.record("skipper.status", () -> null, 3, false);
+		recorder.record("metadata.listProperties", () -> null, 4, false);
+		Map<String, long[]> calls = recorder.finishBreakdown();
+		assertThat(calls).containsOnlyKeys("skipper.status", "metadata.listProperties");
+		assertThat(calls.get("skipper.status")).containsExactly(2, 5);
+		assertThat(recorder.finishBreakdown()).isEmpty();
+	}
+
+	@Test
+	public void testInstrumentedBeanIsInterfaceProxyAndRecordsSeamMethods() {
+		LatencyRecorder recorder = new LatencyRecorder(16, 1000, Collections.emptyMap());
+		BeanFactory beanFactory = mock(BeanFactory.class);
+		when(beanFactory.getBean(LatencyRecorder.class)).thenReturn(recorder);
+		LatencyInstrumentingPostProcessor postProcessor = new LatencyInstrumentingPostProcessor();
+		postProcessor.setBeanFactory(beanFactory);
+
+		Object bean = postProcessor.postProcessAfterInitialization(new FailingDeploymentIdRepository(),
+				"deploymentIdRepository");
+		assertThat(AopUtils.isJdkDynamicProxy(bean)).isTrue();
+		assertThat(bean).isInstanceOf(Ordered.class);
+		DeploymentIdRepository repository = (DeploymentIdRepository) bean;
+		assertThat(repository.findOne("foo")).isEqualTo("foo-id");
+		try {
+			repository.delete("foo");
+			fail("expected the delete to fail");
+		}
+		catch (IllegalStateException e) {
+		}
+		assertThat(((Ordered) bean).getOrder()).isEqualTo(1);
+
+		Map<String, Number> metrics = metrics(recorder);
+		assertThat(metrics).contains(entry("dataflow.latency.repository.deployment-ids.findOne.count", 1L),
+				entry("dataflow.latency.repository.deployment-ids.delete.errors", 1L));
+		assertThat(metrics).doesNotContainKey("dataflow.latency.repository.deployment-ids.getOrder.count");
+		assertThat(postProcessor.postProcessAfterInitialization("foo", "foo")).isEqualTo("foo");
+	}
+
+	private static Map<String, Number> metrics(LatencyRecorder recorder) {
+		Map<String, Number> metrics = new HashMap<>();
+		for (Metric<?> metric : recorder.metrics()) {
+			metrics.put(metric.getName(), metric.getValue());
+		}
+		return metrics;
+	}
+
+	static class FailingDeploymentIdRepository implements DeploymentIdRepository, Ordered {
+
+		@Override
+		public void save(String key, String id) {
+		}
+
+		@Override
+		public String findOne(String key) {
+			return key + "-id";
+		}
+
+		@Override
+		public void delete(String key) {
+			throw new IllegalStateException("delete failed");
+		}
+
+		@Override
+		public int getOrder() {
+			return 1;
+		}
+	}
+}